@@ -0,0 +1,137 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Turns values of one type into bytes and back, for maps that keep
+ *  their entries outside the Java heap or write them to files.
+ *  Decoding reads from absolute positions, so it never moves a
+ *  buffer's position and a shared buffer can be decoded from freely.
+ *  @author Ryan Demo
+ *  @param <T> the type of value
+ */
+public interface Codec<T> {
+
+    /** UTF-8 strings. */
+    Codec<String> STRING = new Codec<String>() {
+        @Override
+        public byte[] encode(String value) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String decode(ByteBuffer buffer, int offset, int length) {
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = buffer.get(offset + i);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /** Integers, as 4 big endian bytes. */
+    Codec<Integer> INTEGER = new Codec<Integer>() {
+        @Override
+        public byte[] encode(Integer value) {
+            return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+        }
+
+        @Override
+        public Integer decode(ByteBuffer buffer, int offset, int length) {
+            return buffer.getInt(offset);
+        }
+    };
+
+    /** Posting lists, as a kind byte and then the list's toBytes:
+     *  RoaringPostings as themselves, any other kind compressed. */
+    Codec<PostingList> POSTINGS = new Codec<PostingList>() {
+        /** Kind byte of CompressedPostings. */
+        private static final byte COMPRESSED = 0;
+
+        /** Kind byte of RoaringPostings. */
+        private static final byte ROARING = 1;
+
+        @Override
+        public byte[] encode(PostingList value) {
+            byte kind;
+            byte[] body;
+            if (value instanceof RoaringPostings) {
+                kind = ROARING;
+                body = ((RoaringPostings) value).toBytes();
+            } else {
+                kind = COMPRESSED;
+                body = (value instanceof CompressedPostings
+                        ? (CompressedPostings) value
+                        : CompressedPostings.of(value.toArray())).toBytes();
+            }
+            return ByteBuffer.allocate(1 + body.length).put(kind).put(body)
+                    .array();
+        }
+
+        @Override
+        public PostingList decode(ByteBuffer buffer, int offset,
+                int length) {
+            if (buffer.get(offset) == ROARING) {
+                return RoaringPostings.fromBytes(buffer, offset + 1,
+                        length - 1);
+            }
+            return CompressedPostings.fromBytes(buffer, offset + 1,
+                    length - 1);
+        }
+    };
+
+    /** Lists of strings, like JHUgle's URL lists: a count, then each
+     *  string as a length and its UTF-8 bytes. */
+    Codec<List<String>> STRING_LIST = new Codec<List<String>>() {
+        @Override
+        public byte[] encode(List<String> value) {
+            byte[][] strings = new byte[value.size()][];
+            int size = Integer.BYTES;
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = STRING.encode(value.get(i));
+                size += Integer.BYTES + strings[i].length;
+            }
+            ByteBuffer out = ByteBuffer.allocate(size);
+            out.putInt(strings.length);
+            for (byte[] s : strings) {
+                out.putInt(s.length).put(s);
+            }
+            return out.array();
+        }
+
+        @Override
+        public List<String> decode(ByteBuffer buffer, int offset,
+                int length) {
+            int count = buffer.getInt(offset);
+            List<String> list = new ArrayList<String>(count);
+            int at = offset + Integer.BYTES;
+            for (int i = 0; i < count; i++) {
+                int n = buffer.getInt(at);
+                list.add(STRING.decode(buffer, at + Integer.BYTES, n));
+                at += Integer.BYTES + n;
+            }
+            return list;
+        }
+    };
+
+    /** Turn a value into bytes.
+     *  @param value the value, not null
+     *  @return the bytes
+     */
+    byte[] encode(T value);
+
+    /** Read a value back from bytes made by encode.
+     *  @param buffer the buffer holding the bytes
+     *  @param offset the absolute position of the first byte
+     *  @param length the number of bytes
+     *  @return the value
+     */
+    T decode(ByteBuffer buffer, int offset, int length);
+}
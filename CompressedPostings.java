@@ -0,0 +1,253 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/** An immutable posting list stored as the gaps between its IDs in
+ *  variable byte form: 7 bits to a byte, the high bit set on every
+ *  byte but a gap's last, so the runs of nearby pages that common
+ *  terms have take a byte each instead of four. IDs are in blocks of
+ *  BLOCK_SIZE, with the last ID and starting byte of each block kept
+ *  as a skip pointer. A cursor decodes one gap per step, and advance
+ *  jumps over whole blocks it has no use for without reading them.
+ *  @author Ryan Demo
+ */
+public final class CompressedPostings implements PostingList {
+
+    /** IDs per block, and so per skip pointer. */
+    static final int BLOCK_SIZE = 128;
+
+    /** Payload bits in each byte of a gap. */
+    private static final int PAYLOAD_BITS = 7;
+
+    /** Mask for the payload bits of a byte. */
+    private static final int PAYLOAD = 0x7f;
+
+    /** Flag on every byte of a gap but the last. */
+    private static final int MORE = 0x80;
+
+    /** Most bytes one gap can take. */
+    private static final int MAX_GAP_BYTES = 5;
+
+    /** A list with no documents. */
+    public static final CompressedPostings EMPTY =
+            CompressedPostings.of(Postings.EMPTY);
+
+    /** Number of IDs. */
+    private final int size;
+
+    /** Last ID in each block. */
+    private final int[] lastDocs;
+
+    /** Position in data of each block's first gap. */
+    private final int[] offsets;
+
+    /** The gaps, each stored less one since IDs are distinct. */
+    private final byte[] data;
+
+    /** Make a list from its parts.
+     *  @param size the number of IDs
+     *  @param lastDocs the last ID in each block
+     *  @param offsets where in data each block starts
+     *  @param data the encoded gaps
+     */
+    private CompressedPostings(int size, int[] lastDocs, int[] offsets,
+            byte[] data) {
+        this.size = size;
+        this.lastDocs = lastDocs;
+        this.offsets = offsets;
+        this.data = data;
+    }
+
+    /** Compress a posting list.
+     *  @param docs a sorted array of distinct IDs, all >= 0
+     *  @return the compressed list
+     *  @throws IllegalArgumentException if docs is not sorted, has
+     *  repeats or a negative ID
+     */
+    public static CompressedPostings of(int[] docs) {
+        int blocks = (docs.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int[] lastDocs = new int[blocks];
+        int[] offsets = new int[blocks];
+        byte[] data = new byte[docs.length * MAX_GAP_BYTES];
+        int n = 0;
+        int prev = -1;
+        for (int i = 0; i < docs.length; i++) {
+            if (docs[i] <= prev) {
+                throw new IllegalArgumentException("document " + docs[i]
+                        + " after " + prev);
+            }
+            if (i % BLOCK_SIZE == 0) {
+                offsets[i / BLOCK_SIZE] = n;
+            }
+            int gap = docs[i] - prev - 1;
+            while ((gap & ~PAYLOAD) != 0) {
+                data[n++] = (byte) (gap & PAYLOAD | MORE);
+                gap >>>= PAYLOAD_BITS;
+            }
+            data[n++] = (byte) gap;
+            prev = docs[i];
+            lastDocs[i / BLOCK_SIZE] = prev;
+        }
+        return new CompressedPostings(docs.length, lastDocs, offsets,
+                Arrays.copyOf(data, n));
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public PostingList.Cursor cursor() {
+        return new Cursor();
+    }
+
+    /** Get the memory the list's arrays take, not counting headers.
+     *  @return the number of bytes
+     */
+    public int bytes() {
+        return this.data.length
+                + (this.lastDocs.length + this.offsets.length) * Integer.BYTES;
+    }
+
+    /** Write the list out: the size, the skip pointers, then the gaps.
+     *  @return the bytes
+     */
+    public byte[] toBytes() {
+        ByteBuffer out = ByteBuffer.allocate(Integer.BYTES
+                * (1 + this.lastDocs.length + this.offsets.length)
+                + this.data.length);
+        out.putInt(this.size);
+        for (int last : this.lastDocs) {
+            out.putInt(last);
+        }
+        for (int start : this.offsets) {
+            out.putInt(start);
+        }
+        out.put(this.data);
+        return out.array();
+    }
+
+    /** Read a list written by toBytes.
+     *  @param buffer the buffer holding the bytes
+     *  @param offset the absolute position of the first byte
+     *  @param length the number of bytes
+     *  @return the list
+     */
+    public static CompressedPostings fromBytes(ByteBuffer buffer,
+            int offset, int length) {
+        int size = buffer.getInt(offset);
+        int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int at = offset + Integer.BYTES;
+        int[] lastDocs = new int[blocks];
+        int[] offsets = new int[blocks];
+        for (int b = 0; b < blocks; b++, at += Integer.BYTES) {
+            lastDocs[b] = buffer.getInt(at);
+        }
+        for (int b = 0; b < blocks; b++, at += Integer.BYTES) {
+            offsets[b] = buffer.getInt(at);
+        }
+        byte[] data = new byte[offset + length - at];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = buffer.get(at + i);
+        }
+        return new CompressedPostings(size, lastDocs, offsets, data);
+    }
+
+    /** Reads the gaps one at a time, block by block.
+     */
+    private final class Cursor implements PostingList.Cursor {
+
+        /** Block being read, -1 before the first. */
+        private int block = -1;
+
+        /** IDs not yet read in the block. */
+        private int left;
+
+        /** Position in data of the next gap. */
+        private int pos;
+
+        /** The current ID. */
+        private int doc = -1;
+
+        @Override
+        public int doc() {
+            return this.doc;
+        }
+
+        @Override
+        public int next() {
+            if (this.left == 0) {
+                if (this.block + 1 >= lastDocs.length) {
+                    return this.doc = END;
+                }
+                this.enter(this.block + 1);
+            }
+            int gap = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = data[this.pos++];
+                gap |= (b & PAYLOAD) << shift;
+                shift += PAYLOAD_BITS;
+            } while ((b & MORE) != 0);
+            this.left--;
+            return this.doc += gap + 1;
+        }
+
+        @Override
+        public int advance(int target) {
+            if (this.doc >= target) {
+                return this.doc;
+            }
+            if (this.block < 0 || lastDocs[this.block] < target) {
+                //gallop then binary search the skip pointers past this
+                //block, so a short hop reads only a few of them
+                int lo = this.block + 1;
+                int hi = lo;
+                int step = 1;
+                while (hi < lastDocs.length && lastDocs[hi] < target) {
+                    lo = hi + 1;
+                    hi = step < lastDocs.length - hi ? hi + step
+                            : lastDocs.length;
+                    step <<= 1;
+                }
+                while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (lastDocs[mid] < target) {
+                        lo = mid + 1;
+                    } else {
+                        hi = mid;
+                    }
+                }
+                if (lo == lastDocs.length) {
+                    this.block = lastDocs.length - 1;
+                    this.left = 0;
+                    return this.doc = END;
+                }
+                this.enter(lo);
+            }
+            //the block's last ID is >= target, so this stops inside it
+            while (this.doc < target) {
+                this.next();
+            }
+            return this.doc;
+        }
+
+        /** Start reading a block from its first gap.
+         *  @param b the block
+         */
+        private void enter(int b) {
+            this.block = b;
+            this.pos = offsets[b];
+            this.left = Math.min(BLOCK_SIZE, size - b * BLOCK_SIZE);
+            this.doc = b == 0 ? -1 : lastDocs[b - 1];
+        }
+    }
+}
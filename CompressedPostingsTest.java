@@ -0,0 +1,174 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+*/
+
+/** TESTS for CompressedPostings
+ *  Round trips of empty, single, block sized and random lists, gaps
+ *  needing every varint length, rejection of unsorted input, cursor
+ *  next and advance across and within blocks and past the end, the
+ *  compression of dense lists, and toBytes/fromBytes.
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+public class CompressedPostingsTest {
+
+    static final int END = PostingList.Cursor.END;
+
+    static int[] random(Random random, int n, int range) {
+        int[] docs = new int[n];
+        for (int i = 0; i < n; i++) {
+            docs[i] = random.nextInt(range);
+        }
+        return Arrays.stream(docs).sorted().distinct().toArray();
+    }
+
+    static int[] range(int from, int to, int step) {
+        int[] docs = new int[(to - from + step - 1) / step];
+        for (int i = 0; i < docs.length; i++) {
+            docs[i] = from + i * step;
+        }
+        return docs;
+    }
+
+    @Test
+    public void testEmpty() {
+        CompressedPostings p = CompressedPostings.of(new int[0]);
+        assertEquals(0, p.size());
+        assertArrayEquals(new int[0], p.toArray());
+        assertEquals(END, p.cursor().next());
+        assertEquals(END, p.cursor().advance(5));
+        assertEquals(0, CompressedPostings.EMPTY.size());
+    }
+
+    @Test
+    public void testRoundTrips() {
+        int b = CompressedPostings.BLOCK_SIZE;
+        int[][] lists = {
+            {0}, {7}, {0, 1, 2}, range(0, b, 1), range(0, b + 1, 1),
+            range(3, 3 + 5 * b, 5), {0, 127, 128, 16383, 16384, 2097151,
+                2097152, 268435455, 268435456, END - 1},
+        };
+        for (int[] docs : lists) {
+            assertArrayEquals(docs, CompressedPostings.of(docs).toArray());
+        }
+    }
+
+    @Test
+    public void testRandomRoundTrips() {
+        Random random = new Random(226);
+        for (int round = 0; round < 50; round++) {
+            int[] docs = random(random, random.nextInt(2000),
+                    1 + random.nextInt(1000000));
+            CompressedPostings p = CompressedPostings.of(docs);
+            assertEquals(docs.length, p.size());
+            assertArrayEquals(docs, p.toArray());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsortedRejected() {
+        CompressedPostings.of(new int[] {1, 3, 2});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRepeatRejected() {
+        CompressedPostings.of(new int[] {1, 3, 3});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeRejected() {
+        CompressedPostings.of(new int[] {-2, 3});
+    }
+
+    @Test
+    public void testCursor() {
+        PostingList.Cursor c = CompressedPostings.of(
+                new int[] {2, 4, 8}).cursor();
+        assertEquals(-1, c.doc());
+        assertEquals(2, c.next());
+        assertEquals(2, c.doc());
+        assertEquals(4, c.next());
+        assertEquals(8, c.next());
+        assertEquals(END, c.next());
+        assertEquals(END, c.next());
+        assertEquals(END, c.doc());
+    }
+
+    @Test
+    public void testAdvance() {
+        int[] docs = range(0, 100000, 3);
+        CompressedPostings p = CompressedPostings.of(docs);
+        PostingList.Cursor c = p.cursor();
+        assertEquals(0, c.advance(0));
+        assertEquals(0, c.advance(0));
+        assertEquals(3, c.advance(1));
+        assertEquals(3000, c.advance(3000));
+        assertEquals(3003, c.next());
+        assertEquals(3003, c.advance(10));
+        assertEquals(60003, c.advance(60001));
+        assertEquals(60006, c.next());
+        assertEquals(99999, c.advance(99999));
+        assertEquals(END, c.advance(100000));
+        assertEquals(END, c.next());
+    }
+
+    @Test
+    public void testAdvanceAgainstArray() {
+        Random random = new Random(226);
+        int[] docs = random(random, 5000, 100000);
+        CompressedPostings p = CompressedPostings.of(docs);
+        for (int round = 0; round < 100; round++) {
+            PostingList.Cursor c = p.cursor();
+            int target = 0;
+            while (true) {
+                target += random.nextInt(3000);
+                int i = Arrays.binarySearch(docs, target);
+                i = i < 0 ? -i - 1 : i;
+                int expected = i < docs.length ? docs[i] : END;
+                assertEquals(expected, c.advance(target));
+                if (expected == END) {
+                    break;
+                }
+                target = expected;
+            }
+        }
+    }
+
+    @Test
+    public void testDenseListsCompress() {
+        int[] docs = range(0, 1000000, 2);
+        CompressedPostings p = CompressedPostings.of(docs);
+        //one byte per gap, plus a little for the skip pointers
+        assertTrue(p.bytes() < docs.length * Integer.BYTES / 3);
+    }
+
+    @Test
+    public void testBytesRoundTrip() {
+        Random random = new Random(226);
+        for (int n : new int[] {0, 1, 128, 129, 5000}) {
+            int[] docs = random(random, n, 10000000);
+            byte[] bytes = CompressedPostings.of(docs).toBytes();
+            //decode from the middle of a bigger buffer
+            ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 10);
+            buffer.position(7);
+            buffer.put(bytes);
+            CompressedPostings p = CompressedPostings.fromBytes(buffer, 7,
+                    bytes.length);
+            assertArrayEquals(docs, p.toArray());
+            assertEquals(docs.length > 0 ? docs[docs.length - 1] : END,
+                    p.cursor().advance(docs.length > 0
+                            ? docs[docs.length - 1] : 0));
+        }
+    }
+}
@@ -0,0 +1,645 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/** Thread safe implementation of MapJHU using linear probe open
+ *  addressing. Keys are spread over a fixed number of segments by hash,
+ *  and each segment is a small LPHashMap style table with its own
+ *  StampedLock. Writers lock only their segment, so writes to different
+ *  segments run in parallel, and a segment that outgrows its max load
+ *  rehashes under its own write lock without stopping the others.
+ *  Readers take no lock at all in the common case: they read the table
+ *  optimistically and only retry under a read lock if a writer touched
+ *  the segment in the meantime.
+ *  get, hasKey, put, remove, computeIfAbsent, compute and merge are
+ *  linearizable; the last three run their function under the segment's
+ *  write lock, so it must be quick and must not use this map.
+ *  size() and the whole-map methods visit the segments one at a time,
+ *  so they are only exact when no writes are running.
+ *  @author Ryan Demo
+ *  @param <K> the base type of the keys
+ *  @param <V> the base type of the values
+ */
+public class ConcurrentLPHashMap<K, V> implements MapJHU<K, V> {
+
+    /** Number of segments when none is given. */
+    static final int DEFAULT_SEGMENTS = 16;
+
+    /** Key marker for a slot whose entry was removed. */
+    static final Object TOMBSTONE = new Object();
+
+    /** Result of a lookup that found nothing, since values may be null. */
+    private static final Object MISSING = new Object();
+
+    /** Maximum load for each segment's table. */
+    private final float maxLoad;
+
+    /** The segments, a power of two of them. */
+    private final Segment[] segments;
+
+    /** Number of low hash bits that pick the segment. */
+    private final int segmentBits;
+
+    /** Create an empty concurrent map with DEFAULT_SEGMENTS segments.
+     *  @param max the maximum load factor, 0 < maxLoad <= 1
+     */
+    public ConcurrentLPHashMap(float max) {
+        this(max, DEFAULT_SEGMENTS);
+    }
+
+    /** Create an empty concurrent map.
+     *  @param max the maximum load factor, 0 < maxLoad <= 1
+     *  @param concurrency the number of writers expected to run at once,
+     *  rounded up to a power of two to give the number of segments
+     */
+    public ConcurrentLPHashMap(float max, int concurrency) {
+        this.maxLoad = max;
+        int bits = 0;
+        while ((1 << bits) < concurrency) {
+            bits++;
+        }
+        this.segmentBits = bits;
+        this.segments = new Segment[1 << bits];
+        for (int i = 0; i < this.segments.length; i++) {
+            this.segments[i] = new Segment(LPHashMap.INITIAL_CAPACITY, max);
+        }
+    }
+
+    /** Get the maximum load factor.
+     *  @return the load factor
+     */
+    public float getMaxLoad() {
+        return this.maxLoad;
+    }
+
+    /** Get the total capacity of all the segments' tables.
+     *  @return the capacity
+     */
+    public int getCapacity() {
+        int cap = 0;
+        for (Segment segment : this.segments) {
+            cap += segment.table.keys.length;
+        }
+        return cap;
+    }
+
+    /** Hash a key. The low bits pick the segment and the rest, taken
+     *  modulo the segment capacity, pick the home slot.
+     *  @param key the key to hash
+     *  @return the non-negative hash
+     */
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> (Integer.SIZE / 2))) & Integer.MAX_VALUE;
+    }
+
+    /** Find out if a slot key is a live entry.
+     *  @param key the key in the slot
+     *  @return true if not empty or a tombstone
+     */
+    private static boolean isLive(Object key) {
+        return key != null && key != TOMBSTONE;
+    }
+
+    /** Get the segment a hash belongs to.
+     *  @param hash the key's hash
+     *  @return the segment
+     */
+    private Segment segmentFor(int hash) {
+        return this.segments[hash & (this.segments.length - 1)];
+    }
+
+    /* Methods from the MapJHU interface ----------------  */
+
+    /** Get the number of (actual) entries in the Map.
+     *  @return the size
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : this.segments) {
+            size += segment.count;
+        }
+        return size;
+    }
+
+    /** Remove all entries from the Map.
+     */
+    public void clear() {
+        for (Segment segment : this.segments) {
+            segment.clear();
+        }
+    }
+
+    /** Find out if the Map has any entries.
+     *  @return true if no entries, false otherwise
+     */
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    /** Find out if a key is in the map.
+     *  @param key the key being searched for
+     *  @return true if found, false otherwise
+     */
+    public boolean hasKey(K key) {
+        int hash = ConcurrentLPHashMap.hash(key);
+        return this.segmentFor(hash).find(key, hash >>> this.segmentBits)
+                != MISSING;
+    }
+
+    /** Find out if a value is in the map.
+     *  @param value the value to search for
+     *  @return true if found, false otherwise
+     */
+    public boolean hasValue(V value) {
+        for (Segment segment : this.segments) {
+            if (segment.hasValue(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Get the value associated with a key if there.
+     *  @param key the key being searched for
+     *  @return the value associated with key, or null if not found
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        int hash = ConcurrentLPHashMap.hash(key);
+        Object value = this.segmentFor(hash).find(key,
+                hash >>> this.segmentBits);
+        if (value == MISSING) {
+            return null;
+        }
+        return (V) value;
+    }
+
+    /** Associate a value with a key, replacing the old value if key exists.
+     *  @param key the key for the entry
+     *  @param value the value for the entry
+     *  @return the old value associated with the key, or null if new entry
+     */
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        int hash = ConcurrentLPHashMap.hash(key);
+        return (V) this.segmentFor(hash).put(key,
+                hash >>> this.segmentBits, value);
+    }
+
+    /** Remove the entry associated with a key.
+     *  @param key the key for the entry being deleted
+     *  @return the value associated with the key, or null if key not there
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        int hash = ConcurrentLPHashMap.hash(key);
+        return (V) this.segmentFor(hash).remove(key,
+                hash >>> this.segmentBits);
+    }
+
+    /** Get the value for a key, first putting in a computed value if
+     *  the key is not there, as one atomic step.
+     *  @param key the key
+     *  @param mappingFunction makes the value for an absent key; runs
+     *  under the segment lock, so must not use this map
+     *  @return the existing or computed value, or null if the function
+     *  returned null
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(final K key,
+            final Function<? super K, ? extends V> mappingFunction) {
+        int hash = ConcurrentLPHashMap.hash(key);
+        return (V) this.segmentFor(hash).update(key, hash >>> this.segmentBits,
+                new BiFunction<Object, Object, Object>() {
+                    public Object apply(Object k, Object old) {
+                        return old != null ? old : mappingFunction.apply(key);
+                    }
+                });
+    }
+
+    /** Replace the value for a key with one computed from the old value
+     *  (null if absent) as one atomic step, removing the key if the
+     *  result is null.
+     *  @param key the key
+     *  @param remappingFunction makes the new value; runs under the
+     *  segment lock, so must not use this map
+     *  @return the new value, or null if the key was removed
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V compute(final K key,
+            final BiFunction<? super K, ? super V, ? extends V>
+            remappingFunction) {
+        int hash = ConcurrentLPHashMap.hash(key);
+        return (V) this.segmentFor(hash).update(key, hash >>> this.segmentBits,
+                new BiFunction<Object, Object, Object>() {
+                    public Object apply(Object k, Object old) {
+                        return remappingFunction.apply(key, (V) old);
+                    }
+                });
+    }
+
+    /** Put a value for an absent key, or combine it with the existing
+     *  value, as one atomic step, removing the key if the combination
+     *  is null.
+     *  @param key the key
+     *  @param value the value to put or combine, not null
+     *  @param remappingFunction combines the old and given values; runs
+     *  under the segment lock, so must not use this map
+     *  @return the new value, or null if the key was removed
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V merge(K key, final V value,
+            final BiFunction<? super V, ? super V, ? extends V>
+            remappingFunction) {
+        int hash = ConcurrentLPHashMap.hash(key);
+        return (V) this.segmentFor(hash).update(key, hash >>> this.segmentBits,
+                new BiFunction<Object, Object, Object>() {
+                    public Object apply(Object k, Object old) {
+                        return old == null ? value
+                                : remappingFunction.apply((V) old, value);
+                    }
+                });
+    }
+
+    /** Get a set of all the entries in the map, copied one segment at
+     *  a time.
+     *  @return the set
+     */
+    @SuppressWarnings("unchecked")
+    public Set<Map.Entry<K, V>> entries() {
+        HashSet<Map.Entry<K, V>> setEntries = new HashSet<Map.Entry<K, V>>();
+        for (Segment segment : this.segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                Table table = segment.table;
+                for (int i = 0; i < table.keys.length; i++) {
+                    if (ConcurrentLPHashMap.isLive(table.keys[i])) {
+                        setEntries.add(
+                                new AbstractMap.SimpleImmutableEntry<K, V>(
+                                (K) table.keys[i], (V) table.vals[i]));
+                    }
+                }
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return setEntries;
+    }
+
+    /** Get a set of all the keys in the map, copied one segment at
+     *  a time.
+     *  @return the set
+     */
+    @SuppressWarnings("unchecked")
+    public Set<K> keys() {
+        Set<K> setKeys = new HashSet<K>();
+        for (Segment segment : this.segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                for (Object key : segment.table.keys) {
+                    if (ConcurrentLPHashMap.isLive(key)) {
+                        setKeys.add((K) key);
+                    }
+                }
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return setKeys;
+    }
+
+    /** Get a collection of all the values in the map, copied one segment
+     *  at a time.
+     *  @return the collection
+     */
+    @SuppressWarnings("unchecked")
+    public Collection<V> values() {
+        ArrayList<V> collectionValues = new ArrayList<V>();
+        for (Segment segment : this.segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                Table table = segment.table;
+                for (int i = 0; i < table.keys.length; i++) {
+                    if (ConcurrentLPHashMap.isLive(table.keys[i])) {
+                        collectionValues.add((V) table.vals[i]);
+                    }
+                }
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return collectionValues;
+    }
+
+    /* -----  Table and Segment inner classes ----- */
+
+    /**
+     * One bucket array, as parallel arrays. The arrays are final and a
+     * resize makes a new Table, so a reader that picked up a Table
+     * always sees arrays of matching length.
+     */
+    private static final class Table {
+
+        /** Keys, by slot; null if empty, TOMBSTONE if removed. */
+        final Object[] keys;
+
+        /** Values, by slot. */
+        final Object[] vals;
+
+        /** Cached segment hash of each slot's key. */
+        final int[] hashes;
+
+        /** Make an empty table.
+         *  @param cap the number of slots
+         */
+        Table(int cap) {
+            this.keys = new Object[cap];
+            this.vals = new Object[cap];
+            this.hashes = new int[cap];
+        }
+
+        /** Walk the probe sequence for a key, as LPHashMap.findSlot does.
+         *  Bounded by the table size, so it terminates even when read
+         *  while a writer is changing the table.
+         *  @param key the key being searched for
+         *  @param hash the key's segment hash
+         *  @return the slot of the key, or (-(insertion slot) - 1)
+         */
+        int findSlot(Object key, int hash) {
+            Object[] ks = this.keys;
+            int cap = ks.length;
+            int index = hash % cap;
+            int reusable = -1;
+            for (int probe = 0; probe < cap; probe++) {
+                Object k = ks[index];
+                if (k == null) {
+                    return -(reusable < 0 ? index : reusable) - 1;
+                }
+                if (k == TOMBSTONE) {
+                    if (reusable < 0) {
+                        reusable = index;
+                    }
+                } else if (this.hashes[index] == hash && k.equals(key)) {
+                    return index;
+                }
+                index = (index + 1 == cap) ? 0 : index + 1;
+            }
+            return -(reusable < 0 ? cap : reusable) - 1;
+        }
+    }
+
+    /**
+     * A lock and the table it guards.
+     */
+    private static final class Segment {
+
+        /** Maximum load for the table. */
+        final float maxLoad;
+
+        /** Guards table, tombstones and writes to count. */
+        final StampedLock lock = new StampedLock();
+
+        /** Current bucket array. */
+        Table table;
+
+        /** Number of live entries, readable without the lock. */
+        volatile int count;
+
+        /** Number of tombstones in table. */
+        int tombstones;
+
+        /** Make an empty segment.
+         *  @param cap the initial capacity
+         *  @param max the maximum load factor
+         */
+        Segment(int cap, float max) {
+            this.maxLoad = max;
+            this.table = new Table(cap);
+        }
+
+        /** Look up a key, optimistically if no writer gets in the way.
+         *  @param key the key being searched for
+         *  @param hash the key's segment hash
+         *  @return the value, or MISSING if the key is not there
+         */
+        Object find(Object key, int hash) {
+            long stamp = this.lock.tryOptimisticRead();
+            if (stamp != 0) {
+                try {
+                    Table t = this.table;
+                    int slot = t.findSlot(key, hash);
+                    Object value = slot >= 0 ? t.vals[slot] : MISSING;
+                    if (this.lock.validate(stamp)) {
+                        return value;
+                    }
+                } catch (RuntimeException e) {
+                    //a racing write left the key half written, so equals
+                    //saw garbage; the stamp can't validate, retry locked
+                }
+            }
+            stamp = this.lock.readLock();
+            try {
+                Table t = this.table;
+                int slot = t.findSlot(key, hash);
+                return slot >= 0 ? t.vals[slot] : MISSING;
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+
+        /** Scan for a value under the read lock.
+         *  @param value the value to search for
+         *  @return true if found
+         */
+        boolean hasValue(Object value) {
+            long stamp = this.lock.readLock();
+            try {
+                Table t = this.table;
+                for (int i = 0; i < t.keys.length; i++) {
+                    if (ConcurrentLPHashMap.isLive(t.keys[i])
+                            && Objects.equals(t.vals[i], value)) {
+                        return true;
+                    }
+                }
+                return false;
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+
+        /** Insert or overwrite under the write lock.
+         *  @param key the key
+         *  @param hash the key's segment hash
+         *  @param value the value
+         *  @return the old value, or null
+         */
+        Object put(Object key, int hash, Object value) {
+            long stamp = this.lock.writeLock();
+            try {
+                Table t = this.table;
+                int slot = t.findSlot(key, hash);
+                if (slot >= 0) {
+                    Object oldValue = t.vals[slot];
+                    t.vals[slot] = value;
+                    return oldValue;
+                }
+                this.insert(slot, key, hash, value);
+                return null;
+            } finally {
+                this.lock.unlockWrite(stamp);
+            }
+        }
+
+        /** Add a key that findSlot did not find, growing or cleaning up
+         *  the table first if needed. Must hold the write lock.
+         *  @param slot what findSlot(key, hash) returned
+         *  @param key the key
+         *  @param hash the key's segment hash
+         *  @param value the value
+         */
+        private void insert(int slot, Object key, int hash, Object value) {
+            Table t = this.table;
+            int cap = t.keys.length;
+            int newCount = this.count + 1;
+            float load = (float) newCount / cap;
+            if (load > this.maxLoad) {
+                t = this.rehash(LPHashMap.nextPrime(2 * cap + 1));
+                slot = t.findSlot(key, hash);
+            } else if (newCount < this.tombstones) {
+                t = this.rehash(cap);
+                slot = t.findSlot(key, hash);
+            }
+
+            int index = -slot - 1;
+            if (t.keys[index] == TOMBSTONE) {
+                this.tombstones--;
+            }
+            t.vals[index] = value;
+            t.hashes[index] = hash;
+            t.keys[index] = key;
+            this.count = newCount;
+        }
+
+        /** Replace a key's value with a function of its old value under
+         *  the write lock. A null old value means the key is absent, and
+         *  a null new value removes it.
+         *  @param key the key
+         *  @param hash the key's segment hash
+         *  @param function gets the key and old value, returns the new one
+         *  @return the new value
+         */
+        Object update(Object key, int hash,
+                BiFunction<Object, Object, Object> function) {
+            long stamp = this.lock.writeLock();
+            try {
+                int slot = this.table.findSlot(key, hash);
+                Object oldValue = slot >= 0 ? this.table.vals[slot] : null;
+                Object value = function.apply(key, oldValue);
+                if (value == null) {
+                    if (slot >= 0) {
+                        this.removeAt(slot);
+                    }
+                } else if (slot >= 0) {
+                    this.table.vals[slot] = value;
+                } else {
+                    this.insert(slot, key, hash, value);
+                }
+                return value;
+            } finally {
+                this.lock.unlockWrite(stamp);
+            }
+        }
+
+        /** Remove under the write lock.
+         *  @param key the key
+         *  @param hash the key's segment hash
+         *  @return the removed value, or null
+         */
+        Object remove(Object key, int hash) {
+            long stamp = this.lock.writeLock();
+            try {
+                Table t = this.table;
+                int slot = t.findSlot(key, hash);
+                if (slot < 0) {
+                    return null;
+                }
+                Object value = t.vals[slot];
+                this.removeAt(slot);
+                return value;
+            } finally {
+                this.lock.unlockWrite(stamp);
+            }
+        }
+
+        /** Tombstone a slot, rehashing if tombstones now outnumber
+         *  entries. Must hold the write lock.
+         *  @param slot the slot of a live entry
+         */
+        private void removeAt(int slot) {
+            Table t = this.table;
+            t.keys[slot] = TOMBSTONE;
+            t.vals[slot] = null;
+            this.tombstones++;
+            this.count--;
+            if (this.count < this.tombstones) {
+                this.rehash(t.keys.length);
+            }
+        }
+
+        /** Empty the segment, keeping its capacity.
+         */
+        void clear() {
+            long stamp = this.lock.writeLock();
+            try {
+                this.table = new Table(this.table.keys.length);
+                this.count = 0;
+                this.tombstones = 0;
+            } finally {
+                this.lock.unlockWrite(stamp);
+            }
+        }
+
+        /** Copy the live entries into a new table and switch to it.
+         *  Must hold the write lock. The old table is left untouched,
+         *  so optimistic readers still on it just fail to validate.
+         *  @param cap the new capacity
+         *  @return the new table
+         */
+        Table rehash(int cap) {
+            Table old = this.table;
+            Table t = new Table(cap);
+            for (int i = 0; i < old.keys.length; i++) {
+                if (ConcurrentLPHashMap.isLive(old.keys[i])) {
+                    int index = old.hashes[i] % cap;
+                    while (t.keys[index] != null) {
+                        index = (index + 1 == cap) ? 0 : index + 1;
+                    }
+                    t.keys[index] = old.keys[i];
+                    t.vals[index] = old.vals[i];
+                    t.hashes[index] = old.hashes[i];
+                }
+            }
+            this.table = t;
+            this.tombstones = 0;
+            return t;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+*/
+
+/** TESTS for ConcurrentLPHashMap
+ *  Explicit single threaded tests of contents, overwrite, remove, clear.
+ *  Multi-threaded stress tests, each with every thread started together
+ *  and segment resizes forced throughout:
+ *    writers on disjoint keys see exactly what a sequential map would
+ *    readers always see keys that no one writes, and never see keys
+ *      that were never put
+ *    a reader never sees a key's value go backwards while one writer
+ *      counts it up
+ *    size is exact once all writers finish
+ *    merge and compute are atomic: concurrent counters lose no updates
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ConcurrentLPHashMapTest {
+
+    static final int THREADS = 8;
+
+    /** Run tasks on their own threads, all released at once, and
+     *  rethrow the first failure.
+     */
+    static void runAll(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+        final CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (final Callable<Void> task : tasks) {
+                futures.add(pool.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        start.await();
+                        return task.call();
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Void> f : futures) {
+                f.get();  // throws if the task's assertions failed
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSingleThreaded() {
+        ConcurrentLPHashMap<Integer, String> m =
+            new ConcurrentLPHashMap<Integer, String>(.7f, 4);
+        assertTrue(m.isEmpty());
+        for (int i = 0; i < 1000; i++) {
+            assertNull(m.put(i, "" + i));
+        }
+        assertEquals(1000, m.size());
+        assertTrue(m.getCapacity() * m.getMaxLoad() >= 1000);
+        assertEquals("5", m.put(5, "five"));
+        assertEquals("five", m.get(5));
+        assertTrue(m.hasKey(999));
+        assertFalse(m.hasKey(1000));
+        assertTrue(m.hasValue("five"));
+        assertFalse(m.hasValue("5"));
+        //a null value is allowed, and found only by hasValue(null)
+        assertEquals("7", m.put(7, null));
+        assertNull(m.get(7));
+        assertTrue(m.hasKey(7));
+        assertFalse(m.hasValue("x"));
+        assertTrue(m.hasValue(null));
+        assertNull(m.put(7, "7"));
+        assertFalse(m.hasValue(null));
+        for (int i = 0; i < 1000; i += 2) {
+            assertEquals("" + i, m.remove(i));
+        }
+        assertNull(m.remove(0));
+        assertEquals(500, m.size());
+        assertEquals(500, m.keys().size());
+        assertEquals(500, m.values().size());
+        assertEquals(500, m.entries().size());
+        assertFalse(m.keys().contains(2));
+        assertTrue(m.keys().contains(3));
+        m.clear();
+        assertTrue(m.isEmpty());
+        assertNull(m.get(3));
+        assertTrue(m.keys().isEmpty());
+    }
+
+    @Test
+    public void testDisjointWritersMatchSequentialMap() throws Exception {
+        final ConcurrentLPHashMap<Integer, Integer> m =
+            new ConcurrentLPHashMap<Integer, Integer>(.7f, 4);
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    HashMap<Integer, Integer> model = new HashMap<Integer, Integer>();
+                    Random random = new Random(thread);
+                    for (int i = 0; i < 50000; i++) {
+                        // keys of different threads never collide, but do
+                        // share segments, so resizes race with other writers
+                        int key = random.nextInt(3000) * THREADS + thread;
+                        switch (random.nextInt(4)) {
+                            case 0:
+                                assertEquals(model.remove(key), m.remove(key));
+                                break;
+                            case 1:
+                                assertEquals(model.get(key), m.get(key));
+                                assertEquals(model.containsKey(key), m.hasKey(key));
+                                break;
+                            default:
+                                assertEquals(model.put(key, i), m.put(key, i));
+                                break;
+                        }
+                    }
+                    for (Integer key : model.keySet()) {
+                        assertEquals(model.get(key), m.get(key));
+                    }
+                    return null;
+                }
+            });
+        }
+        runAll(tasks);
+    }
+
+    @Test
+    public void testReadersDuringResizes() throws Exception {
+        final ConcurrentLPHashMap<Integer, String> m =
+            new ConcurrentLPHashMap<Integer, String>(.7f, 2);
+        final int stable = 2000;
+        for (int i = 0; i < stable; i++) {
+            m.put(i, "s" + i);
+        }
+        final AtomicBoolean done = new AtomicBoolean(false);
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int t = 0; t < THREADS / 2; t++) {
+            final int thread = t;
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    // grow, churn and clean out tombstones repeatedly
+                    try {
+                        for (int round = 0; round < 20; round++) {
+                            int base = stable + (thread * 20 + round) * 2000;
+                            for (int i = 0; i < 2000; i++) {
+                                m.put(base + i, "w");
+                            }
+                            for (int i = 0; i < 2000; i++) {
+                                assertEquals("w", m.remove(base + i));
+                            }
+                        }
+                    } finally {
+                        done.set(true);
+                    }
+                    return null;
+                }
+            });
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    Random random = new Random(thread);
+                    int reads = 0;
+                    while (!done.get() || reads < 100000) {
+                        int key = random.nextInt(stable);
+                        assertEquals("s" + key, m.get(key));
+                        assertTrue(m.hasKey(key));
+                        assertNull(m.get(-1 - key));  // never put
+                        reads++;
+                    }
+                    return null;
+                }
+            });
+        }
+        runAll(tasks);
+        assertEquals(stable, m.size());
+    }
+
+    @Test
+    public void testReadsNeverGoBackwards() throws Exception {
+        final ConcurrentLPHashMap<Integer, Integer> m =
+            new ConcurrentLPHashMap<Integer, Integer>(.7f, 4);
+        final int keys = 64;
+        final int updates = 20000;
+        for (int k = 0; k < keys; k++) {
+            m.put(k, 0);
+        }
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int t = 0; t < THREADS / 2; t++) {
+            final int thread = t;
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    // each writer counts up its own keys, adding and
+                    // removing filler keys to force resizes between
+                    for (int i = 1; i <= updates; i++) {
+                        for (int k = thread; k < keys; k += THREADS / 2) {
+                            m.put(k, i);
+                        }
+                        m.put(keys + i * THREADS + thread, i);
+                        if (i % 2 == 0) {
+                            m.remove(keys + (i - 1) * THREADS + thread);
+                        }
+                    }
+                    return null;
+                }
+            });
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    int[] last = new int[keys];
+                    for (int i = 0; i < updates * 4; i++) {
+                        int k = i % keys;
+                        int seen = m.get(k);
+                        assertTrue("key " + k + " went from " + last[k]
+                                   + " to " + seen, seen >= last[k]);
+                        last[k] = seen;
+                    }
+                    return null;
+                }
+            });
+        }
+        runAll(tasks);
+        for (int k = 0; k < keys; k++) {
+            assertEquals(updates, (int) m.get(k));
+        }
+    }
+
+    @Test
+    public void testSizeAfterConcurrentPuts() throws Exception {
+        final ConcurrentLPHashMap<String, Integer> m =
+            new ConcurrentLPHashMap<String, Integer>(.5f);
+        final int each = 20000;
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    for (int i = 0; i < each; i++) {
+                        assertNull(m.put("t" + thread + "k" + i, i));
+                    }
+                    return null;
+                }
+            });
+        }
+        runAll(tasks);
+        assertEquals(THREADS * each, m.size());
+        HashSet<String> keys = new HashSet<String>(m.keys());
+        assertEquals(THREADS * each, keys.size());
+        assertTrue(keys.contains("t3k1234"));
+    }
+
+    @Test
+    public void testAtomicCounters() throws Exception {
+        final ConcurrentLPHashMap<Integer, Integer> m =
+            new ConcurrentLPHashMap<Integer, Integer>(.7f, 4);
+        final int keys = 500;
+        final int each = 20000;
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    // every thread counts every key, growing the segments
+                    // as first uses of keys come in
+                    for (int i = 0; i < each; i++) {
+                        int key = (i * 7 + thread) % keys;
+                        if (i % 2 == 0) {
+                            m.merge(key, 1, Integer::sum);
+                        } else {
+                            m.compute(key, (k, v) -> v == null ? 1 : v + 1);
+                        }
+                        assertTrue(m.computeIfAbsent(key, k -> -1) > 0);
+                    }
+                    return null;
+                }
+            });
+        }
+        runAll(tasks);
+        assertEquals(keys, m.size());
+        int total = 0;
+        for (int k = 0; k < keys; k++) {
+            total += m.get(k);
+        }
+        assertEquals(THREADS * each, total);
+    }
+}
@@ -0,0 +1,569 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/** Read optimized implementation of MapJHU using cuckoo hashing.
+ *  Each key has one candidate slot per hash function, and lives in
+ *  one of them or in a small stash, so a lookup reads at most
+ *  getWays() slots plus the stash however the table is loaded; there
+ *  are no probe sequences or clusters. Inserts pay for this: a new
+ *  key that finds all its slots full evicts one of their keys, which
+ *  moves to another of its own slots, and so on, and if that walk
+ *  goes on too long the homeless key goes to the stash or the table
+ *  is rebuilt with new hash seeds. This suits an index that is loaded
+ *  once and then queried many times.
+ *  Keys whose hashCodes are equal share all their slots, so more than
+ *  getWays() plus STASH_SIZE of them can never be placed; once
+ *  rebuilding has failed a few times the stash grows for them, and
+ *  lookups of such keys lose the fixed bound.
+ *  @author Ryan Demo
+ *  @param <K> the base type of the keys
+ *  @param <V> the base type of the values
+ */
+public class CuckooHashMap<K, V> implements MapJHU<K, V> {
+
+    /** Number of hash functions when none is given. */
+    static final int DEFAULT_WAYS = 3;
+
+    /** Stash slots, past which a failed insert rebuilds the table. */
+    static final int STASH_SIZE = 4;
+
+    /** Rebuilds at one capacity before doubling it. */
+    static final int RESEEDS_PER_SIZE = 4;
+
+    /** Rebuilds before letting the stash grow instead. */
+    static final int MAX_REBUILDS = 3 * RESEEDS_PER_SIZE;
+
+    /** Evictions allowed per bit of capacity before an insert fails. */
+    static final int KICKS_PER_BIT = 4;
+
+    /** Fewest evictions allowed before an insert fails. */
+    static final int MIN_KICKS = 16;
+
+    /** First shift of the xorshift32 generator. */
+    private static final int XOR_A = 13;
+
+    /** Second shift of the xorshift32 generator. */
+    private static final int XOR_B = 17;
+
+    /** Third shift of the xorshift32 generator. */
+    private static final int XOR_C = 5;
+
+    /** Maximum load for the table, not counting the stash. */
+    private final float maxLoad;
+
+    /** One seed per hash function; new ones on every rebuild. */
+    private final int[] seeds;
+
+    /** Keys, by slot; null marks an empty slot. */
+    private Object[] keys;
+
+    /** Values, by slot. */
+    private Object[] vals;
+
+    /** capacity - 1, the capacity being a power of two. */
+    private int mask;
+
+    /** Evictions allowed before an insert gives up. */
+    private int maxKicks;
+
+    /** Keys that found no slot. */
+    private Object[] stashKeys;
+
+    /** Values of the stashed keys. */
+    private Object[] stashVals;
+
+    /** Number of stashed keys. */
+    private int stashCount;
+
+    /** Number of entries, stash included. */
+    private int numElements;
+
+    /** Number of rebuilds, for diagnostics. */
+    private int rebuilds;
+
+    /** Key left without a slot by a failed place. */
+    private Object spareKey;
+
+    /** Value of spareKey. */
+    private Object spareVal;
+
+    /** State of the xorshift generator picking which key to evict. */
+    private int kickState = 1;
+
+    /** Create an empty cuckoo hash map with DEFAULT_WAYS hash functions.
+     *  @param max the maximum load factor, 0 < maxLoad < 1
+     *  @throws IllegalArgumentException if max is not in range
+     */
+    public CuckooHashMap(float max) throws IllegalArgumentException {
+        this(max, DEFAULT_WAYS, 0);
+    }
+
+    /** Create an empty cuckoo hash map big enough to hold a number of
+     *  entries without rebuilding for size. Two hash functions only
+     *  reach a load of about 0.5 before inserts start failing, three
+     *  about 0.9 and four about 0.97; asking for more just means the
+     *  table grows early.
+     *  @param max the maximum load factor, 0 < maxLoad < 1
+     *  @param ways the number of hash functions, >= 2
+     *  @param expectedSize the number of entries expected, >= 0
+     *  @throws IllegalArgumentException if max or ways is not in range
+     */
+    public CuckooHashMap(float max, int ways, int expectedSize)
+            throws IllegalArgumentException {
+        if (!(max > 0 && max < 1)) {
+            throw new IllegalArgumentException("max load must be in (0, 1)");
+        }
+        if (ways < 2) {
+            throw new IllegalArgumentException("need at least 2 ways");
+        }
+        this.maxLoad = max;
+        this.seeds = new int[ways];
+        this.allocate(LPHashMap.capacityFor(expectedSize, max,
+                HashStrategy.mixed()), STASH_SIZE);
+    }
+
+    /** Replace the table and stash with empty ones and pick new seeds.
+     *  @param cap the number of slots, a power of two
+     *  @param stash the number of stash slots
+     */
+    private void allocate(int cap, int stash) {
+        this.keys = new Object[cap];
+        this.vals = new Object[cap];
+        this.mask = cap - 1;
+        this.maxKicks = Math.max(MIN_KICKS,
+                KICKS_PER_BIT * Integer.numberOfTrailingZeros(cap));
+        this.stashKeys = new Object[stash];
+        this.stashVals = new Object[stash];
+        this.stashCount = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < this.seeds.length; i++) {
+            this.seeds[i] = random.nextInt();
+        }
+    }
+
+    /** Get a key's candidate slot for one hash function.
+     *  @param hashCode the key's hashCode
+     *  @param way which hash function, 0 <= way < getWays()
+     *  @return the slot
+     */
+    private int index(int hashCode, int way) {
+        return HashStrategy.MixedPowerOfTwo.mix(hashCode ^ this.seeds[way])
+                & this.mask;
+    }
+
+    /** Find the slot holding a key, reading only its candidate slots
+     *  and the stash.
+     *  @param key the key being searched for
+     *  @return the key's slot, capacity + i for stash slot i, or -1 if
+     *  the key is not there
+     */
+    private int find(Object key) {
+        int h = key.hashCode();
+        Object[] ks = this.keys;
+        for (int way = 0; way < this.seeds.length; way++) {
+            int index = this.index(h, way);
+            Object k = ks[index];
+            if (k != null && k.equals(key)) {
+                return index;
+            }
+        }
+        for (int i = 0; i < this.stashCount; i++) {
+            if (this.stashKeys[i].equals(key)) {
+                return ks.length + i;
+            }
+        }
+        return -1;
+    }
+
+    /** Get the value in a slot found by find.
+     *  @param slot the slot
+     *  @return the value
+     */
+    private Object valueAt(int slot) {
+        if (slot < this.keys.length) {
+            return this.vals[slot];
+        }
+        return this.stashVals[slot - this.keys.length];
+    }
+
+    /** Get the next pseudo random number for choosing evictions.
+     *  @return the number, never 0
+     */
+    private int nextKick() {
+        int x = this.kickState;
+        x ^= x << XOR_A;
+        x ^= x >>> XOR_B;
+        x ^= x << XOR_C;
+        this.kickState = x;
+        return x;
+    }
+
+    /** Put an entry whose key is not in the map into the table, evicting
+     *  keys to their other slots as needed, or else into the stash.
+     *  @param key the key
+     *  @param value the value
+     *  @return true if placed; false if no room was found, in which
+     *  case spareKey and spareVal hold the entry left over, which may
+     *  be a different one than was given
+     */
+    private boolean place(Object key, Object value) {
+        Object k = key;
+        Object v = value;
+        int ways = this.seeds.length;
+        int from = -1;
+        for (int kick = 0; kick < this.maxKicks; kick++) {
+            int h = k.hashCode();
+            for (int way = 0; way < ways; way++) {
+                int index = this.index(h, way);
+                if (this.keys[index] == null) {
+                    this.keys[index] = k;
+                    this.vals[index] = v;
+                    return true;
+                }
+            }
+            //all full: evict from a random slot, not the one k just left
+            int way = (this.nextKick() >>> 1) % ways;
+            int index = this.index(h, way);
+            if (index == from) {
+                index = this.index(h, way + 1 == ways ? 0 : way + 1);
+            }
+            Object evictedKey = this.keys[index];
+            Object evictedVal = this.vals[index];
+            this.keys[index] = k;
+            this.vals[index] = v;
+            k = evictedKey;
+            v = evictedVal;
+            from = index;
+        }
+        if (this.stashCount < this.stashKeys.length) {
+            this.stashKeys[this.stashCount] = k;
+            this.stashVals[this.stashCount] = v;
+            this.stashCount++;
+            return true;
+        }
+        this.spareKey = k;
+        this.spareVal = v;
+        return false;
+    }
+
+    /** Rebuild the table with new seeds until every entry fits,
+     *  doubling the capacity every RESEEDS_PER_SIZE tries, and once
+     *  MAX_REBUILDS tries have failed going back to the first capacity
+     *  and growing the stash instead.
+     *  @param cap the capacity to try first, a power of two
+     *  @param extraKey a key not in the table to add too, or null
+     *  @param extraVal the value for extraKey
+     */
+    private void rebuild(int cap, Object extraKey, Object extraVal) {
+        int n = this.numElements + (extraKey != null ? 1 : 0);
+        Object[] ks = new Object[n];
+        Object[] vs = new Object[n];
+        int count = 0;
+        for (int i = 0; i < this.keys.length; i++) {
+            if (this.keys[i] != null) {
+                ks[count] = this.keys[i];
+                vs[count++] = this.vals[i];
+            }
+        }
+        for (int i = 0; i < this.stashCount; i++) {
+            ks[count] = this.stashKeys[i];
+            vs[count++] = this.stashVals[i];
+        }
+        if (extraKey != null) {
+            ks[count] = extraKey;
+            vs[count++] = extraVal;
+        }
+
+        int firstCap = cap;
+        for (int tries = 0;; tries++) {
+            this.rebuilds++;
+            boolean overflow = tries >= MAX_REBUILDS;
+            if (overflow) {
+                //growing didn't help, so it never will; don't keep it
+                cap = firstCap;
+            }
+            this.allocate(cap, STASH_SIZE);
+            int i = 0;
+            while (i < count && (this.place(ks[i], vs[i]) || overflow)) {
+                if (this.spareKey != null) {
+                    this.growStash();
+                }
+                i++;
+            }
+            if (i == count) {
+                return;
+            }
+            this.spareKey = null;
+            this.spareVal = null;
+            if ((tries + 1) % RESEEDS_PER_SIZE == 0) {
+                cap = HashStrategy.mixed().capacityFor(
+                        LPHashMap.doubled(cap));
+            }
+        }
+    }
+
+    /** Stash the spare entry, doubling the stash to make room.
+     */
+    private void growStash() {
+        int n = this.stashKeys.length;
+        Object[] ks = new Object[2 * n];
+        Object[] vs = new Object[2 * n];
+        System.arraycopy(this.stashKeys, 0, ks, 0, n);
+        System.arraycopy(this.stashVals, 0, vs, 0, n);
+        ks[this.stashCount] = this.spareKey;
+        vs[this.stashCount] = this.spareVal;
+        this.stashKeys = ks;
+        this.stashVals = vs;
+        this.stashCount++;
+        this.spareKey = null;
+        this.spareVal = null;
+    }
+
+    /** Rebuild the table at a new size with new hash seeds.
+     *  @param cap the least capacity of the table after rebuilding,
+     *  cap > size() / getMaxLoad(); rounded up to a power of two
+     */
+    public void rehash(int cap) {
+        this.rebuild(HashStrategy.mixed().capacityFor(cap), null, null);
+    }
+
+    /** Get the number of hash functions, and so of candidate slots
+     *  per key.
+     *  @return the number of ways
+     */
+    public int getWays() {
+        return this.seeds.length;
+    }
+
+    /** Get the most slots a lookup can read, while the stash is at its
+     *  normal size.
+     *  @return getWays() + STASH_SIZE
+     */
+    public int maxReadsPerLookup() {
+        return this.seeds.length + STASH_SIZE;
+    }
+
+    /** Get the number of entries in the stash.
+     *  @return the number
+     */
+    public int stashSize() {
+        return this.stashCount;
+    }
+
+    /** Get the number of times the table has been rebuilt, whether to
+     *  grow or because an insert failed.
+     *  @return the number
+     */
+    public int rebuilds() {
+        return this.rebuilds;
+    }
+
+    /** Get the maximum load factor.
+     *  @return the load factor
+     */
+    public float getMaxLoad() {
+        return this.maxLoad;
+    }
+
+    /** Get the current load factor of the table.
+     *  @return the load factor, not counting the stash
+     */
+    public float getLoad() {
+        return (float) (this.numElements - this.stashCount)
+                / (float) this.keys.length;
+    }
+
+    /** Get the table capacity (total # of slots), not counting the stash.
+     *  @return the capacity
+     */
+    public int getCapacity() {
+        return this.keys.length;
+    }
+
+    /* Methods from the MapJHU interface ----------------  */
+
+    /** Get the number of (actual) entries in the Map.
+     *  @return the size
+     */
+    public int size() {
+        return this.numElements;
+    }
+
+    /** Remove all entries from the Map.
+     */
+    public void clear() {
+        this.allocate(this.keys.length, STASH_SIZE);
+        this.numElements = 0;
+    }
+
+    /** Find out if the Map has any entries.
+     *  @return true if no entries, false otherwise
+     */
+    public boolean isEmpty() {
+        return this.numElements == 0;
+    }
+
+    /** Find out if a key is in the map.
+     *  @param key the key being searched for
+     *  @return true if found, false otherwise
+     */
+    public boolean hasKey(K key) {
+        return this.find(key) >= 0;
+    }
+
+    /** Find out if a value is in the map.
+     *  @param value the value to search for
+     *  @return true if found, false otherwise
+     */
+    public boolean hasValue(V value) {
+        for (int i = 0; i < this.keys.length; i++) {
+            if (this.keys[i] != null && Objects.equals(this.vals[i], value)) {
+                return true;
+            }
+        }
+        for (int i = 0; i < this.stashCount; i++) {
+            if (Objects.equals(this.stashVals[i], value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Get the value associated with a key if there.
+     *  @param key the key being searched for
+     *  @return the value associated with key, or null if not found
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        int slot = this.find(key);
+        if (slot < 0) {
+            return null;
+        }
+        return (V) this.valueAt(slot);
+    }
+
+    /** Associate a value with a key, replacing the old value if key exists.
+     *  @param key the key for the entry
+     *  @param value the value for the entry
+     *  @return the old value associated with the key, or null if new entry
+     */
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        int slot = this.find(key);
+        if (slot >= 0) {
+            V oldValue = (V) this.valueAt(slot);
+            if (slot < this.keys.length) {
+                this.vals[slot] = value;
+            } else {
+                this.stashVals[slot - this.keys.length] = value;
+            }
+            return oldValue;
+        }
+
+        if (this.numElements + 1 > this.maxLoad * this.keys.length) {
+            this.rebuild(HashStrategy.mixed().capacityFor(
+                    2 * this.keys.length), key, value);
+        } else if (!this.place(key, value)) {
+            Object k = this.spareKey;
+            Object v = this.spareVal;
+            this.spareKey = null;
+            this.spareVal = null;
+            this.rebuild(this.keys.length, k, v);
+        }
+        this.numElements++;
+        return null;
+    }
+
+    /** Remove the entry associated with a key.
+     *  @param key the key for the entry being deleted
+     *  @return the value associated with the key, or null if key not there
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        int slot = this.find(key);
+        if (slot < 0) {
+            return null;
+        }
+        V value = (V) this.valueAt(slot);
+        if (slot < this.keys.length) {
+            this.keys[slot] = null;
+            this.vals[slot] = null;
+        } else {
+            //fill the hole with the last stashed entry
+            int i = slot - this.keys.length;
+            int last = --this.stashCount;
+            this.stashKeys[i] = this.stashKeys[last];
+            this.stashVals[i] = this.stashVals[last];
+            this.stashKeys[last] = null;
+            this.stashVals[last] = null;
+        }
+        this.numElements--;
+        return value;
+    }
+
+    /** Get a set of all the entries in the map.
+     *  @return a copy of the entries
+     */
+    @SuppressWarnings("unchecked")
+    public Set<Map.Entry<K, V>> entries() {
+        Set<Map.Entry<K, V>> setEntries = new HashSet<Map.Entry<K, V>>();
+        for (int i = 0; i < this.keys.length; i++) {
+            if (this.keys[i] != null) {
+                setEntries.add(new AbstractMap.SimpleImmutableEntry<K, V>(
+                        (K) this.keys[i], (V) this.vals[i]));
+            }
+        }
+        for (int i = 0; i < this.stashCount; i++) {
+            setEntries.add(new AbstractMap.SimpleImmutableEntry<K, V>(
+                    (K) this.stashKeys[i], (V) this.stashVals[i]));
+        }
+        return setEntries;
+    }
+
+    /** Get a set of all the keys in the map.
+     *  @return a copy of the keys
+     */
+    @SuppressWarnings("unchecked")
+    public Set<K> keys() {
+        Set<K> setKeys = new HashSet<K>();
+        for (Object key : this.keys) {
+            if (key != null) {
+                setKeys.add((K) key);
+            }
+        }
+        for (int i = 0; i < this.stashCount; i++) {
+            setKeys.add((K) this.stashKeys[i]);
+        }
+        return setKeys;
+    }
+
+    /** Get a collection of all the values in the map.
+     *  @return a copy of the values
+     */
+    @SuppressWarnings("unchecked")
+    public Collection<V> values() {
+        Collection<V> colValues = new ArrayList<V>();
+        for (int i = 0; i < this.keys.length; i++) {
+            if (this.keys[i] != null) {
+                colValues.add((V) this.vals[i]);
+            }
+        }
+        for (int i = 0; i < this.stashCount; i++) {
+            colValues.add((V) this.stashVals[i]);
+        }
+        return colValues;
+    }
+}
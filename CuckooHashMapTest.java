@@ -0,0 +1,170 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+*/
+
+/** TESTS for CuckooHashMap
+ *  Explicit tests of contents, overwrite, remove, clear and the
+ *  collections, presizing and growth within the max load, high loads
+ *  with four hash functions, keys with identical hashCodes overflowing
+ *  the stash without blowing up the table, and
+ *  contents against java.util.HashMap under random put/remove/merge
+ *  for 2, 3 and 4 hash functions.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class CuckooHashMapTest {
+
+    CuckooHashMap<Integer, String> map;
+
+    @Before
+    public void setup() {
+        map = new CuckooHashMap<Integer, String>(.7f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFullLoadRejected() {
+        new CuckooHashMap<Integer, String>(1.0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOneWayRejected() {
+        new CuckooHashMap<Integer, String>(.5f, 1, 0);
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        assertTrue(map.isEmpty());
+        assertEquals(CuckooHashMap.DEFAULT_WAYS, map.getWays());
+        for (int i = 0; i < 1000; i++) {
+            assertNull(map.put(i, "" + i));
+        }
+        assertEquals(1000, map.size());
+        assertTrue(map.getLoad() <= map.getMaxLoad());
+        assertEquals("5", map.put(5, "five"));
+        assertEquals("five", map.get(5));
+        assertEquals(1000, map.size());
+        assertTrue(map.hasKey(999));
+        assertFalse(map.hasKey(1000));
+        assertNull(map.get(-1));
+        assertTrue(map.hasValue("five"));
+        assertFalse(map.hasValue("5"));
+        for (int i = 0; i < 1000; i += 2) {
+            assertEquals("" + i, map.remove(i));
+        }
+        assertNull(map.remove(0));
+        assertEquals(500, map.size());
+        assertEquals(500, map.keys().size());
+        assertEquals(500, map.values().size());
+        assertEquals(500, map.entries().size());
+        assertFalse(map.keys().contains(2));
+        assertTrue(map.keys().contains(3));
+        for (Map.Entry<Integer, String> e : map.entries()) {
+            assertEquals(map.get(e.getKey()), e.getValue());
+        }
+        int cap = map.getCapacity();
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(3));
+        assertTrue(map.keys().isEmpty());
+        assertEquals(cap, map.getCapacity());
+    }
+
+    @Test
+    public void testPresizedAndRehash() {
+        CuckooHashMap<Integer, Integer> m =
+            new CuckooHashMap<Integer, Integer>(.5f, 2, 1000);
+        assertEquals(2048, m.getCapacity());
+        for (int i = 0; i < 1000; i++) {
+            m.put(i, i);
+        }
+        assertEquals(2048, m.getCapacity());
+        m.rehash(5000);
+        assertEquals(8192, m.getCapacity());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, (int) m.get(i));
+        }
+    }
+
+    @Test
+    public void testHighLoadFourWays() {
+        CuckooHashMap<Integer, Integer> m =
+            new CuckooHashMap<Integer, Integer>(.95f, 4, 0);
+        for (int i = 0; i < 50000; i++) {
+            m.put(i * 31, i);
+        }
+        for (int i = 0; i < 50000; i++) {
+            assertEquals(i, (int) m.get(i * 31));
+        }
+        assertTrue(m.getLoad() > .5f);
+        assertTrue(m.stashSize() <= CuckooHashMap.STASH_SIZE);
+        assertEquals(4 + CuckooHashMap.STASH_SIZE, m.maxReadsPerLookup());
+    }
+
+    @Test
+    public void testEqualHashCodesOverflowStash() {
+        CuckooHashMap<HashStrategyTest.FixedHash, Integer> m =
+            new CuckooHashMap<HashStrategyTest.FixedHash, Integer>(.5f);
+        int n = 3 + CuckooHashMap.STASH_SIZE + 10;
+        for (int i = 0; i < n; i++) {
+            m.put(new HashStrategyTest.FixedHash(7, "k" + i), i);
+        }
+        assertEquals(n, m.size());
+        assertTrue(m.stashSize() > CuckooHashMap.STASH_SIZE);
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, (int) m.get(new HashStrategyTest.FixedHash(7,
+                                                                 "k" + i)));
+        }
+        assertEquals(3, (int) m.remove(new HashStrategyTest.FixedHash(7,
+                                                                "k3")));
+        assertNull(m.get(new HashStrategyTest.FixedHash(7, "k3")));
+        assertEquals(n - 1, m.keys().size());
+        assertEquals(n - 1, m.size());
+        assertEquals(64, m.getCapacity());  // for load alone
+    }
+
+    @Test
+    public void testRandomAgainstHashMap() {
+        for (int ways = 2; ways <= 4; ways++) {
+            CuckooHashMap<Integer, Integer> m =
+                new CuckooHashMap<Integer, Integer>(ways == 2 ? .45f : .85f,
+                                                    ways, 0);
+            HashMap<Integer, Integer> expected =
+                new HashMap<Integer, Integer>();
+            Random random = new Random(226 + ways);
+            for (int i = 0; i < 50000; i++) {
+                int key = random.nextInt(5000) - 2500;
+                switch (random.nextInt(3)) {
+                    case 0:
+                        assertEquals(expected.remove(key), m.remove(key));
+                        break;
+                    case 1:
+                        assertEquals(expected.merge(key, i, Integer::sum),
+                                     m.merge(key, i, Integer::sum));
+                        break;
+                    default:
+                        assertEquals(expected.put(key, i), m.put(key, i));
+                        break;
+                }
+            }
+            assertEquals(expected.size(), m.size());
+            assertEquals(expected.keySet(), m.keys());
+            for (Integer key : expected.keySet()) {
+                assertEquals(expected.get(key), m.get(key));
+            }
+            assertEquals(expected.entrySet(), m.entries());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Gives each document URL a dense int ID, in the order documents are
+ *  added, so an index can keep its postings as sorted ints and only
+ *  turn them back into URLs when they are printed.
+ *  @author Ryan Demo
+ */
+public class DocTable {
+
+    /** Max load for the URL to ID map. */
+    private static final float MAX_LOAD = 0.7f;
+
+    /** ID of each URL. */
+    private final ObjIntHashMap<String> ids;
+
+    /** URL of each ID. */
+    private final ArrayList<String> urls;
+
+    /** Create an empty table.
+     */
+    public DocTable() {
+        this.ids = new ObjIntHashMap<String>(MAX_LOAD);
+        this.urls = new ArrayList<String>();
+    }
+
+    /** Get a URL's ID, giving it the next one if it has none yet.
+     *  @param url the URL
+     *  @return the ID, 0 <= ID < size()
+     */
+    public int add(String url) {
+        int id = this.ids.putIfAbsent(url, this.urls.size());
+        if (id == this.urls.size()) {
+            this.urls.add(url);
+        }
+        return id;
+    }
+
+    /** Get a URL's ID.
+     *  @param url the URL
+     *  @return the ID, or -1 if the URL has none
+     */
+    public int id(String url) {
+        return this.ids.getOrDefault(url, -1);
+    }
+
+    /** Get the URL with an ID.
+     *  @param id the ID, 0 <= id < size()
+     *  @return the URL
+     */
+    public String url(int id) {
+        return this.urls.get(id);
+    }
+
+    /** Get the number of documents.
+     *  @return the size
+     */
+    public int size() {
+        return this.urls.size();
+    }
+
+    /** Get the URLs of some documents, in the order given.
+     *  @param docs the IDs
+     *  @return the URLs
+     */
+    public List<String> urls(int[] docs) {
+        List<String> list = new ArrayList<String>(docs.length);
+        for (int doc : docs) {
+            list.add(this.urls.get(doc));
+        }
+        return list;
+    }
+
+    /** Write the URLs, in ID order, to a file.
+     *  @param file the file
+     *  @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        Files.write(file, Codec.STRING_LIST.encode(this.urls));
+    }
+
+    /** Read a table written by save.
+     *  @param file the file
+     *  @return the table, with every URL back at its ID
+     *  @throws IOException if the file cannot be read
+     */
+    public static DocTable load(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        DocTable table = new DocTable();
+        for (String url : Codec.STRING_LIST.decode(ByteBuffer.wrap(bytes),
+                0, bytes.length)) {
+            table.add(url);
+        }
+        return table;
+    }
+}
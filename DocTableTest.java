@@ -0,0 +1,113 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+*/
+
+/** TESTS for DocTable
+ *  IDs handed out densely in order and kept for repeats, lookups both
+ *  ways, URLs for a posting list, and a save/load round trip.
+ */
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class DocTableTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    DocTable docs;
+
+    @Before
+    public void setup() {
+        docs = new DocTable();
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, docs.size());
+        assertEquals(-1, docs.id("www.cars.com"));
+    }
+
+    @Test
+    public void testDenseIds() {
+        assertEquals(0, docs.add("www.cars.com"));
+        assertEquals(1, docs.add("en.wikipedia.org/wiki/Cat"));
+        assertEquals(2, docs.add("www.foobar.com/baz"));
+        assertEquals(3, docs.size());
+        assertEquals(1, docs.id("en.wikipedia.org/wiki/Cat"));
+        assertEquals("www.foobar.com/baz", docs.url(2));
+    }
+
+    @Test
+    public void testRepeatKeepsId() {
+        docs.add("a.com");
+        docs.add("b.com");
+        assertEquals(0, docs.add("a.com"));
+        assertEquals(2, docs.size());
+        assertEquals(2, docs.add("c.com"));
+    }
+
+    @Test
+    public void testRepeatNotAdjacent() {
+        assertEquals(0, docs.add("a.com"));
+        assertEquals(1, docs.add("b.com"));
+        assertEquals(2, docs.add("c.com"));
+        assertEquals(0, docs.add("a.com"));
+        assertEquals(1, docs.add("b.com"));
+        assertEquals(3, docs.size());
+        assertEquals(Arrays.asList("a.com", "b.com"),
+                docs.urls(new int[] {0, 1}));
+    }
+
+    @Test
+    public void testManyIds() {
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, docs.add("www.page" + i + ".com"));
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, docs.id("www.page" + i + ".com"));
+            assertEquals("www.page" + i + ".com", docs.url(i));
+        }
+    }
+
+    @Test
+    public void testUrls() {
+        docs.add("a.com");
+        docs.add("b.com");
+        docs.add("c.com");
+        assertEquals(Arrays.asList("a.com", "c.com"),
+                docs.urls(new int[] {0, 2}));
+        assertEquals(Arrays.asList(), docs.urls(Postings.EMPTY));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testUnknownId() {
+        docs.add("a.com");
+        docs.url(1);
+    }
+
+    @Test
+    public void testSaveLoad() throws IOException {
+        for (int i = 0; i < 1000; i++) {
+            docs.add("www.page" + i + ".com/caf\u00e9");
+        }
+        Path file = tmp.getRoot().toPath().resolve("docs");
+        docs.save(file);
+        DocTable loaded = DocTable.load(file);
+        assertEquals(docs.size(), loaded.size());
+        for (int i = 0; i < docs.size(); i++) {
+            assertEquals(docs.url(i), loaded.url(i));
+            assertEquals(i, loaded.id(docs.url(i)));
+        }
+    }
+}
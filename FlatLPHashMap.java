@@ -0,0 +1,196 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+/** Linear probe hash map that keeps its table as parallel arrays of
+ *  keys, values, cached hashes and slot states instead of one
+ *  LPMapEntry object per slot. Probes compare cached hashes before
+ *  calling equals and never chase a pointer to reach the slot state.
+ *  Sizing, load and tombstone rules are the same as LPHashMap, and
+ *  like LPHashMap a tombstone keeps its key and value until the slot
+ *  is reused or the table is rehashed.
+ *  @author Ryan Demo
+ *  @param <K> the base type of the keys
+ *  @param <V> the base type of the values
+ */
+public class FlatLPHashMap<K, V> extends LPHashMap<K, V> {
+
+    /** State of a slot that has never held an entry. */
+    static final byte EMPTY = 0;
+
+    /** State of a slot holding a live entry. */
+    static final byte FULL = 1;
+
+    /** State of a slot whose entry was removed. */
+    static final byte TOMBSTONE = 2;
+
+    /** Keys, by slot. */
+    private Object[] keys;
+
+    /** Values, by slot. */
+    private Object[] vals;
+
+    /** Cached hash of each slot's key. */
+    private int[] hashes;
+
+    /** EMPTY, FULL or TOMBSTONE for each slot. */
+    private byte[] states;
+
+    /** Create an empty flat hash map with capacity 5.
+     *  @param max the maximum load factor, 0 < maxLoad <= 1
+     */
+    public FlatLPHashMap(float max) {
+        this(max, 0);
+    }
+
+    /** Create an empty flat hash map big enough to hold a number of
+     *  entries without rehashing.
+     *  @param max the maximum load factor, 0 < maxLoad <= 1
+     *  @param expectedSize the number of entries expected, >= 0
+     */
+    public FlatLPHashMap(float max, int expectedSize) {
+        this(max, expectedSize, HashStrategy.PRIME_MODULO);
+    }
+
+    /** Create an empty flat hash map big enough to hold a number of
+     *  entries without rehashing, hashing keys with a given strategy.
+     *  @param max the maximum load factor, 0 < maxLoad <= 1
+     *  @param expectedSize the number of entries expected, >= 0
+     *  @param strategy the hash function and table sizing to use
+     */
+    public FlatLPHashMap(float max, int expectedSize,
+            HashStrategy strategy) {
+        super(max, expectedSize, strategy);
+        this.entries = null; //slots live in the parallel arrays instead
+        this.allocate(this.getCapacity());
+    }
+
+    /** Replace the table with empty arrays of a given size.
+     *  @param cap the number of slots
+     */
+    private void allocate(int cap) {
+        this.keys = new Object[cap];
+        this.vals = new Object[cap];
+        this.hashes = new int[cap];
+        this.states = new byte[cap];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    K keyAt(int index) {
+        return (K) this.keys[index];
+    }
+
+    @Override
+    boolean isLive(int index) {
+        return this.states[index] == FULL;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    V valueAt(int index) {
+        return (V) this.vals[index];
+    }
+
+    @Override
+    void setValueAt(int index, V value) {
+        this.vals[index] = value;
+    }
+
+    @Override
+    void insertAt(int slot, K key, int hash, V value) {
+        if (this.makeRoom()) {
+            slot = this.findSlot(key, hash);
+        }
+        int index = -slot - 1;
+        if (this.states[index] == TOMBSTONE) {
+            this.tombstones--;
+        }
+        this.keys[index] = key;
+        this.vals[index] = value;
+        this.hashes[index] = hash;
+        this.states[index] = FULL;
+    }
+
+    @Override
+    public void rehash(int cap) {
+        this.modCount++;
+        Object[] oldKeys = this.keys;
+        Object[] oldVals = this.vals;
+        int[] oldHashes = this.hashes;
+        byte[] oldStates = this.states;
+        this.allocate(cap);
+
+        //reuse the cached hashes, so no key hashCode calls here
+        for (int i = 0; i < oldStates.length; i++) {
+            if (oldStates[i] == FULL) {
+                int index = this.strategy.index(oldHashes[i], cap);
+                while (this.states[index] != EMPTY) {
+                    index = (index + 1 == cap) ? 0 : index + 1;
+                }
+                this.keys[index] = oldKeys[i];
+                this.vals[index] = oldVals[i];
+                this.hashes[index] = oldHashes[i];
+                this.states[index] = FULL;
+            }
+        }
+        this.capacity = cap;
+        this.tombstones = 0;
+    }
+
+    @Override
+    int findSlot(K key, int hash) {
+        byte[] st = this.states;
+        int cap = st.length;
+        int index = this.strategy.index(hash, cap);
+        int reusable = -1;
+        for (int probe = 0; probe < cap; probe++) {
+            byte state = st[index];
+            if (state == EMPTY) {
+                return -(reusable < 0 ? index : reusable) - 1;
+            }
+            if (state == TOMBSTONE) {
+                if (reusable < 0) {
+                    reusable = index;
+                }
+            } else if (this.hashes[index] == hash
+                    && this.keys[index].equals(key)) {
+                return index;
+            }
+            index = (index + 1 == cap) ? 0 : index + 1;
+        }
+        return -(reusable < 0 ? cap : reusable) - 1;
+    }
+
+    @Override
+    LPMapEntry<K, V> slotAt(int index) {
+        if (this.states[index] == EMPTY) {
+            return null;
+        }
+        //a tombstone's key and value are cleared, and a null key
+        //already makes the entry a tombstone
+        return new LPMapEntry<K, V>(this.keyAt(index), this.valueAt(index));
+    }
+
+    @Override
+    void removeAt(int index) {
+        //drop the references so the key and value can be collected
+        this.keys[index] = null;
+        this.vals[index] = null;
+        this.states[index] = TOMBSTONE;
+        this.numElements--;
+        this.tombstones++;
+    }
+
+    @Override
+    public void clear() {
+        this.modCount++;
+        this.clearValueIndex();
+        this.numElements = 0;
+        this.tombstones = 0;
+        this.allocate(this.getCapacity());
+    }
+}
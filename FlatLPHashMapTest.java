@@ -0,0 +1,28 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+*/
+
+/** Runs the LPHashMap test suite against FlatLPHashMap, which must
+ *  behave identically slot for slot, except that its tombstones no
+ *  longer hold the removed key and value.
+ */
+public class FlatLPHashMapTest extends LPHashMapTest {
+
+    @Override
+    protected LPHashMap<Integer, String> newMap(float maxLoad) {
+        return new FlatLPHashMap<Integer, String>(maxLoad);
+    }
+
+    @Override
+    protected LPHashMap<Integer, String> newMap(float maxLoad, int expected) {
+        return new FlatLPHashMap<Integer, String>(maxLoad, expected);
+    }
+
+    @Override
+    protected boolean tombstonesKeepEntries() {
+        return false;  // removeAt clears them
+    }
+}
@@ -0,0 +1,427 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/** Immutable implementation of MapJHU over a minimal perfect hash of
+ *  its keys, built with the compress, hash and displace (CHD) method.
+ *  Keys are hashed into buckets of a few keys each, and each bucket
+ *  gets a displacement: a seed that sends its keys to slots no other
+ *  bucket uses. The table has exactly one slot per key, so a lookup
+ *  is one displacement read, one slot read and one equals call, with
+ *  no probing, empty slots or tombstones. Buckets of a single key
+ *  just record their slot. Keys with the same hashCode as another key
+ *  can't be told apart by any seed; they go in a small overflow map
+ *  that is only checked on a miss.
+ *  Made by LPHashMap.freeze or copyOf; put, remove and clear throw
+ *  UnsupportedOperationException.
+ *  @author Ryan Demo
+ *  @param <K> the base type of the keys
+ *  @param <V> the base type of the values
+ */
+public final class FrozenHashMap<K, V> implements MapJHU<K, V> {
+
+    /** Average number of keys per bucket. */
+    static final int BUCKET_SIZE = 3;
+
+    /** Displacements to try for a bucket before starting over. */
+    static final int MAX_DISPLACEMENTS = 1 << 20;
+
+    /** Unsigned int mask. */
+    private static final long UNSIGNED = 0xffffffffL;
+
+    /** Keys, by slot. */
+    private final Object[] keys;
+
+    /** Values, by slot. */
+    private final Object[] vals;
+
+    /** Per bucket: a non-negative slot seed, or -(slot) - 1 for a
+     *  bucket whose one key was put straight into a slot. */
+    private int[] displacements;
+
+    /** Seed for choosing buckets; changes if a build starts over. */
+    private int bucketSeed;
+
+    /** Keys sharing a hashCode with an earlier key, or null if none. */
+    private final LPHashMap<K, V> overflow;
+
+    /** Make a frozen copy of any map.
+     *  @param source the map to copy
+     *  @param <K> the base type of the keys
+     *  @param <V> the base type of the values
+     *  @return the frozen map
+     */
+    public static <K, V> FrozenHashMap<K, V> copyOf(
+            MapJHU<? extends K, ? extends V> source) {
+        Set<? extends Map.Entry<? extends K, ? extends V>> entries =
+                source.entries();
+        Object[] ks = new Object[entries.size()];
+        Object[] vs = new Object[entries.size()];
+        int n = 0;
+        for (Map.Entry<? extends K, ? extends V> entry : entries) {
+            ks[n] = entry.getKey();
+            vs[n++] = entry.getValue();
+        }
+        return new FrozenHashMap<K, V>(ks, vs);
+    }
+
+    /** Build a frozen map from parallel arrays of entries.
+     *  @param ks the keys, distinct and not null
+     *  @param vs the values, in the same order
+     */
+    @SuppressWarnings("unchecked")
+    FrozenHashMap(Object[] ks, Object[] vs) {
+        int n = ks.length;
+
+        //sort by hashCode, so keys that no seed can separate are
+        //next to each other; all but the first of each go to overflow
+        long[] byHash = new long[n];
+        for (int i = 0; i < n; i++) {
+            byHash[i] = ((long) ks[i].hashCode() << Integer.SIZE) | i;
+        }
+        Arrays.sort(byHash);
+        LPHashMap<K, V> extra = null;
+        int unique = 0;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            int index = (int) byHash[i];
+            if (i > 0 && (byHash[i] >> Integer.SIZE)
+                    == (byHash[i - 1] >> Integer.SIZE)) {
+                if (extra == null) {
+                    extra = new LPHashMap<K, V>((float) 0.5);
+                }
+                extra.put((K) ks[index], (V) vs[index]);
+            } else {
+                order[unique++] = index;
+            }
+        }
+        this.overflow = extra;
+
+        this.keys = new Object[unique];
+        this.vals = new Object[unique];
+        int[] hashes = new int[unique];
+        Object[] uniqueVals = new Object[unique];
+        Object[] uniqueKeys = new Object[unique];
+        for (int i = 0; i < unique; i++) {
+            uniqueKeys[i] = ks[order[i]];
+            uniqueVals[i] = vs[order[i]];
+            hashes[i] = uniqueKeys[i].hashCode();
+        }
+        this.bucketSeed = 0;
+        while (!this.build(uniqueKeys, uniqueVals, hashes)) {
+            this.bucketSeed = HashStrategy.MixedPowerOfTwo.mix(
+                    this.bucketSeed + 1);
+        }
+    }
+
+    /** Reduce a hash to the range [0, n) with a multiply instead of a
+     *  divide.
+     *  @param hash the hash, all 32 bits used
+     *  @param n the size of the range
+     *  @return the reduced hash
+     */
+    private static int reduce(int hash, int n) {
+        return (int) (((hash & UNSIGNED) * n) >>> Integer.SIZE);
+    }
+
+    /** Get the bucket of a hashCode.
+     *  @param h the hashCode
+     *  @return the bucket
+     */
+    private int bucket(int h) {
+        return reduce(HashStrategy.MixedPowerOfTwo.mix(h ^ this.bucketSeed),
+                this.displacements.length);
+    }
+
+    /** Get the slot of a hashCode in a bucket with a given slot seed.
+     *  @param h the hashCode
+     *  @param seed the bucket's displacement, >= 0
+     *  @return the slot
+     */
+    private int slot(int h, int seed) {
+        return reduce(HashStrategy.MixedPowerOfTwo.mix(h ^ seed),
+                this.keys.length);
+    }
+
+    /** Try to place every key with the current bucket seed.
+     *  @param ks the keys, with distinct hashCodes
+     *  @param vs their values
+     *  @param hashes their hashCodes
+     *  @return true if done, false if some bucket found no displacement
+     */
+    private boolean build(Object[] ks, Object[] vs, int[] hashes) {
+        int n = ks.length;
+        int buckets = Math.max(1, (n + BUCKET_SIZE - 1) / BUCKET_SIZE);
+        this.displacements = new int[buckets];
+        Arrays.fill(this.keys, null);
+
+        //counting sort the keys by bucket
+        int[] bucketOf = new int[n];
+        int[] start = new int[buckets + 1];
+        int largest = 0;
+        for (int i = 0; i < n; i++) {
+            bucketOf[i] = this.bucket(hashes[i]);
+            start[bucketOf[i] + 1]++;
+        }
+        for (int b = 0; b < buckets; b++) {
+            largest = Math.max(largest, start[b + 1]);
+            start[b + 1] += start[b];
+        }
+        int[] members = new int[n];
+        int[] fill = Arrays.copyOf(start, buckets);
+        for (int i = 0; i < n; i++) {
+            members[fill[bucketOf[i]]++] = i;
+        }
+
+        //then the buckets by size, biggest first, while slots are free
+        int[] bySize = new int[largest + 2];
+        for (int b = 0; b < buckets; b++) {
+            bySize[largest - (start[b + 1] - start[b]) + 1]++;
+        }
+        for (int s = 0; s <= largest; s++) {
+            bySize[s + 1] += bySize[s];
+        }
+        int[] bucketOrder = new int[buckets];
+        for (int b = 0; b < buckets; b++) {
+            bucketOrder[bySize[largest - (start[b + 1] - start[b])]++] = b;
+        }
+
+        int[] slots = new int[largest];
+        int nextFree = 0;
+        for (int b : bucketOrder) {
+            int size = start[b + 1] - start[b];
+            if (size == 0) {
+                break;  //the rest are empty too
+            }
+            if (size == 1) {
+                //one key can go in any free slot, so no search needed
+                while (this.keys[nextFree] != null) {
+                    nextFree++;
+                }
+                int i = members[start[b]];
+                this.keys[nextFree] = ks[i];
+                this.vals[nextFree] = vs[i];
+                this.displacements[b] = -nextFree - 1;
+                continue;
+            }
+            int seed = this.displace(members, start[b], size, hashes, slots);
+            if (seed < 0) {
+                return false;
+            }
+            this.displacements[b] = seed;
+            for (int j = 0; j < size; j++) {
+                int i = members[start[b] + j];
+                this.keys[slots[j]] = ks[i];
+                this.vals[slots[j]] = vs[i];
+            }
+        }
+        return true;
+    }
+
+    /** Find a slot seed that sends every key of a bucket to a distinct
+     *  free slot.
+     *  @param members key indices, grouped by bucket
+     *  @param from where the bucket's keys start in members
+     *  @param size how many keys the bucket has
+     *  @param hashes the keys' hashCodes
+     *  @param slots gets the slot of each of the bucket's keys
+     *  @return the seed, or -1 if none was found
+     */
+    private int displace(int[] members, int from, int size, int[] hashes,
+            int[] slots) {
+        for (int d = 0; d < MAX_DISPLACEMENTS; d++) {
+            int seed = HashStrategy.MixedPowerOfTwo.mix(d + 1)
+                    & Integer.MAX_VALUE;
+            int j = 0;
+            for (; j < size; j++) {
+                int slot = this.slot(hashes[members[from + j]], seed);
+                if (this.keys[slot] != null || contains(slots, j, slot)) {
+                    break;
+                }
+                slots[j] = slot;
+            }
+            if (j == size) {
+                return seed;
+            }
+        }
+        return -1;
+    }
+
+    /** Find out if a slot is among the first few of an array.
+     *  @param slots the array
+     *  @param n how many to look at
+     *  @param slot the slot to look for
+     *  @return true if found
+     */
+    private static boolean contains(int[] slots, int n, int slot) {
+        for (int i = 0; i < n; i++) {
+            if (slots[i] == slot) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Find the only slot a key can be in.
+     *  @param key the key
+     *  @return the slot, which holds the key if it is in the table
+     */
+    private int find(Object key) {
+        if (this.keys.length == 0) {
+            return -1;
+        }
+        int h = key.hashCode();
+        int d = this.displacements[this.bucket(h)];
+        int slot = d < 0 ? -d - 1 : this.slot(h, d);
+        return this.keys[slot].equals(key) ? slot : -1;
+    }
+
+    /** Get the number of buckets, so the displacement table size.
+     *  @return the number of buckets
+     */
+    public int buckets() {
+        return this.displacements.length;
+    }
+
+    /** Get the number of keys that had to go in the overflow map.
+     *  @return the number
+     */
+    public int overflowSize() {
+        return this.overflow == null ? 0 : this.overflow.size();
+    }
+
+    /* Methods from the MapJHU interface ----------------  */
+
+    /** Get the number of (actual) entries in the Map.
+     *  @return the size
+     */
+    public int size() {
+        return this.keys.length + this.overflowSize();
+    }
+
+    /** Not supported; the map can't change.
+     *  @throws UnsupportedOperationException always
+     */
+    public void clear() {
+        throw new UnsupportedOperationException("frozen map");
+    }
+
+    /** Find out if the Map has any entries.
+     *  @return true if no entries, false otherwise
+     */
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    /** Find out if a key is in the map.
+     *  @param key the key being searched for
+     *  @return true if found, false otherwise
+     */
+    public boolean hasKey(K key) {
+        return this.find(key) >= 0
+                || this.overflow != null && this.overflow.hasKey(key);
+    }
+
+    /** Find out if a value is in the map.
+     *  @param value the value to search for
+     *  @return true if found, false otherwise
+     */
+    public boolean hasValue(V value) {
+        for (Object v : this.vals) {
+            if (Objects.equals(v, value)) {
+                return true;
+            }
+        }
+        return this.overflow != null && this.overflow.hasValue(value);
+    }
+
+    /** Get the value associated with a key if there.
+     *  @param key the key being searched for
+     *  @return the value associated with key, or null if not found
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        int slot = this.find(key);
+        if (slot >= 0) {
+            return (V) this.vals[slot];
+        }
+        return this.overflow == null ? null : this.overflow.get(key);
+    }
+
+    /** Not supported; the map can't change.
+     *  @param key ignored
+     *  @param value ignored
+     *  @return never
+     *  @throws UnsupportedOperationException always
+     */
+    public V put(K key, V value) {
+        throw new UnsupportedOperationException("frozen map");
+    }
+
+    /** Not supported; the map can't change.
+     *  @param key ignored
+     *  @return never
+     *  @throws UnsupportedOperationException always
+     */
+    public V remove(K key) {
+        throw new UnsupportedOperationException("frozen map");
+    }
+
+    /** Get a set of all the entries in the map.
+     *  @return a copy of the entries
+     */
+    @SuppressWarnings("unchecked")
+    public Set<Map.Entry<K, V>> entries() {
+        Set<Map.Entry<K, V>> setEntries = new HashSet<Map.Entry<K, V>>();
+        for (int i = 0; i < this.keys.length; i++) {
+            setEntries.add(new AbstractMap.SimpleImmutableEntry<K, V>(
+                    (K) this.keys[i], (V) this.vals[i]));
+        }
+        if (this.overflow != null) {
+            setEntries.addAll(this.overflow.entries());
+        }
+        return setEntries;
+    }
+
+    /** Get a set of all the keys in the map.
+     *  @return a copy of the keys
+     */
+    @SuppressWarnings("unchecked")
+    public Set<K> keys() {
+        Set<K> setKeys = new HashSet<K>();
+        for (Object key : this.keys) {
+            setKeys.add((K) key);
+        }
+        if (this.overflow != null) {
+            setKeys.addAll(this.overflow.keys());
+        }
+        return setKeys;
+    }
+
+    /** Get a collection of all the values in the map.
+     *  @return a copy of the values
+     */
+    @SuppressWarnings("unchecked")
+    public Collection<V> values() {
+        Collection<V> colValues = new ArrayList<V>();
+        for (Object value : this.vals) {
+            colValues.add((V) value);
+        }
+        if (this.overflow != null) {
+            colValues.addAll(this.overflow.values());
+        }
+        return colValues;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+*/
+
+/** TESTS for FrozenHashMap
+ *  Explicit tests that freezing each LPHashMap kind, and copying other
+ *  maps, keeps exactly the same entries, that misses are found, that
+ *  every mutation throws, that keys sharing a hashCode go to overflow
+ *  and are still found, and the empty and single entry edge cases.
+ *  Large random key sets against java.util.HashMap.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+public class FrozenHashMapTest {
+
+    @Test
+    public void testFreezeEachKind() {
+        List<LPHashMap<String, Integer>> maps = Arrays.asList(
+            new LPHashMap<String, Integer>(.7f),
+            new FlatLPHashMap<String, Integer>(.7f),
+            new RobinHoodLPHashMap<String, Integer>(.7f),
+            new IncrementalLPHashMap<String, Integer>(.7f));
+        for (LPHashMap<String, Integer> m : maps) {
+            for (int i = 0; i < 1000; i++) {
+                m.put("term" + i, i);
+            }
+            for (int i = 0; i < 1000; i += 3) {
+                m.remove("term" + i);  // leaves tombstones behind
+            }
+            FrozenHashMap<String, Integer> f = m.freeze();
+            assertEquals(m.size(), f.size());
+            assertEquals(m.keys(), f.keys());
+            assertEquals(m.entries(), f.entries());
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(m.get("term" + i), f.get("term" + i));
+                assertEquals(i % 3 != 0, f.hasKey("term" + i));
+            }
+            assertNull(f.get("missing"));
+            assertFalse(f.hasKey("term1000"));
+            assertTrue(f.hasValue(1));
+            assertFalse(f.hasValue(0));
+            assertEquals(0, f.overflowSize());
+            assertTrue(f.buckets() * FrozenHashMap.BUCKET_SIZE >= f.size());
+        }
+    }
+
+    @Test
+    public void testCopyOf() {
+        ConcurrentLPHashMap<Integer, String> c =
+            new ConcurrentLPHashMap<Integer, String>(.7f);
+        CuckooHashMap<Integer, String> k =
+            new CuckooHashMap<Integer, String>(.7f);
+        for (int i = -100; i < 100; i++) {
+            c.put(i, "" + i);
+            k.put(i, "" + i);
+        }
+        FrozenHashMap<Integer, String> fc = FrozenHashMap.copyOf(c);
+        FrozenHashMap<Integer, String> fk = FrozenHashMap.copyOf(k);
+        assertEquals(c.entries(), fc.entries());
+        assertEquals(k.entries(), fk.entries());
+        assertEquals("-7", fc.get(-7));
+        assertNull(fk.get(100));
+    }
+
+    @Test
+    public void testEmptyAndSingle() {
+        FrozenHashMap<String, String> empty =
+            new LPHashMap<String, String>(.5f).freeze();
+        assertTrue(empty.isEmpty());
+        assertNull(empty.get("a"));
+        assertFalse(empty.hasKey("a"));
+        assertTrue(empty.keys().isEmpty());
+
+        LPHashMap<String, String> one = new LPHashMap<String, String>(.5f);
+        one.put("a", "b");
+        FrozenHashMap<String, String> single = one.freeze();
+        assertEquals(1, single.size());
+        assertEquals("b", single.get("a"));
+        assertNull(single.get("b"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testPutThrows() {
+        new LPHashMap<String, String>(.5f).freeze().put("a", "b");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testRemoveThrows() {
+        new LPHashMap<String, String>(.5f).freeze().remove("a");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testClearThrows() {
+        new LPHashMap<String, String>(.5f).freeze().clear();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testComputeIfAbsentMissThrows() {
+        new LPHashMap<String, String>(.5f).freeze()
+            .computeIfAbsent("a", k -> "b");
+    }
+
+    @Test
+    public void testEqualHashCodesOverflow() {
+        LPHashMap<HashStrategyTest.FixedHash, Integer> m =
+            new LPHashMap<HashStrategyTest.FixedHash, Integer>(.5f);
+        for (int i = 0; i < 50; i++) {
+            m.put(new HashStrategyTest.FixedHash(i % 5, "k" + i), i);
+        }
+        FrozenHashMap<HashStrategyTest.FixedHash, Integer> f = m.freeze();
+        assertEquals(50, f.size());
+        assertEquals(45, f.overflowSize());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, (int) f.get(
+                new HashStrategyTest.FixedHash(i % 5, "k" + i)));
+        }
+        assertNull(f.get(new HashStrategyTest.FixedHash(1, "k2")));
+        assertEquals(m.keys(), f.keys());
+        assertEquals(50, f.values().size());
+    }
+
+    @Test
+    public void testRandomAgainstHashMap() {
+        Random random = new Random(226);
+        for (int n : new int[] {2, 3, 10, 1000, 100000}) {
+            HashMap<Integer, Integer> expected =
+                new HashMap<Integer, Integer>();
+            LPHashMap<Integer, Integer> m =
+                new LPHashMap<Integer, Integer>(.7f, n);
+            while (expected.size() < n) {
+                int key = random.nextInt();
+                expected.put(key, ~key);
+                m.put(key, ~key);
+            }
+            FrozenHashMap<Integer, Integer> f = m.freeze();
+            assertEquals(n, f.size());
+            for (Integer key : expected.keySet()) {
+                assertEquals(expected.get(key), f.get(key));
+            }
+            for (int i = 0; i < 1000; i++) {
+                int key = random.nextInt();
+                assertEquals(expected.get(key), f.get(key));
+            }
+        }
+    }
+}
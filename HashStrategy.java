@@ -0,0 +1,196 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/** How an open addressing map turns keys into home slots: the hash
+ *  it derives from a key's hashCode, the table capacities it allows,
+ *  and how a hash is reduced to a slot in a table of such a capacity.
+ *  The two go together, since a power of two table only sees the low
+ *  bits of a hash and so needs them well mixed, while a prime table
+ *  folds in every bit and can take hashCode more or less as is.
+ *  @author Ryan Demo
+ */
+public interface HashStrategy {
+
+    /** The original scheme: hashCode with the sign bit cleared, prime
+     *  capacities, and home slot hash % capacity. */
+    HashStrategy PRIME_MODULO = new PrimeModulo();
+
+    /** Hash a key to the non-negative value probing starts from.
+     *  @param key the key to hash
+     *  @return the hash, >= 0
+     */
+    int hash(Object key);
+
+    /** Hash an int key the same way hash would hash it boxed, which
+     *  the strategies here do without boxing it.
+     *  @param key the key to hash
+     *  @return the hash, >= 0
+     */
+    default int hashInt(int key) {
+        return this.hash(Integer.valueOf(key));
+    }
+
+    /** Get the home slot for a hash.
+     *  @param hash a hash from hash(key)
+     *  @param capacity the table size, from capacityFor
+     *  @return the slot, 0 <= slot < capacity
+     */
+    int index(int hash, int capacity);
+
+    /** Get the smallest capacity this strategy allows that is at least
+     *  a lower bound.
+     *  @param lowerBound the least number of slots wanted, > 0
+     *  @return the capacity
+     */
+    int capacityFor(int lowerBound);
+
+    /** Get a strategy that mixes hashCode with a murmur3 finalizer and
+     *  uses power of two tables, indexing with a mask.
+     *  @return the strategy, with seed 0
+     */
+    static HashStrategy mixed() {
+        return new MixedPowerOfTwo(0);
+    }
+
+    /** Get a mixing, power of two strategy with a given seed.
+     *  @param seed folded into every hash before mixing
+     *  @return the strategy
+     */
+    static HashStrategy mixed(int seed) {
+        return new MixedPowerOfTwo(seed);
+    }
+
+    /** Get a mixing, power of two strategy with a random seed, so that
+     *  which keys collide differs from map to map and run to run.
+     *  This does not help against keys with equal hashCodes, which
+     *  every strategy must put in the same probe sequence.
+     *  @return the strategy
+     */
+    static HashStrategy randomized() {
+        return new MixedPowerOfTwo(ThreadLocalRandom.current().nextInt());
+    }
+
+    /** hashCode & MAX_VALUE over prime capacities. */
+    final class PrimeModulo implements HashStrategy {
+
+        /** Only PRIME_MODULO is needed; it has no state. */
+        private PrimeModulo() {
+        }
+
+        @Override
+        public int hash(Object key) {
+            //not Math.abs, which leaves MIN_VALUE negative
+            return key.hashCode() & Integer.MAX_VALUE;
+        }
+
+        @Override
+        public int hashInt(int key) {
+            return key & Integer.MAX_VALUE;  // Integer.hashCode is the int
+        }
+
+        @Override
+        public int index(int hash, int capacity) {
+            return hash % capacity;
+        }
+
+        @Override
+        public int capacityFor(int lowerBound) {
+            return LPHashMap.nextPrime(lowerBound);
+        }
+
+        @Override
+        public String toString() {
+            return "prime-modulo";
+        }
+    }
+
+    /** Seeded murmur3 fmix32 over power of two capacities. */
+    final class MixedPowerOfTwo implements HashStrategy {
+
+        /** Largest power of two an int capacity can be. */
+        static final int MAX_CAPACITY = 1 << 30;
+
+        /** First fmix32 multiplier. */
+        private static final int MIX_1 = 0x85ebca6b;
+
+        /** Second fmix32 multiplier. */
+        private static final int MIX_2 = 0xc2b2ae35;
+
+        /** First and last fmix32 shift. */
+        private static final int SHIFT_OUT = 16;
+
+        /** Middle fmix32 shift. */
+        private static final int SHIFT_MID = 13;
+
+        /** Folded into every hash before mixing. */
+        private final int seed;
+
+        /** Create the strategy.
+         *  @param seed folded into every hash before mixing
+         */
+        MixedPowerOfTwo(int seed) {
+            this.seed = seed;
+        }
+
+        /** Get the seed.
+         *  @return the seed
+         */
+        public int getSeed() {
+            return this.seed;
+        }
+
+        /** Scramble an int with the murmur3 fmix32 finalizer, so every
+         *  input bit affects every output bit.
+         *  @param h the int to scramble
+         *  @return the scrambled int, possibly negative
+         */
+        static int mix(int h) {
+            h ^= h >>> SHIFT_OUT;
+            h *= MIX_1;
+            h ^= h >>> SHIFT_MID;
+            h *= MIX_2;
+            h ^= h >>> SHIFT_OUT;
+            return h;
+        }
+
+        @Override
+        public int hash(Object key) {
+            return mix(key.hashCode() ^ this.seed) & Integer.MAX_VALUE;
+        }
+
+        @Override
+        public int hashInt(int key) {
+            return mix(key ^ this.seed) & Integer.MAX_VALUE;
+        }
+
+        @Override
+        public int index(int hash, int capacity) {
+            return hash & (capacity - 1);
+        }
+
+        @Override
+        public int capacityFor(int lowerBound) {
+            if (lowerBound <= 0) {
+                throw new IllegalArgumentException(
+                        "capacity must be positive: " + lowerBound);
+            }
+            if (lowerBound > MAX_CAPACITY) {
+                throw new IllegalArgumentException(
+                        "capacity too large: " + lowerBound);
+            }
+            return lowerBound == 1 ? 1
+                    : Integer.highestOneBit(lowerBound - 1) << 1;
+        }
+
+        @Override
+        public String toString() {
+            return "mixed-power-of-two(seed " + this.seed + ")";
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+*/
+
+/** TESTS for HashStrategy
+ *  Explicit tests that the prime modulo hash is never negative, even
+ *  for a hashCode of Integer.MIN_VALUE, that mixed tables are always a
+ *  power of two and never asked for a bound that is not positive or
+ *  has overflowed, that seeds change hashes deterministically, and that
+ *  mixing spreads keys that a bare mask would pile onto one slot.
+ *  Every map implementation run with a mixed strategy against
+ *  java.util.HashMap under random put/remove/merge.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+public class HashStrategyTest {
+
+    /** Key whose hashCode is fixed, to reach hash edge cases. */
+    static final class FixedHash {
+        final int code;
+        final String name;
+
+        FixedHash(int code, String name) {
+            this.code = code;
+            this.name = name;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.code;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof FixedHash
+                && ((FixedHash) o).name.equals(this.name);
+        }
+    }
+
+    static boolean isPowerOfTwo(int n) {
+        return n > 0 && (n & (n - 1)) == 0;
+    }
+
+    @Test
+    public void testMinValueHashCode() {
+        HashStrategy prime = HashStrategy.PRIME_MODULO;
+        assertTrue(prime.hash(Integer.MIN_VALUE) >= 0);
+        assertTrue(prime.hash(-1) >= 0);
+        assertEquals(7, prime.hash(7));
+        for (HashStrategy s : new HashStrategy[] {prime,
+                HashStrategy.mixed()}) {
+            LPHashMap<FixedHash, String> m =
+                new LPHashMap<FixedHash, String>(.7f, 0, s);
+            FixedHash min = new FixedHash(Integer.MIN_VALUE, "min");
+            m.put(min, "a");
+            m.put(new FixedHash(Integer.MIN_VALUE, "other"), "b");
+            assertEquals("a", m.get(min));
+            assertEquals("b", m.get(new FixedHash(Integer.MIN_VALUE,
+                                                  "other")));
+            assertEquals("a", m.remove(min));
+            assertEquals(1, m.size());
+        }
+    }
+
+    @Test
+    public void testPowerOfTwoCapacities() {
+        HashStrategy mixed = HashStrategy.mixed();
+        assertEquals(1, mixed.capacityFor(1));
+        assertEquals(8, mixed.capacityFor(5));
+        assertEquals(8, mixed.capacityFor(8));
+        assertEquals(16, mixed.capacityFor(9));
+        assertEquals(1 << 30, mixed.capacityFor((1 << 29) + 1));
+        assertEquals(1024, LPHashMap.capacityFor(512, .5f, mixed));
+        assertEquals(2048, LPHashMap.capacityFor(513, .5f, mixed));
+        assertEquals(11, HashStrategy.PRIME_MODULO.capacityFor(10));
+
+        LPHashMap<Integer, Integer> m =
+            new LPHashMap<Integer, Integer>(.75f, 0, mixed);
+        assertEquals(8, m.getCapacity());
+        for (int i = 0; i < 1000; i++) {
+            m.put(i, i);
+            assertTrue(isPowerOfTwo(m.getCapacity()));
+            assertTrue(m.getLoad() <= .75f);
+        }
+        m.ensureCapacity(5000);
+        assertEquals(8192, m.getCapacity());
+        for (int i = 0; i < 990; i++) {
+            m.remove(i);
+        }
+        m.trimToSize();
+        assertEquals(16, m.getCapacity());
+        for (int i = 990; i < 1000; i++) {
+            assertEquals(i, (int) m.get(i));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPowerOfTwoTooLarge() {
+        HashStrategy.mixed().capacityFor((1 << 30) + 1);
+    }
+
+    @Test
+    public void testPowerOfTwoNotPositive() {
+        for (int bound : new int[] {0, -1, 2 * (1 << 30)}) {  // overflowed
+            try {
+                HashStrategy.mixed().capacityFor(bound);
+                fail("capacity for " + bound);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testGrowthFromLargestCapacity() {
+        assertEquals(Integer.MAX_VALUE, LPHashMap.doubled(1 << 30));
+        assertEquals(16, LPHashMap.doubled(8));
+        try {
+            HashStrategy.mixed().capacityFor(LPHashMap.doubled(1 << 30));
+            fail("grew past the largest power of two");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("too large"));
+        }
+    }
+
+    @Test
+    public void testHashIntMatchesBoxed() {
+        HashStrategy[] strategies = {HashStrategy.PRIME_MODULO,
+            HashStrategy.mixed(), HashStrategy.mixed(226),
+            SwissLPHashMapTest.IDENTITY};  // the boxing default
+        for (HashStrategy s : strategies) {
+            for (int i : new int[] {0, 1, -1, 226, Integer.MIN_VALUE,
+                                    Integer.MAX_VALUE}) {
+                assertEquals(s.hash(i), s.hashInt(i));
+            }
+        }
+    }
+
+    @Test
+    public void testSeeds() {
+        HashStrategy a = HashStrategy.mixed(1);
+        HashStrategy b = HashStrategy.mixed(2);
+        int differ = 0;
+        for (int i = 0; i < 100; i++) {
+            assertEquals(a.hash(i), HashStrategy.mixed(1).hash(i));
+            assertTrue(a.hash(i) >= 0);
+            if (a.hash(i) != b.hash(i)) {
+                differ++;
+            }
+        }
+        assertTrue(differ > 90);
+        HashStrategy r = HashStrategy.randomized();
+        assertEquals(r.hash("x"), r.hash("x"));
+        assertTrue(r.hash("x") >= 0);
+    }
+
+    @Test
+    public void testMixingSpreadsStridedKeys() {
+        // Integer hashCodes that all share their low 10 bits would
+        // land on one home slot in a masked table without mixing
+        LPHashMap<Integer, Integer> m =
+            new LPHashMap<Integer, Integer>(.5f, 1000, HashStrategy.mixed());
+        for (int i = 0; i < 1000; i++) {
+            m.put(i << 10, i);
+        }
+        assertTrue(m.maxProbeDistance() < 32);
+        assertTrue(m.meanProbeDistance() < 2);
+    }
+
+    @Test
+    public void testMixedAgainstHashMap() {
+        HashStrategy s = HashStrategy.mixed(226);
+        List<LPHashMap<Integer, Integer>> maps = Arrays.asList(
+            new LPHashMap<Integer, Integer>(.7f, 0, s),
+            new FlatLPHashMap<Integer, Integer>(.7f, 0, s),
+            new RobinHoodLPHashMap<Integer, Integer>(.9f, 0, s),
+            new IncrementalLPHashMap<Integer, Integer>(.7f, 0, s));
+        for (LPHashMap<Integer, Integer> m : maps) {
+            HashMap<Integer, Integer> expected =
+                new HashMap<Integer, Integer>();
+            Random random = new Random(600);
+            for (int i = 0; i < 20000; i++) {
+                int key = random.nextInt(2000) - 1000;
+                switch (random.nextInt(3)) {
+                    case 0:
+                        assertEquals(expected.remove(key), m.remove(key));
+                        break;
+                    case 1:
+                        assertEquals(expected.merge(key, i, Integer::sum),
+                                     m.merge(key, i, Integer::sum));
+                        break;
+                    default:
+                        assertEquals(expected.put(key, i), m.put(key, i));
+                        break;
+                }
+                assertTrue(isPowerOfTwo(m.getCapacity()));
+            }
+            assertEquals(expected.size(), m.size());
+            for (Integer key : expected.keySet()) {
+                assertEquals(expected.get(key), m.get(key));
+            }
+            assertEquals(s, m.getHashStrategy());
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/** Linear probe hash map that resizes incrementally. A rehash makes
+ *  the new bucket array but leaves the entries in the old one, then each
+ *  write moves at most MIGRATE_STEP old slots across, so no
+ *  single insert pays for copying the whole table. Until the old array
+ *  is drained, lookups check the new array and then the old one.
+ *  Gets never migrate, so they stay read-only.
+ *  Sizing, load and tombstone rules are the same as LPHashMap; while a
+ *  migration is running, getCapacity() is the capacity of the new table
+ *  and ghosts() counts only its tombstones.
+ *  @author Ryan Demo
+ *  @param <K> the base type of the keys
+ *  @param <V> the base type of the values
+ */
+public class IncrementalLPHashMap<K, V> extends LPHashMap<K, V> {
+
+    /** Most old slots moved to the new table per write. With
+     *  this many, a migration finishes long before the new table can
+     *  fill up for any max load above 1 / MIGRATE_STEP.
+     */
+    static final int MIGRATE_STEP = 8;
+
+    /** Tombstone left in the old table where an entry has moved out. */
+    private static final LPMapEntry<Object, Object> MOVED =
+            new LPMapEntry<Object, Object>(null, null);
+
+    /** Bucket array being drained, or null if not migrating. */
+    private LPMapEntry<K, V>[] oldEntries;
+
+    /** Number of slots of oldEntries moved so far. */
+    private int migrated;
+
+    /** Create an empty incrementally resized hash map with capacity 5.
+     *  @param max the maximum load factor, 0 < maxLoad <= 1
+     */
+    public IncrementalLPHashMap(float max) {
+        super(max);
+    }
+
+    /** Create an empty incrementally resized hash map big enough to hold
+     *  a number of entries without rehashing.
+     *  @param max the maximum load factor, 0 < maxLoad <= 1
+     *  @param expectedSize the number of entries expected, >= 0
+     */
+    public IncrementalLPHashMap(float max, int expectedSize) {
+        super(max, expectedSize);
+    }
+
+    /** Create an empty incrementally resized hash map big enough to hold
+     *  a number of entries without rehashing, hashing keys with a given
+     *  strategy.
+     *  @param max the maximum load factor, 0 < maxLoad <= 1
+     *  @param expectedSize the number of entries expected, >= 0
+     *  @param strategy the hash function and table sizing to use
+     */
+    public IncrementalLPHashMap(float max, int expectedSize,
+            HashStrategy strategy) {
+        super(max, expectedSize, strategy);
+    }
+
+    /** Find out if a rehash is still moving entries to the new table.
+     *  @return true if there are old slots left to migrate
+     */
+    public boolean isMigrating() {
+        return this.oldEntries != null;
+    }
+
+    /** Start rehashing the entries to a new table size. The new table
+     *  is empty to begin with; entries move into it a few slots per
+     *  write. A migration still running from an earlier rehash
+     *  is finished first.
+     *  @param cap the capacity of the table after rehashing, cap > size()
+     */
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void rehash(int cap) {
+        this.modCount++;
+        this.migrate(Integer.MAX_VALUE);
+        this.oldEntries = this.entries;
+        this.migrated = 0;
+        this.entries = new LPMapEntry[cap];
+        this.capacity = cap;
+        this.tombstones = 0;
+    }
+
+    /** Move up to a number of old table slots into the new table.
+     *  @param steps the most slots to move
+     */
+    private void migrate(int steps) {
+        if (this.oldEntries == null) {
+            return;
+        }
+        this.modCount++;  //entries move, so walks over the slots break
+        int end = this.oldEntries.length;
+        if (end - this.migrated > steps) {
+            end = this.migrated + steps;
+        }
+        for (; this.migrated < end; this.migrated++) {
+            LPMapEntry<K, V> entry = this.oldEntries[this.migrated];
+            if (entry != null && !entry.isTombstone()) {
+                //key can't be in the new table, so this finds a free slot
+                int index = -this.findSlot(entry.getKey(),
+                        this.hash(entry.getKey())) - 1;
+                if (this.entries[index] != null) {
+                    this.tombstones--;
+                }
+                this.entries[index] = entry;
+                this.oldEntries[this.migrated] = this.moved();
+            }
+        }
+        if (this.migrated == this.oldEntries.length) {
+            this.oldEntries = null;
+        }
+    }
+
+    /** Find a key's slot in the old table.
+     *  @param key the key being searched for
+     *  @param hash the key's hash, as computed by hash(key)
+     *  @return the slot of its live entry, or a negative number if the
+     *  key is not waiting to be migrated
+     */
+    private int findOldSlot(K key, int hash) {
+        if (this.oldEntries == null) {
+            return -1;
+        }
+        return this.findSlot(this.oldEntries, key, hash);
+    }
+
+    @Override
+    int slotCount() {
+        if (this.oldEntries == null) {
+            return this.getCapacity();
+        }
+        return this.getCapacity() + this.oldEntries.length;
+    }
+
+    /** Get what is in one slot; slots past the capacity are those of the
+     *  old table while migrating.
+     *  @param index the slot, 0 <= index < slotCount()
+     *  @return null if the slot is empty, otherwise its entry
+     */
+    @Override
+    LPMapEntry<K, V> slotAt(int index) {
+        if (index < this.getCapacity()) {
+            return this.entries[index];
+        }
+        return this.oldEntries[index - this.getCapacity()];
+    }
+
+    @Override
+    V valueAt(int index) {
+        if (index < this.getCapacity()) {
+            return super.valueAt(index);
+        }
+        return this.oldEntries[index - this.getCapacity()].getValue();
+    }
+
+    @Override
+    void setValueAt(int index, V value) {
+        if (index < this.getCapacity()) {
+            super.setValueAt(index, value);
+        } else {
+            int slot = index - this.getCapacity();
+            this.oldEntries[slot] = new LPMapEntry<K, V>(
+                    this.oldEntries[slot].getKey(), value);
+        }
+    }
+
+    @Override
+    void removeAt(int index) {
+        if (index < this.getCapacity()) {
+            super.removeAt(index);
+        } else {
+            this.oldEntries[index - this.getCapacity()] = this.moved();
+            this.numElements--;
+        }
+    }
+
+    @Override
+    int probeDistance(int index) {
+        if (index < this.getCapacity()) {
+            return super.probeDistance(index);
+        }
+        int cap = this.oldEntries.length;
+        int slot = index - this.getCapacity();
+        int home = this.strategy.index(
+                this.hash(this.oldEntries[slot].getKey()), cap);
+        return (slot - home + cap) % cap;
+    }
+
+    @Override
+    public void clear() {
+        this.oldEntries = null;
+        super.clear();
+    }
+
+    @Override
+    public boolean hasKey(K key) {
+        return this.lookup(key) >= 0;
+    }
+
+    @Override
+    public V get(K key) {
+        int slot = this.lookup(key);
+        return slot >= 0 ? this.valueAt(slot) : null;
+    }
+
+    /** Find a key in the new table or else the old one, counting the
+     *  lookup as a get if stats are being kept.
+     *  @param key the key being searched for
+     *  @return the key's slot as slotAt numbers them, or -1 if not found
+     */
+    private int lookup(K key) {
+        int hash = this.hash(key);
+        int slot = this.findSlot(key, hash);
+        int found = slot;
+        if (slot < 0) {
+            int oldSlot = this.findOldSlot(key, hash);
+            found = oldSlot >= 0 ? oldSlot + this.getCapacity() : -1;
+        }
+        if (this.stats != null) {
+            this.stats.recordGet(this.probeLength(slot, hash), found >= 0);
+        }
+        return found;
+    }
+
+    /** Get the MOVED tombstone as this map's entry type, which is safe
+     *  since its key and value are both null.
+     *  @return MOVED
+     */
+    @SuppressWarnings("unchecked")
+    private LPMapEntry<K, V> moved() {
+        return (LPMapEntry<K, V>) (LPMapEntry<?, ?>) MOVED;
+    }
+
+    /** Move a key across to the new table now if it is still waiting
+     *  in the old one, so the probe that follows only has to look in
+     *  the new table.
+     *  @param key the key
+     *  @param hash the key's hash, as computed by hash(key)
+     */
+    private void pullForward(K key, int hash) {
+        int oldSlot = this.findOldSlot(key, hash);
+        if (oldSlot >= 0) {
+            int index = -this.findSlot(key, hash) - 1;
+            if (this.entries[index] != null) {
+                this.tombstones--;
+            }
+            this.entries[index] = this.oldEntries[oldSlot];
+            this.oldEntries[oldSlot] = this.moved();
+        }
+    }
+
+    @Override
+    public V put(K key, V value) {
+        this.migrate(MIGRATE_STEP);
+        this.pullForward(key, this.hash(key));
+        return super.put(key, value);
+    }
+
+    @Override
+    public V computeIfAbsent(K key,
+            Function<? super K, ? extends V> mappingFunction) {
+        this.migrate(MIGRATE_STEP);
+        this.pullForward(key, this.hash(key));
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public V compute(K key,
+            BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        this.migrate(MIGRATE_STEP);
+        this.pullForward(key, this.hash(key));
+        return super.compute(key, remappingFunction);
+    }
+
+    @Override
+    public V merge(K key, V value,
+            BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        this.migrate(MIGRATE_STEP);
+        this.pullForward(key, this.hash(key));
+        return super.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public V remove(K key) {
+        this.migrate(MIGRATE_STEP);
+        int hash = this.hash(key);
+        int slot = this.findSlot(key, hash);
+        if (this.stats != null) {
+            this.stats.recordRemove(this.probeLength(slot, hash));
+        }
+        if (slot >= 0) {
+            this.modCount++;
+            V value = this.entries[slot].getValue();
+            this.countValue(value, -1);
+            this.removeAt(slot);
+
+            //clean out tombstones, which is itself done incrementally
+            this.checkTombstones();
+            return value;
+        }
+        slot = this.findOldSlot(key, hash);
+        if (slot >= 0) {
+            this.modCount++;
+            V value = this.oldEntries[slot].getValue();
+            this.countValue(value, -1);
+            this.removeAt(slot + this.getCapacity());
+            return value;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,233 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+*/
+
+/** TESTS for IncrementalLPHashMap
+ *  Explicit tests that a rehash leaves entries in the old table and that
+ *  puts move them across a bounded number of slots at a time, lookups,
+ *  overwrites, removes and merges of keys in either table while migrating,
+ *  collections and parallel streams spanning both tables, and contents
+ *  against java.util.HashMap under random put/remove, with the reverse
+ *  value index kept up to date across both tables, setValue on entries
+ *  of either table included.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class IncrementalLPHashMapTest {
+
+    IncrementalLPHashMap<Integer, String> inc;
+
+    @Before
+    public void setup() {
+        inc = new IncrementalLPHashMap<Integer, String>(.7f);
+    }
+
+    /** Put keys 0, 1, ... until a rehash starts.
+     *  @return the number of keys put
+     */
+    private int fillUntilMigrating() {
+        int n = 0;
+        while (!inc.isMigrating()) {
+            inc.put(n, "" + n);
+            n++;
+        }
+        return n;
+    }
+
+    @Test
+    public void testGrowthIsIncremental() {
+        for (int i = 0; i < 200; i++) {
+            inc.put(i, "" + i);
+        }
+        while (!inc.isMigrating()) {
+            inc.put(inc.size(), "" + inc.size());
+        }
+        int oldCap = inc.slotCount() - inc.getCapacity();
+        assertTrue(oldCap > IncrementalLPHashMap.MIGRATE_STEP);
+        // capacity and load already reflect the new table
+        assertTrue(inc.getCapacity() >= 2 * oldCap);
+        assertTrue(inc.getLoad() <= inc.getMaxLoad());
+        // each later write moves at most MIGRATE_STEP slots
+        int writes = 0;
+        while (inc.isMigrating()) {
+            inc.put(-1, "x");  // overwrite, no growth
+            writes++;
+        }
+        int minWrites = (oldCap + IncrementalLPHashMap.MIGRATE_STEP - 1)
+            / IncrementalLPHashMap.MIGRATE_STEP;
+        assertTrue(writes >= minWrites - 1);
+        assertEquals(inc.getCapacity(), inc.slotCount());
+        for (int i = 0; i < inc.size() - 1; i++) {
+            assertEquals("" + i, inc.get(i));
+        }
+    }
+
+    @Test
+    public void testOperationsWhileMigrating() {
+        int n = fillUntilMigrating();
+        // every key readable from one table or the other
+        for (int i = 0; i < n; i++) {
+            assertTrue(inc.hasKey(i));
+            assertEquals("" + i, inc.get(i));
+        }
+        assertTrue(inc.isMigrating());
+        assertEquals(n, inc.size());
+        assertEquals(n, inc.keys().size());
+        assertEquals(n, inc.values().size());
+        assertEquals(n, inc.entries().size());
+        assertTrue(inc.hasValue("0"));
+        // overwrites and removes work on whichever table holds the key
+        assertEquals("0", inc.put(0, "zero"));
+        assertEquals("zero", inc.get(0));
+        assertEquals(n, inc.size());
+        assertEquals("1", inc.remove(1));
+        assertNull(inc.get(1));
+        assertFalse(inc.hasKey(1));
+        assertNull(inc.remove(1));
+        assertEquals(n - 1, inc.size());
+        while (inc.isMigrating()) {
+            inc.remove(-1);  // drives migration, removes nothing
+        }
+        assertEquals(n - 1, inc.size());
+        assertEquals("zero", inc.get(0));
+        for (int i = 2; i < n; i++) {
+            assertEquals("" + i, inc.get(i));
+        }
+    }
+
+    @Test
+    public void testComputeWhileMigrating() {
+        for (int i = 0; i < 200; i++) {
+            inc.put(i, "" + i);
+        }
+        while (inc.isMigrating()) {
+            inc.put(0, "0");
+        }
+        while (!inc.isMigrating()) {
+            inc.put(inc.size(), "" + inc.size());
+        }
+        int n = inc.size();
+        // the last keys sit in the last old slots, so are not migrated yet
+        int a = n - 1, b = n - 2, c = n - 3;
+        assertEquals("" + a, inc.computeIfAbsent(a, k -> "none"));
+        assertEquals(b + "" + b, inc.merge(b, "" + b, String::concat));
+        assertNull(inc.compute(c, (k, v) -> null));
+        assertEquals("new", inc.computeIfAbsent(-5, k -> "new"));
+        assertTrue(inc.isMigrating());
+        assertEquals(n, inc.size());
+        while (inc.isMigrating()) {
+            inc.merge(-1, "x", String::concat);
+        }
+        assertEquals("" + a, inc.get(a));
+        assertEquals(b + "" + b, inc.get(b));
+        assertFalse(inc.hasKey(c));
+        assertEquals("new", inc.get(-5));
+        for (int i = 0; i < c; i++) {
+            assertEquals("" + i, inc.get(i));
+        }
+        assertEquals(n + 1, inc.size());
+    }
+
+    @Test
+    public void testStreamWhileMigrating() {
+        for (int i = 0; i < 5000; i++) {
+            inc.put(i, "" + i);
+        }
+        while (!inc.isMigrating()) {
+            inc.put(inc.size(), "" + inc.size());
+        }
+        Set<Integer> keys = inc.parallelStream()
+            .map(LPMapEntry::getKey).collect(Collectors.toSet());
+        assertEquals(inc.keys(), keys);
+        assertEquals(inc.size(), inc.stream().count());
+    }
+
+    @Test
+    public void testClearWhileMigrating() {
+        fillUntilMigrating();
+        int cap = inc.getCapacity();
+        inc.clear();
+        assertFalse(inc.isMigrating());
+        assertTrue(inc.isEmpty());
+        assertEquals(cap, inc.getCapacity());
+        assertTrue(inc.keys().isEmpty());
+        assertNull(inc.get(0));
+    }
+
+    @Test
+    public void testRandomAgainstHashMap() {
+        HashMap<Integer, String> expected = new HashMap<Integer, String>();
+        Random random = new Random(226);
+        int migrations = 0;
+        boolean wasMigrating = false;
+        for (int i = 0; i < 50000; i++) {
+            int key = random.nextInt(5000);
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(key), inc.remove(key));
+            } else {
+                assertEquals(expected.put(key, "v" + i), inc.put(key, "v" + i));
+            }
+            assertEquals(expected.size(), inc.size());
+            if (inc.isMigrating() && !wasMigrating) {
+                migrations++;
+            }
+            wasMigrating = inc.isMigrating();
+        }
+        assertTrue(migrations > 1);
+        assertEquals(expected.keySet(), inc.keys());
+        for (Integer key : expected.keySet()) {
+            assertEquals(expected.get(key), inc.get(key));
+        }
+        HashSet<String> values = new HashSet<String>(expected.values());
+        assertEquals(values, new HashSet<String>(inc.values()));
+    }
+
+    @Test
+    public void testEntrySetValueWhileMigrating() {
+        int n = fillUntilMigrating();
+        inc.setValueIndex(true);
+        for (Map.Entry<Integer, String> e : inc.entries()) {
+            e.setValue("x" + e.getKey());
+        }
+        assertTrue(inc.isMigrating());  // nothing moved
+        for (int i = 0; i < n; i++) {
+            assertEquals("x" + i, inc.get(i));
+            assertFalse(inc.hasValue("" + i));
+            assertTrue(inc.hasValue("x" + i));
+        }
+    }
+
+    @Test
+    public void testValueIndexWhileMigrating() {
+        inc.setValueIndex(true);
+        HashMap<Integer, String> expected = new HashMap<Integer, String>();
+        Random random = new Random(600);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(2000);
+            String val = "v" + random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), inc.remove(key));
+            } else {
+                assertEquals(expected.put(key, val), inc.put(key, val));
+            }
+            String probe = "v" + random.nextInt(500);
+            assertEquals(expected.containsValue(probe), inc.hasValue(probe));
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+/** Linear probe hash map from ints to ints, for tables like document
+ *  ID to term count. Keys and values are kept in int[]s, so nothing
+ *  is boxed or allocated per entry, and any int can be a key or a
+ *  value; gets take the value to return for a missing key.
+ *  @author Ryan Demo
+ */
+public class IntIntHashMap extends PrimitiveLPHashMap {
+
+    /** Keys, by slot. */
+    private int[] keys;
+
+    /** Values, by slot. */
+    private int[] vals;
+
+    /** Create an empty map with the smallest capacity.
+     *  @param max the maximum load factor, 0 < maxLoad < 1
+     *  @throws IllegalArgumentException if max is not in range
+     */
+    public IntIntHashMap(float max) {
+        this(max, 0);
+    }
+
+    /** Create an empty map big enough to hold a number of entries
+     *  without rehashing.
+     *  @param max the maximum load factor, 0 < maxLoad < 1
+     *  @param expectedSize the number of entries expected, >= 0
+     *  @throws IllegalArgumentException if max is not in range
+     */
+    public IntIntHashMap(float max, int expectedSize) {
+        this(max, expectedSize, HashStrategy.mixed());
+    }
+
+    /** Create an empty map big enough to hold a number of entries
+     *  without rehashing, hashing keys with a given strategy.
+     *  @param max the maximum load factor, 0 < maxLoad < 1
+     *  @param expectedSize the number of entries expected, >= 0
+     *  @param strategy the hash function and table sizing to use
+     *  @throws IllegalArgumentException if max is not in range
+     */
+    public IntIntHashMap(float max, int expectedSize,
+            HashStrategy strategy) {
+        super(max, strategy);
+        this.allocate(this.initialCapacity(expectedSize));
+    }
+
+    @Override
+    void allocate(int cap) {
+        this.keys = new int[cap];
+        this.vals = new int[cap];
+        this.states = new byte[cap];
+    }
+
+    @Override
+    public void rehash(int cap) {
+        int[] oldKeys = this.keys;
+        int[] oldVals = this.vals;
+        byte[] oldStates = this.states;
+        this.allocate(cap);
+        for (int i = 0; i < oldStates.length; i++) {
+            if (oldStates[i] == FULL) {
+                int index = this.strategy.index(
+                        this.strategy.hashInt(oldKeys[i]), cap);
+                while (this.states[index] != EMPTY) {
+                    index = this.next(index);
+                }
+                this.keys[index] = oldKeys[i];
+                this.vals[index] = oldVals[i];
+                this.states[index] = FULL;
+            }
+        }
+        this.tombstones = 0;
+    }
+
+    /** Find a key's slot.
+     *  @param key the key
+     *  @return the slot holding the key, or -(slot to insert at) - 1
+     */
+    private int findSlot(int key) {
+        byte[] st = this.states;
+        int index = this.strategy.index(this.strategy.hashInt(key),
+                st.length);
+        int reusable = -1;
+        for (int probe = 0; probe < st.length; probe++) {
+            byte state = st[index];
+            if (state == EMPTY) {
+                return -(reusable < 0 ? index : reusable) - 1;
+            }
+            if (state == TOMBSTONE) {
+                if (reusable < 0) {
+                    reusable = index;
+                }
+            } else if (this.keys[index] == key) {
+                return index;
+            }
+            index = this.next(index);
+        }
+        return -reusable - 1;
+    }
+
+    /** Put a new key in a free slot found by findSlot.
+     *  @param slot -(slot to insert at) - 1
+     *  @param key the key
+     *  @param value the value
+     */
+    private void insertAt(int slot, int key, int value) {
+        if (this.makeRoom()) {
+            slot = this.findSlot(key);
+        }
+        int index = -slot - 1;
+        this.fill(index);
+        this.keys[index] = key;
+        this.vals[index] = value;
+    }
+
+    /** Find out if a key is in the map.
+     *  @param key the key being searched for
+     *  @return true if found, false otherwise
+     */
+    public boolean hasKey(int key) {
+        return this.findSlot(key) >= 0;
+    }
+
+    /** Get the value associated with a key.
+     *  @param key the key being searched for
+     *  @param defaultValue what to return if the key is not there
+     *  @return the value, or defaultValue if not found
+     */
+    public int getOrDefault(int key, int defaultValue) {
+        int slot = this.findSlot(key);
+        return slot < 0 ? defaultValue : this.vals[slot];
+    }
+
+    /** Associate a value with a key, replacing the old value if key exists.
+     *  @param key the key for the entry
+     *  @param value the value for the entry
+     *  @return true if the key is new, false if its value was replaced
+     */
+    public boolean put(int key, int value) {
+        int slot = this.findSlot(key);
+        if (slot >= 0) {
+            this.vals[slot] = value;
+            return false;
+        }
+        this.insertAt(slot, key, value);
+        return true;
+    }
+
+    /** Associate a value with a key unless it already has one, looking
+     *  the key up only once.
+     *  @param key the key for the entry
+     *  @param value the value for a new entry
+     *  @return the key's value: the old one if it was there, else value
+     */
+    public int putIfAbsent(int key, int value) {
+        int slot = this.findSlot(key);
+        if (slot >= 0) {
+            return this.vals[slot];
+        }
+        this.insertAt(slot, key, value);
+        return value;
+    }
+
+    /** Add to the value of a key, which starts at 0 if it is not there.
+     *  @param key the key
+     *  @param delta the amount to add
+     *  @return the new value
+     */
+    public int addTo(int key, int delta) {
+        int slot = this.findSlot(key);
+        if (slot >= 0) {
+            return this.vals[slot] += delta;
+        }
+        this.insertAt(slot, key, delta);
+        return delta;
+    }
+
+    /** Remove the entry associated with a key.
+     *  @param key the key for the entry being deleted
+     *  @return true if the key was there
+     */
+    public boolean remove(int key) {
+        int slot = this.findSlot(key);
+        if (slot < 0) {
+            return false;
+        }
+        this.removeAt(slot);
+        return true;
+    }
+
+    /** Get all the keys in the map, in slot order.
+     *  @return a new array of the keys
+     */
+    public int[] keys() {
+        int[] copy = new int[this.numElements];
+        int n = 0;
+        for (int i = 0; i < this.states.length; i++) {
+            if (this.states[i] == FULL) {
+                copy[n++] = this.keys[i];
+            }
+        }
+        return copy;
+    }
+}
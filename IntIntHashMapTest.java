@@ -0,0 +1,118 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+*/
+
+/** TESTS for IntIntHashMap
+ *  Explicit tests of contents, overwrite and remove, edge keys and
+ *  values with no sentinel, putIfAbsent and addTo, growth at the max
+ *  load, presizing, tombstone sweeping and clear. Contents against
+ *  java.util.HashMap under random put/remove/addTo.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+public class IntIntHashMapTest {
+
+    IntIntHashMap map;
+
+    @Before
+    public void setup() {
+        map = new IntIntHashMap(.7f);
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(map.put(i, -i));
+            assertTrue(map.getLoad() <= map.getMaxLoad());
+        }
+        assertEquals(1000, map.size());
+        assertFalse(map.put(7, 70));
+        assertEquals(70, map.getOrDefault(7, 0));
+        for (int i = 0; i < 1000; i += 2) {
+            assertTrue(map.remove(i));
+        }
+        assertFalse(map.remove(0));
+        assertEquals(500, map.size());
+        assertEquals(500, map.keys().length);
+        assertEquals(-999, map.getOrDefault(999, 0));
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(42, map.getOrDefault(1, 42));
+    }
+
+    @Test
+    public void testEdgeKeysAndValues() {
+        map.put(0, 0);
+        map.put(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        map.put(-1, Integer.MIN_VALUE);
+        assertEquals(0, map.getOrDefault(0, 1));
+        assertEquals(Integer.MAX_VALUE,
+                     map.getOrDefault(Integer.MIN_VALUE, 1));
+        assertEquals(Integer.MIN_VALUE, map.getOrDefault(-1, 1));
+        assertEquals(1, map.getOrDefault(Integer.MAX_VALUE, 1));
+    }
+
+    @Test
+    public void testPutIfAbsentAndAddTo() {
+        assertEquals(5, map.putIfAbsent(3, 5));
+        assertEquals(5, map.putIfAbsent(3, 6));
+        assertEquals(7, map.addTo(3, 2));
+        assertEquals(2, map.addTo(4, 2));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testPresizedAndSweeping() {
+        IntIntHashMap m = new IntIntHashMap(.5f, 1000);
+        int cap = m.getCapacity();
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 1000; i++) {
+                m.put(round * 1000 + i, i);
+            }
+            for (int i = 0; i < 1000; i++) {
+                m.remove(round * 1000 + i);
+            }
+        }
+        assertEquals(cap, m.getCapacity());
+        assertTrue(m.isEmpty());
+        assertTrue(m.ghosts() <= 1000);
+    }
+
+    @Test
+    public void testRandomAgainstHashMap() {
+        HashMap<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        Random random = new Random(226);
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(20000) - 10000;
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.remove(key) != null,
+                                 map.remove(key));
+                    break;
+                case 1:
+                    assertEquals((int) expected.merge(key, i, Integer::sum),
+                                 map.addTo(key, i));
+                    break;
+                default:
+                    assertEquals(expected.put(key, i) == null,
+                                 map.put(key, i));
+                    break;
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (Integer key : expected.keySet()) {
+            assertEquals((int) expected.get(key), map.getOrDefault(key, 0));
+        }
+    }
+}
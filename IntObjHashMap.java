@@ -0,0 +1,214 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Objects;
+
+/** Linear probe hash map from ints to objects, for tables like
+ *  document ID to URL. Keys are kept in an int[] and hashed with
+ *  HashStrategy.hashInt, so no lookup boxes a key or allocates an
+ *  entry. Any int can be a key.
+ *  @author Ryan Demo
+ *  @param <V> the base type of the values
+ */
+public class IntObjHashMap<V> extends PrimitiveLPHashMap {
+
+    /** Keys, by slot. */
+    private int[] keys;
+
+    /** Values, by slot. */
+    private Object[] vals;
+
+    /** Create an empty map with the smallest capacity.
+     *  @param max the maximum load factor, 0 < maxLoad < 1
+     *  @throws IllegalArgumentException if max is not in range
+     */
+    public IntObjHashMap(float max) {
+        this(max, 0);
+    }
+
+    /** Create an empty map big enough to hold a number of entries
+     *  without rehashing.
+     *  @param max the maximum load factor, 0 < maxLoad < 1
+     *  @param expectedSize the number of entries expected, >= 0
+     *  @throws IllegalArgumentException if max is not in range
+     */
+    public IntObjHashMap(float max, int expectedSize) {
+        this(max, expectedSize, HashStrategy.mixed());
+    }
+
+    /** Create an empty map big enough to hold a number of entries
+     *  without rehashing, hashing keys with a given strategy.
+     *  @param max the maximum load factor, 0 < maxLoad < 1
+     *  @param expectedSize the number of entries expected, >= 0
+     *  @param strategy the hash function and table sizing to use
+     *  @throws IllegalArgumentException if max is not in range
+     */
+    public IntObjHashMap(float max, int expectedSize,
+            HashStrategy strategy) {
+        super(max, strategy);
+        this.allocate(this.initialCapacity(expectedSize));
+    }
+
+    @Override
+    void allocate(int cap) {
+        this.keys = new int[cap];
+        this.vals = new Object[cap];
+        this.states = new byte[cap];
+    }
+
+    @Override
+    public void rehash(int cap) {
+        int[] oldKeys = this.keys;
+        Object[] oldVals = this.vals;
+        byte[] oldStates = this.states;
+        this.allocate(cap);
+        for (int i = 0; i < oldStates.length; i++) {
+            if (oldStates[i] == FULL) {
+                int index = this.strategy.index(
+                        this.strategy.hashInt(oldKeys[i]), cap);
+                while (this.states[index] != EMPTY) {
+                    index = this.next(index);
+                }
+                this.keys[index] = oldKeys[i];
+                this.vals[index] = oldVals[i];
+                this.states[index] = FULL;
+            }
+        }
+        this.tombstones = 0;
+    }
+
+    /** Find a key's slot.
+     *  @param key the key
+     *  @return the slot holding the key, or -(slot to insert at) - 1
+     */
+    private int findSlot(int key) {
+        byte[] st = this.states;
+        int index = this.strategy.index(this.strategy.hashInt(key),
+                st.length);
+        int reusable = -1;
+        for (int probe = 0; probe < st.length; probe++) {
+            byte state = st[index];
+            if (state == EMPTY) {
+                return -(reusable < 0 ? index : reusable) - 1;
+            }
+            if (state == TOMBSTONE) {
+                if (reusable < 0) {
+                    reusable = index;
+                }
+            } else if (this.keys[index] == key) {
+                return index;
+            }
+            index = this.next(index);
+        }
+        return -reusable - 1;
+    }
+
+    @Override
+    void removeAt(int index) {
+        this.vals[index] = null;
+        super.removeAt(index);
+    }
+
+    /** Find out if a key is in the map.
+     *  @param key the key being searched for
+     *  @return true if found, false otherwise
+     */
+    public boolean hasKey(int key) {
+        return this.findSlot(key) >= 0;
+    }
+
+    /** Find out if a value is in the map.
+     *  @param value the value to search for
+     *  @return true if found, false otherwise
+     */
+    public boolean hasValue(V value) {
+        for (int i = 0; i < this.states.length; i++) {
+            if (this.states[i] == FULL && Objects.equals(this.vals[i], value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Get the value associated with a key if there.
+     *  @param key the key being searched for
+     *  @return the value associated with key, or null if not found
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = this.findSlot(key);
+        return slot < 0 ? null : (V) this.vals[slot];
+    }
+
+    /** Associate a value with a key, replacing the old value if key exists.
+     *  @param key the key for the entry
+     *  @param value the value for the entry
+     *  @return the old value associated with the key, or null if new entry
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        int slot = this.findSlot(key);
+        if (slot >= 0) {
+            V oldValue = (V) this.vals[slot];
+            this.vals[slot] = value;
+            return oldValue;
+        }
+        if (this.makeRoom()) {
+            slot = this.findSlot(key);
+        }
+        int index = -slot - 1;
+        this.fill(index);
+        this.keys[index] = key;
+        this.vals[index] = value;
+        return null;
+    }
+
+    /** Remove the entry associated with a key.
+     *  @param key the key for the entry being deleted
+     *  @return the value associated with the key, or null if key not there
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = this.findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        V value = (V) this.vals[slot];
+        this.removeAt(slot);
+        return value;
+    }
+
+    /** Get all the keys in the map, in slot order.
+     *  @return a new array of the keys
+     */
+    public int[] keys() {
+        int[] copy = new int[this.numElements];
+        int n = 0;
+        for (int i = 0; i < this.states.length; i++) {
+            if (this.states[i] == FULL) {
+                copy[n++] = this.keys[i];
+            }
+        }
+        return copy;
+    }
+
+    /** Get a collection of all the values in the map, in slot order.
+     *  @return a copy of the values
+     */
+    @SuppressWarnings("unchecked")
+    public Collection<V> values() {
+        Collection<V> colValues = new ArrayList<V>(this.numElements);
+        for (int i = 0; i < this.states.length; i++) {
+            if (this.states[i] == FULL) {
+                colValues.add((V) this.vals[i]);
+            }
+        }
+        return colValues;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+*/
+
+/** TESTS for IntObjHashMap
+ *  Explicit tests of contents, overwrite and remove, keys 0, -1,
+ *  MIN_VALUE and MAX_VALUE, which no sentinel may shadow, dense
+ *  document IDs under both strategies, hasValue, keys and values, and
+ *  clear. Contents against java.util.HashMap under random put/remove.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+public class IntObjHashMapTest {
+
+    IntObjHashMap<String> map;
+
+    @Before
+    public void setup() {
+        map = new IntObjHashMap<String>(.7f);
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        for (int i = 0; i < 1000; i++) {
+            assertNull(map.put(i, "url" + i));
+        }
+        assertEquals(1000, map.size());
+        assertEquals("url7", map.put(7, "seven"));
+        assertEquals("seven", map.get(7));
+        assertNull(map.get(1000));
+        assertTrue(map.hasValue("url999"));
+        assertFalse(map.hasValue("url7"));
+        for (int i = 0; i < 1000; i += 2) {
+            assertEquals("url" + i, map.remove(i));
+        }
+        assertNull(map.remove(0));
+        assertEquals(500, map.size());
+        assertEquals(500, map.keys().length);
+        assertEquals(500, map.values().size());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1));
+    }
+
+    @Test
+    public void testEdgeKeys() {
+        int[] keys = {0, -1, Integer.MIN_VALUE, Integer.MAX_VALUE};
+        for (int k : keys) {
+            assertFalse(map.hasKey(k));
+            map.put(k, "" + k);
+        }
+        for (int k : keys) {
+            assertEquals("" + k, map.get(k));
+        }
+        int[] got = map.keys();
+        Arrays.sort(got);
+        int[] want = keys.clone();
+        Arrays.sort(want);
+        assertTrue(Arrays.equals(want, got));
+        map.put(1, null);
+        assertTrue(map.hasKey(1));
+        assertTrue(map.hasValue(null));
+    }
+
+    @Test
+    public void testDenseIdsEitherStrategy() {
+        IntObjHashMap<String> prime = new IntObjHashMap<String>(.7f, 10000,
+            HashStrategy.PRIME_MODULO);
+        int cap = prime.getCapacity();
+        for (int i = 0; i < 10000; i++) {
+            prime.put(i, "d" + i);
+            map.put(i, "d" + i);
+        }
+        assertEquals(cap, prime.getCapacity());  // presized
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(prime.get(i), map.get(i));
+        }
+        assertEquals(new HashSet<String>(prime.values()),
+                     new HashSet<String>(map.values()));
+    }
+
+    @Test
+    public void testRandomAgainstHashMap() {
+        HashMap<Integer, String> expected = new HashMap<Integer, String>();
+        Random random = new Random(226);
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(20000) - 10000;
+            if (random.nextBoolean()) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, "" + i), map.put(key, "" + i));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (Integer key : expected.keySet()) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+        assertTrue(map.ghosts() <= map.size());
+    }
+}
@@ -11,9 +11,11 @@ import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
 import java.util.Deque;
-import java.util.HashSet;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import javax.management.JMException;
 
 /**
  * Main driver to run JHUgle search engine for project 2.
@@ -27,6 +29,11 @@ public final class JHUgle {
      */
     private static final float MAX_LOAD = (float) 0.7;
 
+    /**
+     * Suffix of the file saved beside a snapshot with its doc table.
+     */
+    private static final String DOCS_SUFFIX = ".docs";
+
     /**
      * Dummy constructor for utility class.
      */
@@ -34,10 +41,12 @@ public final class JHUgle {
     }
 
     /** Main loop for JHUgle application.
-     * Loads an LPHashMap with the (word, URL list) pairs from
-     * the input file. Sends this map to a loop that handles
-     * user interaction.
-     * @param args takes one command line arg for filename as input file
+     * Loads an LPHashMap with the (word, posting list) pairs from the
+     * input file, each page's URL getting an int ID in a DocTable and
+     * each list packed as a bitmap or compressed as its density suits.
+     * Sends this map to a loop that handles user interaction.
+     * @param args takes the input filename as the first command line
+     * arg, and optionally the kind of map to index into as the second
      * @throws IOException errors if file cannot be read
      */
     public static void main(String[] args) throws IOException {
@@ -62,40 +71,138 @@ public final class JHUgle {
             System.exit(1);
         }
 
-        //create an LPHashMap for search terms
-        LPHashMap<String, List<String>> searchMap =
-                new LPHashMap(JHUgle.MAX_LOAD);
+        //create a map for search terms
+        MapJHU<String, PostingList> searchMap =
+                JHUgle.newSearchMap(args.length > 1 ? args[1] : "lp");
+        if (searchMap == null) {
+            System.err.println("Unknown map kind " + args[1]
+                    + ", exiting...");
+            System.exit(1);
+        }
 
-        //load file into LPHashMap
+        //with -Djhugle.snapshot=FILE, restore an LPHashMap index saved
+        //by an earlier run instead of reading the input again, or save
+        //one for the next run once the input is read
+        String snapshot = System.getProperty("jhugle.snapshot");
+        //the postings hold doc IDs, so the URLs go alongside in FILE.docs
+        boolean restored = false;
+        DocTable docs = new DocTable();
+        if (snapshot != null && searchMap instanceof LPHashMap
+                && Files.exists(Paths.get(snapshot))
+                && Files.exists(Paths.get(snapshot + DOCS_SUFFIX))) {
+            searchMap = LPHashMapSnapshot.load(Paths.get(snapshot),
+                    Codec.STRING, Codec.POSTINGS);
+            docs = DocTable.load(Paths.get(snapshot + DOCS_SUFFIX));
+            restored = true;
+        }
+
+        //with -Djhugle.stats=true, count map operations, readable over
+        //JMX while running and printed on exit, to help tune MAX_LOAD
+        if (Boolean.getBoolean("jhugle.stats")
+                && searchMap instanceof LPHashMap) {
+            final LPHashMapStats stats =
+                    ((LPHashMap<String, PostingList>) searchMap).enableStats();
+            try {
+                stats.register("JHUgle");
+            } catch (JMException e) {
+                System.err.println("Can't register stats MBean: " + e);
+            }
+            //quit exits from inside userInteraction, so print from a hook
+            Runtime.getRuntime().addShutdownHook(new Thread(() ->
+                    System.err.println("map stats: " + stats)));
+        }
+
+        //load file into the map, numbering pages as they are read; IDs
+        //mostly arrive in order, but a URL listed again keeps its first
+        //ID, so the builders sort and dedupe when the postings are made
+        ObjIntHashMap<String> termIds = new ObjIntHashMap<String>(MAX_LOAD);
+        List<Postings.Builder> postings = new ArrayList<Postings.Builder>();
         Scanner inline;
-        String url, terms, searchTerm;
-        List<String> existingURLList;
-        while (infile.hasNextLine()) {
-            url = infile.nextLine();
+        String terms, searchTerm;
+        int doc;
+        while (!restored && infile.hasNextLine()) {
+            doc = docs.add(infile.nextLine());
             terms = infile.nextLine();
             inline = new Scanner(terms);
             while (inline.hasNext()) { //iterate through words on each line
                 searchTerm = inline.next();
-                existingURLList = searchMap.get(searchTerm);
-                if (existingURLList == null) {
-                    //initialize URL list for key if it doesn't exist yet
-                    existingURLList = new ArrayList<String>();
+                //one lookup, numbering the term the first time
+                int term = termIds.putIfAbsent(searchTerm, postings.size());
+                if (term == postings.size()) {
+                    postings.add(new Postings.Builder());
                 }
-                existingURLList.add(url);
-                searchMap.put(searchTerm, existingURLList);
+                postings.get(term).add(doc);
             }
         }
+        if (!restored) {
+            final MapJHU<String, PostingList> index = searchMap;
+            termIds.forEach((t, term) ->
+                    index.put(t, Postings.pack(
+                            postings.get(term).toArray())));
+        }
+
+        if (snapshot != null && !restored
+                && searchMap instanceof LPHashMap) {
+            LPHashMapSnapshot.save((LPHashMap<String, PostingList>) searchMap,
+                    Paths.get(snapshot), Codec.STRING, Codec.POSTINGS);
+            docs.save(Paths.get(snapshot + DOCS_SUFFIX));
+        }
+
+        //with -Djhugle.freeze=true, trade the index, which never changes
+        //from here on, for a frozen copy with one slot read per lookup;
+        //off by default, so queries run against the kind asked for
+        if (Boolean.getBoolean("jhugle.freeze")) {
+            searchMap = searchMap instanceof LPHashMap
+                    ? ((LPHashMap<String, PostingList>) searchMap).freeze()
+                    : FrozenHashMap.copyOf(searchMap);
+        }
         
-        userInteraction(searchMap);
+        userInteraction(searchMap, docs);
         
     }
     
-    /** Main interaction loop. Puts results of queries as HashSets onto
-     * a Deque and looks for (print, quit, and, or) commands.
-     * @param searchMap LPHashMap loaded from input file
+    /** Makes an empty map to load the search terms into.
+     * @param kind "lp" for LPHashMap, "flat" for FlatLPHashMap,
+     * "robinhood" for RobinHoodLPHashMap, "incremental" for
+     * IncrementalLPHashMap, "concurrent" for ConcurrentLPHashMap,
+     * "cuckoo" for CuckooHashMap or "swiss" for SwissLPHashMap, which
+     * runs at its own higher max load
+     * @return the map, or null if kind is not recognized
+     */
+    public static MapJHU<String, PostingList> newSearchMap(String kind) {
+        switch (kind) {
+            case "lp":
+                return new LPHashMap<String, PostingList>(JHUgle.MAX_LOAD);
+            case "flat":
+                return new FlatLPHashMap<String, PostingList>(
+                        JHUgle.MAX_LOAD);
+            case "robinhood":
+                return new RobinHoodLPHashMap<String, PostingList>(
+                        JHUgle.MAX_LOAD);
+            case "incremental":
+                return new IncrementalLPHashMap<String, PostingList>(
+                        JHUgle.MAX_LOAD);
+            case "concurrent":
+                return new ConcurrentLPHashMap<String, PostingList>(
+                        JHUgle.MAX_LOAD);
+            case "cuckoo":
+                return new CuckooHashMap<String, PostingList>(
+                        JHUgle.MAX_LOAD);
+            case "swiss":
+                return new SwissLPHashMap<String, PostingList>(
+                        SwissLPHashMap.DEFAULT_MAX_LOAD);
+            default:
+                return null;
+        }
+    }
+
+    /** Main interaction loop. Puts results of queries as posting
+     * lists onto a Deque and looks for (print, quit, and, or) commands.
+     * @param searchMap map loaded from input file
+     * @param docs the URL of each doc ID in the postings
      */
-    public static void userInteraction(LPHashMap<String, List<String>>
-        searchMap) {
+    public static void userInteraction(MapJHU<String, PostingList>
+        searchMap, DocTable docs) {
         
         //start user interaction
         System.out.println("Welcomed to JHUgle!");
@@ -105,7 +212,7 @@ public final class JHUgle {
         Scanner input = new Scanner(System.in);
         
         //create a deque
-        Deque<HashSet<String>> searchStack = new ArrayDeque<HashSet<String>>();
+        Deque<PostingList> searchStack = new ArrayDeque<PostingList>();
         
         //main interaction loop
         while (!query.equals("QUIT") || !query.equals("quit")) {
@@ -116,7 +223,7 @@ public final class JHUgle {
 
             switch (query) {
                 case "print":
-                    printStack(searchStack);
+                    printStack(searchStack, docs);
                     break;
                 case "quit":
                     input.close();
@@ -129,11 +236,12 @@ public final class JHUgle {
                     searchStack = union(searchStack);
                     break;
                 default:
-                    List<String> result = searchMap.get(query);
+                    //the map's lists are immutable, so share them
+                    PostingList result = searchMap.get(query);
                     if (result != null) {
-                        searchStack.add(new HashSet<String>(result));
+                        searchStack.add(result);
                     } else {
-                        searchStack.add(new HashSet<String>());
+                        searchStack.add(CompressedPostings.EMPTY);
                     }
                     break;
             }
@@ -143,13 +251,16 @@ public final class JHUgle {
         
     }
 
-    /** Prints the element on the top of the stack passed to it.
+    /** Prints the URLs of the element on the top of the stack passed
+     * to it.
      * @param searchStack the stack from which to print the top element
+     * @param docs the URL of each doc ID
      */
-    public static void printStack(Deque<HashSet<String>> searchStack) {
+    public static void printStack(Deque<PostingList> searchStack,
+            DocTable docs) {
         try {
-            System.out.println(searchStack.getLast().toString().substring(1,
-                    searchStack.getLast().toString().length() - 1));
+            System.out.println(String.join(", ",
+                    docs.urls(searchStack.getLast().toArray())));
             System.out.println("Stack size: " + searchStack.size());
         } catch (NoSuchElementException e) {
             //occurs when stack size is 0
@@ -157,59 +268,52 @@ public final class JHUgle {
         }
     }
 
-    /** Pops the last two sets of URLs off the stack and
+    /** Pops the last two posting lists off the stack and
      * performs an intersection set operation. Called when
      * given the AND command.
      * @param searchStack
      * stack from which the top two elements are popped
      * @return searchStack after the set intersection operation
      */
-    public static Deque<HashSet<String>>
-        intersection(Deque<HashSet<String>> searchStack) {
-        //create new deque to edit, so original can be returned if
-        //intersection results in error
-        Deque<HashSet<String>> editedSearchStack =
-                new ArrayDeque<HashSet<String>>(searchStack);
-        try {
-            HashSet<String> firstSet = editedSearchStack.pollLast();
-            HashSet<String> secondSet = editedSearchStack.pollLast();
-            HashSet<String> intersection = new HashSet<String>(firstSet);
-            intersection.retainAll(secondSet); //HashSet intersection method
-            editedSearchStack.add(intersection); //add intersection to stack
-            return editedSearchStack; //return new master stack
-        } catch (NullPointerException e) {
-          //occurs after attempted pop of empty stack
+    public static Deque<PostingList>
+        intersection(Deque<PostingList> searchStack) {
+        //leave the stack as it was unless there are two lists to pop
+        if (searchStack.size() < 2) {
             System.err.println("Insufficient elements on stack for set "
                     + "intersection");
+            return searchStack;
         }
-        return searchStack;
+        Deque<PostingList> editedSearchStack =
+                new ArrayDeque<PostingList>(searchStack);
+        PostingList first = editedSearchStack.pollLast();
+        PostingList second = editedSearchStack.pollLast();
+        //bitmaps AND word by word, other lists leapfrog by cursor
+        editedSearchStack.add(Postings.intersect(first, second));
+        return editedSearchStack; //return new master stack
     }
 
-    /** Pops the last two sets of URLs off the stack and
+    /** Pops the last two posting lists off the stack and
      * performs a union operation. Called when given the
      * OR command.
      * @param searchStack
      * stack from which the top two elements are popped
      * @return searchStack after the set union operation
      */
-    public static Deque<HashSet<String>>
-        union(Deque<HashSet<String>> searchStack) {
-        //create new deque to edit, so original can be returned if
-        //union results in error
-        Deque<HashSet<String>> editedSearchStack =
-                new ArrayDeque<HashSet<String>>(searchStack);
-        try {
-            HashSet<String> firstSet = editedSearchStack.pollLast();
-            HashSet<String> secondSet = editedSearchStack.pollLast();
-            HashSet<String> union = new HashSet<String>(firstSet);
-            union.addAll(secondSet); //HashSet union method
-            editedSearchStack.add(union); //add union to edited stack
-            return editedSearchStack; //return new master stack
-        } catch (NullPointerException e) {
-            //occurs after attempted pop of empty stack
+    public static Deque<PostingList>
+        union(Deque<PostingList> searchStack) {
+        //leave the stack as it was unless there are two lists to pop
+        if (searchStack.size() < 2) {
             System.err.println("Insufficient elements on stack for"
                     + " set union");
+            return searchStack;
         }
-        return searchStack;
+        Deque<PostingList> editedSearchStack =
+                new ArrayDeque<PostingList>(searchStack);
+        PostingList first = editedSearchStack.pollLast();
+        PostingList second = editedSearchStack.pollLast();
+        //bitmaps OR word by word; other lists wait, so a chain of
+        //ORs is merged all at once when its result is first used
+        editedSearchStack.add(Postings.union(first, second));
+        return editedSearchStack; //return new master stack
     }
 }
@@ -0,0 +1,58 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+*/
+
+/** TESTS for JHUgle
+ *  AND and OR on the query stack: results of two lists, and a stack
+ *  with fewer than two lists left as it was.
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+public class JHUgleTest {
+
+    Deque<PostingList> stack;
+
+    @Before
+    public void setup() {
+        stack = new ArrayDeque<PostingList>();
+    }
+
+    @Test
+    public void testAndOr() {
+        stack.add(CompressedPostings.of(new int[] {0, 1, 2}));
+        stack.add(CompressedPostings.of(new int[] {1, 2, 5}));
+        stack.add(Postings.of(new int[] {2, 7}));
+        stack = JHUgle.union(stack);
+        assertEquals(2, stack.size());
+        assertArrayEquals(new int[] {1, 2, 5, 7}, stack.getLast().toArray());
+        stack = JHUgle.intersection(stack);
+        assertEquals(1, stack.size());
+        assertArrayEquals(new int[] {1, 2}, stack.getLast().toArray());
+    }
+
+    @Test
+    public void testShortStackUnchanged() {
+        Deque<PostingList> empty = stack;
+        assertSame(empty, JHUgle.union(empty));
+        assertSame(empty, JHUgle.intersection(empty));
+        assertEquals(0, empty.size());
+        PostingList red = CompressedPostings.of(new int[] {0, 1, 2});
+        stack.add(red);
+        assertSame(stack, JHUgle.union(stack));
+        assertSame(stack, JHUgle.intersection(stack));
+        assertEquals(1, stack.size());
+        assertSame(red, stack.getLast());
+        assertArrayEquals(new int[] {0, 1, 2}, stack.getLast().toArray());
+    }
+}
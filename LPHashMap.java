@@ -7,13 +7,19 @@ P2
 
 import java.util.Map;
 import java.util.Set;
-import java.util.ArrayList;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.ConcurrentModificationException;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Spliterator;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /** Base implementation of MapJHU using linear probe open addressing.
  *  @author CS226 Staff, Spring 2016
@@ -51,19 +57,270 @@ public class LPHashMap<K, V> implements MapJHU<K, V>,
      */
     LPMapEntry<K, V>[] entries;
 
+    /** Number of changes to the map, overwrites included, so iterators
+     *  can tell it changed under them.
+     */
+    int modCount;
+
+    /** Number of live entries holding each value, or null if values
+     *  are not being indexed.
+     */
+    private LPHashMap<V, Integer> valueCounts;
+
+    /** Hot path counters, or null if not being kept. */
+    LPHashMapStats stats;
+
+    /** Hash function, capacities and slot indexing. */
+    final HashStrategy strategy;
+
     /* Custom methods --------------------------------- */
 
     /** Create an empty open addressing hash map implementation with capacity 5.
      *  @param max the maximum load factor, 0 < maxLoad <= 1
      */
     public LPHashMap(float max) {
+        this(max, 0);
+    }
+
+    /** Create an empty open addressing hash map implementation big enough
+     *  to hold a number of entries without rehashing.
+     *  @param max the maximum load factor, 0 < maxLoad <= 1
+     *  @param expectedSize the number of entries expected, >= 0
+     */
+    public LPHashMap(float max, int expectedSize) {
+        this(max, expectedSize, HashStrategy.PRIME_MODULO);
+    }
+
+    /** Create an empty open addressing hash map implementation big enough
+     *  to hold a number of entries without rehashing, hashing keys with
+     *  a given strategy.
+     *  @param max the maximum load factor, 0 < maxLoad <= 1
+     *  @param expectedSize the number of entries expected, >= 0
+     *  @param strategy the hash function and table sizing to use
+     */
+    public LPHashMap(float max, int expectedSize, HashStrategy strategy) {
+        this.strategy = strategy;
         this.maxLoad = max;
         this.numElements = 0;
         this.tombstones = 0;
-        this.capacity = LPHashMap.INITIAL_CAPACITY;
+        this.capacity = LPHashMap.capacityFor(expectedSize, max, strategy);
 
         //set up array
-        this.entries = new LPMapEntry[LPHashMap.INITIAL_CAPACITY];
+        this.entries = new LPMapEntry[this.capacity];
+    }
+
+    /** Get the smallest prime table capacity that holds a number of
+     *  entries within a max load; never less than INITIAL_CAPACITY.
+     *  @param size the number of entries
+     *  @param max the maximum load factor
+     *  @return a prime capacity
+     */
+    static int capacityFor(int size, float max) {
+        return LPHashMap.capacityFor(size, max, HashStrategy.PRIME_MODULO);
+    }
+
+    /** Get the smallest table capacity a strategy allows that holds a
+     *  number of entries within a max load; never less than
+     *  INITIAL_CAPACITY.
+     *  @param size the number of entries
+     *  @param max the maximum load factor
+     *  @param strategy the strategy deciding which capacities are allowed
+     *  @return the capacity
+     */
+    static int capacityFor(int size, float max, HashStrategy strategy) {
+        double need = Math.ceil(size / (double) max);
+        if (need >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too many entries: " + size);
+        }
+        int cap = strategy.capacityFor(
+                Math.max(LPHashMap.INITIAL_CAPACITY, (int) need));
+        //getLoad() works in float, which can round just above max
+        while ((float) size / (float) cap > max) {
+            cap = strategy.capacityFor(cap + 1);
+        }
+        return cap;
+    }
+
+    /** Get the lower bound to ask a strategy for when a table grows:
+     *  twice the capacity, held at Integer.MAX_VALUE rather than
+     *  overflowing, so a table that cannot grow gets "capacity too
+     *  large" from capacityFor instead of a negative bound.
+     *  @param capacity the current capacity
+     *  @return the lower bound for the next capacity
+     */
+    static int doubled(int capacity) {
+        return (int) Math.min(2L * capacity, Integer.MAX_VALUE);
+    }
+
+    /** Grow the table if needed so that it holds a number of entries
+     *  without any further rehash, rehashing at most once.
+     *  @param expectedSize the total number of entries expected
+     */
+    public void ensureCapacity(int expectedSize) {
+        int cap = LPHashMap.capacityFor(expectedSize, this.getMaxLoad(),
+                this.strategy);
+        if (cap > this.getCapacity()) {
+            this.timedRehash(cap, false);
+        }
+    }
+
+    /** Shrink the table to the smallest capacity that holds the current
+     *  entries within the max load, e.g. after many removes. Also clears
+     *  out any tombstones.
+     */
+    public void trimToSize() {
+        int cap = LPHashMap.capacityFor(this.size(), this.getMaxLoad(),
+                this.strategy);
+        if (cap < this.getCapacity() || this.ghosts() > 0) {
+            this.timedRehash(Math.min(cap, this.getCapacity()),
+                    cap >= this.getCapacity());
+        }
+    }
+
+    /** Start keeping counters of gets, puts, removes, probe lengths
+     *  and rehashes. Does nothing if they are already being kept.
+     *  @return the counters, which go on updating as the map is used
+     */
+    public LPHashMapStats enableStats() {
+        if (this.stats == null) {
+            this.stats = new LPHashMapStats();
+        }
+        return this.stats;
+    }
+
+    /** Stop keeping counters, so operations go back to paying nothing
+     *  for them.
+     */
+    public void disableStats() {
+        this.stats = null;
+    }
+
+    /** Get the counters being kept.
+     *  @return the live counters, or null if stats are not enabled
+     */
+    public LPHashMapStats getStats() {
+        return this.stats;
+    }
+
+    /** Get how far a probe for a key went past its home slot, for
+     *  the stats.
+     *  @param slot what findSlot(key, hash) returned
+     *  @param hash the key's hash
+     *  @return the distance from home to the key's slot or, if the key
+     *  was not found, to the slot it would be inserted in
+     */
+    int probeLength(int slot, int hash) {
+        int cap = this.getCapacity();
+        int index = slot >= 0 ? slot : -slot - 1;
+        return (index - this.strategy.index(hash, cap) + cap) % cap;
+    }
+
+    /** Rehash, timing it for the stats if they are being kept.
+     *  @param cap the capacity of the table after rehashing
+     *  @param tombstones true if this is only to clear out tombstones
+     */
+    void timedRehash(int cap, boolean tombstones) {
+        if (this.stats == null) {
+            this.rehash(cap);
+            return;
+        }
+        long start = System.nanoTime();
+        this.rehash(cap);
+        this.stats.recordRehash(System.nanoTime() - start, tombstones);
+    }
+
+    /** Turn the reverse value index on or off. While it is on, the map
+     *  keeps a count of the entries holding each value, so hasValue is
+     *  a hash lookup instead of a scan of the table, at the cost of
+     *  an extra hash update on every put and remove. Values must not
+     *  change their equals or hashCode while in an indexed map, so turn
+     *  the index on after any values that are built up in place, like
+     *  JHUgle's URL lists, are complete.
+     *  @param on true to build the index from the current entries,
+     *  false to drop it
+     */
+    public void setValueIndex(boolean on) {
+        if (!on) {
+            this.valueCounts = null;
+            return;
+        }
+        this.valueCounts = new LPHashMap<V, Integer>(this.getMaxLoad(),
+                this.size(), this.strategy);
+        for (int i = 0; i < this.slotCount(); i++) {
+            if (this.isLive(i)) {
+                this.countValue(this.valueAt(i), 1);
+            }
+        }
+    }
+
+    /** Find out if the reverse value index is on.
+     *  @return true if hasValue uses the index
+     */
+    public boolean hasValueIndex() {
+        return this.valueCounts != null;
+    }
+
+    /** Update the reverse value index, if on, for an entry holding a
+     *  value coming or going.
+     *  @param value the value, ignored if null
+     *  @param delta 1 for a new entry with the value, -1 for one gone
+     */
+    void countValue(V value, int delta) {
+        if (this.valueCounts != null && value != null) {
+            this.valueCounts.merge(value, delta, LPHashMap::addCount);
+        }
+    }
+
+    /** Add to a count, dropping it once it reaches zero.
+     *  @param count the count so far
+     *  @param delta the amount to add
+     *  @return the new count, or null for zero
+     */
+    private static Integer addCount(Integer count, Integer delta) {
+        int sum = count + delta;
+        return sum == 0 ? null : sum;
+    }
+
+    /** Empty the reverse value index, if on, when the map is cleared.
+     */
+    void clearValueIndex() {
+        if (this.valueCounts != null) {
+            this.valueCounts.clear();
+        }
+    }
+
+    /** Put all of a stream of entries, growing the table once up front
+     *  for the expected number of new keys rather than repeatedly as
+     *  they go in.
+     *  @param source the entries to put; later ones win for equal keys
+     *  @param expectedSize about how many entries source will give
+     */
+    public void putAll(
+            Iterator<? extends Map.Entry<? extends K, ? extends V>> source,
+            int expectedSize) {
+        this.ensureCapacity(this.size() + expectedSize);
+        while (source.hasNext()) {
+            Map.Entry<? extends K, ? extends V> entry = source.next();
+            this.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /** Make an immutable copy of the map, backed by a minimal perfect
+     *  hash of the keys, for when loading is done and only lookups are
+     *  left. Values are shared with this map, not copied.
+     *  @return the frozen copy
+     */
+    public FrozenHashMap<K, V> freeze() {
+        Object[] ks = new Object[this.size()];
+        Object[] vs = new Object[this.size()];
+        int n = 0;
+        for (int i = 0; i < this.slotCount(); i++) {
+            if (this.isLive(i)) {
+                ks[n] = this.keyAt(i);
+                vs[n++] = this.valueAt(i);
+            }
+        }
+        return new FrozenHashMap<K, V>(ks, vs);
     }
 
     /** Get the maximum load factor.
@@ -80,6 +337,13 @@ public class LPHashMap<K, V> implements MapJHU<K, V>,
         return (float) this.numElements / (float) this.getCapacity();
     }
 
+    /** Get the strategy this map hashes keys and sizes its table with.
+     *  @return the strategy
+     */
+    public HashStrategy getHashStrategy() {
+        return this.strategy;
+    }
+
     /** Get the table capacity (total # of slots).
      *  @return the capacity
      */
@@ -91,23 +355,13 @@ public class LPHashMap<K, V> implements MapJHU<K, V>,
      *  @param cap the capacity of the table after rehashing, cap > size()
      */
     public void rehash(int cap) {
+        this.modCount++;
         LPMapEntry<K, V>[] temp = new LPMapEntry[cap];
         
         //iterate through the original array, copying it to increased array
         for (int i = 0; i < this.entries.length; i++) {
             if (this.entries[i] != null && !this.entries[i].isTombstone()) {
-                
-                //define a probe ticker then iterate to find empty spot
-                //only called if item has been hashed to same index of
-                //rehashed table
-                int probe = 0;
-                while (temp[(Math.abs(this.entries[i].getKey().hashCode())
-                        + probe) % cap] != null) {
-                    probe++;
-                }
-
-                temp[(Math.abs(this.entries[i].getKey().hashCode()) + probe)
-                     % cap] = this.entries[i];
+                this.place(temp, this.entries[i]);
             }
         }
         this.capacity = cap;
@@ -115,6 +369,108 @@ public class LPHashMap<K, V> implements MapJHU<K, V>,
         this.tombstones = 0;
     }
 
+    /** Hash a key to the non-negative value that probing starts from.
+     *  @param key the key to hash
+     *  @return the hash, which the strategy reduces to the home slot
+     */
+    int hash(Object key) {
+        return this.strategy.hash(key);
+    }
+
+    /** Walk the probe sequence for a key once, looking for either its
+     *  live entry or the slot a new entry for it should go in.
+     *  The first tombstone passed is remembered so inserts reuse it,
+     *  but probing continues past it since the key may live further on.
+     *  @param key the key being searched for
+     *  @param hash the key's hash, as computed by hash(key)
+     *  @return the index of the live entry for key if there is one,
+     *  otherwise (-(insertion slot) - 1), where the insertion slot is
+     *  the first tombstone or empty slot in the probe sequence
+     */
+    int findSlot(K key, int hash) {
+        return this.findSlot(this.entries, key, hash);
+    }
+
+    /** Walk the probe sequence for a key in a given bucket array.
+     *  @param table the bucket array to search
+     *  @param key the key being searched for
+     *  @param hash the key's hash, as computed by hash(key)
+     *  @return as for findSlot(key, hash)
+     */
+    int findSlot(LPMapEntry<K, V>[] table, K key, int hash) {
+        int cap = table.length;
+        int index = this.strategy.index(hash, cap);
+        int reusable = -1;
+        for (int probe = 0; probe < cap; probe++) {
+            LPMapEntry<K, V> entry = table[index];
+            if (entry == null) {
+                //end of the cluster, so the key isn't here
+                return -(reusable < 0 ? index : reusable) - 1;
+            }
+            if (entry.isTombstone()) {
+                if (reusable < 0) {
+                    reusable = index;
+                }
+            } else if (entry.getKey().equals(key)) {
+                return index;
+            }
+            index = (index + 1 == cap) ? 0 : index + 1;
+        }
+        //probed every slot without finding an empty one
+        return -(reusable < 0 ? cap : reusable) - 1;
+    }
+
+    /** Put a live entry into a bucket array known not to contain its
+     *  key, in the first empty slot from its home slot. Tombstones are
+     *  not reused, so this is only for filling a freshly made table.
+     *  @param table the bucket array, which must have an empty slot
+     *  @param entry the entry to put
+     */
+    void place(LPMapEntry<K, V>[] table, LPMapEntry<K, V> entry) {
+        int cap = table.length;
+
+        //walk from the home slot to the first empty spot; the
+        //new table has no tombstones or duplicates to check for
+        int index = this.strategy.index(this.hash(entry.getKey()), cap);
+        while (table[index] != null) {
+            index = (index + 1 == cap) ? 0 : index + 1;
+        }
+        table[index] = entry;
+    }
+
+    /** Find out if slot numbers are positions on linear probe paths
+     *  in a table of getCapacity() slots, so that entries put back in
+     *  the same slots of an LPHashMap with the same capacity and
+     *  strategy, and no tombstones, are all found again.
+     *  @return true if they are
+     */
+    boolean linearSlots() {
+        return this.slotCount() == this.getCapacity();
+    }
+
+    /** Put a new entry straight into an empty slot without probing, as
+     *  when loading a snapshot of a table laid out by the same strategy
+     *  at the same capacity. The caller vouches that the slot is on the
+     *  key's probe path and that the key is not already in the map.
+     *  @param index the slot
+     *  @param key the key
+     *  @param value the value
+     *  @return false, changing nothing, if the slot is out of range or
+     *  not empty, or the table is not kept as LPMapEntry objects
+     */
+    boolean placeAt(int index, K key, V value) {
+        if (this.entries == null || !this.linearSlots()
+                || index < 0 || index >= this.getCapacity()
+                || this.entries[index] != null) {
+            return false;
+        }
+        this.modCount++;
+        this.entries[index] = new LPMapEntry<K, V>(key, value);
+        this.numElements++;
+        this.countValue(value, 1);
+        return true;
+    }
+
     /** Get the number of tombstones currently in the map (markers
      *  left behind when values were deleted, until the slot is reused).
      *  @return the number
@@ -123,6 +479,220 @@ public class LPHashMap<K, V> implements MapJHU<K, V>,
         return this.tombstones;
     }
 
+    /** Get how far a live entry sits from its home slot.
+     *  @param index the slot holding the entry
+     *  @return the number of probes past the home slot it took to reach it
+     */
+    int probeDistance(int index) {
+        int cap = this.getCapacity();
+        int home = this.strategy.index(
+                this.hash(this.slotAt(index).getKey()), cap);
+        return (index - home + cap) % cap;
+    }
+
+    /** Get the longest probe distance of any entry in the map, which
+     *  bounds the number of extra slots a successful get reads.
+     *  Walks the whole table, so meant for diagnostics.
+     *  @return the max distance from home slot, 0 if empty
+     */
+    public int maxProbeDistance() {
+        int max = 0;
+        for (int i = 0; i < this.slotCount(); i++) {
+            LPMapEntry<K, V> entry = this.slotAt(i);
+            if (entry != null && !entry.isTombstone()) {
+                max = Math.max(max, this.probeDistance(i));
+            }
+        }
+        return max;
+    }
+
+    /** Get the average probe distance of the entries in the map.
+     *  Walks the whole table, so meant for diagnostics.
+     *  @return the mean distance from home slot, 0 if empty
+     */
+    public double meanProbeDistance() {
+        long total = 0;
+        for (int i = 0; i < this.slotCount(); i++) {
+            LPMapEntry<K, V> entry = this.slotAt(i);
+            if (entry != null && !entry.isTombstone()) {
+                total += this.probeDistance(i);
+            }
+        }
+        if (this.size() == 0) {
+            return 0;
+        }
+        return (double) total / this.size();
+    }
+
+    /** Get the number of slots that slotAt can look at, which is
+     *  more than the capacity for maps that keep a second table.
+     *  @return the number of slots
+     */
+    int slotCount() {
+        return this.getCapacity();
+    }
+
+    /** Get what is in one slot of the bucket array.
+     *  @param index the slot, 0 <= index < slotCount()
+     *  @return null if the slot is empty, otherwise its entry,
+     *  which may be a tombstone
+     */
+    LPMapEntry<K, V> slotAt(int index) {
+        return this.entries[index];
+    }
+
+    /** Get the live entry in a slot as the views hand it out: a copy
+     *  whose setValue writes the new value back to the map.
+     *  @param index the slot, which must hold a live entry
+     *  @return the entry
+     */
+    LPMapEntry<K, V> entryAt(int index) {
+        return new SlotEntry(index, this.keyAt(index), this.valueAt(index));
+    }
+
+    /** Find out if a slot holds a live entry.
+     *  @param index the slot, 0 <= index < slotCount()
+     *  @return false if the slot is empty or a tombstone
+     */
+    boolean isLive(int index) {
+        LPMapEntry<K, V> entry = this.slotAt(index);
+        return entry != null && !entry.isTombstone();
+    }
+
+    /** Get the key of the live entry in a slot.
+     *  @param index the slot, 0 <= index < slotCount()
+     *  @return the key
+     */
+    K keyAt(int index) {
+        return this.slotAt(index).getKey();
+    }
+
+    /** Get the slot that walks over the whole table should start from.
+     *  Walks go from here to the end and then wrap around.
+     *  @return the first slot to visit
+     */
+    int firstSlot() {
+        return 0;
+    }
+
+    /** Turn the live entry in a slot into a tombstone, without the
+     *  rehash that remove(key) may do.
+     *  @param index the slot, which must hold a live entry
+     */
+    void removeAt(int index) {
+        this.entries[index].makeTombstone();
+        this.numElements--;
+        this.tombstones++;
+    }
+
+    /** Get the value of the live entry in a slot.
+     *  @param index the slot, 0 <= index < slotCount()
+     *  @return the value
+     */
+    V valueAt(int index) {
+        return this.entries[index].getValue();
+    }
+
+    /** Replace the value of the live entry in a slot.
+     *  @param index the slot, as found by findSlot
+     *  @param value the new value
+     */
+    void setValueAt(int index, V value) {
+        //new entry object, so entries handed out earlier keep their value
+        this.entries[index] =
+                new LPMapEntry<K, V>(this.entries[index].getKey(), value);
+    }
+
+    /** Replace the value of a key on behalf of an entry handed out by
+     *  a view. Only the value changes, so like setValue on the entries
+     *  of a java.util.HashMap this is not a change that iterators in
+     *  progress fail on.
+     *  @param index the slot the entry came from, tried first
+     *  @param key the entry's key
+     *  @param value the new value
+     */
+    void replaceValue(int index, K key, V value) {
+        int slot = index;
+        if (!this.isLive(slot) || !this.keyAt(slot).equals(key)) {
+            //moved or removed since the entry was handed out
+            slot = this.findSlot(key, this.hash(key));
+            if (slot < 0) {
+                return;
+            }
+        }
+        if (this.stats != null) {
+            this.stats.recordPut(this.probeDistance(slot));
+        }
+        this.countValue(value, 1);
+        this.countValue(this.valueAt(slot), -1);
+        this.setValueAt(slot, value);
+    }
+
+    /** Add an entry for a key that findSlot did not find, growing or
+     *  cleaning up the table first if needed.
+     *  @param slot what findSlot(key, hash) returned
+     *  @param key the key for the entry
+     *  @param hash the key's hash
+     *  @param value the value for the entry
+     */
+    void insertAt(int slot, K key, int hash, V value) {
+        if (this.makeRoom()) {
+            slot = this.findSlot(key, hash);
+        }
+
+        //create the entry at the slot found by the probe,
+        //taking over a tombstone if there was one along the way
+        int index = -slot - 1;
+        if (this.entries[index] != null) {
+            this.tombstones--;
+        }
+        this.entries[index] = new LPMapEntry<K, V>(key, value);
+    }
+
+    /** Rehash at the same capacity if there are now more tombstones
+     *  than entries.
+     */
+    void checkTombstones() {
+        if (this.numElements < this.tombstones) {
+            this.timedRehash(this.getCapacity(), true);
+        }
+    }
+
+    /** Finish a compute or merge by storing its result for a key.
+     *  @param slot what findSlot(key, hash) returned
+     *  @param key the key
+     *  @param hash the key's hash
+     *  @param value the new value, or null to remove the key
+     *  @return value
+     */
+    private V store(int slot, K key, int hash, V value) {
+        if (this.stats != null) {
+            if (value != null) {
+                this.stats.recordPut(this.probeLength(slot, hash));
+            } else if (slot >= 0) {
+                this.stats.recordRemove(this.probeLength(slot, hash));
+            }
+        }
+        if (value == null) {
+            if (slot >= 0) {
+                this.modCount++;
+                this.countValue(this.valueAt(slot), -1);
+                this.removeAt(slot);
+                this.checkTombstones();
+            }
+        } else {
+            this.modCount++;
+            this.countValue(value, 1);
+            if (slot >= 0) {
+                this.countValue(this.valueAt(slot), -1);
+                this.setValueAt(slot, value);
+            } else {
+                this.insertAt(slot, key, hash, value);
+            }
+        }
+        return value;
+    }
+
     /* Methods from the MapJHU interface ----------------  */
 
     /** Get the number of (actual) entries in the Map.
@@ -135,6 +705,8 @@ public class LPHashMap<K, V> implements MapJHU<K, V>,
     /** Remove all entries from the Map.
      */
     public void clear() {
+        this.modCount++;
+        this.clearValueIndex();
         this.numElements = 0;
         this.tombstones = 0;
         this.entries = new LPMapEntry[this.getCapacity()];
@@ -155,13 +727,12 @@ public class LPHashMap<K, V> implements MapJHU<K, V>,
      *  @return true if found, false otherwise
      */
     public boolean hasKey(K key) {
-        for (LPMapEntry<K, V> item: this.entries) {
-            if (item != null && item.getKey().equals(key)
-                    && !item.isTombstone()) {
-                return true;
-            }
+        int hash = this.hash(key);
+        int slot = this.findSlot(key, hash);
+        if (this.stats != null) {
+            this.stats.recordGet(this.probeLength(slot, hash), slot >= 0);
         }
-        return false;
+        return slot >= 0;
     }
 
     /** Find out if a value is in the map.
@@ -169,10 +740,13 @@ public class LPHashMap<K, V> implements MapJHU<K, V>,
      *  @return true if found, false otherwise
      */
     public boolean hasValue(V value) {
+        if (this.valueCounts != null) {
+            return value != null && this.valueCounts.hasKey(value);
+        }
+
         //iterate over bucket array and return true when found
-        for (LPMapEntry<K, V> item: this.entries) {
-            if (item != null && !item.isTombstone()
-                    && item.getValue().equals(value)) {
+        for (int i = 0; i < this.slotCount(); i++) {
+            if (this.isLive(i) && this.valueAt(i).equals(value)) {
                 return true;
             }
         }
@@ -185,24 +759,13 @@ public class LPHashMap<K, V> implements MapJHU<K, V>,
      *  @return the value associated with key, or null if not found
      */
     public V get(K key) {
-        //define a probe
-        int probe = 0;
-        //iterate over bucket array
-        while (this.entries[(Math.abs(key.hashCode()) + probe)
-                            % this.getCapacity()]
-                != null && probe <= this.capacity) {
-            //if keys match and not tombstone, return value
-            if (this.entries[(Math.abs(key.hashCode()) + probe)
-                % this.getCapacity()].getKey().equals(key)) {
-                if (!this.entries[(Math.abs(key.hashCode()) + probe)
-                    % this.getCapacity()].isTombstone()) {
-                    return this.entries[(Math.abs(key.hashCode()) + probe)
-                        % this.getCapacity()].getValue();
-                } else {
-                    return null;
-                }
-            }
-            probe++;
+        int hash = this.hash(key);
+        int slot = this.findSlot(key, hash);
+        if (this.stats != null) {
+            this.stats.recordGet(this.probeLength(slot, hash), slot >= 0);
+        }
+        if (slot >= 0) {
+            return this.valueAt(slot);
         }
         return null;
     }
@@ -213,77 +776,138 @@ public class LPHashMap<K, V> implements MapJHU<K, V>,
      *  @return the old value associated with the key, or null if new entry
      */
     public V put(K key, V value) {
-        
-        boolean hasRequestedKey = this.hasKey(key);
-        
-        if (!hasRequestedKey) {
-            this.numElements++;
+        this.modCount++;
+        this.countValue(value, 1);
+        int hash = this.hash(key);
+        int slot = this.findSlot(key, hash);
+        if (this.stats != null) {
+            this.stats.recordPut(this.probeLength(slot, hash));
         }
 
-        //check array size
-        if (this.getLoad() > this.getMaxLoad()) {
-            //rehash with capacity of next prime after 2*capacity
-            this.rehash(this.nextPrime(2 * this.getCapacity() + 1));
-        }
-        
-        //check for tombstone imbalance
-        if (this.numElements < this.tombstones) {
-            this.rehash(this.getCapacity());
+        //update value if key is already there
+        if (slot >= 0) {
+            V oldValue = this.valueAt(slot);
+            this.countValue(oldValue, -1);
+            this.setValueAt(slot, value);
+            return oldValue;
         }
 
-        //create object to add to HashMap
-        LPMapEntry<K, V> newEntry = new LPMapEntry(key, value);
+        //otherwise create the entry where the probe ended
+        this.insertAt(slot, key, hash, value);
+        return null;
+    }
 
-        //define a probe
-        int probe = 0;
-        V oldValue = null;
-        
-        //update value if key is already there (as tombstone or not)
-        if (hasRequestedKey) {
-            while (this.entries[(Math.abs(key.hashCode()) + probe)
-                                % this.getCapacity()] != null) {
-                LPMapEntry<K, V> entry = this.entries[(Math.abs(key.hashCode())
-                        + probe) % this.getCapacity()];
-                if (key.equals(entry.getKey())) {
-                    if (!key.equals(entry.isTombstone())) {
-                        oldValue = entry.getValue();
-                    }
-                    this.entries[(Math.abs(key.hashCode()) + probe)
-                                 % this.getCapacity()]
-                            = newEntry;
-                    return oldValue;
-                } else {
-                    probe++;
-                }
-            }
-        } else { //otherwise create the entry at next available position
-            while (this.entries[(Math.abs(key.hashCode()) + probe)
-                                % this.getCapacity()] != null) {
-                LPMapEntry<K, V> entry = this.entries[(Math.abs(key.hashCode())
-                        + probe) % this.getCapacity()];
-                if (entry.isTombstone()) {
-                    this.entries[(Math.abs(key.hashCode()) + probe)
-                                 % this.getCapacity()]
-                            = null;
-                    this.tombstones--;
-                } else {
-                    probe++;
-                }
+    /** Put all the entries of another map, growing the table at most
+     *  once beforehand. Putting a map into itself changes nothing.
+     *  @param other the map to copy from
+     */
+    @Override
+    public void putAll(MapJHU<? extends K, ? extends V> other) {
+        if (other == this) {
+            //every key is already there with the same value, and the
+            //overwrites would trip the iterator over our own entries
+            return;
+        }
+        this.putAll(other.entries().iterator(), other.size());
+    }
+
+    /** Get the value for a key, first putting in a computed value if
+     *  the key is not there. Probes the table once.
+     *  @param key the key
+     *  @param mappingFunction makes the value for an absent key; must
+     *  not change this map
+     *  @return the existing or computed value, or null if the function
+     *  returned null
+     */
+    @Override
+    public V computeIfAbsent(K key,
+            Function<? super K, ? extends V> mappingFunction) {
+        int hash = this.hash(key);
+        int slot = this.findSlot(key, hash);
+        if (slot >= 0 && this.valueAt(slot) != null) {
+            if (this.stats != null) {
+                this.stats.recordGet(this.probeLength(slot, hash), true);
             }
-            this.entries[(Math.abs(key.hashCode()) + probe)
-                         % this.getCapacity()]
-                    = newEntry;
+            return this.valueAt(slot);
+        }
+        V value = mappingFunction.apply(key);
+        if (value == null) {
+            return null;
+        }
+        return this.store(slot, key, hash, value);
+    }
+
+    /** Replace the value for a key with one computed from the old value
+     *  (null if absent), removing the key if the result is null.
+     *  Probes the table once.
+     *  @param key the key
+     *  @param remappingFunction makes the new value; must not change
+     *  this map
+     *  @return the new value, or null if the key was removed
+     */
+    @Override
+    public V compute(K key,
+            BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        int hash = this.hash(key);
+        int slot = this.findSlot(key, hash);
+        V oldValue = slot >= 0 ? this.valueAt(slot) : null;
+        return this.store(slot, key, hash,
+                remappingFunction.apply(key, oldValue));
+    }
+
+    /** Put a value for an absent key, or combine it with the existing
+     *  value, removing the key if the combination is null.
+     *  Probes the table once.
+     *  @param key the key
+     *  @param value the value to put or combine
+     *  @param remappingFunction combines the old value and value; must
+     *  not change this map
+     *  @return the new value, or null if the key was removed
+     */
+    @Override
+    public V merge(K key, V value,
+            BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        int hash = this.hash(key);
+        int slot = this.findSlot(key, hash);
+        V oldValue = slot >= 0 ? this.valueAt(slot) : null;
+        V newValue = value;
+        if (oldValue != null) {
+            newValue = remappingFunction.apply(oldValue, value);
         }
-        //oldValue is null if hashed index was empty or was tombstone
-        return oldValue;
+        return this.store(slot, key, hash, newValue);
     }
     
     
+    /** Count an entry that is about to be inserted, first rehashing
+     *  if the table would be over its max load or has more tombstones
+     *  than entries.
+     *  @return true if the table was rehashed, so any insertion slot
+     *  found before calling this is stale
+     */
+    boolean makeRoom() {
+        this.numElements++;
+
+        //check array size
+        if (this.getLoad() > this.getMaxLoad()) {
+            //rehash to the next capacity the strategy allows past double
+            this.timedRehash(this.strategy.capacityFor(
+                    LPHashMap.doubled(this.getCapacity())), false);
+            return true;
+        }
+
+        //check for tombstone imbalance
+        if (this.numElements < this.tombstones) {
+            this.timedRehash(this.getCapacity(), true);
+            return true;
+        }
+        return false;
+    }
+
     /** Returns the next prime number given an integer.
      * @param lowerBound lowest number the prime can be
      * @return the next prime after the lower bound
      */
-    private int nextPrime(int lowerBound) {
+    static int nextPrime(int lowerBound) {
         int nextPrime = lowerBound;
         
         //make lower bound odd if even
@@ -291,7 +915,7 @@ public class LPHashMap<K, V> implements MapJHU<K, V>,
             nextPrime++;
         }
         
-        while (!this.isPrime(nextPrime)) {
+        while (!LPHashMap.isPrime(nextPrime)) {
             nextPrime += 2;
         }
         
@@ -302,7 +926,7 @@ public class LPHashMap<K, V> implements MapJHU<K, V>,
      * @param n an integer to check if prime
      * @return true if n is prime, false otherwise
      */
-    private boolean isPrime(int n) {
+    private static boolean isPrime(int n) {
         if (n % 2 == 0) {
             //except for 2, n is not prime if it is even
             return false;
@@ -321,80 +945,54 @@ public class LPHashMap<K, V> implements MapJHU<K, V>,
      *  @return the value associated with the key, or null if key not there
      */
     public V remove(K key) {
-        //define a probe
-        int probe = 0;
-        V value = null;
-        
-        //make matched key a tombstone
-        while (value == null && this.entries[(Math.abs(key.hashCode()) + probe)
-                            % this.getCapacity()] != null) {
-            LPMapEntry<K, V> entry = this.entries[(Math.abs(key.hashCode())
-                    + probe) % this.getCapacity()];
-            if (entry.getKey().equals(key)) {
-                if (entry.isTombstone()) {
-                    //item already removed, so return null
-                    return null;
-                } else {
-                    value = entry.getValue();
-                    entry.makeTombstone();
-                    this.tombstones++;
-                    this.numElements--;
-                }
-            }
-            probe++;
+        int hash = this.hash(key);
+        int slot = this.findSlot(key, hash);
+        if (this.stats != null) {
+            this.stats.recordRemove(this.probeLength(slot, hash));
         }
+        if (slot < 0) {
+            return null;
+        }
+
+        //make matched key a tombstone
+        this.modCount++;
+        V value = this.valueAt(slot);
+        this.countValue(value, -1);
+        this.removeAt(slot);
         
         //rehash if there's too many tombstones now
-        if (this.numElements < this.tombstones) {
-            this.rehash(this.getCapacity());
-        }
+        this.checkTombstones();
         
         //return value before making it a tombstone
         return value;
     }
 
-    // You may use HashSet within this method.
-    /** Get a set of all the entries in the map.
+    /** Get a set of all the entries in the map. The set is a live view
+     *  of the table, not a copy: it sees later changes to the map, and
+     *  removing from it removes from the map. Setting the value of one
+     *  of its entries sets it in the map.
      *  @return the set
      */
     public Set<Map.Entry<K, V>> entries() {
-        //add all non-null and non-tombstone entries to a HashSet
-        HashSet<Map.Entry<K, V>> setEntries = new HashSet<Map.Entry<K, V>>();
-        for (LPMapEntry<K, V> item: this.entries) {
-            if (item != null && !item.isTombstone()) {
-                setEntries.add(item);
-            }
-        }
-        return setEntries;
+        return new EntryView();
     }
 
-    // You may use HashSet within this method.
-    /** Get a set of all the keys in the map.
+    /** Get a set of all the keys in the map. The set is a live view
+     *  of the table, not a copy: it sees later changes to the map, and
+     *  removing from it removes from the map.
      *  @return the set
      */
     public Set<K> keys() {
-        Set<K> setKeys = new HashSet<K>();
-        //add all non-null and non-tombstone keys to a HashSet
-        for (LPMapEntry<K, V> item: this.entries) {
-            if (item != null && !item.isTombstone()) {
-                setKeys.add(item.getKey());
-            }
-        }
-        return setKeys;
+        return new KeyView();
     }
 
-    /** Get a collection of all the values in the map.
+    /** Get a collection of all the values in the map. The collection
+     *  is a live view of the table, not a copy: it sees later changes
+     *  to the map, and removing from it removes from the map.
      *  @return the collection
      */
     public Collection<V> values() {
-        //add all non-null and non-tombstone values to an ArrayList
-        ArrayList<V> collectionValues = new ArrayList<V>();
-        for (LPMapEntry<K, V> item: this.entries) {
-            if (item != null && !item.isTombstone()) {
-                collectionValues.add(item.getValue());
-            }
-        }
-        return collectionValues;
+        return new ValueView();
     }
 
     /*  --------------  from Object --------  YOU DON'T HAVE TO IMPLEMENT
@@ -416,75 +1014,421 @@ public class LPHashMap<K, V> implements MapJHU<K, V>,
         return new HashMapIterator();
     }
 
+    /** Perform an action on each entry, skipping empty slots and
+     *  tombstones.
+     *  @param action the action to perform
+     *  @throws ConcurrentModificationException if the action changed
+     *  the map
+     */
     @Override
     public void forEach(Consumer<? super LPMapEntry<K, V>> action) {
-        // you do not have to implement this
+        int expected = this.modCount;
+        int slots = this.slotCount();
+        for (int i = 0; i < slots; i++) {
+            if (this.isLive(i)) {
+                action.accept(this.entryAt(i));
+            }
+        }
+        if (this.modCount != expected) {
+            throw new ConcurrentModificationException();
+        }
     }
 
+    /** Get a spliterator over the entries that splits by ranges of
+     *  the bucket array, so parallel streams can share out the table.
+     *  @return the spliterator
+     */
     @Override
     public Spliterator<LPMapEntry<K, V>> spliterator() {
-        // you do not have to implement this
-        return null;
+        return new SlotSpliterator(0, this.slotCount(), this.size(), true);
     }
-    
-    
 
-    /* -----  HashMapIterator inner class ----- */
+    /** Stream the entries.
+     *  @return a sequential stream
+     */
+    public Stream<LPMapEntry<K, V>> stream() {
+        return StreamSupport.stream(this.spliterator(), false);
+    }
+
+    /** Stream the entries, split across threads.
+     *  @return a parallel stream
+     */
+    public Stream<LPMapEntry<K, V>> parallelStream() {
+        return StreamSupport.stream(this.spliterator(), true);
+    }
+
+    /* -----  View inner classes ----- */
 
     /**
-     * Inner HashMapIterator class for convenience.
-     * Note that the generic type is implied since we are within DLList<T>.
+     * Iterator over the live slots that hands out something from each.
+     * The walk starts at firstSlot() and wraps around. Removing through
+     * the iterator never rehashes; if the removal moves a later entry
+     * back into the slot just returned, that slot is visited again.
+     * @param <T> what the iterator returns for each slot
      */
-    public class HashMapIterator implements Iterator<LPMapEntry<K, V>> {
+    abstract class SlotIterator<T> implements Iterator<T> {
+
+        /** Slot the walk starts at. */
+        private final int start;
+
+        /** Number of slots in the walk. */
+        private final int slots;
 
-        /** Keeps track of the position of the iterator in the bucket array.
+        /** Number of slots passed so far. */
+        private int visited;
+
+        /** Slot of the last item returned, or -1. */
+        private int last;
+
+        /** The map's modCount when last in step with it, to check for
+         *  concurrent modification.
          */
-        private int pos;
-        
+        private int expected;
+
         /**
-         * Holds number of entries and tombstones in bucket array that
-         * the iterator is initialized to. Uses to check for concurrent
-         * modification.
+         * Start a walk over the table.
          */
-        private int numEntriesAndTombstones;
+        SlotIterator() {
+            this.start = LPHashMap.this.firstSlot();
+            this.slots = LPHashMap.this.slotCount();
+            this.visited = 0;
+            this.last = -1;
+            this.expected = LPHashMap.this.modCount;
+        }
 
-        /**
-         * Make a HashMapIterator.
+        /** Get what to return for a live slot.
+         *  @param index the slot
+         *  @return the item
          */
-        public HashMapIterator() {
-            this.pos = -1; //start at -1 because next ++'s pos
-            this.numEntriesAndTombstones = LPHashMap.this.numElements
-                    + LPHashMap.this.ghosts();
+        abstract T get(int index);
+
+        /** Get the slot a number of steps into the walk.
+         *  @param steps how far from the start
+         *  @return the slot index
+         */
+        private int slot(int steps) {
+            int index = this.start + steps;
+            return index < this.slots ? index : index - this.slots;
         }
 
         @Override
         public boolean hasNext() {
-            if (this.pos + 1 < LPHashMap.this.entries.length) {
-                return true;
+            while (this.visited < this.slots
+                    && !LPHashMap.this.isLive(this.slot(this.visited))) {
+                this.visited++;
             }
-            return false;
+            return this.visited < this.slots;
         }
 
         @Override
-        public LPMapEntry<K, V> next() {
-            //check if map has been changed 
-            if (LPHashMap.this.numElements + LPHashMap.this.ghosts()
-                != this.numEntriesAndTombstones) {
+        public T next() {
+            if (LPHashMap.this.modCount != this.expected) {
                 throw new ConcurrentModificationException();
             }
-            
-            this.pos++;
-            return LPHashMap.this.entries[this.pos];
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.last = this.slot(this.visited);
+            this.visited++;
+            return this.get(this.last);
         }
 
         @Override
         public void remove() {
-            if (LPHashMap.this.entries[this.pos] != null
-                    && !LPHashMap.this.entries[this.pos].isTombstone()) {
-                LPHashMap.this.entries[this.pos].makeTombstone();
-                LPHashMap.this.numElements--;
-                LPHashMap.this.tombstones++;
+            if (this.last < 0) {
+                throw new IllegalStateException();
+            }
+            if (LPHashMap.this.modCount != this.expected) {
+                throw new ConcurrentModificationException();
+            }
+            LPHashMap.this.countValue(LPHashMap.this.valueAt(this.last), -1);
+            LPHashMap.this.removeAt(this.last);
+            if (LPHashMap.this.isLive(this.last)) {
+                this.visited--;
+            }
+            this.last = -1;
+            //other iterators should notice, but this one stays valid
+            this.expected = ++LPHashMap.this.modCount;
+        }
+    }
+
+    /**
+     * Live view of the keys.
+     */
+    final class KeyView extends AbstractSet<K> {
+
+        @Override
+        public int size() {
+            return LPHashMap.this.size();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(Object o) {
+            return o != null && LPHashMap.this.hasKey((K) o);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean remove(Object o) {
+            if (!this.contains(o)) {
+                return false;
+            }
+            LPHashMap.this.remove((K) o);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            LPHashMap.this.clear();
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            return new SlotIterator<K>() {
+                K get(int index) {
+                    return LPHashMap.this.keyAt(index);
+                }
+            };
+        }
+    }
+
+    /**
+     * Live view of the values.
+     */
+    final class ValueView extends AbstractCollection<V> {
+
+        @Override
+        public int size() {
+            return LPHashMap.this.size();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(Object o) {
+            return o != null && LPHashMap.this.hasValue((V) o);
+        }
+
+        @Override
+        public void clear() {
+            LPHashMap.this.clear();
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new SlotIterator<V>() {
+                V get(int index) {
+                    return LPHashMap.this.valueAt(index);
+                }
+            };
+        }
+    }
+
+    /**
+     * Entry handed out by the views and iterators, which writes
+     * setValue back to the map.
+     */
+    final class SlotEntry extends LPMapEntry<K, V> {
+
+        /** Slot the entry was read from. */
+        private final int index;
+
+        /**
+         * Make a copy of the entry in a slot.
+         * @param slot the slot
+         * @param key the key
+         * @param value the value
+         */
+        SlotEntry(int slot, K key, V value) {
+            super(key, value);
+            this.index = slot;
+        }
+
+        @Override
+        public V setValue(V value) {
+            LPHashMap.this.replaceValue(this.index, this.getKey(), value);
+            return super.setValue(value);
+        }
+    }
+
+    /**
+     * Live view of the entries.
+     */
+    final class EntryView extends AbstractSet<Map.Entry<K, V>> {
+
+        @Override
+        public int size() {
+            return LPHashMap.this.size();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            if (e.getKey() == null) {
+                return false;
+            }
+            K key = (K) e.getKey();
+            int slot = LPHashMap.this.findSlot(key, LPHashMap.this.hash(key));
+            return slot >= 0
+                    && Objects.equals(LPHashMap.this.valueAt(slot),
+                            e.getValue());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean remove(Object o) {
+            if (!this.contains(o)) {
+                return false;
+            }
+            LPHashMap.this.remove((K) ((Map.Entry<?, ?>) o).getKey());
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            LPHashMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new SlotIterator<Map.Entry<K, V>>() {
+                Map.Entry<K, V> get(int index) {
+                    return LPHashMap.this.entryAt(index);
+                }
+            };
+        }
+    }
+
+    /* -----  SlotSpliterator inner class ----- */
+
+    /**
+     * Spliterator over a range of slots. Only the whole table's
+     * spliterator knows exactly how many entries it will give, so only
+     * it reports SIZED; each split halves the range and the estimate.
+     */
+    final class SlotSpliterator implements Spliterator<LPMapEntry<K, V>> {
+
+        /** Next slot to look at. */
+        private int pos;
+
+        /** One past the last slot of the range. */
+        private final int end;
+
+        /** Number of entries expected in the range. */
+        private int estimate;
+
+        /** True if estimate is exact. */
+        private boolean sized;
+
+        /** The map's modCount when traversal began, to check for
+         *  concurrent modification.
+         */
+        private final int expected;
+
+        /**
+         * Make a spliterator over some slots.
+         * @param from the first slot
+         * @param to one past the last slot
+         * @param est the number of entries expected in the range
+         * @param exact true if est is the exact number
+         */
+        SlotSpliterator(int from, int to, int est, boolean exact) {
+            this.pos = from;
+            this.end = to;
+            this.estimate = est;
+            this.sized = exact;
+            this.expected = LPHashMap.this.modCount;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super LPMapEntry<K, V>> action) {
+            while (this.pos < this.end) {
+                int index = this.pos++;
+                if (LPHashMap.this.isLive(index)) {
+                    if (this.estimate > 0) {
+                        this.estimate--;
+                    }
+                    action.accept(LPHashMap.this.entryAt(index));
+                    this.checkUnchanged();
+                    return true;
+                }
             }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(
+                Consumer<? super LPMapEntry<K, V>> action) {
+            for (; this.pos < this.end; this.pos++) {
+                if (LPHashMap.this.isLive(this.pos)) {
+                    action.accept(LPHashMap.this.entryAt(this.pos));
+                }
+            }
+            this.estimate = 0;
+            this.checkUnchanged();
+        }
+
+        @Override
+        public Spliterator<LPMapEntry<K, V>> trySplit() {
+            int mid = (this.pos + this.end) >>> 1;
+            if (mid <= this.pos) {
+                return null;
+            }
+            //entries are spread evenly enough over the slots to share
+            //the estimate, but it is no longer exact
+            this.estimate >>>= 1;
+            this.sized = false;
+            SlotSpliterator prefix =
+                    new SlotSpliterator(this.pos, mid, this.estimate, false);
+            this.pos = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            int c = Spliterator.DISTINCT | Spliterator.NONNULL;
+            return this.sized ? c | Spliterator.SIZED : c;
+        }
+
+        /** Throw if the map has changed since traversal began.
+         *  @throws ConcurrentModificationException if it has
+         */
+        private void checkUnchanged() {
+            if (LPHashMap.this.modCount != this.expected) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+
+    /* -----  HashMapIterator inner class ----- */
+
+    /**
+     * Iterator over the live entries, in slot order. Empty slots and
+     * tombstones are skipped, and any change to the map other than
+     * through this iterator, overwrites included, makes the next call
+     * to next() throw ConcurrentModificationException.
+     */
+    public class HashMapIterator extends SlotIterator<LPMapEntry<K, V>> {
+
+        /**
+         * Make a HashMapIterator.
+         */
+        public HashMapIterator() {
+        }
+
+        @Override
+        LPMapEntry<K, V> get(int index) {
+            return LPHashMap.this.entryAt(index);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,326 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Regression benchmark for building a JHUgle style index in an LPHashMap.
+ * Loads doubling numbers of terms and reports the cost per term, which
+ * should stay roughly flat if index build scales linearly. Then reports
+ * the spread of single put latencies for LPHashMap against
+ * IncrementalLPHashMap, whose tail should not include whole-table rehashes.
+ * Last compares hash strategies on a vocabulary: the distinct words of
+ * a file, such as a JHUgle input file or a word list, or else the
+ * generated terms and page URLs, and the spread of single get latencies
+ * on that vocabulary for linear probing, Robin Hood, Swiss table, cuckoo
+ * and frozen maps.
+ * Usage: java LPHashMapBenchmark [maxTerms [vocabularyFile]]
+ * @author Ryan Demo
+ */
+public final class LPHashMapBenchmark {
+
+    /** Default largest number of terms to load. */
+    private static final int DEFAULT_TERMS = 1000000;
+
+    /** Smallest number of terms to load. */
+    private static final int MIN_TERMS = 62500;
+
+    /** Average number of occurrences of each distinct term. */
+    private static final int REPEATS = 4;
+
+    /** Terms per simulated page. */
+    private static final int PAGE_TERMS = 10;
+
+    /** Fixed seed so runs are comparable. */
+    private static final long SEED = 226;
+
+    /** Nanoseconds per millisecond. */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /** Percentiles of put latency to report. */
+    private static final double[] PERCENTILES = {50, 99, 99.9, 99.99};
+
+    /** Percent. */
+    private static final double HUNDRED = 100;
+
+    /** Lookups of every vocabulary word per strategy timing. */
+    private static final int GET_ROUNDS = 10;
+
+    /**
+     * Dummy constructor for utility class.
+     */
+    private LPHashMapBenchmark() {
+    }
+
+    /** Runs the index build benchmark.
+     * @param args optional largest number of terms to load, then an
+     * optional file to take the strategy comparison vocabulary from
+     * @throws IOException if the vocabulary file can't be read
+     */
+    public static void main(String[] args) throws IOException {
+        int maxTerms = DEFAULT_TERMS;
+        if (args.length > 0) {
+            maxTerms = Integer.parseInt(args[0]);
+        }
+
+        //one untimed pass at full size to warm up the JIT
+        buildIndex(makeTerms(maxTerms));
+
+        System.out.println("terms\tms\tns/term\tratio");
+        double lastPerTerm = 0;
+        for (int n = MIN_TERMS; n <= maxTerms; n *= 2) {
+            String[] terms = makeTerms(n);
+            long start = System.nanoTime();
+            LPHashMap<String, List<String>> index = buildIndex(terms);
+            long elapsed = System.nanoTime() - start;
+            double perTerm = (double) elapsed / n;
+            System.out.printf("%d\t%.1f\t%.1f\t%s%n", n,
+                    elapsed / NANOS_PER_MILLI, perTerm, lastPerTerm == 0
+                    ? "-" : String.format("%.2f", perTerm / lastPerTerm));
+            lastPerTerm = perTerm;
+            if (index.size() == 0) {
+                //keeps the index live so the build can't be optimized away
+                System.out.println("empty index");
+            }
+        }
+
+        System.out.println();
+        System.out.print("map\t");
+        for (double p : PERCENTILES) {
+            System.out.print("p" + p + "\t");
+        }
+        System.out.println("max (ns/put)");
+        for (int round = 0; round < 2; round++) {
+            //first round is warm up
+            putLatency("lp", new LPHashMap<Integer, Integer>((float) 0.7),
+                    maxTerms, round > 0);
+            putLatency("incremental",
+                    new IncrementalLPHashMap<Integer, Integer>((float) 0.7),
+                    maxTerms, round > 0);
+        }
+
+        String[] vocabulary = args.length > 1 ? readVocabulary(args[1])
+                : makeVocabulary(maxTerms);
+        System.out.println();
+        System.out.println(vocabulary.length + " words");
+        System.out.println("strategy\tns/put\tns/get\tmeanProbe\tmaxProbe");
+        HashStrategy[] strategies = {HashStrategy.PRIME_MODULO,
+            HashStrategy.mixed(), HashStrategy.randomized()};
+        for (int round = 0; round < 2; round++) {
+            for (HashStrategy strategy : strategies) {
+                compareStrategy(strategy, vocabulary, round > 0);
+            }
+        }
+
+        System.out.println();
+        System.out.print("map\t");
+        for (double p : PERCENTILES) {
+            System.out.print("p" + p + "\t");
+        }
+        System.out.println("max (ns/get)");
+        for (int round = 0; round < 2; round++) {
+            LPHashMap<String, Integer> lp = load(
+                    new LPHashMap<String, Integer>((float) 0.7), vocabulary);
+            getLatency("lp", lp, vocabulary, round > 0);
+            getLatency("robinhood", load(
+                    new RobinHoodLPHashMap<String, Integer>((float) 0.7),
+                    vocabulary), vocabulary, round > 0);
+            getLatency("swiss", load(new SwissLPHashMap<String, Integer>(
+                    SwissLPHashMap.DEFAULT_MAX_LOAD), vocabulary),
+                    vocabulary, round > 0);
+            getLatency("cuckoo", load(
+                    new CuckooHashMap<String, Integer>((float) 0.7),
+                    vocabulary), vocabulary, round > 0);
+            getLatency("frozen", lp.freeze(), vocabulary, round > 0);
+        }
+    }
+
+    /** Put each word of a vocabulary into a map with its index.
+     * @param map the empty map to load
+     * @param vocabulary the distinct words to use as keys
+     * @param <M> the type of map
+     * @return the map
+     */
+    static <M extends MapJHU<String, Integer>> M load(M map,
+            String[] vocabulary) {
+        for (int i = 0; i < vocabulary.length; i++) {
+            map.put(vocabulary[i], i);
+        }
+        return map;
+    }
+
+    /** Time a get of each word of a vocabulary in a shuffled order and
+     * print percentiles.
+     * @param name the name to print for the map
+     * @param map the map, loaded with the vocabulary
+     * @param vocabulary the distinct words in the map
+     * @param print false to just warm up
+     */
+    static void getLatency(String name, MapJHU<String, Integer> map,
+            String[] vocabulary, boolean print) {
+        int n = vocabulary.length;
+        String[] queries = vocabulary.clone();
+        Random random = new Random(SEED);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            String t = queries[i];
+            queries[i] = queries[j];
+            queries[j] = t;
+        }
+        long[] nanos = new long[n];
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            long start = System.nanoTime();
+            sum += map.get(queries[i]);
+            nanos[i] = System.nanoTime() - start;
+        }
+        if (!print) {
+            return;
+        }
+        Arrays.sort(nanos);
+        System.out.print(name + "\t");
+        for (double p : PERCENTILES) {
+            System.out.print(nanos[(int) (p / HUNDRED * (n - 1))] + "\t");
+        }
+        System.out.println(nanos[n - 1] + (sum < 0 ? " overflow" : ""));
+    }
+
+    /** Time puts and gets of a vocabulary with a hash strategy and
+     * print them with the resulting probe distances.
+     * @param strategy the strategy to build the map with
+     * @param vocabulary the distinct words to use as keys
+     * @param print false to just warm up
+     */
+    static void compareStrategy(HashStrategy strategy, String[] vocabulary,
+            boolean print) {
+        LPHashMap<String, Integer> map =
+                new LPHashMap<String, Integer>((float) 0.7, 0, strategy);
+        long start = System.nanoTime();
+        for (int i = 0; i < vocabulary.length; i++) {
+            map.put(vocabulary[i], i);
+        }
+        long putNanos = System.nanoTime() - start;
+        long sum = 0;
+        start = System.nanoTime();
+        for (int round = 0; round < GET_ROUNDS; round++) {
+            for (String word : vocabulary) {
+                sum += map.get(word);
+            }
+        }
+        long getNanos = System.nanoTime() - start;
+        if (!print) {
+            return;
+        }
+        System.out.printf("%s\t%.1f\t%.1f\t%.3f\t%d%s%n", strategy,
+                (double) putNanos / vocabulary.length,
+                (double) getNanos / vocabulary.length / GET_ROUNDS,
+                map.meanProbeDistance(), map.maxProbeDistance(),
+                sum < 0 ? " overflow" : "");
+    }
+
+    /** Read the distinct whitespace separated words of a file.
+     * @param filename the file to read
+     * @return the words, in order of first appearance
+     * @throws IOException if the file can't be read
+     */
+    static String[] readVocabulary(String filename) throws IOException {
+        Set<String> words = new LinkedHashSet<String>();
+        for (String line : Files.readAllLines(Paths.get(filename))) {
+            for (String word : line.trim().split("\\s+")) {
+                if (!word.isEmpty()) {
+                    words.add(word);
+                }
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    /** Make a vocabulary of the distinct generated terms and the page
+     * URLs they would be loaded with, whose String hashCodes share
+     * long common prefixes.
+     * @param n the number of terms buildIndex would load
+     * @return the words
+     */
+    static String[] makeVocabulary(int n) {
+        int terms = Math.max(1, n / REPEATS);
+        int pages = Math.max(1, n / PAGE_TERMS);
+        String[] words = new String[terms + pages];
+        for (int i = 0; i < terms; i++) {
+            words[i] = "term" + i;
+        }
+        for (int i = 0; i < pages; i++) {
+            words[terms + i] = "www.page" + i + ".com";
+        }
+        return words;
+    }
+
+    /** Time each of a run of inserts into a map and print percentiles.
+     * @param name the name to print for the map
+     * @param map the empty map to insert into
+     * @param n the number of inserts
+     * @param print false to just warm up
+     */
+    static void putLatency(String name, LPHashMap<Integer, Integer> map,
+            int n, boolean print) {
+        long[] nanos = new long[n];
+        for (int i = 0; i < n; i++) {
+            long start = System.nanoTime();
+            map.put(i, i);
+            nanos[i] = System.nanoTime() - start;
+        }
+        if (!print) {
+            return;
+        }
+        Arrays.sort(nanos);
+        System.out.print(name + "\t");
+        for (double p : PERCENTILES) {
+            System.out.print(nanos[(int) (p / HUNDRED * (n - 1))] + "\t");
+        }
+        System.out.println(nanos[n - 1]);
+    }
+
+    /** Make a stream of terms with repeats, like the words of a crawl.
+     * @param n the number of terms to make
+     * @return the terms
+     */
+    static String[] makeTerms(int n) {
+        Random random = new Random(SEED);
+        int vocabulary = Math.max(1, n / REPEATS);
+        String[] terms = new String[n];
+        for (int i = 0; i < n; i++) {
+            terms[i] = "term" + random.nextInt(vocabulary);
+        }
+        return terms;
+    }
+
+    /** Build a (term, URL list) index, one map lookup per term as
+     * JHUgle.main does.
+     * @param terms the terms to load, PAGE_TERMS to a page
+     * @return the loaded index
+     */
+    static LPHashMap<String, List<String>> buildIndex(String[] terms) {
+        LPHashMap<String, List<String>> index =
+                new LPHashMap<String, List<String>>((float) 0.7);
+        String url = null;
+        for (int i = 0; i < terms.length; i++) {
+            if (i % PAGE_TERMS == 0) {
+                url = "www.page" + (i / PAGE_TERMS) + ".com";
+            }
+            index.computeIfAbsent(terms[i],
+                    k -> new ArrayList<String>()).add(url);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,310 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/** Saves an LPHashMap, or any of its subclasses, to a compact binary
+ *  snapshot and loads it back as an LPHashMap, so a large index can be
+ *  checkpointed and restored instead of rebuilt from its input.
+ *  A snapshot is a header (magic, version, strategy, max load,
+ *  capacity, size) followed by one record per live entry: its slot,
+ *  its key and its value, each encoded by a Codec and preceded by its
+ *  length. It is streamed through a buffer over NIO channels.
+ *  When the saved map lays its entries along linear probe paths, has
+ *  no tombstones and hashes with PRIME_MODULO or a seeded mixed()
+ *  strategy, loading rebuilds the table at the same capacity and puts
+ *  each entry straight into its saved slot, with no hashCode calls and
+ *  no probing. Otherwise entries are put in the usual way. Call
+ *  trimToSize() before saving to clear tombstones out of the way.
+ *  @author Ryan Demo
+ */
+public final class LPHashMapSnapshot {
+
+    /** First int of every snapshot. */
+    static final int MAGIC = 0x4A485553;  // "JHUS"
+
+    /** Format version, second int of every snapshot. */
+    static final int VERSION = 1;
+
+    /** Bytes buffered between the map and the channel. */
+    static final int BUFFER_SIZE = 1 << 16;
+
+    /** Strategy byte for HashStrategy.PRIME_MODULO. */
+    static final byte PRIME = 0;
+
+    /** Strategy byte for HashStrategy.mixed(seed). */
+    static final byte MIXED = 1;
+
+    /** Strategy byte for a strategy a snapshot cannot recreate. */
+    static final byte OTHER = 2;
+
+    /** Slot of a record whose slot cannot be used on loading. */
+    static final int NO_SLOT = -1;
+
+    /** Length of an encoded null. */
+    static final int NULL_LENGTH = -1;
+
+    /** Bytes in the header: 2 ints, 2 bytes, a seed, max load,
+     *  capacity and size. */
+    static final int HEADER = 6 * Integer.BYTES + 2;
+
+    /** Dummy constructor for utility class.
+     */
+    private LPHashMapSnapshot() {
+    }
+
+    /** Save a map to a file, replacing it only once the whole snapshot
+     *  is written, so a failed save leaves any older snapshot intact.
+     *  @param map the map to save
+     *  @param file the file
+     *  @param keyCodec encodes the keys; must not encode null
+     *  @param valueCodec encodes the non-null values
+     *  @param <K> the base type of the keys
+     *  @param <V> the base type of the values
+     *  @throws IOException if the file cannot be written
+     */
+    public static <K, V> void save(LPHashMap<K, V> map, Path file,
+            Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(),
+                ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(tmp,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                LPHashMapSnapshot.write(map, out, keyCodec, valueCodec);
+                out.force(false);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** Load a map from a file written by save.
+     *  @param file the file
+     *  @param keyCodec decodes the keys
+     *  @param valueCodec decodes the values
+     *  @param <K> the base type of the keys
+     *  @param <V> the base type of the values
+     *  @return the map
+     *  @throws IOException if the file cannot be read or is not a
+     *  snapshot
+     */
+    public static <K, V> LPHashMap<K, V> load(Path file, Codec<K> keyCodec,
+            Codec<V> valueCodec) throws IOException {
+        try (FileChannel in = FileChannel.open(file,
+                StandardOpenOption.READ)) {
+            return LPHashMapSnapshot.read(in, keyCodec, valueCodec);
+        }
+    }
+
+    /** Write a snapshot of a map to a channel, leaving it open.
+     *  @param map the map to save
+     *  @param channel where to write
+     *  @param keyCodec encodes the keys; must not encode null
+     *  @param valueCodec encodes the non-null values
+     *  @param <K> the base type of the keys
+     *  @param <V> the base type of the values
+     *  @throws IOException if the channel cannot be written
+     */
+    public static <K, V> void write(LPHashMap<K, V> map,
+            WritableByteChannel channel, Codec<K> keyCodec,
+            Codec<V> valueCodec) throws IOException {
+        HashStrategy strategy = map.getHashStrategy();
+        byte kind = OTHER;
+        int seed = 0;
+        if (strategy == HashStrategy.PRIME_MODULO) {
+            kind = PRIME;
+        } else if (strategy instanceof HashStrategy.MixedPowerOfTwo) {
+            kind = MIXED;
+            seed = ((HashStrategy.MixedPowerOfTwo) strategy).getSeed();
+        }
+        boolean placed = kind != OTHER && map.linearSlots()
+                && map.ghosts() == 0;
+
+        ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        out.putInt(MAGIC).putInt(VERSION).put(kind).putInt(seed);
+        out.put((byte) (placed ? 1 : 0));
+        out.putFloat(map.getMaxLoad()).putInt(map.getCapacity());
+        out.putInt(map.size());
+        for (int i = 0; i < map.slotCount(); i++) {
+            if (!map.isLive(i)) {
+                continue;
+            }
+            byte[] key = keyCodec.encode(map.keyAt(i));
+            V value = map.valueAt(i);
+            byte[] val = value == null ? null : valueCodec.encode(value);
+            out = LPHashMapSnapshot.room(out, channel,
+                    3 * Integer.BYTES);
+            out.putInt(placed ? i : NO_SLOT).putInt(key.length);
+            out = LPHashMapSnapshot.bytes(out, channel, key);
+            out.putInt(val == null ? NULL_LENGTH : val.length);
+            if (val != null) {
+                out = LPHashMapSnapshot.bytes(out, channel, val);
+            }
+        }
+        LPHashMapSnapshot.drain(out, channel);
+    }
+
+    /** Read a snapshot from a channel, leaving it open.
+     *  @param channel where to read
+     *  @param keyCodec decodes the keys
+     *  @param valueCodec decodes the values
+     *  @param <K> the base type of the keys
+     *  @param <V> the base type of the values
+     *  @return the map
+     *  @throws IOException if the channel cannot be read or does not
+     *  hold a snapshot
+     */
+    public static <K, V> LPHashMap<K, V> read(ReadableByteChannel channel,
+            Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        in.flip();
+        in = LPHashMapSnapshot.fill(in, channel, HEADER);
+        if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+            throw new IOException("not an LPHashMap snapshot");
+        }
+        byte kind = in.get();
+        int seed = in.getInt();
+        boolean placed = in.get() != 0;
+        float maxLoad = in.getFloat();
+        int capacity = in.getInt();
+        int size = in.getInt();
+        if (!(maxLoad > 0 && maxLoad <= 1) || capacity <= 0 || size < 0) {
+            throw new IOException("bad snapshot header");
+        }
+
+        HashStrategy strategy = kind == MIXED ? HashStrategy.mixed(seed)
+                : HashStrategy.PRIME_MODULO;
+        LPHashMap<K, V> map = new LPHashMap<K, V>(maxLoad, size, strategy);
+        placed &= kind != OTHER;
+        if (placed && map.getCapacity() != capacity) {
+            map.rehash(capacity);  // still empty, so nothing to move
+        }
+        for (int n = 0; n < size; n++) {
+            in = LPHashMapSnapshot.fill(in, channel, 2 * Integer.BYTES);
+            int slot = in.getInt();
+            int keyLength = in.getInt();
+            in = LPHashMapSnapshot.fill(in, channel,
+                    keyLength + Integer.BYTES);
+            K key = keyCodec.decode(in, in.position(), keyLength);
+            in.position(in.position() + keyLength);
+            int valueLength = in.getInt();
+            V value = null;
+            if (valueLength != NULL_LENGTH) {
+                in = LPHashMapSnapshot.fill(in, channel, valueLength);
+                value = valueCodec.decode(in, in.position(), valueLength);
+                in.position(in.position() + valueLength);
+            }
+            if (!placed) {
+                map.put(key, value);
+            } else if (!map.placeAt(slot, key, value)) {
+                throw new IOException("snapshot slot " + slot + " is taken");
+            }
+        }
+        return map;
+    }
+
+    /** Make sure an output buffer has room for a number of bytes,
+     *  writing out what it holds if not.
+     *  @param out the buffer, in write mode
+     *  @param channel where to write
+     *  @param n the number of bytes needed, <= BUFFER_SIZE
+     *  @return the buffer, with room for n bytes
+     *  @throws IOException if the channel cannot be written
+     */
+    private static ByteBuffer room(ByteBuffer out,
+            WritableByteChannel channel, int n) throws IOException {
+        if (out.remaining() < n) {
+            LPHashMapSnapshot.drain(out, channel);
+            out.clear();
+        }
+        return out;
+    }
+
+    /** Add bytes to an output buffer, writing them straight to the
+     *  channel if they do not fit in it.
+     *  @param out the buffer, in write mode
+     *  @param channel where to write
+     *  @param bytes the bytes
+     *  @return the buffer, with room for the int after the bytes
+     *  @throws IOException if the channel cannot be written
+     */
+    private static ByteBuffer bytes(ByteBuffer out,
+            WritableByteChannel channel, byte[] bytes) throws IOException {
+        if (bytes.length + Integer.BYTES <= out.remaining()) {
+            return out.put(bytes);
+        }
+        LPHashMapSnapshot.drain(out, channel);
+        out.clear();
+        if (bytes.length + Integer.BYTES <= out.remaining()) {
+            return out.put(bytes);
+        }
+        ByteBuffer big = ByteBuffer.wrap(bytes);
+        while (big.hasRemaining()) {
+            channel.write(big);
+        }
+        return out;
+    }
+
+    /** Write out everything an output buffer holds.
+     *  @param out the buffer, in write mode; left drained in read mode
+     *  @param channel where to write
+     *  @throws IOException if the channel cannot be written
+     */
+    private static void drain(ByteBuffer out, WritableByteChannel channel)
+            throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+    }
+
+    /** Make sure an input buffer holds a number of unread bytes,
+     *  reading more from the channel, into a bigger buffer if need be.
+     *  @param in the buffer, in read mode
+     *  @param channel where to read
+     *  @param n the number of bytes needed
+     *  @return the buffer, in read mode, with n bytes remaining
+     *  @throws IOException if the channel cannot be read
+     *  @throws EOFException if the channel ends first
+     */
+    private static ByteBuffer fill(ByteBuffer in, ReadableByteChannel channel,
+            int n) throws IOException {
+        if (n < 0) {
+            throw new IOException("bad snapshot record length " + n);
+        }
+        if (in.remaining() >= n) {
+            return in;
+        }
+        if (in.capacity() < n) {
+            ByteBuffer bigger = ByteBuffer.allocateDirect(n);
+            bigger.put(in);
+            in = bigger;
+        } else {
+            in.compact();
+        }
+        while (in.position() < n) {
+            if (channel.read(in) < 0) {
+                throw new EOFException("snapshot ends early");
+            }
+        }
+        in.flip();
+        return in;
+    }
+}
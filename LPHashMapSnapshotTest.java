@@ -0,0 +1,185 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+*/
+
+/** TESTS for LPHashMapSnapshot
+ *  Explicit tests that save and load keep every entry, null values
+ *  included, for each LPHashMap kind and strategy; that snapshots of
+ *  tombstone free linear probe tables load into the same slots at the
+ *  same capacity, while those with tombstones, Swiss tables and
+ *  unknown strategies are put back instead; empty maps; values bigger
+ *  than the buffer; streaming over plain channels; and rejecting
+ *  files that are not snapshots or are cut short.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class LPHashMapSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** Fill a map with string keys and int values, then remove some. */
+    static <M extends LPHashMap<String, Integer>> M fill(M map, int n) {
+        for (int i = 0; i < n; i++) {
+            map.put("term" + i, i);
+        }
+        for (int i = 0; i < n; i += 10) {
+            map.remove("term" + i);
+        }
+        return map;
+    }
+
+    /** Save and load a map through a temporary file. */
+    LPHashMap<String, Integer> roundTrip(LPHashMap<String, Integer> map)
+        throws IOException {
+        Path file = folder.getRoot().toPath().resolve("map.snap");
+        LPHashMapSnapshot.save(map, file, Codec.STRING, Codec.INTEGER);
+        return LPHashMapSnapshot.load(file, Codec.STRING, Codec.INTEGER);
+    }
+
+    /** Get a map's keys in slot order. */
+    static List<String> slotOrder(LPHashMap<String, Integer> map) {
+        return new ArrayList<String>(map.keys());
+    }
+
+    @Test
+    public void testEachKindRoundTrips() throws IOException {
+        List<LPHashMap<String, Integer>> maps = Arrays.asList(
+            new LPHashMap<String, Integer>(.7f),
+            new LPHashMap<String, Integer>(.7f, 0, HashStrategy.mixed(9)),
+            new FlatLPHashMap<String, Integer>(.7f),
+            new RobinHoodLPHashMap<String, Integer>(.7f),
+            new IncrementalLPHashMap<String, Integer>(.7f),
+            new SwissLPHashMap<String, Integer>(.875f),
+            new LPHashMap<String, Integer>(.7f, 0,
+                                           SwissLPHashMapTest.IDENTITY));
+        for (LPHashMap<String, Integer> map : maps) {
+            fill(map, 5000);
+            LPHashMap<String, Integer> loaded = roundTrip(map);
+            assertEquals(map.size(), loaded.size());
+            assertEquals(map.entries(), loaded.entries());
+            assertEquals(map.getMaxLoad(), loaded.getMaxLoad(), 0f);
+            assertNull(loaded.get("term0"));
+            loaded.put("new", -1);
+            assertEquals(-1, (int) loaded.get("new"));
+        }
+    }
+
+    @Test
+    public void testPlacedInSameSlots() throws IOException {
+        for (HashStrategy s : new HashStrategy[] {
+                HashStrategy.PRIME_MODULO, HashStrategy.mixed(226)}) {
+            LPHashMap<String, Integer> map =
+                new LPHashMap<String, Integer>(.9f, 0, s);
+            fill(map, 3000);
+            map.trimToSize();  // clears the tombstones
+            assertEquals(0, map.ghosts());
+            LPHashMap<String, Integer> loaded = roundTrip(map);
+            assertEquals(map.getCapacity(), loaded.getCapacity());
+            assertEquals(slotOrder(map), slotOrder(loaded));
+            assertEquals(s.toString(), loaded.getHashStrategy().toString());
+            for (int i = 1; i < 3000; i++) {
+                assertEquals(i % 10 == 0 ? null : (Integer) i,
+                             loaded.get("term" + i));
+            }
+        }
+    }
+
+    @Test
+    public void testRobinHoodLayoutPlaced() throws IOException {
+        RobinHoodLPHashMap<String, Integer> map =
+            fill(new RobinHoodLPHashMap<String, Integer>(.9f), 2000);
+        LPHashMap<String, Integer> loaded = roundTrip(map);
+        // walks start elsewhere in a Robin Hood table, so compare how far
+        // entries sit from home rather than the order keys come out in
+        assertEquals(map.getCapacity(), loaded.getCapacity());
+        assertEquals(map.maxProbeDistance(), loaded.maxProbeDistance());
+        assertEquals(map.meanProbeDistance(), loaded.meanProbeDistance(), 0);
+        assertEquals(map.entries(), loaded.entries());
+    }
+
+    @Test
+    public void testTombstonesPutBack() throws IOException {
+        LPHashMap<String, Integer> map =
+            fill(new LPHashMap<String, Integer>(.7f), 1000);
+        assertTrue(map.ghosts() > 0);
+        LPHashMap<String, Integer> loaded = roundTrip(map);
+        assertEquals(0, loaded.ghosts());
+        assertEquals(map.entries(), loaded.entries());
+    }
+
+    @Test
+    public void testNullsEmptyAndBigValues() throws IOException {
+        LPHashMap<String, List<String>> map =
+            new LPHashMap<String, List<String>>(.5f);
+        Path file = folder.newFile().toPath();
+        LPHashMapSnapshot.save(map, file, Codec.STRING, Codec.STRING_LIST);
+        assertTrue(LPHashMapSnapshot.load(file, Codec.STRING,
+                                          Codec.STRING_LIST).isEmpty());
+
+        List<String> big = new ArrayList<String>();
+        for (int i = 0; i < 20000; i++) {
+            big.add("http://www.page" + i + ".com");
+        }
+        map.put("big", big);
+        map.put("none", null);
+        map.put("small", Arrays.asList("a", "b"));
+        LPHashMapSnapshot.save(map, file, Codec.STRING, Codec.STRING_LIST);
+        LPHashMap<String, List<String>> loaded =
+            LPHashMapSnapshot.load(file, Codec.STRING, Codec.STRING_LIST);
+        assertEquals(big, loaded.get("big"));
+        assertTrue(loaded.hasKey("none"));
+        assertNull(loaded.get("none"));
+        assertEquals(Arrays.asList("a", "b"), loaded.get("small"));
+    }
+
+    @Test
+    public void testStreams() throws IOException {
+        LPHashMap<String, Integer> map =
+            fill(new LPHashMap<String, Integer>(.7f), 100000);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        LPHashMapSnapshot.write(map, Channels.newChannel(bytes),
+                                Codec.STRING, Codec.INTEGER);
+        LPHashMap<String, Integer> loaded = LPHashMapSnapshot.read(
+            Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())),
+            Codec.STRING, Codec.INTEGER);
+        assertEquals(map.entries(), loaded.entries());
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotASnapshot() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, new byte[LPHashMapSnapshot.HEADER]);
+        LPHashMapSnapshot.load(file, Codec.STRING, Codec.INTEGER);
+    }
+
+    @Test(expected = EOFException.class)
+    public void testCutShort() throws IOException {
+        Path file = folder.newFile().toPath();
+        LPHashMapSnapshot.save(fill(new LPHashMap<String, Integer>(.7f), 50),
+                               file, Codec.STRING, Codec.INTEGER);
+        byte[] all = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(all, all.length - 3));
+        LPHashMapSnapshot.load(file, Codec.STRING, Codec.INTEGER);
+    }
+}
@@ -0,0 +1,208 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/** Counters for the hot paths of an LPHashMap: gets and their hit
+ *  ratio, puts, removes, probe lengths, and rehashes with their cost.
+ *  A map only keeps these once LPHashMap.enableStats is called; until
+ *  then each operation pays just a null check. The counters are plain
+ *  fields, updated by whichever thread is using the map, so a JMX
+ *  client on another thread may see them slightly out of date.
+ *  @author Ryan Demo
+ */
+public class LPHashMapStats implements LPHashMapStatsMBean {
+
+    /** Number of probe length histogram buckets. */
+    static final int PROBE_BUCKETS = 16;
+
+    /** Nanoseconds per millisecond. */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /** Number of gets. */
+    private long gets;
+
+    /** Number of gets that found their key. */
+    private long hits;
+
+    /** Number of puts. */
+    private long puts;
+
+    /** Number of removes. */
+    private long removes;
+
+    /** Number of rehashes. */
+    private long rehashes;
+
+    /** Number of rehashes just to clear tombstones. */
+    private long tombstoneRehashes;
+
+    /** Total time spent rehashing. */
+    private long rehashNanos;
+
+    /** Sum of all recorded probe lengths. */
+    private long totalProbes;
+
+    /** Lookups by probe length. */
+    private long[] probeHistogram = new long[PROBE_BUCKETS];
+
+    /** Record a lookup's probe length.
+     *  @param probes how many slots past the home slot the lookup went
+     */
+    private void recordProbes(int probes) {
+        this.totalProbes += probes;
+        this.probeHistogram[Math.min(probes, PROBE_BUCKETS - 1)]++;
+    }
+
+    /** Record a get.
+     *  @param probes the probe length
+     *  @param hit true if the key was found
+     */
+    void recordGet(int probes, boolean hit) {
+        this.gets++;
+        if (hit) {
+            this.hits++;
+        }
+        this.recordProbes(probes);
+    }
+
+    /** Record a put.
+     *  @param probes the probe length
+     */
+    void recordPut(int probes) {
+        this.puts++;
+        this.recordProbes(probes);
+    }
+
+    /** Record a remove.
+     *  @param probes the probe length
+     */
+    void recordRemove(int probes) {
+        this.removes++;
+        this.recordProbes(probes);
+    }
+
+    /** Record a rehash.
+     *  @param nanos how long it took
+     *  @param tombstones true if it was only to clear tombstones
+     */
+    void recordRehash(long nanos, boolean tombstones) {
+        this.rehashes++;
+        if (tombstones) {
+            this.tombstoneRehashes++;
+        }
+        this.rehashNanos += nanos;
+    }
+
+    /** Copy the counters as they are now. The copy does not change as
+     *  the map goes on, so two snapshots can be subtracted to get the
+     *  counts for the time between them.
+     *  @return the copy
+     */
+    public LPHashMapStats snapshot() {
+        LPHashMapStats copy = new LPHashMapStats();
+        copy.gets = this.gets;
+        copy.hits = this.hits;
+        copy.puts = this.puts;
+        copy.removes = this.removes;
+        copy.rehashes = this.rehashes;
+        copy.tombstoneRehashes = this.tombstoneRehashes;
+        copy.rehashNanos = this.rehashNanos;
+        copy.totalProbes = this.totalProbes;
+        copy.probeHistogram = this.probeHistogram.clone();
+        return copy;
+    }
+
+    /** Register these counters with the platform MBean server.
+     *  @param name the name to register under, as the name key of
+     *  the object name "LPHashMap:name=..."
+     *  @return the object name registered
+     *  @throws JMException if the name is bad or already taken
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName =
+                new ObjectName("LPHashMap", "name", ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer()
+                .registerMBean(this, objectName);
+        return objectName;
+    }
+
+    @Override
+    public long getGets() {
+        return this.gets;
+    }
+
+    @Override
+    public long getHits() {
+        return this.hits;
+    }
+
+    @Override
+    public double getHitRatio() {
+        return this.gets == 0 ? 0 : (double) this.hits / this.gets;
+    }
+
+    @Override
+    public long getPuts() {
+        return this.puts;
+    }
+
+    @Override
+    public long getRemoves() {
+        return this.removes;
+    }
+
+    @Override
+    public long getRehashes() {
+        return this.rehashes;
+    }
+
+    @Override
+    public long getTombstoneRehashes() {
+        return this.tombstoneRehashes;
+    }
+
+    @Override
+    public double getRehashMillis() {
+        return this.rehashNanos / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMeanProbeLength() {
+        long lookups = this.gets + this.puts + this.removes;
+        return lookups == 0 ? 0 : (double) this.totalProbes / lookups;
+    }
+
+    @Override
+    public long[] getProbeHistogram() {
+        return this.probeHistogram.clone();
+    }
+
+    @Override
+    public void reset() {
+        this.gets = 0;
+        this.hits = 0;
+        this.puts = 0;
+        this.removes = 0;
+        this.rehashes = 0;
+        this.tombstoneRehashes = 0;
+        this.rehashNanos = 0;
+        this.totalProbes = 0;
+        this.probeHistogram = new long[PROBE_BUCKETS];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("gets=%d hitRatio=%.3f puts=%d removes=%d "
+                + "meanProbe=%.2f rehashes=%d (tombstone %d, %.1f ms)",
+                this.gets, this.getHitRatio(), this.puts, this.removes,
+                this.getMeanProbeLength(), this.rehashes,
+                this.tombstoneRehashes, this.getRehashMillis());
+    }
+}
@@ -0,0 +1,71 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+/** JMX management interface for LPHashMapStats, so the counters of a
+ *  running map can be read from jconsole or any other JMX client.
+ *  @author Ryan Demo
+ */
+public interface LPHashMapStatsMBean {
+
+    /** Get the number of gets, including hasKey and computeIfAbsent
+     *  calls that found their key.
+     *  @return the count
+     */
+    long getGets();
+
+    /** Get the number of gets that found their key.
+     *  @return the count
+     */
+    long getHits();
+
+    /** Get the fraction of gets that found their key.
+     *  @return hits / gets, or 0 if there were no gets
+     */
+    double getHitRatio();
+
+    /** Get the number of puts, including compute and merge calls that
+     *  stored a value.
+     *  @return the count
+     */
+    long getPuts();
+
+    /** Get the number of removes, whether or not the key was there.
+     *  @return the count
+     */
+    long getRemoves();
+
+    /** Get the number of rehashes of any kind.
+     *  @return the count
+     */
+    long getRehashes();
+
+    /** Get the number of rehashes done only to clear out tombstones.
+     *  @return the count
+     */
+    long getTombstoneRehashes();
+
+    /** Get the total time spent rehashing.
+     *  @return the time in milliseconds
+     */
+    double getRehashMillis();
+
+    /** Get the mean probe length of the recorded lookups.
+     *  @return the mean, or 0 if none
+     */
+    double getMeanProbeLength();
+
+    /** Get the probe length histogram. Element i counts the lookups
+     *  that went i slots past the key's home slot; the last element
+     *  counts all longer ones too.
+     *  @return a copy of the histogram
+     */
+    long[] getProbeHistogram();
+
+    /** Set all the counters back to zero.
+     */
+    void reset();
+}
@@ -0,0 +1,144 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+*/
+
+/** TESTS for LPHashMapStats
+ *  Explicit tests that stats are off by default, that gets, hits, puts,
+ *  removes, probe lengths and growth and tombstone rehashes are counted,
+ *  that snapshots and reset are independent of the live counters, and
+ *  that the counters can be read over JMX.
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class LPHashMapStatsTest {
+
+    LPHashMap<Integer, String> map;
+    LPHashMapStats stats;
+
+    @Before
+    public void setup() {
+        map = new LPHashMap<Integer, String>(1.0f);
+        stats = map.enableStats();
+    }
+
+    @Test
+    public void testOffByDefault() {
+        LPHashMap<Integer, String> plain = new LPHashMap<Integer, String>(.7f);
+        assertNull(plain.getStats());
+        plain.put(1, "1");
+        assertNull(plain.getStats());
+        assertSame(stats, map.enableStats());  // already on
+        map.disableStats();
+        assertNull(map.getStats());
+        map.put(1, "1");
+        assertEquals(0, stats.getPuts());
+    }
+
+    @Test
+    public void testCounts() {
+        // Integer hashCode is the value, capacity 5: 0 and 5 share slot 0
+        map.put(0, "0");
+        map.put(5, "5");  // probes to slot 1
+        map.put(5, "five");  // overwrite, probes to slot 1
+        assertEquals("0", map.get(0));
+        assertEquals("five", map.get(5));
+        assertNull(map.get(3));
+        assertTrue(map.hasKey(0));
+        assertEquals("0", map.computeIfAbsent(0, k -> "zero"));  // a get
+        map.merge(7, "7", String::concat);  // a put
+        assertEquals("0", map.remove(0));
+        assertNull(map.remove(0));
+        assertEquals(5, stats.getGets());
+        assertEquals(4, stats.getHits());
+        assertEquals(.8, stats.getHitRatio(), 1e-9);
+        assertEquals(4, stats.getPuts());
+        assertEquals(2, stats.getRemoves());
+        assertEquals(0, stats.getRehashes());
+        long[] histogram = stats.getProbeHistogram();
+        assertEquals(LPHashMapStats.PROBE_BUCKETS, histogram.length);
+        long lookups = 0;
+        for (long count : histogram) {
+            lookups += count;
+        }
+        assertEquals(11, lookups);
+        assertEquals(3, histogram[1]);  // put, put and get of 5
+        assertEquals(8, histogram[0]);
+        assertEquals(3.0 / 11, stats.getMeanProbeLength(), 1e-9);
+    }
+
+    @Test
+    public void testRehashes() {
+        for (int i = 0; i < 6; i++) {
+            map.put(i, "" + i);  // grows 5 -> 11 on the sixth
+        }
+        assertEquals(1, stats.getRehashes());
+        assertEquals(0, stats.getTombstoneRehashes());
+        for (int i = 0; i < 4; i++) {
+            map.remove(i);  // more ghosts than entries on the fourth
+        }
+        assertEquals(2, stats.getRehashes());
+        assertEquals(1, stats.getTombstoneRehashes());
+        assertTrue(stats.getRehashMillis() >= 0);
+        map.ensureCapacity(1000);
+        assertEquals(3, stats.getRehashes());
+        map.trimToSize();
+        assertEquals(4, stats.getRehashes());
+        assertEquals(1, stats.getTombstoneRehashes());
+    }
+
+    @Test
+    public void testSnapshotAndReset() {
+        map.put(1, "1");
+        map.get(1);
+        LPHashMapStats before = stats.snapshot();
+        map.get(1);
+        map.get(2);
+        assertEquals(1, before.getGets());
+        assertEquals(3, stats.getGets());
+        assertEquals(2, stats.getGets() - before.getGets());
+        stats.reset();
+        assertEquals(0, stats.getGets());
+        assertEquals(0, stats.getPuts());
+        assertEquals(0, stats.getHitRatio(), 0);
+        assertEquals(0, stats.getMeanProbeLength(), 0);
+        assertArrayEquals(new long[LPHashMapStats.PROBE_BUCKETS],
+                          stats.getProbeHistogram());
+        assertEquals(1, before.getGets());
+        assertTrue(before.toString().contains("gets=1"));
+    }
+
+    @Test
+    public void testJmx() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = stats.register("LPHashMapStatsTest");
+        try {
+            for (int i = 0; i < 10; i++) {
+                map.put(i, "" + i);
+                map.get(i);
+            }
+            map.get(-1);
+            assertEquals(10L, server.getAttribute(name, "Puts"));
+            assertEquals(11L, server.getAttribute(name, "Gets"));
+            assertEquals(10.0 / 11,
+                         (Double) server.getAttribute(name, "HitRatio"), 1e-9);
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, server.getAttribute(name, "Gets"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
@@ -16,7 +16,21 @@ P2
  *    get/insert/probing after remove with tombstones
  *    rehashing when ghosts > size
  * 
- *  Explicit tests of iterator functions
+ *  Explicit tests of iterator functions: live entries only, in slot order,
+ *    fail fast on any other change, overwrites included
+ *  Explicit tests of computeIfAbsent, compute and merge, including
+ *    tombstone reuse, removal on null and growth
+ *  Explicit tests of presizing, putAll and trimToSize: no rehash while
+ *    loading up to the expected size, shrink after removes
+ *  Explicit tests of forEach and the spliterator: parallel and sequential
+ *    streams see the same entries, SIZED only before splitting
+ *  Explicit tests that keys, values and entries are live views: they see
+ *    later puts and removes, and removing through them removes from the map
+ *  Explicit tests that setValue on an entry of any view or iterator sets
+ *    the value in the map
+ *  Explicit tests of the reverse value index through every kind of change,
+ *    setValue on handed out entries included,
+ *    and against java.util.HashMap.containsValue under random changes
  *  Missing tests: exceptions - you should throw them as specified, we may
  *  add tests for them later.
  */
@@ -38,7 +52,12 @@ import java.util.HashSet;
 import java.util.ArrayList;
 import java.util.AbstractMap;
 import java.util.Set;
+import java.util.Map;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 public class LPHashMapTest {
 
@@ -76,6 +95,32 @@ public class LPHashMapTest {
         return true;  // passed all tests
     }
 
+    /** Make the map under test; subclasses override this to run the
+     *  whole suite against another LPHashMap implementation.
+     *  @param maxLoad the maximum load factor
+     *  @return an empty map
+     */
+    protected LPHashMap<Integer, String> newMap(float maxLoad) {
+        return new LPHashMap<Integer, String>(maxLoad);
+    }
+
+    /** Make the map under test, presized.
+     *  @param maxLoad the maximum load factor
+     *  @param expected the number of entries to size for
+     *  @return an empty map
+     */
+    protected LPHashMap<Integer, String> newMap(float maxLoad, int expected) {
+        return new LPHashMap<Integer, String>(maxLoad, expected);
+    }
+
+    /** Find out if a tombstone still shows the key and value it
+     *  replaced; subclasses that clear them on remove return false.
+     *  @return true for LPHashMap
+     */
+    protected boolean tombstonesKeepEntries() {
+        return true;
+    }
+
     @BeforeClass
     public static void init() {
         ikeys = new HashSet<Integer>();
@@ -106,11 +151,11 @@ public class LPHashMapTest {
     @Before        
     public void setup() {
         // these start out empty before each test, different load factors
-        e4 = new LPHashMap<Integer, String>(.4f);   // load 2 of 5 is max
-        e7 = new LPHashMap<Integer, String>(.7f);   // load 3 of 5 is max
+        e4 = newMap(.4f);   // load 2 of 5 is max
+        e7 = newMap(.7f);   // load 3 of 5 is max
 
         // this is full set, assuming put works correctly
-        all = new LPHashMap<Integer, String>(.5f);
+        all = newMap(.5f);
         for (int i=0; i < iray.length; i++) {
             all.put(iray[i], sray[i]);
             //DEBUG:            System.out.println("T->all size cap " + all.size() + " " + all.getCapacity());
@@ -144,7 +189,7 @@ public class LPHashMapTest {
 
 
     public void testEmptyMetrics(float lf) {  
-        LPHashMap<Integer,String> em = new LPHashMap<Integer,String>(lf);
+        LPHashMap<Integer,String> em = newMap(lf);
         assertTrue(em.isEmpty());
         assertEquals(0, em.size());
         assertEquals(5, em.getCapacity());
@@ -290,7 +335,7 @@ public class LPHashMapTest {
     /*
     @Test
     public void testEqualsHashcode() {
-        e7 = new LPHashMap<Integer, String>(.4f);   // same max as e4
+        e7 = newMap(.4f);   // same max as e4
         for (int i=0; i < iray.length; i++) {
             e4.put(iray[i],sray[i]);
             e7.put(iray[i],sray[i]);
@@ -451,8 +496,9 @@ public class LPHashMapTest {
         int cap = all.getCapacity();
         int ghosts = 0;
         assertEquals(0, all.ghosts());  // no tombstones yet
-        Set<Integer> keys = all.keys();
-        Collection<String> vals = all.values();  // has duplicates
+        // copies, since the views themselves are live
+        Set<Integer> keys = new HashSet<Integer>(all.keys());
+        Collection<String> vals = new ArrayList<String>(all.values());  // has duplicates
         for (int i=0; i < iray.length; i++) {
             assertEquals(all.remove(iray[i]), sray[i]); // returns val
             size--;
@@ -482,7 +528,7 @@ public class LPHashMapTest {
     @Test
     public void testIteratorFullNoCollisions() {
         // start with load factor 1 table
-        LPHashMap<Integer, String> full = new LPHashMap<Integer,String>(1.0f);
+        LPHashMap<Integer, String> full = newMap(1.0f);
         HashSet<LPMapEntry<Integer,String>> pairs = new HashSet<LPMapEntry<Integer,String>>();
         int cap = 5;
         // put 5 entries in to fill
@@ -515,7 +561,7 @@ public class LPHashMapTest {
     @Test
     public void testIteratorFullRemove() {
         // start with load factor 1 table
-        LPHashMap<Integer, String> full = new LPHashMap<Integer,String>(1.0f);
+        LPHashMap<Integer, String> full = newMap(1.0f);
         HashSet<LPMapEntry<Integer,String>> pairs = new HashSet<LPMapEntry<Integer,String>>();
         int cap = 5;
         // put 5 entries in to fill
@@ -544,15 +590,11 @@ public class LPHashMapTest {
         assertEquals(0, full.values().size());
         // 5 entries removed, should all be tombstones
         // we don't rehash when removing through iterator
-        it = full.iterator();
-        count = 0;
-        LPMapEntry<Integer, String> e;
-        while (it.hasNext()) {
-            e = it.next();
-            assertTrue(e.isTombstone());
-            count++;
+        assertFalse(full.iterator().hasNext());  // skips tombstones
+        assertEquals(cap, full.getCapacity());
+        for (i = 0; i < cap; i++) {
+            assertTrue(full.slotAt(i).isTombstone());
         }
-        assertEquals(cap, count);
     }
 
     @Test
@@ -580,78 +622,104 @@ public class LPHashMapTest {
         LPMapEntry<Integer,String> e;
         while (it.hasNext()) {
             e = it.next();
-            if (count < size) {
-                assertEquals(entries[count],e);
-            }
+            assertNotNull(e);  // skips empty slots
+            assertEquals(entries[count],e);
             if (count % 3 == 0) {  // only remove 1/3 of the entries, no rehash
-                if (e != null) {
-                    pairs.remove(e);  // before becomes tombstone
+                pairs.remove(e);  // before becomes tombstone
+                it.remove();
+                keys.remove(e.getKey());
+                vals.remove(e.getValue());
+                entries[count].makeTombstone();
+                try {
+                    it.remove();  // only once per next
+                    fail("removed twice");
+                } catch (IllegalStateException ex) {
+                    // expected
                 }
-                it.remove();  // ignore remove on empty slots
-                if (e != null) {
-                    keys.remove(e.getKey());
-                    vals.remove(e.getValue());
-                    entries[count].makeTombstone();
-                }
-            }
-            if (count > size) {
-                assertNull(e);   // iterates through empty slots
             }
             count++;
         }
-        assertEquals(count, cap);  // iterated through all slots
+        assertEquals(count, size);  // iterated through live entries only
         assertEquals(keys, e7.keys());
         assertTrue(sameCollection(vals, e7.values()));
         assertEquals(pairs, e7.entries());
 
-        // now iterate through again to check for empties, ghosts and entries
-        // remove some ghosts
+        // now iterate through again, which skips the ghosts
         it = e7.iterator();
         count = 0;
         while (it.hasNext()) {
             e = it.next();
-            if (count < size) {
-                assertEquals(entries[count],e);
-                if (count % 3 != 0) {
-                    assertEquals(new LPMapEntry<Integer,String>(iray[count],sray[count]),e);
-                } else { // (count % 3 == 0)  // these are now ghosts
-                    assertTrue(e.isTombstone());
-                    it.remove();  // test remove ghost does nothing
-                }
-            } else {
-                assertNull(e);   // iterates through empty slots
-            }
+            assertFalse(e.isTombstone());
+            assertTrue(pairs.contains(e));
             count++;
         }
-        assertEquals(count, cap);  // iterated through all slots
-        assertEquals(keys, e7.keys());
-        assertTrue(sameCollection(vals, e7.values()));
-        assertEquals(pairs, e7.entries());
+        assertEquals(count, e7.size());
 
-        // one more time to check on ghost removal did nothing
-        it = e7.iterator();
-        count = 0;
-        while (it.hasNext()) {
-            e = it.next();
-            if (count < size) {
-                assertEquals(entries[count],e);
-                if (count % 3 != 0) {
-                    assertEquals(new LPMapEntry<Integer,String>(iray[count],sray[count]),e);
-                } else { // (count % 3 == 0)  // these are now ghosts
-                    assertTrue(e.isTombstone());
+        // the table itself still has empties, ghosts and entries
+        for (int i=0; i < cap; i++) {
+            e = e7.slotAt(i);
+            if (i < size) {
+                assertEquals(i % 3 == 0, e.isTombstone());
+                if (e.isTombstone() && !tombstonesKeepEntries()) {
+                    assertNull(e.getKey());
+                    assertNull(e.getValue());
+                } else {
+                    assertEquals(entries[i],e);
                 }
             } else {
-                assertNull(e);   // iterates through empty slots
+                assertNull(e);
             }
-            count++;
         }
-        assertEquals(count, cap);  // iterated through all slots
         assertEquals(keys, e7.keys());
         assertTrue(sameCollection(vals, e7.values()));
         assertEquals(pairs, e7.entries());
     }
 
 
+    @Test
+    public void testIteratorConcurrentModification() {
+        // an overwrite changes neither size nor ghosts, but is caught
+        Iterator<LPMapEntry<Integer,String>> it = all.iterator();
+        it.next();
+        all.put(3, "three");
+        try {
+            it.next();
+            fail("overwrite not detected");
+        } catch (java.util.ConcurrentModificationException e) {
+            // expected
+        }
+        // so is a put balanced by a remove
+        it = all.iterator();
+        it.next();
+        all.put(99, "x");
+        all.remove(99);
+        try {
+            it.next();
+            fail("put and remove not detected");
+        } catch (java.util.ConcurrentModificationException e) {
+            // expected
+        }
+        // removing through one iterator invalidates the others
+        it = all.iterator();
+        Iterator<Integer> other = all.keys().iterator();
+        it.next();
+        it.remove();
+        it.next();  // still fine
+        try {
+            other.next();
+            fail("iterator remove not detected");
+        } catch (java.util.ConcurrentModificationException e) {
+            // expected
+        }
+        // reads and missed removes do not count
+        it = all.iterator();
+        it.next();
+        all.get(5);
+        all.remove(1000);
+        all.computeIfAbsent(5, k -> "unused");
+        it.next();
+    }
+
     @Test
     public void testLinearProbeInsertGetContains() {
         // start with load factor = 1 to fill 5 slot table
@@ -659,7 +727,7 @@ public class LPHashMapTest {
         // toString tests only work if the values collection is created
         // using a linear search through the hash table pairs, add to end
         LPMapEntry<Integer,String>[] table = new LPMapEntry[5];
-        e7 = new LPHashMap<Integer, String>(1.0f);   // load 5 of 5 is max
+        e7 = newMap(1.0f);   // load 5 of 5 is max
         e7.put(0, "0");   // slot 0
         table[0] = new LPMapEntry<Integer,String>(0, "0");
         // assertEquals(e7.values().toString(), "[0]");
@@ -691,7 +759,7 @@ public class LPHashMapTest {
         // we assume that the values collection is created
         // using a linear search through the hash table pairs, add to end
         LPMapEntry<Integer,String>[] table = new LPMapEntry[5];
-        e7 = new LPHashMap<Integer, String>(1.0f);   // load 5 of 5 is max
+        e7 = newMap(1.0f);   // load 5 of 5 is max
 
         e7.put(0, "0");   // slot 0
         table[0] = new LPMapEntry<Integer,String>(0, "0");
@@ -713,9 +781,9 @@ public class LPHashMapTest {
 
         LPMapEntry<Integer,String> e;
         assertEquals(e7.remove(0), "0");  // slot 0, no probe, leaves tombstone
-        it = e7.iterator();
-        e = it.next();  // should be tombstone
+        e = e7.slotAt(0);  // should be tombstone
         assertTrue(e.isTombstone());
+        assertEquals(table[1], e7.iterator().next());  // iterator skips it
         assertTrue(e7.ghosts() == 1);
         assertTrue(e7.hasKey(10));  // probe to 1
         assertEquals(e7.get(20),"2");  // probe to 2
@@ -724,14 +792,13 @@ public class LPHashMapTest {
         assertTrue(e7.size() == 4);
 
         assertEquals(e7.remove(14), "3");  // probe to 3, leaves tombstone
-        it = e7.iterator();
-        e = it.next();  // should be tombstone from remove 0
+        e = e7.slotAt(0);  // should be tombstone from remove 0
         assertTrue(e.isTombstone());
-        assertEquals(table[1], it.next()); // no change
-        assertEquals(table[2], it.next()); // no change
-        e = it.next();  // should be tombstone from remove 3
+        assertEquals(table[1], e7.slotAt(1)); // no change
+        assertEquals(table[2], e7.slotAt(2)); // no change
+        e = e7.slotAt(3);  // should be tombstone from remove 3
         assertTrue(e.isTombstone());
-        assertEquals(table[4], it.next()); // no change
+        assertEquals(table[4], e7.slotAt(4)); // no change
         // assertEquals(e7.values().toString(), "[1, 2, 4]");
         assertTrue(e7.ghosts() == 2);
         assertFalse(e7.hasKey(0));  // still probes all
@@ -753,13 +820,12 @@ public class LPHashMapTest {
         // now insert a few things again to fill up, replacing tombstones
         assertNull(e7.put(24,"24")); // start at 4, probe to 0
         table[0] = new LPMapEntry<Integer,String>(24, "24");
-        it = e7.iterator();
         for (i=0; i < 3; i++) {
-            assertEquals(table[i], it.next());
+            assertEquals(table[i], e7.slotAt(i));
         }
-        e = it.next();
+        e = e7.slotAt(3);
         assertTrue(e.isTombstone());  // still in position 3
-        assertEquals(table[4], it.next());
+        assertEquals(table[4], e7.slotAt(4));
         // assertEquals(e7.values().toString(), "[24, 1, 2, 4]");
         assertTrue(e7.ghosts() == 1);
         assertNull(e7.put(200,"200"));  // start at 0, probe to 3
@@ -794,12 +860,15 @@ public class LPHashMapTest {
         // slots 1, 2, 3 should be null
         assertTrue(e7.getCapacity() == 5);  // no change
         assertTrue(e7.ghosts() == 0);   // removed when rehash
-        it = e7.iterator();
-        assertEquals(table[0], it.next()); // slot 0
-        assertNull(it.next());  // slot 1
-        assertNull(it.next());  // slot 2
-        assertNull(it.next());  // slot 3
-        assertEquals(table[4], it.next()); // slot 4
+        assertEquals(table[0], e7.slotAt(0)); // slot 0
+        assertNull(e7.slotAt(1));  // slot 1
+        assertNull(e7.slotAt(2));  // slot 2
+        assertNull(e7.slotAt(3));  // slot 3
+        assertEquals(table[4], e7.slotAt(4)); // slot 4
+        it = e7.iterator();  // skips the empty slots
+        assertEquals(table[0], it.next());
+        assertEquals(table[4], it.next());
+        assertFalse(it.hasNext());
         // assertEquals(e7.values().toString(), "[200, 24]");
         assertNull(e7.put(1,"1"));  // open slot
         table[1] = new LPMapEntry<Integer,String>(1,"1");
@@ -830,5 +899,378 @@ public class LPHashMapTest {
         assertEquals(pairs, e7.entries());
     }
 
+    @Test
+    public void testComputeIfAbsent() {
+        assertEquals("0", e7.computeIfAbsent(0, k -> "" + k));
+        assertEquals("0", e7.computeIfAbsent(0, k -> "again"));  // no call
+        assertNull(e7.computeIfAbsent(5, k -> null));  // nothing added
+        assertFalse(e7.hasKey(5));
+        assertTrue(e7.size() == 1);
+        // probe 0, reuse the tombstone left by 5's removal
+        assertNull(e7.put(5, "5"));
+        assertEquals("5", e7.remove(5));
+        assertTrue(e7.ghosts() == 1);
+        assertEquals("10", e7.computeIfAbsent(10, k -> "" + k));
+        assertTrue(e7.ghosts() == 0);
+        assertEquals("10", e7.get(10));
+        // fill past max load, so the insert rehashes first
+        for (int i = 1; i < 4; i++) {
+            assertEquals("" + i, e7.computeIfAbsent(i, k -> "" + k));
+        }
+        assertTrue(e7.getCapacity() == 11);
+        assertTrue(e7.size() == 5);
+        for (int i : new int[] {0, 1, 2, 3, 10}) {
+            assertEquals("" + i, e7.get(i));
+        }
+    }
+
+    @Test
+    public void testComputeAndMerge() {
+        assertEquals("tre", all.compute(3, (k, v) -> v));
+        assertEquals("tre3", all.compute(3, (k, v) -> v + k));
+        assertEquals("tre3", all.get(3));
+        assertEquals("new", all.compute(20, (k, v) -> v == null ? "new" : v));
+        assertTrue(all.size() == 12);
+        assertNull(all.compute(20, (k, v) -> null));  // removes
+        assertNull(all.compute(21, (k, v) -> null));  // absent, no-op
+        assertFalse(all.hasKey(20));
+        assertTrue(all.size() == 11);
+
+        assertEquals("x", all.merge(30, "x", String::concat));
+        assertEquals("xy", all.merge(30, "y", String::concat));
+        assertNull(all.merge(30, "z", (a, b) -> null));
+        assertFalse(all.hasKey(30));
+        assertTrue(all.size() == 11);
+        for (int i = 0; i < iray.length; i++) {
+            assertTrue(all.hasKey(iray[i]));
+        }
+
+        // counting with merge across several rehashes
+        LPHashMap<Integer, Integer> counts = new LPHashMap<Integer, Integer>(.5f);
+        for (int i = 0; i < 1000; i++) {
+            counts.merge(i % 100, 1, Integer::sum);
+        }
+        assertTrue(counts.size() == 100);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(10, (int) counts.get(i));
+        }
+        assertTrue(counts.getLoad() <= counts.getMaxLoad());
+    }
+
+    @Test
+    public void testPresized() {
+        LPHashMap<Integer, String> m = newMap(.7f, 1000);
+        int cap = m.getCapacity();
+        assertTrue(cap >= 1000 / .7f);
+        assertTrue(cap < 2 * 1000 / .7f);
+        for (int i = 0; i < 1000; i++) {
+            m.put(i, "" + i);
+            assertTrue(m.getCapacity() == cap);  // never rehashed
+        }
+        assertTrue(m.getLoad() <= m.getMaxLoad());
+        m.put(1000, "1000");  // one more is past max load
+        assertTrue(m.getCapacity() > cap);
+        assertTrue(newMap(.7f, 0).getCapacity() == 5);
+        assertTrue(newMap(1f, 5).getCapacity() == 5);
+        assertTrue(newMap(1f, 6).getCapacity() == 7);
+    }
+
+    @Test
+    public void testPutAll() {
+        e7.putAll(all);
+        assertEquals(entries, e7.entries());
+        assertTrue(e7.size() == all.size());
+        assertTrue(e7.getLoad() <= e7.getMaxLoad());
 
-}
\ No newline at end of file
+        // sized once for source plus existing keys, overlapping or not
+        LPHashMap<Integer, String> m = newMap(.5f);
+        m.put(0, "old");
+        m.put(1000, "keep");
+        ArrayList<AbstractMap.SimpleEntry<Integer, String>> source =
+            new ArrayList<AbstractMap.SimpleEntry<Integer, String>>();
+        for (int i = 0; i < 500; i++) {
+            source.add(new AbstractMap.SimpleEntry<Integer, String>(i, "" + i));
+        }
+        m.putAll(source.iterator(), source.size());
+        int cap = m.getCapacity();
+        assertTrue(cap == LPHashMap.capacityFor(502, .5f));
+        assertTrue(m.size() == 501);
+        assertEquals("0", m.get(0));  // replaced
+        assertEquals("keep", m.get(1000));
+        for (int i = 0; i < 500; i++) {
+            assertEquals("" + i, m.get(i));
+        }
+
+        // into itself: no change, and no ConcurrentModificationException
+        m.putAll(m);
+        assertTrue(m.size() == 501);
+        assertTrue(m.getCapacity() == cap);
+        assertEquals("keep", m.get(1000));
+    }
+
+    @Test
+    public void testTrimToSize() {
+        LPHashMap<Integer, String> m = newMap(.5f);
+        for (int i = 0; i < 1000; i++) {
+            m.put(i, "" + i);
+        }
+        int cap = m.getCapacity();
+        m.trimToSize();
+        assertTrue(m.getCapacity() <= cap);
+        for (int i = 10; i < 1000; i++) {
+            m.remove(i);
+        }
+        m.trimToSize();
+        assertTrue(m.getCapacity() == LPHashMap.capacityFor(10, .5f));
+        assertTrue(m.ghosts() == 0);
+        assertTrue(m.size() == 10);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("" + i, m.get(i));
+        }
+        m.clear();
+        m.trimToSize();
+        assertTrue(m.getCapacity() == 5);
+        m.put(1, "1");
+        assertEquals("1", m.get(1));
+    }
+
+    @Test
+    public void testForEach() {
+        HashSet<LPMapEntry<Integer, String>> seen =
+            new HashSet<LPMapEntry<Integer, String>>();
+        all.remove(4);  // leave a tombstone
+        all.forEach(seen::add);
+        assertTrue(seen.size() == 10);
+        assertFalse(seen.contains(new LPMapEntry<Integer, String>(4, "for")));
+        e4.forEach(entry -> fail("empty map"));
+        try {
+            all.forEach(entry -> all.put(-entry.getKey() - 1, "x"));
+            fail("changed during forEach");
+        } catch (java.util.ConcurrentModificationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSpliteratorSized() {
+        all.remove(4);
+        all.remove(7);
+        Spliterator<LPMapEntry<Integer, String>> sp = all.spliterator();
+        assertTrue(sp.hasCharacteristics(Spliterator.SIZED));
+        assertTrue(sp.hasCharacteristics(Spliterator.NONNULL));
+        assertEquals(9, sp.getExactSizeIfKnown());
+        assertTrue(sp.tryAdvance(entry -> assertNotNull(entry)));
+        assertEquals(8, sp.getExactSizeIfKnown());
+        Spliterator<LPMapEntry<Integer, String>> prefix = sp.trySplit();
+        assertNotNull(prefix);
+        assertFalse(sp.hasCharacteristics(Spliterator.SIZED));
+        assertFalse(prefix.hasCharacteristics(Spliterator.SIZED));
+        int[] count = new int[1];
+        prefix.forEachRemaining(entry -> count[0]++);
+        sp.forEachRemaining(entry -> count[0]++);
+        assertEquals(8, count[0]);
+        assertEquals(0, e7.spliterator().getExactSizeIfKnown());
+        assertFalse(e7.spliterator().tryAdvance(entry -> fail("empty")));
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        LPHashMap<Integer, String> m = newMap(.7f);
+        for (int i = 0; i < 100000; i++) {
+            m.put(i * 31, "" + i);
+        }
+        for (int i = 0; i < 100000; i += 3) {
+            m.remove(i * 31);  // tombstones throughout the table
+        }
+        List<Integer> sequential = new ArrayList<Integer>();
+        for (LPMapEntry<Integer, String> entry : m) {
+            sequential.add(entry.getKey());
+        }
+        assertEquals(m.size(), sequential.size());
+        assertEquals(sequential, m.stream()
+                .map(LPMapEntry::getKey).collect(Collectors.toList()));
+        // parallel streams keep encounter order, so same list again
+        assertEquals(sequential, m.parallelStream()
+                .map(LPMapEntry::getKey).collect(Collectors.toList()));
+        assertEquals(m.size(), m.parallelStream().count());
+        List<Integer> unordered = m.parallelStream().unordered()
+            .map(LPMapEntry::getKey).collect(Collectors.toList());
+        Collections.sort(unordered);
+        Collections.sort(sequential);
+        assertEquals(sequential, unordered);
+    }
+
+    @Test
+    public void testLiveViews() {
+        Set<Integer> keys = e7.keys();
+        Collection<String> vals = e7.values();
+        Set<java.util.Map.Entry<Integer, String>> pairs = e7.entries();
+        assertTrue(keys.isEmpty() && vals.isEmpty() && pairs.isEmpty());
+        for (int i=0; i < iray.length; i++) {
+            e7.put(iray[i], sray[i]);
+        }
+        // same view objects see the puts, and the rehashes they caused
+        assertEquals(ikeys, keys);
+        assertTrue(sameCollection(svals, vals));
+        assertEquals(entries, pairs);
+        assertTrue(keys.size() == iray.length);
+        assertTrue(keys.contains(3));
+        assertFalse(keys.contains(30));
+        assertFalse(keys.contains(null));
+        assertFalse(keys.contains("3"));
+        assertTrue(vals.contains("tre"));
+        assertFalse(vals.contains("xxx"));
+        assertTrue(pairs.contains(new LPMapEntry<Integer, String>(3, "tre")));
+        assertFalse(pairs.contains(new LPMapEntry<Integer, String>(3, "one")));
+
+        // removing through each view removes from the map
+        assertTrue(keys.remove(3));
+        assertFalse(keys.remove(3));
+        assertFalse(e7.hasKey(3));
+        assertTrue(vals.remove("for"));
+        assertFalse(e7.hasKey(4));
+        assertTrue(pairs.remove(new LPMapEntry<Integer, String>(5, "fyv")));
+        assertFalse(pairs.remove(new LPMapEntry<Integer, String>(6, "one")));
+        assertTrue(e7.hasKey(6));
+        Iterator<Integer> it = keys.iterator();
+        while (it.hasNext()) {
+            if (it.next() % 2 == 0) {
+                it.remove();
+            }
+        }
+        assertTrue(e7.size() == 3);  // 1, 7, 9
+        for (int k : keys) {
+            assertTrue(k % 2 == 1);
+            assertTrue(e7.hasKey(k));
+        }
+        assertTrue(vals.size() == e7.size());
+        keys.clear();
+        assertTrue(e7.isEmpty());
+    }
+
+    @Test
+    public void testEntrySetValue() {
+        for (Map.Entry<Integer, String> e : all.entries()) {
+            assertEquals(sray[e.getKey()], e.setValue(nray[e.getKey()]));
+            assertEquals(nray[e.getKey()], e.getValue());
+        }
+        for (int i=0; i < iray.length; i++) {
+            assertEquals(nray[i], all.get(iray[i]));
+        }
+        Iterator<LPMapEntry<Integer,String>> it = all.iterator();
+        LPMapEntry<Integer,String> first = it.next();
+        first.setValue("new");
+        assertEquals("new", all.get(first.getKey()));
+        assertTrue(it.hasNext());
+        it.next();  // still valid, no structural change
+        all.forEach(e -> e.setValue(sray[e.getKey()]));
+        assertTrue(sameCollection(all.values(), svals));
+        assertTrue(all.size() == iray.length);
+
+        // a stale entry does not bring back a removed key
+        LPMapEntry<Integer,String> stale = all.iterator().next();
+        all.remove(stale.getKey());
+        stale.setValue("gone");
+        assertFalse(all.hasKey(stale.getKey()));
+        assertFalse(all.hasValue("gone"));
+    }
+
+    @Test
+    public void testValueIndex() {
+        for (int i=0; i < iray.length; i++) {
+            all.put(iray[i]+20, sray[i]);  // two keys for each value
+        }
+        assertFalse(all.hasValueIndex());
+        all.setValueIndex(true);
+        assertTrue(all.hasValueIndex());
+        for (String val : sray) {
+            assertTrue(all.hasValue(val));
+        }
+        assertFalse(all.hasValue("xxx"));
+        assertFalse(all.hasValue(null));
+
+        assertEquals("zro", all.remove(0));
+        assertTrue(all.hasValue("zro"));  // still under key 20
+        assertEquals("zro", all.put(20, "new"));  // overwrite
+        assertFalse(all.hasValue("zro"));
+        assertTrue(all.hasValue("new"));
+        all.merge(1, "!", String::concat);
+        all.compute(21, (k, v) -> null);
+        assertFalse(all.hasValue("one"));
+        assertTrue(all.hasValue("one!"));
+        all.computeIfAbsent(50, k -> "fifty");
+        assertTrue(all.hasValue("fifty"));
+        Iterator<LPMapEntry<Integer,String>> it = all.iterator();
+        while (it.hasNext()) {
+            if (it.next().getValue().equals("two")) {
+                it.remove();
+            }
+        }
+        assertFalse(all.hasValue("two"));
+        assertTrue(all.values().contains("tre"));
+        assertTrue(all.values().remove("tre"));
+        assertTrue(all.hasValue("tre"));  // one of two copies left
+        assertTrue(all.keys().remove(3) || all.keys().remove(23));
+        assertFalse(all.hasValue("tre"));
+
+        all.clear();
+        assertFalse(all.hasValue("for"));
+        all.put(4, "for");
+        assertTrue(all.hasValue("for"));
+        all.setValueIndex(false);
+        assertTrue(all.hasValue("for"));  // back to scanning
+        assertFalse(all.hasValue("fyv"));
+    }
+
+    @Test
+    public void testValueIndexEntrySetValue() {
+        all.setValueIndex(true);
+        all.entries().forEach(e -> e.setValue(e.getValue() + "!"));
+        for (String val : sray) {
+            assertFalse(all.hasValue(val));
+            assertTrue(all.hasValue(val + "!"));
+        }
+        for (LPMapEntry<Integer,String> e : all) {
+            e.setValue("it");
+        }
+        assertTrue(all.hasValue("it"));
+        assertFalse(all.hasValue("zro!"));
+        all.forEach(e -> e.setValue(null));
+        assertFalse(all.hasValue("it"));
+        assertNull(all.get(0));
+        all.stream().forEach(e -> e.setValue("st"));
+        assertTrue(all.hasValue("st"));
+        all.setValueIndex(false);
+        assertTrue(all.hasValue("st"));
+    }
+
+    @Test
+    public void testValueIndexAgainstHashMap() {
+        LPHashMap<Integer, String> m = newMap(.7f);
+        m.setValueIndex(true);
+        java.util.HashMap<Integer, String> expected =
+            new java.util.HashMap<Integer, String>();
+        java.util.Random random = new java.util.Random(226);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(300);
+            String val = "v" + random.nextInt(100);
+            switch (random.nextInt(4)) {
+                case 0:
+                    assertEquals(expected.remove(key), m.remove(key));
+                    break;
+                case 1:
+                    assertEquals(expected.merge(key, val, (a, b) -> null),
+                                 m.merge(key, val, (a, b) -> null));
+                    break;
+                default:
+                    assertEquals(expected.put(key, val), m.put(key, val));
+                    break;
+            }
+            String probe = "v" + random.nextInt(100);
+            assertEquals(expected.containsValue(probe), m.hasValue(probe));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(expected.containsValue("v" + i), m.hasValue("v" + i));
+        }
+    }
+}
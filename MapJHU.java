@@ -8,6 +8,8 @@ P2
 import java.util.Map;
 import java.util.Set;
 import java.util.Collection;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /** Custom MapJHU interface, based on Java Map.
  *  @author CS226 Staff, Spring 2016
@@ -76,4 +78,78 @@ public interface MapJHU<K, V> {
      */
     Collection<V> values();
 
+    /** Put all the entries of another map into this one.
+     *  Implementations may override this to size the table once first.
+     *  @param other the map to copy from
+     */
+    default void putAll(MapJHU<? extends K, ? extends V> other) {
+        for (Map.Entry<? extends K, ? extends V> entry : other.entries()) {
+            this.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /** Get the value for a key, first putting in a computed value if
+     *  the key is not there. Implementations should override this to
+     *  look the key up only once.
+     *  @param key the key
+     *  @param mappingFunction makes the value for an absent key; must
+     *  not change this map
+     *  @return the existing or computed value, or null if the function
+     *  returned null
+     */
+    default V computeIfAbsent(K key,
+            Function<? super K, ? extends V> mappingFunction) {
+        V value = this.get(key);
+        if (value == null) {
+            value = mappingFunction.apply(key);
+            if (value != null) {
+                this.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /** Replace the value for a key with one computed from the old value
+     *  (null if absent), removing the key if the result is null.
+     *  Implementations should override this to look the key up only once.
+     *  @param key the key
+     *  @param remappingFunction makes the new value; must not change
+     *  this map
+     *  @return the new value, or null if the key was removed
+     */
+    default V compute(K key,
+            BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        V newValue = remappingFunction.apply(key, this.get(key));
+        if (newValue == null) {
+            this.remove(key);
+        } else {
+            this.put(key, newValue);
+        }
+        return newValue;
+    }
+
+    /** Put a value for an absent key, or combine it with the existing
+     *  value, removing the key if the combination is null.
+     *  Implementations should override this to look the key up only once.
+     *  @param key the key
+     *  @param value the value to put or combine
+     *  @param remappingFunction combines the old value and value; must
+     *  not change this map
+     *  @return the new value, or null if the key was removed
+     */
+    default V merge(K key, V value,
+            BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        V oldValue = this.get(key);
+        V newValue = value;
+        if (oldValue != null) {
+            newValue = remappingFunction.apply(oldValue, value);
+        }
+        if (newValue == null) {
+            this.remove(key);
+        } else {
+            this.put(key, newValue);
+        }
+        return newValue;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,658 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/** Implementation of MapJHU with String keys whose whole table lives in
+ *  a memory mapped file instead of the Java heap. The file holds a
+ *  header, an open addressing table of fixed size slots probed
+ *  linearly, and a data region of records appended one after another,
+ *  each a key's UTF-8 bytes and its value encoded by a Codec. The
+ *  operating system pages the file in and out as it is used, so a
+ *  dictionary larger than the heap costs the collector nothing, and
+ *  opening an existing file reads only its header.
+ *  Each slot keeps its key's hash and length, so a probe only compares
+ *  key bytes when both match. Keys are hashed with HashStrategy.mixed()
+ *  over String.hashCode, which the language fixes, so a file opened
+ *  by another run finds its keys where they were put.
+ *  Values are copies: get decodes a new one each time, so changing it
+ *  changes nothing in the map until it is put back. Overwriting or
+ *  removing leaves the old record behind as garbage; once that is
+ *  more than the live data, the file is rewritten without it, as it
+ *  is when the table grows. Rewriting goes through a temporary file
+ *  moved over the old one.
+ *  A mapping is limited to Integer.MAX_VALUE bytes, and so is the
+ *  file. Changes reach the disk when the OS writes the pages back, or
+ *  at once on force() or close(). Not safe for use by more than one
+ *  thread, or by more than one map on the same file.
+ *  @author Ryan Demo
+ *  @param <V> the base type of the values
+ */
+public class MappedHashMap<V> implements MapJHU<String, V>, Closeable {
+
+    /** First int of every file. */
+    static final int MAGIC = 0x4A48554D;  // "JHUM"
+
+    /** Layout version, second int of every file. */
+    static final int VERSION = 1;
+
+    /** Bytes reserved for the header. */
+    static final int HEADER = 64;
+
+    /** Bytes per slot: record offset, hash and key length. */
+    static final int SLOT = 3 * Integer.BYTES;
+
+    /** Record offset of a slot that has never been used. */
+    static final int EMPTY = 0;
+
+    /** Record offset of a slot whose entry was removed. */
+    static final int TOMBSTONE = -1;
+
+    /** Value length of a record whose value is null. */
+    static final int NULL_VALUE = -1;
+
+    /** Spare bytes mapped past the data when the file is laid out. */
+    static final int DATA_SLACK = 4096;
+
+    /** Least garbage worth rewriting the file for. */
+    static final int MIN_GARBAGE = 1 << 16;
+
+    /** Header position of the version. */
+    private static final int VERSION_AT = 4;
+
+    /** Header position of the capacity. */
+    private static final int CAPACITY_AT = 8;
+
+    /** Header position of the size. */
+    private static final int SIZE_AT = 12;
+
+    /** Header position of the tombstone count. */
+    private static final int TOMBSTONES_AT = 16;
+
+    /** Header position of the end of the data region. */
+    private static final int DATA_END_AT = 20;
+
+    /** Header position of the garbage byte count. */
+    private static final int GARBAGE_AT = 24;
+
+    /** Slot position of the key's hash. */
+    private static final int HASH_AT = 4;
+
+    /** Slot position of the key's length. */
+    private static final int KEY_LENGTH_AT = 8;
+
+    /** Hashing used by every file, so files can be reopened. */
+    private static final HashStrategy STRATEGY = HashStrategy.mixed();
+
+    /** The file. */
+    private final Path path;
+
+    /** Encodes and decodes the values. */
+    private final Codec<V> codec;
+
+    /** Maximum load for the table. */
+    private final float maxLoad;
+
+    /** Open channel to the file. */
+    private FileChannel channel;
+
+    /** The mapping of the file, header first. */
+    private MappedByteBuffer buf;
+
+    /** Number of slots, a power of two. */
+    private int capacity;
+
+    /** Number of entries. */
+    private int numElements;
+
+    /** Number of tombstone slots. */
+    private int tombstones;
+
+    /** Position just past the last record. */
+    private int dataEnd;
+
+    /** Bytes of records no slot points to any more. */
+    private int garbage;
+
+    /** Open a mapped hash map on a file, making it empty if the file
+     *  does not exist or is empty.
+     *  @param file the file
+     *  @param codec encodes and decodes the values
+     *  @param max the maximum load factor, 0 < maxLoad < 1
+     *  @throws IOException if the file cannot be opened or mapped, or
+     *  holds something else
+     *  @throws IllegalArgumentException if max is not in range
+     */
+    public MappedHashMap(Path file, Codec<V> codec, float max)
+            throws IOException {
+        this(file, codec, max, 0);
+    }
+
+    /** Open a mapped hash map on a file, making it empty and big enough
+     *  to hold a number of entries without growing if the file does not
+     *  exist or is empty. An existing file keeps its capacity.
+     *  @param file the file
+     *  @param codec encodes and decodes the values
+     *  @param max the maximum load factor, 0 < maxLoad < 1
+     *  @param expectedSize the number of entries expected, >= 0
+     *  @throws IOException if the file cannot be opened or mapped, or
+     *  holds something else
+     *  @throws IllegalArgumentException if max is not in range
+     */
+    public MappedHashMap(Path file, Codec<V> codec, float max,
+            int expectedSize) throws IOException {
+        if (!(max > 0 && max < 1)) {
+            throw new IllegalArgumentException("max load must be in (0, 1)");
+        }
+        this.path = file;
+        this.codec = codec;
+        this.maxLoad = max;
+        this.open(LPHashMap.capacityFor(expectedSize, max, STRATEGY));
+    }
+
+    /** Open the channel and map the file, laying it out first if empty.
+     *  @param cap the capacity for a new file
+     *  @throws IOException if the file cannot be opened or mapped, or
+     *  holds something else
+     */
+    private void open(int cap) throws IOException {
+        this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long fileSize = this.channel.size();
+        if (fileSize == 0) {
+            this.capacity = cap;
+            this.dataEnd = dataStart(cap);
+            this.buf = map(this.channel, (long) this.dataEnd + DATA_SLACK);
+            this.buf.putInt(0, MAGIC);
+            this.buf.putInt(VERSION_AT, VERSION);
+            this.writeHeader();
+            return;
+        }
+        if (fileSize < HEADER || fileSize > Integer.MAX_VALUE) {
+            this.channel.close();
+            throw new IOException("not a mapped hash map: " + this.path);
+        }
+        this.buf = map(this.channel, fileSize);
+        if (this.buf.getInt(0) != MAGIC
+                || this.buf.getInt(VERSION_AT) != VERSION) {
+            this.channel.close();
+            throw new IOException("not a mapped hash map: " + this.path);
+        }
+        this.capacity = this.buf.getInt(CAPACITY_AT);
+        this.numElements = this.buf.getInt(SIZE_AT);
+        this.tombstones = this.buf.getInt(TOMBSTONES_AT);
+        this.dataEnd = this.buf.getInt(DATA_END_AT);
+        this.garbage = this.buf.getInt(GARBAGE_AT);
+    }
+
+    /** Map the start of a file for reading and writing, growing the
+     *  file if it is shorter.
+     *  @param channel the file
+     *  @param size the number of bytes to map
+     *  @return the mapping
+     *  @throws IOException if the file cannot be mapped
+     */
+    private static MappedByteBuffer map(FileChannel channel, long size)
+            throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("mapped file would pass 2GB");
+        }
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /** Get where the data region starts in a file with a given table.
+     *  @param cap the capacity
+     *  @return the position
+     */
+    private static int dataStart(int cap) {
+        long start = HEADER + (long) cap * SLOT;
+        if (start > Integer.MAX_VALUE) {
+            throw new IllegalStateException("table too big to map: " + cap);
+        }
+        return (int) start;
+    }
+
+    /** Get where a slot is in the file.
+     *  @param index the slot
+     *  @return the position
+     */
+    private static int slotAddress(int index) {
+        return HEADER + index * SLOT;
+    }
+
+    /** Copy the counts into the header. */
+    private void writeHeader() {
+        this.buf.putInt(CAPACITY_AT, this.capacity);
+        this.buf.putInt(SIZE_AT, this.numElements);
+        this.buf.putInt(TOMBSTONES_AT, this.tombstones);
+        this.buf.putInt(DATA_END_AT, this.dataEnd);
+        this.buf.putInt(GARBAGE_AT, this.garbage);
+    }
+
+    /** Find a key's slot.
+     *  @param key the key's UTF-8 bytes
+     *  @param hash the key's hash
+     *  @return the slot holding the key, or -(slot to insert at) - 1
+     */
+    private int find(byte[] key, int hash) {
+        int mask = this.capacity - 1;
+        int index = STRATEGY.index(hash, this.capacity);
+        int reusable = -1;
+        for (int probe = 0; probe < this.capacity; probe++) {
+            int at = slotAddress(index);
+            int offset = this.buf.getInt(at);
+            if (offset == EMPTY) {
+                return -(reusable < 0 ? index : reusable) - 1;
+            }
+            if (offset == TOMBSTONE) {
+                if (reusable < 0) {
+                    reusable = index;
+                }
+            } else if (this.buf.getInt(at + HASH_AT) == hash
+                    && this.buf.getInt(at + KEY_LENGTH_AT) == key.length
+                    && this.bytesEqual(offset, key)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        //max load < 1 leaves at least one empty or tombstone slot
+        return -reusable - 1;
+    }
+
+    /** Compare bytes in the file with a key.
+     *  @param offset where the bytes start
+     *  @param key the key's bytes
+     *  @return true if they are the same
+     */
+    private boolean bytesEqual(int offset, byte[] key) {
+        for (int i = 0; i < key.length; i++) {
+            if (this.buf.get(offset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Find out if a slot holds an entry.
+     *  @param index the slot
+     *  @return true if live
+     */
+    private boolean isLive(int index) {
+        return this.buf.getInt(slotAddress(index)) > 0;
+    }
+
+    /** Decode the key of a live slot.
+     *  @param index the slot
+     *  @return the key
+     */
+    private String keyAt(int index) {
+        int at = slotAddress(index);
+        return Codec.STRING.decode(this.buf, this.buf.getInt(at),
+                this.buf.getInt(at + KEY_LENGTH_AT));
+    }
+
+    /** Decode the value of a live slot.
+     *  @param index the slot
+     *  @return the value
+     */
+    private V valueAt(int index) {
+        int at = slotAddress(index);
+        int valueAt = this.buf.getInt(at) + this.buf.getInt(at + KEY_LENGTH_AT);
+        int length = this.buf.getInt(valueAt);
+        if (length == NULL_VALUE) {
+            return null;
+        }
+        return this.codec.decode(this.buf, valueAt + Integer.BYTES, length);
+    }
+
+    /** Get the number of bytes of a live slot's record.
+     *  @param index the slot
+     *  @return the size
+     */
+    private int recordSize(int index) {
+        int at = slotAddress(index);
+        int keyLength = this.buf.getInt(at + KEY_LENGTH_AT);
+        int length = this.buf.getInt(this.buf.getInt(at) + keyLength);
+        return keyLength + Integer.BYTES + Math.max(length, 0);
+    }
+
+    /** Append a record to the data region, mapping more of the file if
+     *  it does not fit.
+     *  @param key the key's bytes
+     *  @param value the value's bytes, or null for a null value
+     *  @return where the record starts
+     *  @throws IOException if the file cannot grow
+     */
+    private int append(byte[] key, byte[] value) throws IOException {
+        int length = value == null ? 0 : value.length;
+        long end = (long) this.dataEnd + key.length + Integer.BYTES + length;
+        if (end > this.buf.capacity()) {
+            long doubled = 2L * this.buf.capacity();
+            this.buf = map(this.channel, Math.max(end,
+                    Math.min(doubled, Integer.MAX_VALUE)));
+        }
+        int offset = this.dataEnd;
+        ByteBuffer out = this.buf.duplicate();
+        out.position(offset);
+        out.put(key).putInt(value == null ? NULL_VALUE : length);
+        if (value != null) {
+            out.put(value);
+        }
+        this.dataEnd = (int) end;
+        return offset;
+    }
+
+    /** Rewrite the file if old records take more room than live ones.
+     */
+    private void compactIfWasteful() {
+        int live = this.dataEnd - dataStart(this.capacity) - this.garbage;
+        if (this.garbage > MIN_GARBAGE && this.garbage > live) {
+            this.rehash(this.capacity);
+        }
+    }
+
+    /** Rewrite the file with a new table capacity, keeping only the
+     *  live records, then map the new file in place of the old.
+     *  @param cap the new capacity; raised to a power of two, and to
+     *  what the entries need at the max load
+     *  @throws UncheckedIOException if the file cannot be rewritten
+     */
+    public void rehash(int cap) {
+        cap = Math.max(STRATEGY.capacityFor(cap),
+                LPHashMap.capacityFor(this.numElements, this.maxLoad,
+                                      STRATEGY));
+        int start = dataStart(cap);
+        long live = this.dataEnd - dataStart(this.capacity) - this.garbage;
+        Path dir = this.path.toAbsolutePath().getParent();
+        try {
+            Path tmp = Files.createTempFile(dir,
+                    this.path.getFileName().toString(), ".tmp");
+            try (FileChannel out = FileChannel.open(tmp,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer to = map(out, start + live + DATA_SLACK);
+                ByteBuffer from = this.buf.duplicate();
+                int end = start;
+                for (int i = 0; i < this.capacity; i++) {
+                    if (!this.isLive(i)) {
+                        continue;
+                    }
+                    int at = slotAddress(i);
+                    int offset = this.buf.getInt(at);
+                    int hash = this.buf.getInt(at + HASH_AT);
+                    int size = this.recordSize(i);
+                    from.limit(offset + size).position(offset);
+                    to.position(end);
+                    to.put(from);
+                    from.limit(from.capacity());
+                    //the new table has no tombstones to reuse
+                    int j = STRATEGY.index(hash, cap);
+                    while (to.getInt(slotAddress(j)) != EMPTY) {
+                        j = (j + 1) & (cap - 1);
+                    }
+                    to.putInt(slotAddress(j), end);
+                    to.putInt(slotAddress(j) + HASH_AT, hash);
+                    to.putInt(slotAddress(j) + KEY_LENGTH_AT,
+                            this.buf.getInt(at + KEY_LENGTH_AT));
+                    end += size;
+                }
+                to.putInt(0, MAGIC);
+                to.putInt(VERSION_AT, VERSION);
+                to.putInt(CAPACITY_AT, cap);
+                to.putInt(SIZE_AT, this.numElements);
+                to.putInt(TOMBSTONES_AT, 0);
+                to.putInt(DATA_END_AT, end);
+                to.putInt(GARBAGE_AT, 0);
+                to.force();
+            }
+            this.channel.close();
+            Files.move(tmp, this.path, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            this.open(cap);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Write any changes still in memory out to the file.
+     */
+    public void force() {
+        this.buf.force();
+    }
+
+    /** Write out any changes and close the file. The map must not be
+     *  used afterwards; the mapping itself is released once it is
+     *  garbage collected.
+     *  @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.buf.force();
+        this.channel.close();
+    }
+
+    /** Get the file.
+     *  @return the path
+     */
+    public Path getPath() {
+        return this.path;
+    }
+
+    /** Get the maximum load.
+     *  @return the max load
+     */
+    public float getMaxLoad() {
+        return this.maxLoad;
+    }
+
+    /** Get the current load, tombstones included.
+     *  @return the load
+     */
+    public float getLoad() {
+        return (this.numElements + this.tombstones) / (float) this.capacity;
+    }
+
+    /** Get the number of slots in the table.
+     *  @return the capacity
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /** Get how many bytes of old records the data region holds.
+     *  @return the garbage
+     */
+    public int garbage() {
+        return this.garbage;
+    }
+
+    /* Methods from the MapJHU interface ----------------  */
+
+    /** Get the number of (actual) entries in the Map.
+     *  @return the size
+     */
+    public int size() {
+        return this.numElements;
+    }
+
+    /** Remove all entries from the Map. The file keeps its size.
+     */
+    public void clear() {
+        for (int i = 0; i < this.capacity; i++) {
+            this.buf.putInt(slotAddress(i), EMPTY);
+        }
+        this.numElements = 0;
+        this.tombstones = 0;
+        this.garbage = 0;
+        this.dataEnd = dataStart(this.capacity);
+        this.writeHeader();
+    }
+
+    /** Find out if the Map has any entries.
+     *  @return true if no entries, false otherwise
+     */
+    public boolean isEmpty() {
+        return this.numElements == 0;
+    }
+
+    /** Find out if a key is in the map.
+     *  @param key the key being searched for
+     *  @return true if found, false otherwise
+     */
+    public boolean hasKey(String key) {
+        return this.find(Codec.STRING.encode(key), STRATEGY.hash(key)) >= 0;
+    }
+
+    /** Find out if a value is in the map. Decodes every value.
+     *  @param value the value to search for
+     *  @return true if found, false otherwise
+     */
+    public boolean hasValue(V value) {
+        for (int i = 0; i < this.capacity; i++) {
+            if (this.isLive(i) && Objects.equals(this.valueAt(i), value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Get the value associated with a key if there.
+     *  @param key the key being searched for
+     *  @return a copy of the value associated with key, or null if not
+     *  found
+     */
+    public V get(String key) {
+        int slot = this.find(Codec.STRING.encode(key), STRATEGY.hash(key));
+        if (slot < 0) {
+            return null;
+        }
+        return this.valueAt(slot);
+    }
+
+    /** Associate a value with a key, replacing the old value if key exists.
+     *  @param key the key for the entry
+     *  @param value the value for the entry
+     *  @return the old value associated with the key, or null if new entry
+     *  @throws UncheckedIOException if the file cannot grow
+     */
+    public V put(String key, V value) {
+        byte[] keyBytes = Codec.STRING.encode(key);
+        byte[] valueBytes = value == null ? null : this.codec.encode(value);
+        int hash = STRATEGY.hash(key);
+        int slot = this.find(keyBytes, hash);
+        try {
+            if (slot >= 0) {
+                V oldValue = this.valueAt(slot);
+                this.garbage += this.recordSize(slot);
+                int offset = this.append(keyBytes, valueBytes);
+                this.buf.putInt(slotAddress(slot), offset);
+                this.writeHeader();
+                this.compactIfWasteful();
+                return oldValue;
+            }
+
+            if (this.numElements + this.tombstones + 1
+                    > this.maxLoad * this.capacity) {
+                //grow if the entries need it, else just drop tombstones
+                boolean full = this.numElements + 1
+                        > this.maxLoad * this.capacity;
+                this.rehash(full ? LPHashMap.doubled(this.capacity)
+                        : this.capacity);
+                slot = this.find(keyBytes, hash);
+            }
+            int index = -slot - 1;
+            int at = slotAddress(index);
+            if (this.buf.getInt(at) == TOMBSTONE) {
+                this.tombstones--;
+            }
+            int offset = this.append(keyBytes, valueBytes);
+            this.buf.putInt(at, offset);
+            this.buf.putInt(at + HASH_AT, hash);
+            this.buf.putInt(at + KEY_LENGTH_AT, keyBytes.length);
+            this.numElements++;
+            this.writeHeader();
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Remove the entry associated with a key.
+     *  @param key the key for the entry being deleted
+     *  @return the value associated with the key, or null if key not there
+     */
+    public V remove(String key) {
+        int slot = this.find(Codec.STRING.encode(key), STRATEGY.hash(key));
+        if (slot < 0) {
+            return null;
+        }
+        V value = this.valueAt(slot);
+        this.garbage += this.recordSize(slot);
+        this.buf.putInt(slotAddress(slot), TOMBSTONE);
+        this.numElements--;
+        this.tombstones++;
+        this.writeHeader();
+        this.compactIfWasteful();
+        return value;
+    }
+
+    /** Get a set of all the entries in the map.
+     *  @return a copy of the entries
+     */
+    public Set<Map.Entry<String, V>> entries() {
+        Set<Map.Entry<String, V>> setEntries =
+                new HashSet<Map.Entry<String, V>>();
+        for (int i = 0; i < this.capacity; i++) {
+            if (this.isLive(i)) {
+                setEntries.add(new AbstractMap.SimpleImmutableEntry<String, V>(
+                        this.keyAt(i), this.valueAt(i)));
+            }
+        }
+        return setEntries;
+    }
+
+    /** Get a set of all the keys in the map.
+     *  @return a copy of the keys
+     */
+    public Set<String> keys() {
+        Set<String> setKeys = new HashSet<String>();
+        for (int i = 0; i < this.capacity; i++) {
+            if (this.isLive(i)) {
+                setKeys.add(this.keyAt(i));
+            }
+        }
+        return setKeys;
+    }
+
+    /** Get a collection of all the values in the map.
+     *  @return a copy of the values
+     */
+    public Collection<V> values() {
+        Collection<V> colValues = new ArrayList<V>();
+        for (int i = 0; i < this.capacity; i++) {
+            if (this.isLive(i)) {
+                colValues.add(this.valueAt(i));
+            }
+        }
+        return colValues;
+    }
+}
@@ -0,0 +1,226 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+*/
+
+/** TESTS for MappedHashMap
+ *  Explicit tests of contents, overwrite and remove as for LPHashMap,
+ *  null values, non ASCII keys, growth keeping the max load, tombstone
+ *  reuse and clear, copies as values and views, reopening a closed file
+ *  with everything in it, rejecting a file that is not a map, each
+ *  Codec round trip, and overwrites that pile up garbage rewriting the
+ *  file. Contents against java.util.HashMap under random
+ *  put/remove/merge, before and after reopening.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+public class MappedHashMapTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    Path file;
+
+    MappedHashMap<String> map;
+
+    @Before
+    public void setup() throws IOException {
+        file = folder.getRoot().toPath().resolve("terms.map");
+        map = new MappedHashMap<String>(file, Codec.STRING, .7f);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        map.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxLoadChecked() throws IOException {
+        new MappedHashMap<String>(file, Codec.STRING, 1f);
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        assertTrue(map.isEmpty());
+        for (int i = 0; i < 1000; i++) {
+            assertNull(map.put("key" + i, "val" + i));
+            assertTrue(map.getLoad() <= map.getMaxLoad());
+        }
+        assertEquals(1000, map.size());
+        assertEquals(2048, map.getCapacity());
+        assertEquals("val7", map.put("key7", "seven"));
+        assertEquals("seven", map.get("key7"));
+        assertEquals(1000, map.size());
+        assertTrue(map.hasKey("key999"));
+        assertFalse(map.hasKey("key1000"));
+        assertTrue(map.hasValue("val3"));
+        assertFalse(map.hasValue("val7"));
+        assertNull(map.get("missing"));
+        for (int i = 0; i < 1000; i += 2) {
+            assertEquals("val" + i, map.remove("key" + i));
+        }
+        assertNull(map.remove("key0"));
+        assertEquals(500, map.size());
+        assertEquals(500, map.keys().size());
+        assertEquals(500, map.values().size());
+    }
+
+    @Test
+    public void testNullValuesAndUnicodeKeys() {
+        assertNull(map.put("none", null));
+        assertTrue(map.hasKey("none"));
+        assertNull(map.get("none"));
+        assertTrue(map.hasValue(null));
+        map.put("na\u00efve", "caf\u00e9");
+        map.put("\u6771\u4eac", "");
+        assertEquals("caf\u00e9", map.get("na\u00efve"));
+        assertEquals("", map.get("\u6771\u4eac"));
+        assertNull(map.get("naive"));
+        assertNull(map.remove("none"));
+        assertFalse(map.hasKey("none"));
+    }
+
+    @Test
+    public void testTombstonesAndClear() {
+        for (int i = 0; i < 100; i++) {
+            map.put("k" + i, "" + i);
+        }
+        int cap = map.getCapacity();
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 100; i++) {
+                map.remove("k" + i);
+                map.put("k" + i, "" + round);
+            }
+        }
+        // tombstones are reused or swept, never grow the table
+        assertEquals(cap, map.getCapacity());
+        assertEquals(100, map.size());
+        assertEquals("49", map.get("k42"));
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get("k1"));
+        assertEquals(0, map.garbage());
+        map.put("k1", "again");
+        assertEquals("again", map.get("k1"));
+    }
+
+    @Test
+    public void testValuesAreCopies() throws IOException {
+        MappedHashMap<List<String>> urls = new MappedHashMap<List<String>>(
+            folder.newFile().toPath(), Codec.STRING_LIST, .7f);
+        urls.put("java", new ArrayList<String>(Arrays.asList("a.com")));
+        urls.get("java").add("b.com");
+        assertEquals(Arrays.asList("a.com"), urls.get("java"));
+        urls.merge("java", Arrays.asList("b.com"), (a, b) -> {
+                List<String> both = new ArrayList<String>(a);
+                both.addAll(b);
+                return both;
+            });
+        assertEquals(Arrays.asList("a.com", "b.com"), urls.get("java"));
+        urls.keys().clear();
+        assertEquals(1, urls.size());
+        urls.close();
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        for (int i = 0; i < 5000; i++) {
+            map.put("term" + i, "url" + i);
+        }
+        map.remove("term5");
+        map.close();
+        map = new MappedHashMap<String>(file, Codec.STRING, .7f);
+        assertEquals(4999, map.size());
+        assertEquals("url4999", map.get("term4999"));
+        assertNull(map.get("term5"));
+        map.put("term5", "back");
+        assertEquals("back", map.get("term5"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotAMapRejected() throws IOException {
+        Path other = folder.newFile().toPath();
+        Files.write(other, new byte[MappedHashMap.HEADER]);
+        new MappedHashMap<String>(other, Codec.STRING, .7f);
+    }
+
+    @Test
+    public void testCodecs() {
+        ByteBuffer b = ByteBuffer.wrap(Codec.INTEGER.encode(-226));
+        assertEquals(-226, (int) Codec.INTEGER.decode(b, 0, Integer.BYTES));
+        List<String> list = Arrays.asList("", "x", "\u00fc", "a.b/c");
+        byte[] bytes = Codec.STRING_LIST.encode(list);
+        byte[] shifted = new byte[bytes.length + 3];
+        System.arraycopy(bytes, 0, shifted, 3, bytes.length);
+        assertEquals(list, Codec.STRING_LIST.decode(
+            ByteBuffer.wrap(shifted), 3, bytes.length));
+    }
+
+    @Test
+    public void testGarbageRewritesFile() {
+        char[] big = new char[1000];
+        Arrays.fill(big, 'x');
+        String value = new String(big);
+        for (int i = 0; i < 1000; i++) {
+            map.put("same", value + i);
+            // once garbage passes the live data and the minimum, the file
+            // is rewritten without it
+            assertTrue(map.garbage() <= MappedHashMap.MIN_GARBAGE
+                       + value.length() + 10);
+        }
+        assertEquals(value + 999, map.get("same"));
+        assertTrue(Files.exists(file));
+    }
+
+    @Test
+    public void testRandomAgainstHashMap() throws IOException {
+        HashMap<String, String> expected = new HashMap<String, String>();
+        Random random = new Random(226);
+        for (int i = 0; i < 100000; i++) {
+            String key = "k" + (random.nextInt(20000) - 10000);
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                case 1:
+                    assertEquals(expected.merge(key, "" + i, String::concat),
+                                 map.merge(key, "" + i, String::concat));
+                    break;
+                default:
+                    assertEquals(expected.put(key, "" + i),
+                                 map.put(key, "" + i));
+                    break;
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected.entrySet(), map.entries());
+        assertTrue(map.getLoad() <= map.getMaxLoad());
+        map.close();
+        map = new MappedHashMap<String>(file, Codec.STRING, .7f);
+        for (String key : expected.keySet()) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+        assertEquals(expected.keySet(), map.keys());
+    }
+}
@@ -0,0 +1,249 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/** Linear probe hash map from objects to ints, for dictionaries like
+ *  term to term ID. Values are kept in an int[] beside the keys and
+ *  their cached hashes, so neither a lookup nor an insert boxes a
+ *  value or allocates an entry. Since any int is a valid value, gets
+ *  take the value to return for a missing key.
+ *  @author Ryan Demo
+ *  @param <K> the base type of the keys
+ */
+public class ObjIntHashMap<K> extends PrimitiveLPHashMap {
+
+    /** Keys, by slot. */
+    private Object[] keys;
+
+    /** Values, by slot. */
+    private int[] vals;
+
+    /** Cached hash of each slot's key. */
+    private int[] hashes;
+
+    /** Create an empty map with the smallest capacity.
+     *  @param max the maximum load factor, 0 < maxLoad < 1
+     *  @throws IllegalArgumentException if max is not in range
+     */
+    public ObjIntHashMap(float max) {
+        this(max, 0);
+    }
+
+    /** Create an empty map big enough to hold a number of entries
+     *  without rehashing.
+     *  @param max the maximum load factor, 0 < maxLoad < 1
+     *  @param expectedSize the number of entries expected, >= 0
+     *  @throws IllegalArgumentException if max is not in range
+     */
+    public ObjIntHashMap(float max, int expectedSize) {
+        this(max, expectedSize, HashStrategy.mixed());
+    }
+
+    /** Create an empty map big enough to hold a number of entries
+     *  without rehashing, hashing keys with a given strategy.
+     *  @param max the maximum load factor, 0 < maxLoad < 1
+     *  @param expectedSize the number of entries expected, >= 0
+     *  @param strategy the hash function and table sizing to use
+     *  @throws IllegalArgumentException if max is not in range
+     */
+    public ObjIntHashMap(float max, int expectedSize,
+            HashStrategy strategy) {
+        super(max, strategy);
+        this.allocate(this.initialCapacity(expectedSize));
+    }
+
+    @Override
+    void allocate(int cap) {
+        this.keys = new Object[cap];
+        this.vals = new int[cap];
+        this.hashes = new int[cap];
+        this.states = new byte[cap];
+    }
+
+    @Override
+    public void rehash(int cap) {
+        Object[] oldKeys = this.keys;
+        int[] oldVals = this.vals;
+        int[] oldHashes = this.hashes;
+        byte[] oldStates = this.states;
+        this.allocate(cap);
+
+        //reuse the cached hashes, so no key hashCode calls here
+        for (int i = 0; i < oldStates.length; i++) {
+            if (oldStates[i] == FULL) {
+                int index = this.strategy.index(oldHashes[i], cap);
+                while (this.states[index] != EMPTY) {
+                    index = this.next(index);
+                }
+                this.keys[index] = oldKeys[i];
+                this.vals[index] = oldVals[i];
+                this.hashes[index] = oldHashes[i];
+                this.states[index] = FULL;
+            }
+        }
+        this.tombstones = 0;
+    }
+
+    /** Find a key's slot.
+     *  @param key the key
+     *  @param hash the key's hash
+     *  @return the slot holding the key, or -(slot to insert at) - 1
+     */
+    private int findSlot(Object key, int hash) {
+        byte[] st = this.states;
+        int index = this.strategy.index(hash, st.length);
+        int reusable = -1;
+        for (int probe = 0; probe < st.length; probe++) {
+            byte state = st[index];
+            if (state == EMPTY) {
+                return -(reusable < 0 ? index : reusable) - 1;
+            }
+            if (state == TOMBSTONE) {
+                if (reusable < 0) {
+                    reusable = index;
+                }
+            } else if (this.hashes[index] == hash
+                    && this.keys[index].equals(key)) {
+                return index;
+            }
+            index = this.next(index);
+        }
+        return -reusable - 1;
+    }
+
+    /** Put a new key in a free slot found by findSlot.
+     *  @param slot -(slot to insert at) - 1
+     *  @param key the key
+     *  @param hash the key's hash
+     *  @param value the value
+     */
+    private void insertAt(int slot, K key, int hash, int value) {
+        if (this.makeRoom()) {
+            slot = this.findSlot(key, hash);
+        }
+        int index = -slot - 1;
+        this.fill(index);
+        this.keys[index] = key;
+        this.vals[index] = value;
+        this.hashes[index] = hash;
+    }
+
+    @Override
+    void removeAt(int index) {
+        this.keys[index] = null;
+        super.removeAt(index);
+    }
+
+    /** Find out if a key is in the map.
+     *  @param key the key being searched for
+     *  @return true if found, false otherwise
+     */
+    public boolean hasKey(K key) {
+        return this.findSlot(key, this.strategy.hash(key)) >= 0;
+    }
+
+    /** Get the value associated with a key.
+     *  @param key the key being searched for
+     *  @param defaultValue what to return if the key is not there
+     *  @return the value, or defaultValue if not found
+     */
+    public int getOrDefault(K key, int defaultValue) {
+        int slot = this.findSlot(key, this.strategy.hash(key));
+        return slot < 0 ? defaultValue : this.vals[slot];
+    }
+
+    /** Associate a value with a key, replacing the old value if key exists.
+     *  @param key the key for the entry
+     *  @param value the value for the entry
+     *  @return true if the key is new, false if its value was replaced
+     */
+    public boolean put(K key, int value) {
+        int hash = this.strategy.hash(key);
+        int slot = this.findSlot(key, hash);
+        if (slot >= 0) {
+            this.vals[slot] = value;
+            return false;
+        }
+        this.insertAt(slot, key, hash, value);
+        return true;
+    }
+
+    /** Associate a value with a key unless it already has one, looking
+     *  the key up only once. Handing out the next ID to each new term
+     *  is putIfAbsent(term, size()).
+     *  @param key the key for the entry
+     *  @param value the value for a new entry
+     *  @return the key's value: the old one if it was there, else value
+     */
+    public int putIfAbsent(K key, int value) {
+        int hash = this.strategy.hash(key);
+        int slot = this.findSlot(key, hash);
+        if (slot >= 0) {
+            return this.vals[slot];
+        }
+        this.insertAt(slot, key, hash, value);
+        return value;
+    }
+
+    /** Add to the value of a key, which starts at 0 if it is not there.
+     *  @param key the key
+     *  @param delta the amount to add
+     *  @return the new value
+     */
+    public int addTo(K key, int delta) {
+        int hash = this.strategy.hash(key);
+        int slot = this.findSlot(key, hash);
+        if (slot >= 0) {
+            return this.vals[slot] += delta;
+        }
+        this.insertAt(slot, key, hash, delta);
+        return delta;
+    }
+
+    /** Remove the entry associated with a key.
+     *  @param key the key for the entry being deleted
+     *  @return true if the key was there
+     */
+    public boolean remove(K key) {
+        int slot = this.findSlot(key, this.strategy.hash(key));
+        if (slot < 0) {
+            return false;
+        }
+        this.removeAt(slot);
+        return true;
+    }
+
+    /** Run an action on every entry, in slot order.
+     *  @param action takes each key and its value; must not change
+     *  this map
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(ObjIntConsumer<? super K> action) {
+        for (int i = 0; i < this.states.length; i++) {
+            if (this.states[i] == FULL) {
+                action.accept((K) this.keys[i], this.vals[i]);
+            }
+        }
+    }
+
+    /** Get a set of all the keys in the map.
+     *  @return a copy of the keys
+     */
+    @SuppressWarnings("unchecked")
+    public Set<K> keys() {
+        Set<K> setKeys = new HashSet<K>();
+        for (int i = 0; i < this.states.length; i++) {
+            if (this.states[i] == FULL) {
+                setKeys.add((K) this.keys[i]);
+            }
+        }
+        return setKeys;
+    }
+}
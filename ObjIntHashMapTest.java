@@ -0,0 +1,143 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+*/
+
+/** TESTS for ObjIntHashMap
+ *  Explicit tests of contents, overwrite and remove, values that are
+ *  0, -1 and MIN_VALUE told apart from missing keys, putIfAbsent
+ *  handing out IDs, addTo counting, growth at the max load with either
+ *  strategy, tombstone reuse and sweeping, clear, and forEach.
+ *  Contents against java.util.HashMap under random put/remove/addTo.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+public class ObjIntHashMapTest {
+
+    ObjIntHashMap<String> map;
+
+    @Before
+    public void setup() {
+        map = new ObjIntHashMap<String>(.7f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFullLoadRejected() {
+        new ObjIntHashMap<String>(1f);
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(map.put("k" + i, i));
+            assertTrue(map.getLoad() <= map.getMaxLoad());
+        }
+        assertEquals(1000, map.size());
+        assertEquals(2048, map.getCapacity());
+        assertFalse(map.put("k7", 70));
+        assertEquals(70, map.getOrDefault("k7", -1));
+        assertEquals(1000, map.size());
+        assertEquals(-1, map.getOrDefault("k1000", -1));
+        for (int i = 0; i < 1000; i += 2) {
+            assertTrue(map.remove("k" + i));
+        }
+        assertFalse(map.remove("k0"));
+        assertFalse(map.hasKey("k0"));
+        assertTrue(map.hasKey("k1"));
+        assertEquals(500, map.size());
+        assertEquals(500, map.keys().size());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.ghosts());
+        assertEquals(-1, map.getOrDefault("k1", -1));
+    }
+
+    @Test
+    public void testAnyIntIsAValue() {
+        map.put("zero", 0);
+        map.put("minus", -1);
+        map.put("min", Integer.MIN_VALUE);
+        assertEquals(0, map.getOrDefault("zero", 5));
+        assertEquals(-1, map.getOrDefault("minus", 5));
+        assertEquals(Integer.MIN_VALUE, map.getOrDefault("min", 5));
+        assertEquals(5, map.getOrDefault("none", 5));
+    }
+
+    @Test
+    public void testIdsAndCounts() {
+        String[] words = {"red", "fish", "red", "blue", "fish", "red"};
+        for (String w : words) {
+            map.putIfAbsent(w, map.size());
+        }
+        assertEquals(0, map.getOrDefault("red", -1));
+        assertEquals(1, map.getOrDefault("fish", -1));
+        assertEquals(2, map.getOrDefault("blue", -1));
+        ObjIntHashMap<String> counts = new ObjIntHashMap<String>(.5f, 0,
+            HashStrategy.PRIME_MODULO);
+        for (String w : words) {
+            counts.addTo(w, 1);
+        }
+        assertEquals(3, counts.getOrDefault("red", 0));
+        assertEquals(1, counts.addTo("blue", 0));
+        assertEquals(-9, counts.addTo("green", -9));
+        HashMap<String, Integer> seen = new HashMap<String, Integer>();
+        counts.forEach(seen::put);
+        assertEquals(4, seen.size());
+        assertEquals(2, (int) seen.get("fish"));
+    }
+
+    @Test
+    public void testTombstones() {
+        for (int i = 0; i < 100; i++) {
+            map.put("k" + i, i);
+        }
+        int cap = map.getCapacity();
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 100; i++) {
+                // slide the window of live keys along by one
+                map.remove("k" + (i + round * 100));
+                map.put("k" + (i + round * 100 + 100), round);
+            }
+        }
+        assertEquals(cap, map.getCapacity());
+        assertTrue(map.ghosts() <= map.size());
+        assertEquals(100, map.size());
+    }
+
+    @Test
+    public void testRandomAgainstHashMap() {
+        HashMap<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        ObjIntHashMap<Integer> m = new ObjIntHashMap<Integer>(.7f);
+        Random random = new Random(226);
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(20000) - 10000;
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.remove(key) != null, m.remove(key));
+                    break;
+                case 1:
+                    assertEquals((int) expected.merge(key, i, Integer::sum),
+                                 m.addTo(key, i));
+                    break;
+                default:
+                    assertEquals(expected.put(key, i) == null, m.put(key, i));
+                    break;
+            }
+        }
+        assertEquals(expected.size(), m.size());
+        for (Integer key : expected.keySet()) {
+            assertEquals((int) expected.get(key), m.getOrDefault(key, -1));
+        }
+        assertEquals(expected.keySet(), m.keys());
+    }
+}
@@ -0,0 +1,68 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+/** A sorted set of distinct document IDs, read through cursors, so
+ *  query operators can walk a list, or skip ahead in it, without
+ *  knowing how it is stored or decoding more of it than they need.
+ *  @author Ryan Demo
+ */
+public interface PostingList {
+
+    /** Get the number of documents.
+     *  @return the size
+     */
+    int size();
+
+    /** Get a cursor at the start of the list.
+     *  @return a new cursor, before the first document
+     */
+    Cursor cursor();
+
+    /** Get every document, decoding the whole list.
+     *  @return a new sorted array of the IDs
+     */
+    default int[] toArray() {
+        int[] docs = new int[this.size()];
+        Cursor c = this.cursor();
+        for (int i = 0; i < docs.length; i++) {
+            docs[i] = c.next();
+        }
+        return docs;
+    }
+
+    /** Reads a list's documents in increasing order.
+     */
+    interface Cursor {
+
+        /** The document a cursor is on once the list is used up,
+         *  higher than every real ID. */
+        int END = Integer.MAX_VALUE;
+
+        /** Get the current document.
+         *  @return the ID, -1 before the first next, or END
+         */
+        int doc();
+
+        /** Move to the next document.
+         *  @return its ID, or END if there are no more
+         */
+        int next();
+
+        /** Move to the first document at or after a target, staying
+         *  put if the cursor is already there.
+         *  @param target the ID to look for
+         *  @return the first ID >= target, or END if there is none
+         */
+        default int advance(int target) {
+            int doc = this.doc();
+            while (doc < target) {
+                doc = this.next();
+            }
+            return doc;
+        }
+    }
+}
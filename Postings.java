@@ -0,0 +1,586 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/** Posting lists as sorted arrays of distinct document IDs, and the
+ *  set operations the query language needs, done by merging: each
+ *  walks both lists once, with no hashing and no boxing. The same
+ *  operations work over any PostingList through its cursors, and OR
+ *  over many lists at once as a k-way merge.
+ *  @author Ryan Demo
+ */
+public final class Postings {
+
+    /** A list with no documents. */
+    public static final int[] EMPTY = new int[0];
+
+    /** How many times longer one list must be than the other for and
+     *  to gallop through it rather than merge; below this, stepping
+     *  one by one costs less than the searches. */
+    static final int GALLOP_RATIO = 8;
+
+    /** Dummy constructor for utility class.
+     */
+    private Postings() {
+    }
+
+    /** Get the documents in both of two lists, merging lists of about
+     *  the same length and galloping through the longer one otherwise,
+     *  so the cost follows the shorter list.
+     *  @param a a sorted list of distinct IDs
+     *  @param b a sorted list of distinct IDs
+     *  @return a new sorted list of the IDs in both
+     */
+    public static int[] and(int[] a, int[] b) {
+        int[] small = a.length <= b.length ? a : b;
+        int[] large = small == a ? b : a;
+        return large.length / GALLOP_RATIO > small.length
+                ? gallopAnd(small, large) : mergeAnd(small, large);
+    }
+
+    /** Get the documents in both of two lists by stepping through both,
+     *  in time linear in their total length.
+     *  @param a a sorted list of distinct IDs
+     *  @param b a sorted list of distinct IDs
+     *  @return a new sorted list of the IDs in both
+     */
+    public static int[] mergeAnd(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i++];
+                j++;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /** Get the documents in both of two lists by searching the larger
+     *  for each ID of the smaller, galloping forward from the last
+     *  match, so the time is about |small| log(|large| / |small|).
+     *  @param small a sorted list of distinct IDs
+     *  @param large a sorted list of distinct IDs
+     *  @return a new sorted list of the IDs in both
+     */
+    public static int[] gallopAnd(int[] small, int[] large) {
+        int[] out = new int[Math.min(small.length, large.length)];
+        int n = 0;
+        int j = 0;
+        for (int doc : small) {
+            j = gallop(large, j, doc);
+            if (j == large.length) {
+                break;
+            }
+            if (large[j] == doc) {
+                out[n++] = doc;
+                j++;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /** Find the first ID at or after a target, searching forward from a
+     *  position in steps of 1, 2, 4... until one passes it, then binary
+     *  searching the last step.
+     *  @param docs a sorted list of distinct IDs
+     *  @param from the index to search from
+     *  @param target the ID to look for
+     *  @return the index of the first ID >= target at or after from, or
+     *  docs.length if there is none
+     */
+    static int gallop(int[] docs, int from, int target) {
+        if (from >= docs.length || docs[from] >= target) {
+            return from;
+        }
+        //docs[lo] < target all along, and docs[hi] >= target at the end
+        int lo = from;
+        int step = 1;
+        int hi = from + 1;
+        while (hi < docs.length && docs[hi] < target) {
+            lo = hi;
+            step <<= 1;
+            hi = step < docs.length - lo ? lo + step : docs.length;
+        }
+        lo++;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (docs[mid] < target) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /** Get the documents in either of two lists.
+     *  @param a a sorted list of distinct IDs
+     *  @param b a sorted list of distinct IDs
+     *  @return a new sorted list of the IDs in either, each once
+     */
+    public static int[] or(int[] a, int[] b) {
+        int[] out = new int[a.length + b.length];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                out[n++] = a[i++];
+            } else if (a[i] > b[j]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) {
+            out[n++] = a[i++];
+        }
+        while (j < b.length) {
+            out[n++] = b[j++];
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /** Get the documents in both of two lists, leapfrogging: each
+     *  cursor advances to the other's document, so a compressed list
+     *  skips the blocks that cannot match without decoding them. The
+     *  smaller list leads, so when one is rare the other is only
+     *  searched, by galloping or skip pointers, for its IDs.
+     *  @param a a list
+     *  @param b a list
+     *  @return a new sorted list of the IDs in both
+     */
+    public static int[] and(PostingList a, PostingList b) {
+        int[] out = new int[Math.min(a.size(), b.size())];
+        int n = 0;
+        PostingList.Cursor x = (a.size() <= b.size() ? a : b).cursor();
+        PostingList.Cursor y = (a.size() <= b.size() ? b : a).cursor();
+        int doc = x.next();
+        while (doc != PostingList.Cursor.END) {
+            int other = y.advance(doc);
+            if (other == doc) {
+                out[n++] = doc;
+                doc = x.next();
+            } else {
+                doc = x.advance(other);
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /** Get the documents in either of two lists.
+     *  @param a a list
+     *  @param b a list
+     *  @return a new sorted list of the IDs in either, each once
+     */
+    public static int[] or(PostingList a, PostingList b) {
+        int[] out = new int[a.size() + b.size()];
+        int n = 0;
+        PostingList.Cursor x = a.cursor();
+        PostingList.Cursor y = b.cursor();
+        int i = x.next();
+        int j = y.next();
+        while (i != PostingList.Cursor.END || j != PostingList.Cursor.END) {
+            if (i < j) {
+                out[n++] = i;
+                i = x.next();
+            } else if (i > j) {
+                out[n++] = j;
+                j = y.next();
+            } else {
+                out[n++] = i;
+                i = x.next();
+                j = y.next();
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /** Intersect two lists for a query, word by word over bitmaps when
+     *  both are RoaringPostings, or by leapfrogging cursors otherwise.
+     *  @param a a list
+     *  @param b a list
+     *  @return a new list of the IDs in both
+     */
+    public static PostingList intersect(PostingList a, PostingList b) {
+        if (a instanceof RoaringPostings && b instanceof RoaringPostings) {
+            return RoaringPostings.and((RoaringPostings) a,
+                    (RoaringPostings) b);
+        }
+        return Postings.of(Postings.and(a, b));
+    }
+
+    /** Unite two lists for a query, word by word over bitmaps when both
+     *  are RoaringPostings. Otherwise the union is left for later: it
+     *  takes in the operands of any union not yet read, so a chain of
+     *  ORs becomes one k-way merge, done once when first needed.
+     *  @param a a list
+     *  @param b a list
+     *  @return a list of the IDs in either
+     *  @throws NullPointerException if a or b is null
+     */
+    public static PostingList union(PostingList a, PostingList b) {
+        //a union is only read later, so catch a missing operand now
+        Objects.requireNonNull(a, "a");
+        Objects.requireNonNull(b, "b");
+        if (a instanceof RoaringPostings && b instanceof RoaringPostings) {
+            return RoaringPostings.or((RoaringPostings) a,
+                    (RoaringPostings) b);
+        }
+        List<PostingList> operands = new ArrayList<PostingList>();
+        for (PostingList p : new PostingList[] {a, b}) {
+            if (p instanceof Union && ((Union) p).docs == null) {
+                operands.addAll(((Union) p).operands);
+            } else {
+                operands.add(p);
+            }
+        }
+        return new Union(operands);
+    }
+
+    /** Get the documents in any of several lists: by a linear merge for
+     *  two, or for more by a k-way merge keeping the lists' cursors in
+     *  a heap, in time about (total size) log k either way rather than
+     *  the (total size) k of merging them a pair at a time.
+     *  @param lists the lists
+     *  @return a new sorted list of the IDs in any, each once
+     */
+    public static int[] or(PostingList... lists) {
+        switch (lists.length) {
+            case 0:
+                return EMPTY;
+            case 1:
+                return lists[0].toArray();
+            case 2:
+                return or(lists[0], lists[1]);
+            default:
+                long total = 0;
+                for (PostingList p : lists) {
+                    total += p.size();
+                }
+                int[] out = new int[(int) Math.min(total, Integer.MAX_VALUE)];
+                int n = 0;
+                PostingList.Cursor merge = merge(lists);
+                for (int doc = merge.next(); doc != PostingList.Cursor.END;
+                        doc = merge.next()) {
+                    out[n++] = doc;
+                }
+                return n == out.length ? out : Arrays.copyOf(out, n);
+        }
+    }
+
+    /** Get a cursor over the documents in any of several lists, which
+     *  reads each list only as far as it is read itself.
+     *  @param lists the lists
+     *  @return a new cursor, before the first document
+     */
+    public static PostingList.Cursor merge(PostingList... lists) {
+        return new MergeCursor(lists);
+    }
+
+    /** Store a finished posting list for an index, as RoaringPostings
+     *  if any of its 64K chunks is dense enough for a bitmap, and as
+     *  CompressedPostings, which are smaller, otherwise.
+     *  @param docs a sorted array of distinct IDs, all >= 0
+     *  @return the list
+     */
+    public static PostingList pack(int[] docs) {
+        return RoaringPostings.isDense(docs) ? RoaringPostings.of(docs)
+                : CompressedPostings.of(docs);
+    }
+
+    /** Get a sorted array as a PostingList, without copying it.
+     *  @param docs a sorted array of distinct IDs, not changed after
+     *  @return the list
+     */
+    public static PostingList of(int[] docs) {
+        return new OfArray(docs);
+    }
+
+    /** A posting list over a plain sorted array. */
+    static final class OfArray implements PostingList {
+
+        /** The IDs. */
+        private final int[] docs;
+
+        /** Wrap an array.
+         *  @param docs the IDs
+         */
+        OfArray(int[] docs) {
+            this.docs = docs;
+        }
+
+        @Override
+        public int size() {
+            return this.docs.length;
+        }
+
+        @Override
+        public int[] toArray() {
+            return this.docs.clone();
+        }
+
+        @Override
+        public PostingList.Cursor cursor() {
+            final int[] d = this.docs;
+            return new PostingList.Cursor() {
+                private int i = -1;
+                private int doc = -1;
+
+                @Override
+                public int doc() {
+                    return this.doc;
+                }
+
+                @Override
+                public int next() {
+                    if (this.i + 1 >= d.length) {
+                        this.i = d.length;
+                        return this.doc = END;
+                    }
+                    return this.doc = d[++this.i];
+                }
+
+                @Override
+                public int advance(int target) {
+                    if (this.doc >= target) {
+                        return this.doc;
+                    }
+                    this.i = gallop(d, this.i + 1, target);
+                    return this.doc = this.i < d.length ? d[this.i] : END;
+                }
+            };
+        }
+    }
+
+    /** An OR not yet done, kept as its operands until its size or IDs
+     *  are wanted, then merged once and kept as an array. */
+    static final class Union implements PostingList {
+
+        /** The lists to unite. */
+        private final List<PostingList> operands;
+
+        /** The IDs, once merged, or null. */
+        private int[] docs;
+
+        /** Make a union.
+         *  @param operands the lists to unite
+         */
+        Union(List<PostingList> operands) {
+            this.operands = operands;
+        }
+
+        /** Merge the operands, the first time only.
+         *  @return the IDs
+         */
+        private int[] docs() {
+            if (this.docs == null) {
+                this.docs = or(this.operands.toArray(new PostingList[0]));
+            }
+            return this.docs;
+        }
+
+        @Override
+        public int size() {
+            return this.docs().length;
+        }
+
+        @Override
+        public int[] toArray() {
+            return this.docs().clone();
+        }
+
+        @Override
+        public PostingList.Cursor cursor() {
+            //a union read only once can stream without being kept
+            return this.docs != null ? of(this.docs).cursor()
+                    : merge(this.operands.toArray(new PostingList[0]));
+        }
+    }
+
+    /** Reads several lists at once, in ID order and without repeats,
+     *  from a min heap of their cursors ordered by current ID. Every
+     *  cursor in the heap is on an ID above the last one read.
+     */
+    static final class MergeCursor implements PostingList.Cursor {
+
+        /** The heap; a list's cursor leaves it when used up. */
+        private final PostingList.Cursor[] heap;
+
+        /** Number of cursors in the heap. */
+        private int n;
+
+        /** The current ID. */
+        private int doc = -1;
+
+        /** Start reading lists.
+         *  @param lists the lists
+         */
+        MergeCursor(PostingList[] lists) {
+            this.heap = new PostingList.Cursor[lists.length];
+            for (PostingList p : lists) {
+                PostingList.Cursor c = p.cursor();
+                if (c.next() != END) {
+                    this.heap[this.n++] = c;
+                }
+            }
+            for (int i = this.n / 2 - 1; i >= 0; i--) {
+                this.siftDown(i);
+            }
+        }
+
+        @Override
+        public int doc() {
+            return this.doc;
+        }
+
+        @Override
+        public int next() {
+            if (this.n == 0) {
+                return this.doc = END;
+            }
+            this.doc = this.heap[0].doc();
+            //move every cursor on this ID past it, so it is read once
+            while (this.n > 0 && this.heap[0].doc() == this.doc) {
+                this.heap[0].next();
+                this.fixTop();
+            }
+            return this.doc;
+        }
+
+        @Override
+        public int advance(int target) {
+            if (this.doc >= target) {
+                return this.doc;
+            }
+            while (this.n > 0 && this.heap[0].doc() < target) {
+                this.heap[0].advance(target);
+                this.fixTop();
+            }
+            return this.next();
+        }
+
+        /** Restore the heap after the top cursor moved, dropping it if
+         *  it is used up. */
+        private void fixTop() {
+            if (this.heap[0].doc() == END) {
+                this.heap[0] = this.heap[--this.n];
+                this.heap[this.n] = null;
+            }
+            if (this.n > 0) {
+                this.siftDown(0);
+            }
+        }
+
+        /** Move a cursor down the heap until it is below no later ID.
+         *  @param i the cursor's position
+         */
+        private void siftDown(int i) {
+            PostingList.Cursor c = this.heap[i];
+            int half = this.n / 2;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < this.n && this.heap[child + 1].doc()
+                        < this.heap[child].doc()) {
+                    child++;
+                }
+                if (c.doc() <= this.heap[child].doc()) {
+                    break;
+                }
+                this.heap[i] = this.heap[child];
+                i = child;
+            }
+            this.heap[i] = c;
+        }
+    }
+
+    /** Collects one term's postings while documents are read. Pages
+     *  are read in ID order, so an ID normally comes after all lower
+     *  ones and a repeat of the term on the same page is the last ID,
+     *  which costs nothing to drop. A URL listed twice in the input
+     *  brings back its earlier, lower ID, so IDs out of order are taken
+     *  too and sorted out once, when the postings are wanted.
+     */
+    public static final class Builder {
+
+        /** Room for the first few IDs. */
+        private static final int INITIAL_SIZE = 4;
+
+        /** IDs so far, then spare room. */
+        private int[] docs = new int[INITIAL_SIZE];
+
+        /** Number of IDs so far. */
+        private int size;
+
+        /** Whether the IDs so far are sorted and distinct. */
+        private boolean sorted = true;
+
+        /** Add a document, unless it was the last one added.
+         *  @param doc the ID, >= 0
+         */
+        public void add(int doc) {
+            if (this.size > 0) {
+                int last = this.docs[this.size - 1];
+                if (doc == last) {
+                    return;
+                }
+                if (doc < last) {
+                    this.sorted = false;
+                }
+            }
+            if (this.size == this.docs.length) {
+                this.docs = Arrays.copyOf(this.docs, 2 * this.size);
+            }
+            this.docs[this.size++] = doc;
+        }
+
+        /** Get the number of distinct documents added.
+         *  @return the size
+         */
+        public int size() {
+            this.sort();
+            return this.size;
+        }
+
+        /** Get the postings.
+         *  @return a new sorted array of the distinct IDs added
+         */
+        public int[] toArray() {
+            this.sort();
+            return Arrays.copyOf(this.docs, this.size);
+        }
+
+        /** Sort the IDs and drop repeats, if any came out of order.
+         */
+        private void sort() {
+            if (this.sorted) {
+                return;
+            }
+            Arrays.sort(this.docs, 0, this.size);
+            int n = 1;
+            for (int i = 1; i < this.size; i++) {
+                if (this.docs[i] != this.docs[n - 1]) {
+                    this.docs[n++] = this.docs[i];
+                }
+            }
+            this.size = n;
+            this.sorted = true;
+        }
+    }
+}
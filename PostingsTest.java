@@ -0,0 +1,403 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+*/
+
+/** TESTS for Postings
+ *  AND and OR on empty, disjoint, nested and overlapping lists, and
+ *  against java.util.TreeSet on random lists, and over PostingLists of
+ *  either kind against the array versions; pack choosing bitmaps for
+ *  dense lists, intersect and union keeping them; galloping search and
+ *  skewed AND over every kind; k-way OR, the merge cursor, and chained
+ *  unions merged once; the builder's dedupe of
+ *  repeated IDs, growth, IDs out of order sorted and deduped, and a
+ *  URL listed twice.
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class PostingsTest {
+
+    static int[] a(int... docs) {
+        return docs;
+    }
+
+    static int[] random(Random random, int n, int range) {
+        TreeSet<Integer> set = new TreeSet<Integer>();
+        while (set.size() < n) {
+            set.add(random.nextInt(range));
+        }
+        return toArray(set);
+    }
+
+    static int[] toArray(TreeSet<Integer> set) {
+        int[] out = new int[set.size()];
+        int i = 0;
+        for (int doc : set) {
+            out[i++] = doc;
+        }
+        return out;
+    }
+
+    static TreeSet<Integer> toSet(int[] docs) {
+        TreeSet<Integer> set = new TreeSet<Integer>();
+        for (int doc : docs) {
+            set.add(doc);
+        }
+        return set;
+    }
+
+    @Test
+    public void testEmpty() {
+        assertArrayEquals(a(), Postings.and(Postings.EMPTY, a(1, 2)));
+        assertArrayEquals(a(), Postings.and(a(1, 2), Postings.EMPTY));
+        assertArrayEquals(a(1, 2), Postings.or(Postings.EMPTY, a(1, 2)));
+        assertArrayEquals(a(1, 2), Postings.or(a(1, 2), Postings.EMPTY));
+        assertArrayEquals(a(), Postings.or(Postings.EMPTY, Postings.EMPTY));
+    }
+
+    @Test
+    public void testDisjoint() {
+        assertArrayEquals(a(), Postings.and(a(0, 2, 4), a(1, 3, 5)));
+        assertArrayEquals(a(0, 1, 2, 3, 4, 5),
+                Postings.or(a(0, 2, 4), a(1, 3, 5)));
+        assertArrayEquals(a(0, 1, 7, 8), Postings.or(a(7, 8), a(0, 1)));
+    }
+
+    @Test
+    public void testNested() {
+        assertArrayEquals(a(2, 5), Postings.and(a(1, 2, 3, 5, 8), a(2, 5)));
+        assertArrayEquals(a(1, 2, 3, 5, 8),
+                Postings.or(a(2, 5), a(1, 2, 3, 5, 8)));
+    }
+
+    @Test
+    public void testOverlapping() {
+        assertArrayEquals(a(3, 4), Postings.and(a(1, 3, 4, 9), a(3, 4, 6)));
+        assertArrayEquals(a(1, 3, 4, 6, 9),
+                Postings.or(a(1, 3, 4, 9), a(3, 4, 6)));
+    }
+
+    @Test
+    public void testAgainstTreeSet() {
+        Random random = new Random(226);
+        for (int round = 0; round < 200; round++) {
+            int[] x = random(random, random.nextInt(100), 300);
+            int[] y = random(random, random.nextInt(100), 300);
+            TreeSet<Integer> both = toSet(x);
+            both.retainAll(toSet(y));
+            TreeSet<Integer> either = toSet(x);
+            either.addAll(toSet(y));
+            assertArrayEquals(toArray(both), Postings.and(x, y));
+            assertArrayEquals(toArray(either), Postings.or(x, y));
+        }
+    }
+
+    @Test
+    public void testGallop() {
+        int[] docs = a(1, 3, 5, 7, 9, 11, 13, 15, 17);
+        assertEquals(0, Postings.gallop(docs, 0, 0));
+        assertEquals(0, Postings.gallop(docs, 0, 1));
+        assertEquals(1, Postings.gallop(docs, 0, 2));
+        assertEquals(4, Postings.gallop(docs, 0, 9));
+        assertEquals(5, Postings.gallop(docs, 3, 10));
+        assertEquals(6, Postings.gallop(docs, 6, 2));
+        assertEquals(8, Postings.gallop(docs, 0, 17));
+        assertEquals(9, Postings.gallop(docs, 0, 18));
+        assertEquals(9, Postings.gallop(docs, 9, 1));
+        assertEquals(0, Postings.gallop(Postings.EMPTY, 0, 4));
+    }
+
+    @Test
+    public void testGallopAgainstBinarySearch() {
+        Random random = new Random(226);
+        int[] docs = random(random, 3000, 100000);
+        for (int round = 0; round < 2000; round++) {
+            int from = random.nextInt(docs.length + 1);
+            int target = random.nextInt(110000);
+            int i = Arrays.binarySearch(docs, target);
+            i = Math.max(from, i < 0 ? -i - 1 : i);
+            assertEquals(i, Postings.gallop(docs, from, target));
+        }
+    }
+
+    @Test
+    public void testSkewedAnd() {
+        Random random = new Random(226);
+        int[] large = random(random, 50000, 200000);
+        for (int n : new int[] {0, 1, 10, 100, 1000, 6000, 50000}) {
+            int[] small = random(random, n, 200000);
+            int[] expected = Postings.mergeAnd(small, large);
+            assertArrayEquals(expected, Postings.gallopAnd(small, large));
+            assertArrayEquals(expected, Postings.and(small, large));
+            assertArrayEquals(expected, Postings.and(large, small));
+            PostingList[] smalls = {Postings.of(small),
+                CompressedPostings.of(small), Postings.pack(small)};
+            PostingList[] larges = {Postings.of(large),
+                CompressedPostings.of(large), RoaringPostings.of(large)};
+            for (PostingList p : smalls) {
+                for (PostingList q : larges) {
+                    assertArrayEquals(expected, Postings.and(p, q));
+                    assertArrayEquals(expected, Postings.and(q, p));
+                    assertArrayEquals(expected,
+                            Postings.intersect(q, p).toArray());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testListsAgainstArrays() {
+        Random random = new Random(226);
+        for (int round = 0; round < 200; round++) {
+            int[] x = random(random, random.nextInt(1000), 5000);
+            int[] y = random(random, random.nextInt(1000), 5000);
+            PostingList[] xs = {Postings.of(x), CompressedPostings.of(x)};
+            PostingList[] ys = {Postings.of(y), CompressedPostings.of(y)};
+            for (PostingList p : xs) {
+                for (PostingList q : ys) {
+                    assertArrayEquals(Postings.and(x, y), Postings.and(p, q));
+                    assertArrayEquals(Postings.or(x, y), Postings.or(p, q));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testListsEmpty() {
+        PostingList empty = CompressedPostings.EMPTY;
+        PostingList some = Postings.of(a(1, 5));
+        assertArrayEquals(a(), Postings.and(empty, some));
+        assertArrayEquals(a(), Postings.and(some, empty));
+        assertArrayEquals(a(1, 5), Postings.or(empty, some));
+        assertArrayEquals(a(1, 5), Postings.or(some, empty));
+    }
+
+    @Test
+    public void testPackPicksByDensity() {
+        int[] sparse = a(3, 70000, 900000);
+        int[] dense = new int[RoaringPostings.ARRAY_MAX + 1];
+        for (int i = 0; i < dense.length; i++) {
+            dense[i] = 2 * i;
+        }
+        assertTrue(Postings.pack(sparse) instanceof CompressedPostings);
+        assertTrue(Postings.pack(dense) instanceof RoaringPostings);
+        assertArrayEquals(sparse, Postings.pack(sparse).toArray());
+        assertArrayEquals(dense, Postings.pack(dense).toArray());
+    }
+
+    @Test
+    public void testIntersectUnion() {
+        int[] dense = new int[20000];
+        for (int i = 0; i < dense.length; i++) {
+            dense[i] = 3 * i;
+        }
+        int[] other = new int[20000];
+        for (int i = 0; i < other.length; i++) {
+            other[i] = 2 * i;
+        }
+        int[] sparse = a(0, 6, 7, 59997, 70000);
+        PostingList d = Postings.pack(dense);
+        PostingList o = Postings.pack(other);
+        PostingList s = Postings.pack(sparse);
+        //two bitmapped lists stay bitmapped
+        assertTrue(Postings.intersect(d, o) instanceof RoaringPostings);
+        assertTrue(Postings.union(d, o) instanceof RoaringPostings);
+        assertArrayEquals(Postings.and(dense, other),
+                Postings.intersect(d, o).toArray());
+        assertArrayEquals(Postings.or(dense, other),
+                Postings.union(d, o).toArray());
+        assertArrayEquals(Postings.and(dense, sparse),
+                Postings.intersect(d, s).toArray());
+        assertArrayEquals(Postings.or(sparse, dense),
+                Postings.union(s, d).toArray());
+    }
+
+    /** A list that counts the cursors asked of it. */
+    static final class Counted implements PostingList {
+        final PostingList list;
+        int cursors;
+
+        Counted(int... docs) {
+            list = Postings.of(docs);
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public PostingList.Cursor cursor() {
+            cursors++;
+            return list.cursor();
+        }
+    }
+
+    @Test
+    public void testKWayOr() {
+        assertArrayEquals(a(), Postings.or(new PostingList[0]));
+        assertArrayEquals(a(2, 4), Postings.or(Postings.of(a(2, 4))));
+        assertArrayEquals(a(1, 2, 3, 4, 5, 9), Postings.or(
+                Postings.of(a(1, 4)), CompressedPostings.of(a(2, 4, 9)),
+                Postings.of(a()), Postings.of(a(1, 3, 5))));
+    }
+
+    @Test
+    public void testKWayOrAgainstTreeSet() {
+        Random random = new Random(226);
+        for (int round = 0; round < 100; round++) {
+            PostingList[] lists = new PostingList[random.nextInt(20)];
+            TreeSet<Integer> any = new TreeSet<Integer>();
+            for (int i = 0; i < lists.length; i++) {
+                int[] docs = random(random, random.nextInt(300), 2000);
+                any.addAll(toSet(docs));
+                lists[i] = i % 2 == 0 ? Postings.of(docs)
+                        : CompressedPostings.of(docs);
+            }
+            assertArrayEquals(toArray(any), Postings.or(lists));
+        }
+    }
+
+    @Test
+    public void testMergeCursorAdvance() {
+        PostingList.Cursor c = Postings.merge(Postings.of(a(1, 10, 20)),
+                Postings.of(a(5, 10, 30)), Postings.of(a(10, 25)));
+        assertEquals(-1, c.doc());
+        assertEquals(1, c.next());
+        assertEquals(5, c.next());
+        assertEquals(10, c.next());
+        assertEquals(20, c.next());
+        assertEquals(25, c.advance(21));
+        assertEquals(25, c.advance(25));
+        assertEquals(30, c.next());
+        assertEquals(PostingList.Cursor.END, c.next());
+        assertEquals(PostingList.Cursor.END, c.advance(3));
+    }
+
+    @Test
+    public void testUnionChainMergesOnce() {
+        Counted[] lists = {new Counted(1, 5), new Counted(2, 5),
+            new Counted(3), new Counted(1, 8), new Counted(4, 9)};
+        PostingList u = lists[0];
+        for (int i = 1; i < lists.length; i++) {
+            u = Postings.union(u, lists[i]);
+        }
+        for (Counted c : lists) {
+            assertEquals(0, c.cursors);
+        }
+        assertArrayEquals(a(1, 2, 3, 4, 5, 8, 9), u.toArray());
+        assertEquals(7, u.size());
+        assertArrayEquals(a(1, 2, 3, 4, 5, 8, 9), u.toArray());
+        for (Counted c : lists) {
+            assertEquals(1, c.cursors);
+        }
+        //a union used already is one operand of the next
+        PostingList v = Postings.union(u, lists[2]);
+        assertArrayEquals(a(1, 2, 3, 4, 5, 8, 9), v.toArray());
+        assertEquals(2, lists[2].cursors);
+        assertEquals(1, lists[0].cursors);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testUnionNullRejected() {
+        Postings.union(Postings.of(a(1)), null);
+    }
+
+    @Test
+    public void testUnionStreams() {
+        PostingList u = Postings.union(Postings.union(
+                Postings.of(a(1, 6)), Postings.of(a(2, 6))),
+                CompressedPostings.of(a(3, 7)));
+        PostingList.Cursor c = u.cursor();
+        assertEquals(3, c.advance(3));
+        assertEquals(6, c.next());
+        assertEquals(7, c.next());
+        assertArrayEquals(a(2, 6), Postings.and(u, Postings.of(a(2, 4, 6))));
+    }
+
+    @Test
+    public void testOfArrayCursor() {
+        PostingList p = Postings.of(a(3, 6, 9));
+        assertEquals(3, p.size());
+        PostingList.Cursor c = p.cursor();
+        assertEquals(-1, c.doc());
+        assertEquals(6, c.advance(4));
+        assertEquals(9, c.next());
+        assertEquals(PostingList.Cursor.END, c.next());
+        assertEquals(PostingList.Cursor.END, c.advance(1));
+        assertArrayEquals(a(3, 6, 9), p.toArray());
+    }
+
+    @Test
+    public void testBuilderDedupes() {
+        Postings.Builder b = new Postings.Builder();
+        b.add(0);
+        b.add(0);
+        b.add(3);
+        b.add(3);
+        b.add(3);
+        b.add(7);
+        assertEquals(3, b.size());
+        assertArrayEquals(a(0, 3, 7), b.toArray());
+    }
+
+    @Test
+    public void testBuilderGrows() {
+        Postings.Builder b = new Postings.Builder();
+        int[] expected = new int[1000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = 2 * i;
+            b.add(2 * i);
+        }
+        assertArrayEquals(expected, b.toArray());
+    }
+
+    @Test
+    public void testBuilderEmpty() {
+        assertArrayEquals(Postings.EMPTY, new Postings.Builder().toArray());
+    }
+
+    @Test
+    public void testBuilderOutOfOrder() {
+        Postings.Builder b = new Postings.Builder();
+        b.add(5);
+        b.add(4);
+        b.add(9);
+        b.add(5);
+        b.add(0);
+        assertEquals(4, b.size());
+        assertArrayEquals(a(0, 4, 5, 9), b.toArray());
+        //in order again after sorting
+        b.add(12);
+        b.add(12);
+        assertArrayEquals(a(0, 4, 5, 9, 12), b.toArray());
+    }
+
+    @Test
+    public void testRepeatedUrl() {
+        //a.com/red blue, b.com/red, a.com/red green, as JHUgle loads them
+        DocTable docs = new DocTable();
+        Postings.Builder red = new Postings.Builder();
+        Postings.Builder green = new Postings.Builder();
+        red.add(docs.add("a.com"));
+        red.add(docs.add("b.com"));
+        int again = docs.add("a.com");
+        red.add(again);
+        green.add(again);
+        assertEquals(2, docs.size());
+        assertArrayEquals(a(0, 1), red.toArray());
+        assertArrayEquals(a(0), green.toArray());
+        assertEquals(Arrays.asList("a.com", "b.com"),
+                docs.urls(Postings.pack(red.toArray()).toArray()));
+    }
+}
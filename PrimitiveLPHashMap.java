@@ -0,0 +1,181 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+/** Bookkeeping shared by the linear probe maps specialized for int
+ *  keys or values: the slot states, counts, load and growth rules.
+ *  As in FlatLPHashMap, every slot has a state byte saying whether it
+ *  is EMPTY, FULL or a TOMBSTONE, so no key or value has to be kept
+ *  back to mean "no entry" and every int can be stored. Subclasses
+ *  keep their keys and values in parallel arrays of their own and do
+ *  the probing, since that depends on the key type.
+ *  @author Ryan Demo
+ */
+abstract class PrimitiveLPHashMap {
+
+    /** State of a slot that has never held an entry. */
+    static final byte EMPTY = 0;
+
+    /** State of a slot holding a live entry. */
+    static final byte FULL = 1;
+
+    /** State of a slot whose entry was removed. */
+    static final byte TOMBSTONE = 2;
+
+    /** Hashing and table sizing. */
+    final HashStrategy strategy;
+
+    /** EMPTY, FULL or TOMBSTONE for each slot. */
+    byte[] states;
+
+    /** Number of FULL slots. */
+    int numElements;
+
+    /** Number of TOMBSTONE slots. */
+    int tombstones;
+
+    /** Maximum load for the table. */
+    private final float maxLoad;
+
+    /** Set up the counts. Subclasses then allocate a table of
+     *  initialCapacity slots.
+     *  @param max the maximum load factor, 0 < maxLoad < 1
+     *  @param strategy the hash function and table sizing to use
+     *  @throws IllegalArgumentException if max is not in range
+     */
+    PrimitiveLPHashMap(float max, HashStrategy strategy) {
+        if (!(max > 0 && max < 1)) {
+            throw new IllegalArgumentException("max load must be in (0, 1)");
+        }
+        this.maxLoad = max;
+        this.strategy = strategy;
+    }
+
+    /** Get the capacity to start with for a number of entries.
+     *  @param expectedSize the number of entries expected, >= 0
+     *  @return the capacity
+     */
+    int initialCapacity(int expectedSize) {
+        return LPHashMap.capacityFor(expectedSize, this.maxLoad,
+                this.strategy);
+    }
+
+    /** Replace the table with empty arrays, states included.
+     *  @param cap the number of slots
+     */
+    abstract void allocate(int cap);
+
+    /** Rehash the entries to a new table size.
+     *  @param cap the capacity of the table after rehashing, cap > size()
+     */
+    public abstract void rehash(int cap);
+
+    /** Get the slot after one, wrapping around.
+     *  @param index the slot
+     *  @return the next slot
+     */
+    final int next(int index) {
+        return index + 1 == this.states.length ? 0 : index + 1;
+    }
+
+    /** Count an entry about to be inserted, rehashing first if it would
+     *  take the load over the max or tombstones outnumber entries.
+     *  @return true if the table was rehashed, so slots found before
+     *  are no longer valid
+     */
+    final boolean makeRoom() {
+        this.numElements++;
+        if (this.getLoad() > this.maxLoad) {
+            this.rehash(this.strategy.capacityFor(
+                    LPHashMap.doubled(this.getCapacity())));
+            return true;
+        }
+        if (this.numElements < this.tombstones) {
+            this.rehash(this.getCapacity());
+            return true;
+        }
+        return false;
+    }
+
+    /** Mark the state of a slot that is being filled.
+     *  @param index the slot, EMPTY or TOMBSTONE
+     */
+    final void fill(int index) {
+        if (this.states[index] == TOMBSTONE) {
+            this.tombstones--;
+        }
+        this.states[index] = FULL;
+    }
+
+    /** Turn a live slot into a tombstone.
+     *  @param index the slot
+     */
+    void removeAt(int index) {
+        this.states[index] = TOMBSTONE;
+        this.numElements--;
+        this.tombstones++;
+        if (this.numElements < this.tombstones) {
+            this.rehash(this.getCapacity());
+        }
+    }
+
+    /** Get the number of entries.
+     *  @return the size
+     */
+    public int size() {
+        return this.numElements;
+    }
+
+    /** Find out if there are any entries.
+     *  @return true if no entries, false otherwise
+     */
+    public boolean isEmpty() {
+        return this.numElements == 0;
+    }
+
+    /** Remove all entries, keeping the capacity.
+     */
+    public void clear() {
+        this.numElements = 0;
+        this.tombstones = 0;
+        this.allocate(this.getCapacity());
+    }
+
+    /** Get the maximum load factor.
+     *  @return the max load
+     */
+    public float getMaxLoad() {
+        return this.maxLoad;
+    }
+
+    /** Get the current load factor.
+     *  @return the load factor
+     */
+    public float getLoad() {
+        return (float) this.numElements / (float) this.getCapacity();
+    }
+
+    /** Get the table capacity (total # of slots).
+     *  @return the capacity
+     */
+    public int getCapacity() {
+        return this.states.length;
+    }
+
+    /** Get the number of tombstones.
+     *  @return the tombstone count
+     */
+    public int ghosts() {
+        return this.tombstones;
+    }
+
+    /** Get the strategy this map hashes keys and sizes its table with.
+     *  @return the strategy
+     */
+    public HashStrategy getHashStrategy() {
+        return this.strategy;
+    }
+}
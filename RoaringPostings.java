@@ -0,0 +1,634 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/** An immutable posting list split, like a Roaring bitmap, into chunks
+ *  of 64K IDs sharing their high 16 bits. Each chunk picks its own
+ *  container: a sorted array of the low 16 bits while it holds at most
+ *  ARRAY_MAX IDs, or a bitmap of all 64K above that, when the bitmap's
+ *  8K bytes are the smaller. AND and OR between two such lists work a
+ *  chunk at a time, and between two bitmaps a 64 bit word at a time,
+ *  so dense terms combine with no per ID work at all.
+ *  @author Ryan Demo
+ */
+public final class RoaringPostings implements PostingList {
+
+    /** Low bits of an ID kept in its chunk's container. */
+    static final int CHUNK_BITS = 16;
+
+    /** Mask for the low bits of an ID. */
+    static final int LOW_MASK = (1 << CHUNK_BITS) - 1;
+
+    /** Words in a bitmap container. */
+    static final int WORDS = (1 << CHUNK_BITS) / Long.SIZE;
+
+    /** Log2 of the bits in a word. */
+    private static final int WORD_SHIFT = 6;
+
+    /** Most IDs an array container holds: past this many, 2 bytes an
+     *  ID comes to more than a bitmap's WORDS longs. */
+    static final int ARRAY_MAX = WORDS * Long.BYTES / Character.BYTES;
+
+    /** A list with no documents. */
+    public static final RoaringPostings EMPTY =
+            RoaringPostings.of(Postings.EMPTY);
+
+    /** Number of IDs. */
+    private final int size;
+
+    /** High bits of each chunk, ascending. */
+    private final char[] keys;
+
+    /** Each chunk's array container, or null if it has a bitmap. */
+    private final char[][] arrays;
+
+    /** Each chunk's bitmap container, or null if it has an array. */
+    private final long[][] bitmaps;
+
+    /** Make a list from its chunks.
+     *  @param size the number of IDs
+     *  @param keys the high bits of each chunk
+     *  @param arrays the array containers
+     *  @param bitmaps the bitmap containers
+     */
+    private RoaringPostings(int size, char[] keys, char[][] arrays,
+            long[][] bitmaps) {
+        this.size = size;
+        this.keys = keys;
+        this.arrays = arrays;
+        this.bitmaps = bitmaps;
+    }
+
+    /** Build a list from a sorted array.
+     *  @param docs a sorted array of distinct IDs, all >= 0
+     *  @return the list
+     *  @throws IllegalArgumentException if docs is not sorted, has
+     *  repeats or a negative ID
+     */
+    public static RoaringPostings of(int[] docs) {
+        Chunks out = new Chunks();
+        int prev = -1;
+        int start = 0;
+        for (int i = 0; i <= docs.length; i++) {
+            if (i < docs.length && docs[i] <= prev) {
+                throw new IllegalArgumentException("document " + docs[i]
+                        + " after " + prev);
+            }
+            if (i == docs.length || i > start
+                    && docs[i] >>> CHUNK_BITS != docs[start] >>> CHUNK_BITS) {
+                if (i > start) {
+                    char[] low = new char[i - start];
+                    for (int j = start; j < i; j++) {
+                        low[j - start] = (char) (docs[j] & LOW_MASK);
+                    }
+                    out.addArray((char) (docs[start] >>> CHUNK_BITS), low,
+                            low.length);
+                }
+                start = i;
+            }
+            if (i < docs.length) {
+                prev = docs[i];
+            }
+        }
+        return out.build();
+    }
+
+    /** Check whether any chunk of a sorted list would be a bitmap.
+     *  @param docs a sorted array of distinct IDs
+     *  @return true if some 64K chunk holds more than ARRAY_MAX IDs
+     */
+    public static boolean isDense(int[] docs) {
+        for (int i = ARRAY_MAX; i < docs.length; i++) {
+            if (docs[i] >>> CHUNK_BITS
+                    == docs[i - ARRAY_MAX] >>> CHUNK_BITS) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public PostingList.Cursor cursor() {
+        return new Cursor();
+    }
+
+    /** Get the number of chunks stored as bitmaps.
+     *  @return the count
+     */
+    public int bitmapChunks() {
+        int n = 0;
+        for (long[] bitmap : this.bitmaps) {
+            if (bitmap != null) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /** Get the memory the list's arrays take, not counting headers.
+     *  @return the number of bytes
+     */
+    public int bytes() {
+        int n = this.keys.length * Character.BYTES;
+        for (int c = 0; c < this.keys.length; c++) {
+            n += this.arrays[c] != null
+                    ? this.arrays[c].length * Character.BYTES
+                    : WORDS * Long.BYTES;
+        }
+        return n;
+    }
+
+    /** Get the documents in both of two lists, chunk by chunk.
+     *  @param a a list
+     *  @param b a list
+     *  @return a new list of the IDs in both
+     */
+    public static RoaringPostings and(RoaringPostings a, RoaringPostings b) {
+        Chunks out = new Chunks();
+        int i = 0;
+        int j = 0;
+        while (i < a.keys.length && j < b.keys.length) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                char key = a.keys[i];
+                if (a.bitmaps[i] != null && b.bitmaps[j] != null) {
+                    long[] words = new long[WORDS];
+                    for (int w = 0; w < WORDS; w++) {
+                        words[w] = a.bitmaps[i][w] & b.bitmaps[j][w];
+                    }
+                    out.addBitmap(key, words);
+                } else if (a.bitmaps[i] != null) {
+                    out.addFiltered(key, b.arrays[j], a.bitmaps[i]);
+                } else if (b.bitmaps[j] != null) {
+                    out.addFiltered(key, a.arrays[i], b.bitmaps[j]);
+                } else {
+                    out.addBoth(key, a.arrays[i], b.arrays[j]);
+                }
+                i++;
+                j++;
+            }
+        }
+        return out.build();
+    }
+
+    /** Get the documents in either of two lists, chunk by chunk.
+     *  @param a a list
+     *  @param b a list
+     *  @return a new list of the IDs in either
+     */
+    public static RoaringPostings or(RoaringPostings a, RoaringPostings b) {
+        Chunks out = new Chunks();
+        int i = 0;
+        int j = 0;
+        while (i < a.keys.length || j < b.keys.length) {
+            if (j == b.keys.length
+                    || i < a.keys.length && a.keys[i] < b.keys[j]) {
+                out.addCopy(a, i++);
+            } else if (i == a.keys.length || a.keys[i] > b.keys[j]) {
+                out.addCopy(b, j++);
+            } else {
+                char key = a.keys[i];
+                long[] words;
+                if (a.bitmaps[i] != null || b.bitmaps[j] != null) {
+                    words = a.bitmaps[i] != null ? a.bitmaps[i].clone()
+                            : toBitmap(a.arrays[i]);
+                    if (b.bitmaps[j] != null) {
+                        for (int w = 0; w < WORDS; w++) {
+                            words[w] |= b.bitmaps[j][w];
+                        }
+                    } else {
+                        setAll(words, b.arrays[j]);
+                    }
+                    out.addBitmap(key, words);
+                } else {
+                    out.addEither(key, a.arrays[i], b.arrays[j]);
+                }
+                i++;
+                j++;
+            }
+        }
+        return out.build();
+    }
+
+    /** Write the list out: the chunk count, then for each chunk its
+     *  key, its size and its container.
+     *  @return the bytes
+     */
+    public byte[] toBytes() {
+        int n = Integer.BYTES;
+        for (int c = 0; c < this.keys.length; c++) {
+            n += Character.BYTES + Integer.BYTES + (this.arrays[c] != null
+                    ? this.arrays[c].length * Character.BYTES
+                    : WORDS * Long.BYTES);
+        }
+        ByteBuffer out = ByteBuffer.allocate(n);
+        out.putInt(this.keys.length);
+        for (int c = 0; c < this.keys.length; c++) {
+            out.putChar(this.keys[c]);
+            if (this.arrays[c] != null) {
+                out.putInt(this.arrays[c].length);
+                for (char low : this.arrays[c]) {
+                    out.putChar(low);
+                }
+            } else {
+                out.putInt(cardinality(this.bitmaps[c]));
+                for (long word : this.bitmaps[c]) {
+                    out.putLong(word);
+                }
+            }
+        }
+        return out.array();
+    }
+
+    /** Read a list written by toBytes.
+     *  @param buffer the buffer holding the bytes
+     *  @param offset the absolute position of the first byte
+     *  @param length the number of bytes
+     *  @return the list
+     */
+    public static RoaringPostings fromBytes(ByteBuffer buffer, int offset,
+            int length) {
+        Chunks out = new Chunks();
+        int chunks = buffer.getInt(offset);
+        int at = offset + Integer.BYTES;
+        for (int c = 0; c < chunks; c++) {
+            char key = buffer.getChar(at);
+            int count = buffer.getInt(at + Character.BYTES);
+            at += Character.BYTES + Integer.BYTES;
+            if (count <= ARRAY_MAX) {
+                char[] low = new char[count];
+                for (int i = 0; i < count; i++, at += Character.BYTES) {
+                    low[i] = buffer.getChar(at);
+                }
+                out.addArray(key, low, count);
+            } else {
+                long[] words = new long[WORDS];
+                for (int w = 0; w < WORDS; w++, at += Long.BYTES) {
+                    words[w] = buffer.getLong(at);
+                }
+                out.addBitmap(key, words);
+            }
+        }
+        return out.build();
+    }
+
+    /** Count the bits set in a bitmap.
+     *  @param words the bitmap
+     *  @return the count
+     */
+    static int cardinality(long[] words) {
+        int n = 0;
+        for (long word : words) {
+            n += Long.bitCount(word);
+        }
+        return n;
+    }
+
+    /** Make a bitmap of an array container's IDs.
+     *  @param low the array
+     *  @return the bitmap
+     */
+    static long[] toBitmap(char[] low) {
+        long[] words = new long[WORDS];
+        setAll(words, low);
+        return words;
+    }
+
+    /** Set the bits of an array container's IDs.
+     *  @param words the bitmap
+     *  @param low the array
+     */
+    static void setAll(long[] words, char[] low) {
+        for (char l : low) {
+            words[l >>> WORD_SHIFT] |= 1L << l;
+        }
+    }
+
+    /** Find the first set bit at or after a position.
+     *  @param words the bitmap
+     *  @param from the position, which may be past the end
+     *  @return the bit, or -1 if there is none
+     */
+    static int nextBit(long[] words, int from) {
+        int w = from >>> WORD_SHIFT;
+        if (w >= WORDS) {
+            return -1;
+        }
+        long bits = words[w] & -1L << from;
+        while (bits == 0) {
+            if (++w == WORDS) {
+                return -1;
+            }
+            bits = words[w];
+        }
+        return w << WORD_SHIFT | Long.numberOfTrailingZeros(bits);
+    }
+
+    /** Find the first low bits at or after a target in an array
+     *  container, galloping forward from a position like
+     *  Postings.gallop.
+     *  @param low the array
+     *  @param from the index to search from
+     *  @param target the low bits to look for
+     *  @return the index of the first entry >= target at or after
+     *  from, or low.length if there is none
+     */
+    static int gallop(char[] low, int from, char target) {
+        int lo = from;
+        int hi = from;
+        int step = 1;
+        while (hi < low.length && low[hi] < target) {
+            lo = hi + 1;
+            hi = Math.min(hi + step, low.length);
+            step <<= 1;
+        }
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (low[mid] < target) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /** Collects chunks in key order for a new list, dropping empty ones
+     *  and giving each the container its size calls for.
+     */
+    private static final class Chunks {
+
+        /** Room for the first few chunks. */
+        private static final int INITIAL_SIZE = 4;
+
+        /** Keys so far. */
+        private char[] keys = new char[INITIAL_SIZE];
+
+        /** Array containers so far. */
+        private char[][] arrays = new char[INITIAL_SIZE][];
+
+        /** Bitmap containers so far. */
+        private long[][] bitmaps = new long[INITIAL_SIZE][];
+
+        /** Number of chunks so far. */
+        private int count;
+
+        /** Number of IDs so far. */
+        private int size;
+
+        /** Add a chunk from its sorted low bits.
+         *  @param key the high bits
+         *  @param low the low bits, possibly with spare room
+         *  @param n how many of low to use
+         */
+        void addArray(char key, char[] low, int n) {
+            if (n == 0) {
+                return;
+            }
+            if (n > ARRAY_MAX) {
+                long[] words = new long[WORDS];
+                for (int i = 0; i < n; i++) {
+                    words[low[i] >>> WORD_SHIFT] |= 1L << low[i];
+                }
+                this.add(key, null, words, n);
+            } else {
+                this.add(key, n == low.length ? low : Arrays.copyOf(low, n),
+                        null, n);
+            }
+        }
+
+        /** Add a chunk from a bitmap, which it may keep.
+         *  @param key the high bits
+         *  @param words the bitmap
+         */
+        void addBitmap(char key, long[] words) {
+            int n = cardinality(words);
+            if (n > ARRAY_MAX) {
+                this.add(key, null, words, n);
+                return;
+            }
+            char[] low = new char[n];
+            int i = 0;
+            for (int bit = nextBit(words, 0); bit >= 0;
+                    bit = nextBit(words, bit + 1)) {
+                low[i++] = (char) bit;
+            }
+            this.addArray(key, low, n);
+        }
+
+        /** Add a copy of another list's chunk.
+         *  @param from the list
+         *  @param c the chunk
+         */
+        void addCopy(RoaringPostings from, int c) {
+            //containers are never changed, so they can be shared
+            this.add(from.keys[c], from.arrays[c], from.bitmaps[c],
+                    from.arrays[c] != null ? from.arrays[c].length
+                    : cardinality(from.bitmaps[c]));
+        }
+
+        /** Add the IDs of an array container set in a bitmap.
+         *  @param key the high bits
+         *  @param low the array
+         *  @param words the bitmap
+         */
+        void addFiltered(char key, char[] low, long[] words) {
+            char[] out = new char[low.length];
+            int n = 0;
+            for (char l : low) {
+                //no branch on the bit, which matches at random
+                out[n] = l;
+                n += (int) (words[l >>> WORD_SHIFT] >>> l) & 1;
+            }
+            this.addArray(key, out, n);
+        }
+
+        /** Add the IDs in both of two array containers.
+         *  @param key the high bits
+         *  @param a an array
+         *  @param b an array
+         */
+        void addBoth(char key, char[] a, char[] b) {
+            char[] out = new char[Math.min(a.length, b.length)];
+            int n = 0;
+            if (a.length / Postings.GALLOP_RATIO > b.length
+                    || b.length / Postings.GALLOP_RATIO > a.length) {
+                //one is much shorter: search the other for its IDs
+                char[] small = a.length < b.length ? a : b;
+                char[] large = small == a ? b : a;
+                int j = 0;
+                for (char l : small) {
+                    j = gallop(large, j, l);
+                    if (j == large.length) {
+                        break;
+                    }
+                    if (large[j] == l) {
+                        out[n++] = l;
+                        j++;
+                    }
+                }
+                this.addArray(key, out, n);
+                return;
+            }
+            int i = 0;
+            int j = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    out[n++] = a[i++];
+                    j++;
+                }
+            }
+            this.addArray(key, out, n);
+        }
+
+        /** Add the IDs in either of two array containers.
+         *  @param key the high bits
+         *  @param a an array
+         *  @param b an array
+         */
+        void addEither(char key, char[] a, char[] b) {
+            char[] out = new char[a.length + b.length];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < a.length || j < b.length) {
+                if (j == b.length || i < a.length && a[i] < b[j]) {
+                    out[n++] = a[i++];
+                } else if (i == a.length || a[i] > b[j]) {
+                    out[n++] = b[j++];
+                } else {
+                    out[n++] = a[i++];
+                    j++;
+                }
+            }
+            this.addArray(key, out, n);
+        }
+
+        /** Append a non-empty chunk.
+         *  @param key the high bits
+         *  @param low the array container, or null
+         *  @param words the bitmap container, or null
+         *  @param n the number of IDs
+         */
+        private void add(char key, char[] low, long[] words, int n) {
+            if (this.count == this.keys.length) {
+                this.keys = Arrays.copyOf(this.keys, 2 * this.count);
+                this.arrays = Arrays.copyOf(this.arrays, 2 * this.count);
+                this.bitmaps = Arrays.copyOf(this.bitmaps, 2 * this.count);
+            }
+            this.keys[this.count] = key;
+            this.arrays[this.count] = low;
+            this.bitmaps[this.count] = words;
+            this.count++;
+            this.size += n;
+        }
+
+        /** Make the list.
+         *  @return the list of every chunk added
+         */
+        RoaringPostings build() {
+            return new RoaringPostings(this.size,
+                    Arrays.copyOf(this.keys, this.count),
+                    Arrays.copyOf(this.arrays, this.count),
+                    Arrays.copyOf(this.bitmaps, this.count));
+        }
+    }
+
+    /** Reads the chunks in order, stepping through an array container
+     *  by index and a bitmap container by bit.
+     */
+    private final class Cursor implements PostingList.Cursor {
+
+        /** Chunk being read. */
+        private int chunk;
+
+        /** Index in the chunk's array, or bit in its bitmap. */
+        private int pos = -1;
+
+        /** The current ID. */
+        private int doc = -1;
+
+        @Override
+        public int doc() {
+            return this.doc;
+        }
+
+        @Override
+        public int next() {
+            if (this.doc == END) {
+                return END;
+            }
+            return this.seek(this.chunk, this.pos + 1);
+        }
+
+        @Override
+        public int advance(int target) {
+            if (this.doc >= target) {
+                return this.doc;
+            }
+            char high = (char) (target >>> CHUNK_BITS);
+            int lo = this.chunk;
+            int hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid] < high) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            int from = 0;
+            if (lo < keys.length && keys[lo] == high) {
+                from = target & LOW_MASK;
+                if (arrays[lo] != null) {
+                    from = Arrays.binarySearch(arrays[lo], (char) from);
+                    from = from < 0 ? -from - 1 : from;
+                }
+            }
+            return this.seek(lo, from);
+        }
+
+        /** Move to the first ID at or after a position in a chunk,
+         *  going on to later chunks if it has none.
+         *  @param c the chunk
+         *  @param from the index or bit in the chunk to start at
+         *  @return the ID, or END
+         */
+        private int seek(int c, int from) {
+            for (; c < keys.length; c++, from = 0) {
+                int at = from;
+                if (arrays[c] == null) {
+                    at = nextBit(bitmaps[c], from);
+                } else if (from >= arrays[c].length) {
+                    at = -1;
+                }
+                if (at >= 0) {
+                    this.chunk = c;
+                    this.pos = at;
+                    return this.doc = keys[c] << CHUNK_BITS
+                            | (arrays[c] != null ? arrays[c][at] : at);
+                }
+            }
+            this.chunk = keys.length;
+            return this.doc = END;
+        }
+    }
+}
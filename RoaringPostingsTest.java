@@ -0,0 +1,264 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+*/
+
+/** TESTS for RoaringPostings
+ *  Round trips across chunk boundaries, the array to bitmap switch at
+ *  ARRAY_MAX, rejection of unsorted input, cursor next and advance,
+ *  isDense, AND and OR over every pair of container kinds against the
+ *  array merges, galloping AND of skewed arrays, results shrinking back to arrays, memory of dense
+ *  lists, and toBytes/fromBytes through Codec.POSTINGS.
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+public class RoaringPostingsTest {
+
+    static final int END = PostingList.Cursor.END;
+    static final int CHUNK = 1 << RoaringPostings.CHUNK_BITS;
+    static final int MAX = RoaringPostings.ARRAY_MAX;
+
+    static int[] range(int from, int to, int step) {
+        int[] docs = new int[(to - from + step - 1) / step];
+        for (int i = 0; i < docs.length; i++) {
+            docs[i] = from + i * step;
+        }
+        return docs;
+    }
+
+    static int[] concat(int[]... lists) {
+        return Arrays.stream(lists).flatMapToInt(Arrays::stream).toArray();
+    }
+
+    /** Random list mixing sparse chunks, dense chunks and gaps. */
+    static int[] mixed(Random random, int chunks) {
+        int[][] parts = new int[chunks][];
+        for (int c = 0; c < chunks; c++) {
+            int base = c * CHUNK;
+            switch (random.nextInt(3)) {
+                case 0:
+                    parts[c] = new int[0];
+                    break;
+                case 1:
+                    parts[c] = range(base + random.nextInt(50), base + CHUNK,
+                            50 + random.nextInt(200));
+                    break;
+                default:
+                    parts[c] = range(base + random.nextInt(3), base + CHUNK,
+                            1 + random.nextInt(4));
+                    break;
+            }
+        }
+        return concat(parts);
+    }
+
+    @Test
+    public void testEmpty() {
+        RoaringPostings p = RoaringPostings.of(new int[0]);
+        assertEquals(0, p.size());
+        assertArrayEquals(new int[0], p.toArray());
+        assertEquals(END, p.cursor().next());
+        assertEquals(END, p.cursor().advance(3));
+        assertEquals(0, RoaringPostings.EMPTY.size());
+    }
+
+    @Test
+    public void testRoundTrips() {
+        int[][] lists = {
+            {0}, {CHUNK - 1, CHUNK}, {5, 3 * CHUNK + 7, END - 1},
+            range(0, MAX, 1), range(0, MAX + 1, 1),
+            range(CHUNK - 10, 3 * CHUNK + 10, 1),
+        };
+        for (int[] docs : lists) {
+            RoaringPostings p = RoaringPostings.of(docs);
+            assertEquals(docs.length, p.size());
+            assertArrayEquals(docs, p.toArray());
+        }
+    }
+
+    @Test
+    public void testContainerChoice() {
+        assertEquals(0, RoaringPostings.of(range(0, MAX, 1)).bitmapChunks());
+        assertEquals(1, RoaringPostings.of(
+                range(0, MAX + 1, 1)).bitmapChunks());
+        assertEquals(2, RoaringPostings.of(concat(range(0, CHUNK, 2),
+                range(CHUNK, CHUNK + 10, 1),
+                range(5 * CHUNK, 6 * CHUNK, 3))).bitmapChunks());
+    }
+
+    @Test
+    public void testIsDense() {
+        assertFalse(RoaringPostings.isDense(new int[0]));
+        assertFalse(RoaringPostings.isDense(range(0, MAX, 1)));
+        assertTrue(RoaringPostings.isDense(range(0, MAX + 1, 1)));
+        //as many IDs, but spread over two chunks
+        assertFalse(RoaringPostings.isDense(range(CHUNK - MAX / 2,
+                CHUNK + MAX / 2 + 1, 1)));
+        assertTrue(RoaringPostings.isDense(concat(new int[] {1, 2},
+                range(CHUNK, CHUNK + MAX + 1, 1))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsortedRejected() {
+        RoaringPostings.of(new int[] {1, CHUNK, 2});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRepeatRejected() {
+        RoaringPostings.of(new int[] {1, 1});
+    }
+
+    @Test
+    public void testCursor() {
+        int[] docs = concat(new int[] {4, 9}, range(CHUNK, CHUNK + MAX + 5, 1),
+                new int[] {7 * CHUNK + 1});
+        PostingList.Cursor c = RoaringPostings.of(docs).cursor();
+        assertEquals(-1, c.doc());
+        assertEquals(4, c.next());
+        assertEquals(9, c.advance(5));
+        assertEquals(9, c.advance(9));
+        assertEquals(CHUNK, c.next());
+        assertEquals(CHUNK + 1, c.next());
+        assertEquals(CHUNK + 100, c.advance(CHUNK + 100));
+        assertEquals(CHUNK + MAX + 4, c.advance(CHUNK + MAX + 4));
+        assertEquals(7 * CHUNK + 1, c.next());
+        assertEquals(END, c.next());
+        assertEquals(END, c.advance(1));
+        assertEquals(END, c.doc());
+    }
+
+    @Test
+    public void testAdvanceAgainstArray() {
+        Random random = new Random(226);
+        int[] docs = mixed(random, 12);
+        RoaringPostings p = RoaringPostings.of(docs);
+        for (int round = 0; round < 100; round++) {
+            PostingList.Cursor c = p.cursor();
+            int target = 0;
+            while (true) {
+                target += random.nextInt(CHUNK);
+                int i = Arrays.binarySearch(docs, target);
+                i = i < 0 ? -i - 1 : i;
+                int expected = i < docs.length ? docs[i] : END;
+                assertEquals(expected, c.advance(target));
+                if (expected == END) {
+                    break;
+                }
+                target = expected;
+            }
+        }
+    }
+
+    @Test
+    public void testAndOrAgainstArrays() {
+        Random random = new Random(226);
+        for (int round = 0; round < 40; round++) {
+            int[] x = mixed(random, 6);
+            int[] y = mixed(random, 6);
+            RoaringPostings a = RoaringPostings.of(x);
+            RoaringPostings b = RoaringPostings.of(y);
+            RoaringPostings and = RoaringPostings.and(a, b);
+            RoaringPostings or = RoaringPostings.or(a, b);
+            assertArrayEquals(Postings.and(x, y), and.toArray());
+            assertArrayEquals(Postings.or(x, y), or.toArray());
+            assertEquals(Postings.and(x, y).length, and.size());
+            assertEquals(Postings.or(x, y).length, or.size());
+        }
+    }
+
+    @Test
+    public void testSkewedArrayAnd() {
+        Random random = new Random(226);
+        for (int round = 0; round < 40; round++) {
+            //arrays in the same chunks, one far shorter than the other
+            int[] x = range(random.nextInt(5), 3 * CHUNK,
+                    48 + random.nextInt(5));
+            int[] y = range(random.nextInt(500), 3 * CHUNK,
+                    500 + random.nextInt(5000));
+            assertEquals(0, RoaringPostings.of(x).bitmapChunks());
+            assertArrayEquals(Postings.and(x, y), RoaringPostings.and(
+                    RoaringPostings.of(x), RoaringPostings.of(y)).toArray());
+            assertArrayEquals(Postings.and(x, y), RoaringPostings.and(
+                    RoaringPostings.of(y), RoaringPostings.of(x)).toArray());
+        }
+    }
+
+    @Test
+    public void testGallop() {
+        char[] low = {2, 4, 6, 8, 10, 65535};
+        assertEquals(0, RoaringPostings.gallop(low, 0, (char) 0));
+        assertEquals(2, RoaringPostings.gallop(low, 0, (char) 5));
+        assertEquals(3, RoaringPostings.gallop(low, 3, (char) 5));
+        assertEquals(5, RoaringPostings.gallop(low, 1, (char) 11));
+        assertEquals(5, RoaringPostings.gallop(low, 0, (char) 65535));
+        assertEquals(6, RoaringPostings.gallop(low, 6, (char) 3));
+    }
+
+    @Test
+    public void testResultsChangeContainers() {
+        //two dense chunks whose AND is sparse becomes an array
+        RoaringPostings evens = RoaringPostings.of(range(0, CHUNK, 2));
+        RoaringPostings odds = RoaringPostings.of(range(1, CHUNK, 2));
+        RoaringPostings none = RoaringPostings.and(evens, odds);
+        assertEquals(0, none.size());
+        assertEquals(0, none.bitmapChunks());
+        //two sparse chunks whose OR is dense becomes a bitmap
+        RoaringPostings low = RoaringPostings.of(range(0, MAX, 1));
+        RoaringPostings high = RoaringPostings.of(range(MAX, 2 * MAX, 1));
+        RoaringPostings both = RoaringPostings.or(low, high);
+        assertEquals(2 * MAX, both.size());
+        assertEquals(1, both.bitmapChunks());
+        assertArrayEquals(range(0, 2 * MAX, 1), both.toArray());
+    }
+
+    @Test
+    public void testDenseListsAreSmall() {
+        int[] docs = range(0, 16 * CHUNK, 2);
+        RoaringPostings p = RoaringPostings.of(docs);
+        assertEquals(16, p.bitmapChunks());
+        assertTrue(p.bytes() < CompressedPostings.of(docs).bytes());
+        assertTrue(p.bytes() < docs.length * Integer.BYTES / 10);
+    }
+
+    @Test
+    public void testBytesRoundTrip() {
+        Random random = new Random(226);
+        for (int round = 0; round < 10; round++) {
+            int[] docs = mixed(random, 5);
+            RoaringPostings p = RoaringPostings.of(docs);
+            byte[] bytes = p.toBytes();
+            ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 10);
+            buffer.position(3);
+            buffer.put(bytes);
+            assertArrayEquals(docs, RoaringPostings.fromBytes(buffer, 3,
+                    bytes.length).toArray());
+        }
+    }
+
+    @Test
+    public void testCodec() {
+        int[] dense = range(0, CHUNK, 3);
+        int[] sparse = {2, 40, 900};
+        PostingList[] lists = {RoaringPostings.of(dense),
+            CompressedPostings.of(sparse), Postings.of(sparse)};
+        for (PostingList p : lists) {
+            byte[] bytes = Codec.POSTINGS.encode(p);
+            PostingList q = Codec.POSTINGS.decode(ByteBuffer.wrap(bytes), 0,
+                    bytes.length);
+            assertArrayEquals(p.toArray(), q.toArray());
+            assertEquals(p instanceof RoaringPostings,
+                    q instanceof RoaringPostings);
+        }
+    }
+}
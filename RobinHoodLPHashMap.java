@@ -0,0 +1,253 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+/** Linear probe hash map using Robin Hood insertion: an entry being
+ *  placed takes the slot of any entry that is closer to its own home,
+ *  which keeps every probe distance close to the mean. Removal shifts
+ *  the rest of the cluster back one slot instead of leaving a
+ *  tombstone, so ghosts() is always 0 and gets never walk past dead
+ *  slots. Sizing and load rules are the same as LPHashMap.
+ *  @author Ryan Demo
+ *  @param <K> the base type of the keys
+ *  @param <V> the base type of the values
+ */
+public class RobinHoodLPHashMap<K, V> extends LPHashMap<K, V> {
+
+    /** Keys, by slot; null marks an empty slot. */
+    private Object[] keys;
+
+    /** Values, by slot. */
+    private Object[] vals;
+
+    /** Cached hash of each slot's key. */
+    private int[] hashes;
+
+    /** Distance of each slot's entry from its home slot. */
+    private int[] dists;
+
+    /** Create an empty Robin Hood hash map with capacity 5.
+     *  @param max the maximum load factor, 0 < maxLoad < 1, so that
+     *  there is always an empty slot to end a cluster
+     *  @throws IllegalArgumentException if max is not in range
+     */
+    public RobinHoodLPHashMap(float max) throws IllegalArgumentException {
+        this(max, 0);
+    }
+
+    /** Create an empty Robin Hood hash map big enough to hold a number
+     *  of entries without rehashing.
+     *  @param max the maximum load factor, 0 < maxLoad < 1
+     *  @param expectedSize the number of entries expected, >= 0
+     *  @throws IllegalArgumentException if max is not in range
+     */
+    public RobinHoodLPHashMap(float max, int expectedSize)
+            throws IllegalArgumentException {
+        this(max, expectedSize, HashStrategy.PRIME_MODULO);
+    }
+
+    /** Create an empty Robin Hood hash map big enough to hold a number
+     *  of entries without rehashing, hashing keys with a given strategy.
+     *  @param max the maximum load factor, 0 < maxLoad < 1
+     *  @param expectedSize the number of entries expected, >= 0
+     *  @param strategy the hash function and table sizing to use
+     *  @throws IllegalArgumentException if max is not in range
+     */
+    public RobinHoodLPHashMap(float max, int expectedSize,
+            HashStrategy strategy) throws IllegalArgumentException {
+        super(max, expectedSize, strategy);
+        if (!(max > 0 && max < 1)) {
+            throw new IllegalArgumentException("max load must be in (0, 1)");
+        }
+        this.entries = null; //slots live in the parallel arrays instead
+        this.allocate(this.getCapacity());
+    }
+
+    /** Replace the table with empty arrays of a given size.
+     *  @param cap the number of slots
+     */
+    private void allocate(int cap) {
+        this.keys = new Object[cap];
+        this.vals = new Object[cap];
+        this.hashes = new int[cap];
+        this.dists = new int[cap];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    K keyAt(int index) {
+        return (K) this.keys[index];
+    }
+
+    @Override
+    boolean isLive(int index) {
+        return this.keys[index] != null;
+    }
+
+    /** Start walks over the table just after an empty slot, which no
+     *  backward shift can cross, so removing during a walk only ever
+     *  moves unvisited entries back into the current slot and never
+     *  wraps a visited entry around to the end.
+     *  @return the slot after the first empty slot
+     */
+    @Override
+    int firstSlot() {
+        int empty = 0;
+        while (this.keys[empty] != null) {
+            empty++;
+        }
+        return empty + 1 == this.keys.length ? 0 : empty + 1;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    V valueAt(int index) {
+        return (V) this.vals[index];
+    }
+
+    @Override
+    void setValueAt(int index, V value) {
+        this.vals[index] = value;
+    }
+
+    /** Add an entry for a key that findSlot did not find, carrying on
+     *  the Robin Hood walk from where findSlot stopped.
+     *  @param slot what findSlot(key, hash) returned
+     *  @param key the key for the entry
+     *  @param hash the key's hash
+     *  @param value the value for the entry
+     */
+    @Override
+    void insertAt(int slot, K key, int hash, V value) {
+        if (this.makeRoom()) {
+            slot = this.findSlot(key, hash);
+        }
+        int index = -slot - 1;
+        int cap = this.keys.length;
+        int home = this.strategy.index(hash, cap);
+        this.place(index, (index - home + cap) % cap, key, value, hash);
+    }
+
+    /** Place an entry known not to be in the table, starting the Robin
+     *  Hood walk at a given slot and distance. Any entry found closer
+     *  to home than the one being carried is swapped out and carried on.
+     *  @param index the slot to start at
+     *  @param dist the distance of index from the entry's home slot
+     *  @param key the key
+     *  @param value the value
+     *  @param hash the key's hash
+     */
+    private void place(int index, int dist, Object key, Object value,
+            int hash) {
+        int cap = this.keys.length;
+        while (this.keys[index] != null) {
+            if (this.dists[index] < dist) {
+                //resident is richer, so it gives up the slot
+                Object k = this.keys[index];
+                Object v = this.vals[index];
+                int h = this.hashes[index];
+                int d = this.dists[index];
+                this.keys[index] = key;
+                this.vals[index] = value;
+                this.hashes[index] = hash;
+                this.dists[index] = dist;
+                key = k;
+                value = v;
+                hash = h;
+                dist = d;
+            }
+            index = (index + 1 == cap) ? 0 : index + 1;
+            dist++;
+        }
+        this.keys[index] = key;
+        this.vals[index] = value;
+        this.hashes[index] = hash;
+        this.dists[index] = dist;
+    }
+
+    @Override
+    public void rehash(int cap) {
+        this.modCount++;
+        Object[] oldKeys = this.keys;
+        Object[] oldVals = this.vals;
+        int[] oldHashes = this.hashes;
+        this.allocate(cap);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                this.place(this.strategy.index(oldHashes[i], cap), 0,
+                        oldKeys[i], oldVals[i], oldHashes[i]);
+            }
+        }
+        this.capacity = cap;
+        this.tombstones = 0;
+    }
+
+    /** Find the slot holding a key. The walk stops as soon as it reaches
+     *  an empty slot or an entry closer to home than the key would be,
+     *  since Robin Hood placement would have put the key there.
+     *  @param key the key being searched for
+     *  @param hash the key's hash, as computed by hash(key)
+     *  @return the index of the key's slot, or (-(stopping slot) - 1),
+     *  which is where the key would be inserted
+     */
+    @Override
+    int findSlot(K key, int hash) {
+        Object[] ks = this.keys;
+        int cap = ks.length;
+        int index = this.strategy.index(hash, cap);
+        for (int dist = 0; ks[index] != null && this.dists[index] >= dist;
+                dist++) {
+            if (this.hashes[index] == hash && ks[index].equals(key)) {
+                return index;
+            }
+            index = (index + 1 == cap) ? 0 : index + 1;
+        }
+        return -index - 1;
+    }
+
+    @Override
+    LPMapEntry<K, V> slotAt(int index) {
+        if (this.keys[index] == null) {
+            return null;
+        }
+        return new LPMapEntry<K, V>(this.keyAt(index), this.valueAt(index));
+    }
+
+    /** Remove the entry in a slot by shifting the entries after it in
+     *  the cluster back one slot each, up to the next empty slot or
+     *  entry already at home.
+     *  @param index the slot, which must hold an entry
+     */
+    @Override
+    void removeAt(int index) {
+        int cap = this.keys.length;
+        int next = (index + 1 == cap) ? 0 : index + 1;
+        while (this.keys[next] != null && this.dists[next] > 0) {
+            this.keys[index] = this.keys[next];
+            this.vals[index] = this.vals[next];
+            this.hashes[index] = this.hashes[next];
+            this.dists[index] = this.dists[next] - 1;
+            index = next;
+            next = (next + 1 == cap) ? 0 : next + 1;
+        }
+        this.keys[index] = null;
+        this.vals[index] = null;
+        this.numElements--;
+    }
+
+    @Override
+    int probeDistance(int index) {
+        return this.dists[index];
+    }
+
+    @Override
+    public void clear() {
+        this.modCount++;
+        this.clearValueIndex();
+        this.numElements = 0;
+        this.allocate(this.getCapacity());
+    }
+}
@@ -0,0 +1,255 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+*/
+
+/** TESTS for RobinHoodLPHashMap
+ *  Explicit tests for contents against java.util.HashMap under random
+ *  put/remove, backward shift deletion (no tombstones), the Robin Hood
+ *  probe distance invariant, iterator and key view removal, setValue
+ *  on entries whose slots have shifted since, and
+ *  merge/compute against java.util.HashMap.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class RobinHoodLPHashMapTest {
+
+    RobinHoodLPHashMap<Integer, String> rh;
+
+    @Before
+    public void setup() {
+        rh = new RobinHoodLPHashMap<Integer, String>(.7f);
+    }
+
+    /** Check that each entry is no more than one slot further from home
+     *  than the entry before it, which is what Robin Hood placement
+     *  plus backward shift deletion guarantees.
+     */
+    private void assertRobinHoodInvariant(RobinHoodLPHashMap<Integer, String> m) {
+        int cap = m.getCapacity();
+        for (int i = 0; i < cap; i++) {
+            int next = (i + 1) % cap;
+            if (m.slotAt(next) != null) {
+                int prev = m.slotAt(i) == null ? -1 : m.probeDistance(i);
+                assertTrue("slot " + next, m.probeDistance(next) <= prev + 1);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFullLoadRejected() {
+        new RobinHoodLPHashMap<Integer, String>(1.0f);
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        assertNull(rh.put(0, "0"));
+        assertNull(rh.put(5, "5"));   // same home slot as 0
+        assertNull(rh.put(10, "10")); // and again, grows table
+        assertEquals("0", rh.put(0, "zero"));
+        assertEquals(3, rh.size());
+        assertEquals("zero", rh.get(0));
+        assertEquals("5", rh.get(5));
+        assertEquals("10", rh.get(10));
+        assertTrue(rh.hasKey(5));
+        assertTrue(rh.hasValue("10"));
+        assertEquals("5", rh.remove(5));
+        assertNull(rh.remove(5));
+        assertFalse(rh.hasKey(5));
+        assertEquals(0, rh.ghosts());
+        assertEquals("10", rh.get(10));
+        assertEquals(2, rh.size());
+    }
+
+    @Test
+    public void testBackwardShift() {
+        RobinHoodLPHashMap<Integer, String> m =
+            new RobinHoodLPHashMap<Integer, String>(.9f);
+        m.put(0, "0");   // slot 0
+        m.put(5, "5");   // home 0, slot 1
+        m.put(10, "10"); // home 0, slot 2
+        m.put(1, "1");   // home 1, displaced to slot 3
+        assertEquals(5, m.getCapacity());
+        assertEquals(2, m.maxProbeDistance());
+        assertEquals(1.25, m.meanProbeDistance(), 1e-9);
+        m.remove(0);
+        // everyone after slot 0 moves back one
+        assertEquals(new LPMapEntry<Integer, String>(5, "5"), m.slotAt(0));
+        assertEquals(new LPMapEntry<Integer, String>(10, "10"), m.slotAt(1));
+        assertEquals(new LPMapEntry<Integer, String>(1, "1"), m.slotAt(2));
+        assertNull(m.slotAt(3));
+        assertEquals(0, m.ghosts());
+        assertEquals(1, m.maxProbeDistance());
+        assertEquals(2.0 / 3, m.meanProbeDistance(), 1e-9);
+        assertRobinHoodInvariant(m);
+    }
+
+    @Test
+    public void testRandomAgainstHashMap() {
+        HashMap<Integer, String> expected = new HashMap<Integer, String>();
+        Random random = new Random(226);
+        for (int i = 0; i < 20000; i++) {
+            // clustered keys, many sharing home slots
+            int key = random.nextInt(500) * 7;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), rh.remove(key));
+            } else {
+                assertEquals(expected.put(key, "v" + i), rh.put(key, "v" + i));
+            }
+            assertEquals(expected.size(), rh.size());
+        }
+        assertEquals(expected.keySet(), rh.keys());
+        for (Integer key : expected.keySet()) {
+            assertEquals(expected.get(key), rh.get(key));
+        }
+        assertEquals(0, rh.ghosts());
+        assertTrue(rh.getLoad() <= rh.getMaxLoad());
+        assertRobinHoodInvariant(rh);
+    }
+
+    @Test
+    public void testMergeComputeAgainstHashMap() {
+        HashMap<Integer, String> expected = new HashMap<Integer, String>();
+        Random random = new Random(227);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(500) * 7;
+            String v = "" + (i % 3);
+            switch (random.nextInt(3)) {
+                case 0:
+                    // removes once a key's value grows long
+                    assertEquals(expected.merge(key, v, (a, b) ->
+                            a.length() > 3 ? null : a + b),
+                        rh.merge(key, v, (a, b) ->
+                            a.length() > 3 ? null : a + b));
+                    break;
+                case 1:
+                    assertEquals(expected.computeIfAbsent(key, k -> v),
+                        rh.computeIfAbsent(key, k -> v));
+                    break;
+                default:
+                    assertEquals(expected.compute(key, (k, a) ->
+                            a == null || a.length() > 1 ? null : a + v),
+                        rh.compute(key, (k, a) ->
+                            a == null || a.length() > 1 ? null : a + v));
+                    break;
+            }
+            assertEquals(expected.size(), rh.size());
+        }
+        assertEquals(expected.keySet(), rh.keys());
+        for (Integer key : expected.keySet()) {
+            assertEquals(expected.get(key), rh.get(key));
+        }
+        assertRobinHoodInvariant(rh);
+    }
+
+    @Test
+    public void testProbeDistanceVersusLinearProbing() {
+        LPHashMap<Integer, String> lp = new LPHashMap<Integer, String>(.7f);
+        Random random = new Random(600);
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(1 << 20);
+            lp.put(key, "");
+            rh.put(key, "");
+        }
+        assertEquals(lp.size(), rh.size());
+        // same entries in same size table, so same total displacement
+        assertEquals(lp.meanProbeDistance(), rh.meanProbeDistance(), 1e-9);
+        assertTrue(rh.maxProbeDistance() <= lp.maxProbeDistance());
+    }
+
+    @Test
+    public void testIteratorRemoveAll() {
+        HashSet<Integer> keys = new HashSet<Integer>();
+        for (int i = 0; i < 50; i++) {
+            rh.put(i * 3, "" + i);  // wraps clusters around the table end
+            keys.add(i * 3);
+        }
+        HashSet<Integer> seen = new HashSet<Integer>();
+        Iterator<LPMapEntry<Integer, String>> it = rh.iterator();
+        while (it.hasNext()) {
+            LPMapEntry<Integer, String> e = it.next();
+            assertTrue("no entry seen twice", seen.add(e.getKey()));
+            if (e.getKey() % 2 == 0) {
+                it.remove();
+            }
+        }
+        assertEquals(keys, seen);
+        for (Integer key : keys) {
+            assertEquals(key % 2 != 0, rh.hasKey(key));
+        }
+        assertRobinHoodInvariant(rh);
+    }
+
+    @Test
+    public void testKeyViewRemove() {
+        HashSet<Integer> keys = new HashSet<Integer>();
+        for (int i = 0; i < 50; i++) {
+            rh.put(i * 3, "" + i);
+            keys.add(i * 3);
+        }
+        HashSet<Integer> seen = new HashSet<Integer>();
+        Iterator<Integer> it = rh.keys().iterator();
+        while (it.hasNext()) {
+            Integer key = it.next();
+            assertTrue("no key seen twice", seen.add(key));
+            if (key % 2 == 0) {
+                it.remove();  // shifts later keys back under the iterator
+            }
+        }
+        assertEquals(keys, seen);
+        assertEquals(25, rh.keys().size());
+        for (Integer key : rh.keys()) {
+            assertTrue(key % 2 != 0);
+        }
+        assertRobinHoodInvariant(rh);
+    }
+
+    @Test
+    public void testEntrySetValueAfterShift() {
+        for (int i = 0; i < 50; i++) {
+            rh.put(i * 5, "" + i);  // long clusters
+        }
+        List<LPMapEntry<Integer, String>> entries =
+            rh.stream().collect(Collectors.toList());
+        for (int i = 0; i < 25; i++) {
+            rh.remove(entries.get(i).getKey());  // shifts the rest back
+        }
+        for (int i = 25; i < 50; i++) {
+            entries.get(i).setValue("x");
+        }
+        assertEquals(25, rh.size());
+        for (LPMapEntry<Integer, String> e : rh) {
+            assertEquals("x", e.getValue());
+        }
+        assertRobinHoodInvariant(rh);
+    }
+
+    @Test
+    public void testClear() {
+        for (int i = 0; i < 20; i++) {
+            rh.put(i, "" + i);
+        }
+        int cap = rh.getCapacity();
+        rh.clear();
+        assertTrue(rh.isEmpty());
+        assertEquals(cap, rh.getCapacity());
+        assertTrue(rh.keys().isEmpty());
+        assertFalse(rh.iterator().hasNext());
+        assertNull(rh.get(3));
+    }
+}
@@ -0,0 +1,359 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+import java.util.Arrays;
+
+/** Open addressing hash map in the style of SwissTable: beside its
+ *  keys and values it keeps one control byte per slot, which is EMPTY,
+ *  DELETED, or for a live entry the low 7 bits of its key's hash.
+ *  Slots come in aligned groups of eight whose control bytes are
+ *  packed into one long, so a probe reads a whole group at once and
+ *  finds the slots whose fragment matches with a few word operations
+ *  (SWAR, SIMD within a register). Keys are only compared on a match,
+ *  which a different key makes 1 time in 128, so loads as high as
+ *  DEFAULT_MAX_LOAD stay cheap. Probing moves linearly from group to
+ *  group and stops at the first group with an EMPTY slot.
+ *  The table must be a power of two of at least one group, so the
+ *  default strategy is HashStrategy.mixed(). The 7 bit fragment and
+ *  the group come from different bits of the hash, which leaves 24
+ *  bits for the group, enough for 2^27 slots.
+ *  Removing an entry from a group that still has an EMPTY slot leaves
+ *  no tombstone, since no probe can have gone past that group.
+ *  @author Ryan Demo
+ *  @param <K> the base type of the keys
+ *  @param <V> the base type of the values
+ */
+public class SwissLPHashMap<K, V> extends LPHashMap<K, V> {
+
+    /** Max load this layout is meant to run at. */
+    public static final float DEFAULT_MAX_LOAD = 0.875f;
+
+    /** Slots per group, the bytes in a long. */
+    static final int GROUP = Long.BYTES;
+
+    /** log2(GROUP). */
+    static final int GROUP_SHIFT = 3;
+
+    /** Hash bits kept in a live slot's control byte. */
+    static final int H2_BITS = 7;
+
+    /** Mask for the hash fragment. */
+    static final int H2_MASK = (1 << H2_BITS) - 1;
+
+    /** Control byte of a slot that has never held an entry. */
+    static final int EMPTY = 0x80;
+
+    /** Control byte of a slot whose entry was removed. */
+    static final int DELETED = 0xFE;
+
+    /** Mask of one control byte. */
+    private static final long BYTE = 0xFFL;
+
+    /** The low bit of every byte. */
+    private static final long LSBS = 0x0101010101010101L;
+
+    /** The high bit of every byte. */
+    private static final long MSBS = 0x8080808080808080L;
+
+    /** A group of EMPTY slots. */
+    private static final long EMPTY_GROUP = LSBS * EMPTY;
+
+    /** Shift that moves bit 1 of each control byte up to bit 7. */
+    private static final int EMPTY_SHIFT = 6;
+
+    /** Keys, by slot; null unless the slot is live. */
+    private Object[] keys;
+
+    /** Values, by slot. */
+    private Object[] vals;
+
+    /** Control bytes, GROUP to a long; byte i of a long is slot i of
+     *  its group, counting from the low end. */
+    private long[] ctrl;
+
+    /** Create an empty Swiss table with the smallest capacity.
+     *  @param max the maximum load factor, 0 < maxLoad < 1
+     *  @throws IllegalArgumentException if max is not in range
+     */
+    public SwissLPHashMap(float max) throws IllegalArgumentException {
+        this(max, 0);
+    }
+
+    /** Create an empty Swiss table big enough to hold a number of
+     *  entries without rehashing.
+     *  @param max the maximum load factor, 0 < maxLoad < 1
+     *  @param expectedSize the number of entries expected, >= 0
+     *  @throws IllegalArgumentException if max is not in range
+     */
+    public SwissLPHashMap(float max, int expectedSize)
+            throws IllegalArgumentException {
+        this(max, expectedSize, HashStrategy.mixed());
+    }
+
+    /** Create an empty Swiss table big enough to hold a number of
+     *  entries without rehashing, hashing keys with a given strategy.
+     *  @param max the maximum load factor, 0 < maxLoad < 1
+     *  @param expectedSize the number of entries expected, >= 0
+     *  @param strategy the hash function and table sizing to use; must
+     *  only allow power of two capacities
+     *  @throws IllegalArgumentException if max is not in range or the
+     *  strategy gives a capacity that is not a power of two
+     */
+    public SwissLPHashMap(float max, int expectedSize,
+            HashStrategy strategy) throws IllegalArgumentException {
+        super(max, expectedSize, strategy);
+        if (!(max > 0 && max < 1)) {
+            throw new IllegalArgumentException("max load must be in (0, 1)");
+        }
+        this.entries = null; //slots live in the parallel arrays instead
+        this.capacity = this.groupCapacity(this.getCapacity());
+        this.allocate(this.getCapacity());
+    }
+
+    /** Check a capacity from the strategy and make it at least a group.
+     *  @param cap the capacity
+     *  @return the capacity to use
+     *  @throws IllegalArgumentException if cap is not a power of two
+     */
+    private int groupCapacity(int cap) {
+        if (Integer.bitCount(cap) != 1) {
+            throw new IllegalArgumentException(
+                    "capacity must be a power of two: " + cap);
+        }
+        return Math.max(GROUP, cap);
+    }
+
+    /** Replace the table with empty arrays of a given size.
+     *  @param cap the number of slots, a power of two >= GROUP
+     */
+    private void allocate(int cap) {
+        this.keys = new Object[cap];
+        this.vals = new Object[cap];
+        this.ctrl = new long[cap >>> GROUP_SHIFT];
+        Arrays.fill(this.ctrl, EMPTY_GROUP);
+    }
+
+    /** Get a slot's control byte.
+     *  @param index the slot
+     *  @return the byte, 0 to 255
+     */
+    private int ctrlAt(int index) {
+        return (int) (this.ctrl[index >>> GROUP_SHIFT]
+                >>> ((index & (GROUP - 1)) << GROUP_SHIFT) & BYTE);
+    }
+
+    /** Set a slot's control byte.
+     *  @param index the slot
+     *  @param c the byte, 0 to 255
+     */
+    private void setCtrl(int index, int c) {
+        int word = index >>> GROUP_SHIFT;
+        int shift = (index & (GROUP - 1)) << GROUP_SHIFT;
+        this.ctrl[word] = (this.ctrl[word] & ~(BYTE << shift))
+                | ((long) c << shift);
+    }
+
+    /** Get the slots of a group whose control byte is a given fragment.
+     *  May also flag a live slot just above a true match, so matches
+     *  are only hints until the key is compared.
+     *  @param group the group's control bytes
+     *  @param h2 the fragment
+     *  @return the high bit set in each matching byte
+     */
+    private static long match(long group, int h2) {
+        long x = group ^ (LSBS * h2);
+        return (x - LSBS) & ~x & MSBS;
+    }
+
+    /** Get the EMPTY slots of a group.
+     *  @param group the group's control bytes
+     *  @return the high bit set in each EMPTY byte
+     */
+    private static long matchEmpty(long group) {
+        //EMPTY is the only byte with bit 7 set and bit 1 clear
+        return group & (~group << EMPTY_SHIFT) & MSBS;
+    }
+
+    /** Get the slot of the lowest flagged byte of a match.
+     *  @param group the group
+     *  @param match a nonzero match of that group
+     *  @return the slot
+     */
+    private static int slotOf(int group, long match) {
+        return (group << GROUP_SHIFT)
+                | (Long.numberOfTrailingZeros(match) >>> GROUP_SHIFT);
+    }
+
+    /** Get the group probing for a hash starts from.
+     *  @param hash the hash
+     *  @param groups the number of groups, a power of two
+     *  @return the home group
+     */
+    private static int homeGroup(int hash, int groups) {
+        return (hash >>> H2_BITS) & (groups - 1);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    K keyAt(int index) {
+        return (K) this.keys[index];
+    }
+
+    @Override
+    boolean isLive(int index) {
+        return this.ctrlAt(index) < EMPTY;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    V valueAt(int index) {
+        return (V) this.vals[index];
+    }
+
+    @Override
+    void setValueAt(int index, V value) {
+        this.vals[index] = value;
+    }
+
+    @Override
+    void insertAt(int slot, K key, int hash, V value) {
+        if (this.makeRoom()) {
+            slot = this.findSlot(key, hash);
+        }
+        int index = -slot - 1;
+        if (this.ctrlAt(index) == DELETED) {
+            this.tombstones--;
+        }
+        this.keys[index] = key;
+        this.vals[index] = value;
+        this.setCtrl(index, hash & H2_MASK);
+    }
+
+    @Override
+    public void rehash(int cap) {
+        this.modCount++;
+        cap = this.groupCapacity(this.strategy.capacityFor(cap));
+        Object[] oldKeys = this.keys;
+        Object[] oldVals = this.vals;
+        long[] oldCtrl = this.ctrl;
+        this.allocate(cap);
+        int groups = this.ctrl.length;
+        for (int i = 0; i < oldKeys.length; i++) {
+            int c = (int) (oldCtrl[i >>> GROUP_SHIFT]
+                    >>> ((i & (GROUP - 1)) << GROUP_SHIFT) & BYTE);
+            if (c < EMPTY) {
+                //the new table has no tombstones, so any free slot is empty
+                int hash = this.hash(oldKeys[i]);
+                int g = homeGroup(hash, groups);
+                long free = this.ctrl[g] & MSBS;
+                while (free == 0) {
+                    g = (g + 1) & (groups - 1);
+                    free = this.ctrl[g] & MSBS;
+                }
+                int index = slotOf(g, free);
+                this.keys[index] = oldKeys[i];
+                this.vals[index] = oldVals[i];
+                this.setCtrl(index, hash & H2_MASK);
+            }
+        }
+        this.capacity = cap;
+        this.tombstones = 0;
+    }
+
+    @Override
+    int findSlot(K key, int hash) {
+        long[] c = this.ctrl;
+        int groups = c.length;
+        int g = homeGroup(hash, groups);
+        int h2 = hash & H2_MASK;
+        int reusable = -1;
+        for (int probe = 0; probe < groups; probe++) {
+            long group = c[g];
+            for (long m = match(group, h2); m != 0; m &= m - 1) {
+                int index = slotOf(g, m);
+                if (this.keys[index].equals(key)) {
+                    return index;
+                }
+            }
+            if (reusable < 0 && (group & MSBS) != 0) {
+                reusable = slotOf(g, group & MSBS);
+            }
+            if (matchEmpty(group) != 0) {
+                return -reusable - 1;
+            }
+            g = (g + 1) & (groups - 1);
+        }
+        return -(reusable < 0 ? this.keys.length : reusable) - 1;
+    }
+
+    /** Slots are placed by group, not along linear probe paths.
+     *  @return false
+     */
+    @Override
+    boolean linearSlots() {
+        return false;
+    }
+
+    @Override
+    LPMapEntry<K, V> slotAt(int index) {
+        int c = this.ctrlAt(index);
+        if (c == EMPTY) {
+            return null;
+        }
+        //a DELETED slot's key and value are cleared, and a null key
+        //already makes the entry a tombstone
+        return new LPMapEntry<K, V>(this.keyAt(index), this.valueAt(index));
+    }
+
+    @Override
+    void removeAt(int index) {
+        this.keys[index] = null;
+        this.vals[index] = null;
+        this.numElements--;
+        if (matchEmpty(this.ctrl[index >>> GROUP_SHIFT]) != 0) {
+            //probes stop in this group anyway, so no tombstone needed
+            this.setCtrl(index, EMPTY);
+        } else {
+            this.setCtrl(index, DELETED);
+            this.tombstones++;
+        }
+    }
+
+    /** Get how many groups past its home group a live entry sits.
+     *  @param index the slot holding the entry
+     *  @return the number of groups probed past the home group
+     */
+    @Override
+    int probeDistance(int index) {
+        return this.groupDistance(index, this.hash(this.keys[index]));
+    }
+
+    @Override
+    int probeLength(int slot, int hash) {
+        return this.groupDistance(slot >= 0 ? slot : -slot - 1, hash);
+    }
+
+    /** Get how many groups a slot is past a hash's home group.
+     *  @param index the slot
+     *  @param hash the hash
+     *  @return the distance in groups
+     */
+    private int groupDistance(int index, int hash) {
+        int groups = this.ctrl.length;
+        return ((index >>> GROUP_SHIFT) - homeGroup(hash, groups))
+                & (groups - 1);
+    }
+
+    @Override
+    public void clear() {
+        this.modCount++;
+        this.clearValueIndex();
+        this.numElements = 0;
+        this.tombstones = 0;
+        this.allocate(this.getCapacity());
+    }
+}
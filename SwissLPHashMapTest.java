@@ -0,0 +1,197 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+*/
+
+/** TESTS for SwissLPHashMap
+ *  Explicit tests of contents, overwrite and remove, power of two
+ *  capacities of at least one group, prime modulo strategies rejected,
+ *  removes leaving no tombstone while the group has an EMPTY slot but
+ *  leaving one in a full group, keys whose hashes share a fragment
+ *  and a home group, and live views, setValue through them and
+ *  freezing over the control bytes. Contents against java.util.HashMap under random
+ *  put/remove/merge at the default max load of 0.875.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Random;
+
+public class SwissLPHashMapTest {
+
+    SwissLPHashMap<Integer, String> sw;
+
+    /** Strategy whose hash is just hashCode, so tests can aim keys at
+     *  groups (hash >>> 7) and fragments (hash & 127). */
+    static final HashStrategy IDENTITY = new HashStrategy() {
+        public int hash(Object key) {
+            return key.hashCode() & Integer.MAX_VALUE;
+        }
+
+        public int index(int hash, int capacity) {
+            return hash & (capacity - 1);
+        }
+
+        public int capacityFor(int lowerBound) {
+            return HashStrategy.mixed().capacityFor(lowerBound);
+        }
+    };
+
+    /** Make a key with a given home group and fragment.
+     *  @param group the home group in a table of 2 groups or more
+     *  @param h2 the fragment, 0 to 127
+     *  @param n tells keys with the same group and fragment apart
+     */
+    static int key(int group, int h2, int n) {
+        return ((n * 2 + group) << 7) | h2;
+    }
+
+    @Before
+    public void setup() {
+        sw = new SwissLPHashMap<Integer, String>(
+            SwissLPHashMap.DEFAULT_MAX_LOAD);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFullLoadRejected() {
+        new SwissLPHashMap<Integer, String>(1.0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPrimeStrategyRejected() {
+        new SwissLPHashMap<Integer, String>(.5f, 0,
+                                            HashStrategy.PRIME_MODULO);
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        assertEquals(SwissLPHashMap.GROUP, sw.getCapacity());
+        for (int i = 0; i < 1000; i++) {
+            assertNull(sw.put(i, "" + i));
+            assertTrue(Integer.bitCount(sw.getCapacity()) == 1);
+            assertTrue(sw.getLoad() <= SwissLPHashMap.DEFAULT_MAX_LOAD);
+        }
+        assertEquals(1000, sw.size());
+        assertEquals(2048, sw.getCapacity());  // 1000 / 0.875 > 1024
+        assertEquals("7", sw.put(7, "seven"));
+        assertEquals("seven", sw.get(7));
+        assertTrue(sw.hasKey(999));
+        assertFalse(sw.hasKey(1000));
+        assertNull(sw.get(-1));
+        for (int i = 0; i < 1000; i += 2) {
+            assertEquals("" + i, sw.remove(i));
+        }
+        assertNull(sw.remove(0));
+        assertEquals(500, sw.size());
+        assertEquals(500, sw.keys().size());
+        sw.clear();
+        assertTrue(sw.isEmpty());
+        assertNull(sw.get(1));
+        assertEquals(0, sw.ghosts());
+    }
+
+    @Test
+    public void testTombstonesOnlyInFullGroups() {
+        SwissLPHashMap<Integer, String> m =
+            new SwissLPHashMap<Integer, String>(.9f, 14, IDENTITY);
+        assertEquals(16, m.getCapacity());  // two groups
+        // fill group 0 with eight keys sharing its fragment
+        for (int n = 0; n < 8; n++) {
+            m.put(key(0, 5, n), "g0-" + n);
+        }
+        // a ninth overflows into group 1
+        m.put(key(0, 5, 8), "g0-8");
+        assertEquals(1, m.maxProbeDistance());  // in groups
+        assertEquals("g0-8", m.get(key(0, 5, 8)));
+        // removing from the full group must leave a tombstone, or the
+        // probe for the ninth key would stop at the hole
+        assertEquals("g0-3", m.remove(key(0, 5, 3)));
+        assertEquals(1, m.ghosts());
+        assertEquals("g0-8", m.get(key(0, 5, 8)));
+        // group 1 has EMPTY slots, so removing there leaves none
+        m.put(key(1, 9, 0), "g1");
+        assertEquals("g1", m.remove(key(1, 9, 0)));
+        assertEquals(1, m.ghosts());
+        // the tombstone is reused by the next insert probing group 0
+        m.put(key(0, 6, 0), "reuse");
+        assertEquals(0, m.ghosts());
+        assertEquals("reuse", m.get(key(0, 6, 0)));
+        assertEquals(9, m.size());
+    }
+
+    @Test
+    public void testSharedFragments() {
+        SwissLPHashMap<Integer, String> m =
+            new SwissLPHashMap<Integer, String>(.875f, 0, IDENTITY);
+        // every key has fragment 0, so every group scan matches them all
+        // and only the key comparison tells them apart
+        for (int n = 0; n < 500; n++) {
+            m.put(n << 7, "" + n);
+        }
+        for (int n = 0; n < 500; n++) {
+            assertEquals("" + n, m.get(n << 7));
+            assertNull(m.get((n << 7) | 1));
+        }
+    }
+
+    @Test
+    public void testViewsAndFreeze() {
+        for (int i = 0; i < 100; i++) {
+            sw.put(i, "" + i);
+        }
+        Iterator<Integer> it = sw.keys().iterator();
+        while (it.hasNext()) {
+            if (it.next() % 2 == 0) {
+                it.remove();
+            }
+        }
+        assertEquals(50, sw.size());
+        assertFalse(sw.hasKey(2));
+        assertTrue(sw.values().contains("3"));
+        sw.entries().forEach(e -> e.setValue(e.getValue() + "!"));
+        assertEquals("3!", sw.get(3));
+        assertFalse(sw.values().contains("3"));
+        FrozenHashMap<Integer, String> f = sw.freeze();
+        assertEquals(sw.entries(), f.entries());
+        assertEquals(50, sw.stream().count());
+    }
+
+    @Test
+    public void testRandomAgainstHashMap() {
+        HashMap<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        SwissLPHashMap<Integer, Integer> m =
+            new SwissLPHashMap<Integer, Integer>(
+                SwissLPHashMap.DEFAULT_MAX_LOAD);
+        Random random = new Random(226);
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(20000) - 10000;
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.remove(key), m.remove(key));
+                    break;
+                case 1:
+                    assertEquals(expected.merge(key, i, Integer::sum),
+                                 m.merge(key, i, Integer::sum));
+                    break;
+                default:
+                    assertEquals(expected.put(key, i), m.put(key, i));
+                    break;
+            }
+        }
+        assertEquals(expected.size(), m.size());
+        for (Integer key : expected.keySet()) {
+            assertEquals(expected.get(key), m.get(key));
+        }
+        assertEquals(expected.keySet(), m.keys());
+        assertTrue(m.getLoad() <= SwissLPHashMap.DEFAULT_MAX_LOAD);
+    }
+}
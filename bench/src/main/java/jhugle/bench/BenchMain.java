@@ -0,0 +1,62 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+package jhugle.bench;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/** Runs the benchmarks like org.openjdk.jmh.Main, taking the same
+ *  options, but writes results as JSON to jmh-result.json unless told
+ *  otherwise with -rf and -rff, so runs can be kept and compared.
+ *  @author Ryan Demo
+ */
+public final class BenchMain {
+
+    /** Where results go by default. */
+    static final String RESULT_FILE = "jmh-result.json";
+
+    /** Dummy constructor for utility class.
+     */
+    private BenchMain() {
+    }
+
+    /** Run the benchmarks.
+     *  @param args JMH command line options, e.g. GetBenchmark -p
+     *  impl=lp,hashmap -p size=1000000
+     *  @throws RunnerException if a benchmark fails
+     *  @throws CommandLineOptionException if the options are bad
+     *  @throws IOException if the help cannot be printed
+     */
+    public static void main(String[] args) throws RunnerException,
+            CommandLineOptionException, IOException {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp()) {
+            cmd.showHelp();
+            return;
+        }
+        if (cmd.shouldList()) {
+            new Runner(cmd).list();
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        if (!cmd.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cmd.getResult().hasValue()) {
+            options.result(RESULT_FILE);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,163 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+package jhugle.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import jhugle.FlatLPHashMap;
+import jhugle.HashStrategy;
+import jhugle.LPHashMap;
+import jhugle.MapJHU;
+import jhugle.RobinHoodLPHashMap;
+import jhugle.SwissLPHashMap;
+
+/** The map operations the benchmarks time, over either a MapJHU or a
+ *  java.util.Map, so every implementation runs the same benchmark
+ *  code behind the same one interface call.
+ *  @author Ryan Demo
+ */
+public interface BenchMap {
+
+    /** Names of the implementations make() knows. */
+    String IMPLS = "lp, lp-mixed, flat, robinhood, swiss, hashmap";
+
+    /** Get the value for a key.
+     *  @param key the key
+     *  @return the value, or null
+     */
+    Object get(Object key);
+
+    /** Put a value for a key.
+     *  @param key the key
+     *  @param value the value
+     *  @return the old value, or null
+     */
+    Object put(Object key, Object value);
+
+    /** Remove a key.
+     *  @param key the key
+     *  @return the old value, or null
+     */
+    Object remove(Object key);
+
+    /** Visit every entry.
+     *  @return the sum of the values, which are Integers
+     */
+    long sumValues();
+
+    /** Make an empty map.
+     *  @param impl one of IMPLS
+     *  @param maxLoad the max load, or load factor for a HashMap
+     *  @param expectedSize entries to size the table for, 0 for the
+     *  smallest table
+     *  @return the map
+     */
+    static BenchMap make(String impl, float maxLoad, int expectedSize) {
+        switch (impl) {
+            case "lp":
+                return new OfMapJHU(new LPHashMap<Object, Object>(
+                        maxLoad, expectedSize));
+            case "lp-mixed":
+                return new OfMapJHU(new LPHashMap<Object, Object>(
+                        maxLoad, expectedSize, HashStrategy.mixed()));
+            case "flat":
+                return new OfMapJHU(new FlatLPHashMap<Object, Object>(
+                        maxLoad, expectedSize));
+            case "robinhood":
+                return new OfMapJHU(new RobinHoodLPHashMap<Object, Object>(
+                        maxLoad, expectedSize));
+            case "swiss":
+                return new OfMapJHU(new SwissLPHashMap<Object, Object>(
+                        maxLoad, expectedSize));
+            case "hashmap":
+                int cap = (int) Math.ceil(expectedSize / (double) maxLoad);
+                return new OfMap(new HashMap<Object, Object>(
+                        Math.max(1, cap), maxLoad));
+            default:
+                throw new IllegalArgumentException(
+                        "unknown impl " + impl + ", expected " + IMPLS);
+        }
+    }
+
+    /** A MapJHU. */
+    final class OfMapJHU implements BenchMap {
+
+        /** The map. */
+        private final MapJHU<Object, Object> map;
+
+        /** Wrap a map.
+         *  @param map the map
+         */
+        OfMapJHU(MapJHU<Object, Object> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Object get(Object key) {
+            return this.map.get(key);
+        }
+
+        @Override
+        public Object put(Object key, Object value) {
+            return this.map.put(key, value);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            return this.map.remove(key);
+        }
+
+        @Override
+        public long sumValues() {
+            long sum = 0;
+            for (Map.Entry<Object, Object> entry : this.map.entries()) {
+                sum += (Integer) entry.getValue();
+            }
+            return sum;
+        }
+    }
+
+    /** A java.util.Map. */
+    final class OfMap implements BenchMap {
+
+        /** The map. */
+        private final Map<Object, Object> map;
+
+        /** Wrap a map.
+         *  @param map the map
+         */
+        OfMap(Map<Object, Object> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Object get(Object key) {
+            return this.map.get(key);
+        }
+
+        @Override
+        public Object put(Object key, Object value) {
+            return this.map.put(key, value);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            return this.map.remove(key);
+        }
+
+        @Override
+        public long sumValues() {
+            long sum = 0;
+            for (Map.Entry<Object, Object> entry : this.map.entrySet()) {
+                sum += (Integer) entry.getValue();
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+package jhugle.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Time of one get, for keys in the map and keys not in it.
+ *  @author Ryan Demo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GetBenchmark {
+
+    /** Get a key that is in the map.
+     *  @param state the map and keys
+     *  @return the value, so it is not optimized away
+     */
+    @Benchmark
+    public Object getHit(MapState state) {
+        return state.map.get(state.nextPresent());
+    }
+
+    /** Get a key that is not in the map, which probes to an empty slot.
+     *  @param state the map and keys
+     *  @return null, so the lookup is not optimized away
+     */
+    @Benchmark
+    public Object getMiss(MapState state) {
+        return state.map.get(state.nextAbsent());
+    }
+}
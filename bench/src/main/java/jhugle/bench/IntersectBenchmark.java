@@ -0,0 +1,40 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+package jhugle.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Time of one AND of a common term with a rarer one, across ratios of
+ *  their sizes, so a merge's cost in the longer list shows against a
+ *  gallop's in the shorter.
+ *  @author Ryan Demo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntersectBenchmark {
+
+    /** Intersect the two lists.
+     *  @param state the lists
+     *  @return the result, so it is not optimized away
+     */
+    @Benchmark
+    public Object and(PostingsState state) {
+        return state.and.get();
+    }
+}
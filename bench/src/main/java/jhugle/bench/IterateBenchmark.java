@@ -0,0 +1,39 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+package jhugle.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Time to visit every entry, which also walks every empty slot, so a
+ *  lower max load costs more here.
+ *  @author Ryan Demo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IterateBenchmark {
+
+    /** Sum the values of every entry.
+     *  @param state the map
+     *  @return the sum, so the walk is not optimized away
+     */
+    @Benchmark
+    public long iterate(MapState state) {
+        return state.map.sumValues();
+    }
+}
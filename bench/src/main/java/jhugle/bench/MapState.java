@@ -0,0 +1,174 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+package jhugle.bench;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.Set;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** A map of one implementation, size, max load and key distribution,
+ *  filled with size keys, plus as many keys that are not in it. Both
+ *  key lists are shuffled, so walking them visits the table in no
+ *  particular order. Each value is its key's position, as an Integer.
+ *  @author Ryan Demo
+ */
+@State(Scope.Thread)
+public class MapState {
+
+    /** Seed for the keys and the shuffles, so runs are comparable. */
+    static final long SEED = 226;
+
+    /** Shift that spaces strided keys out; their low 10 bits are all
+     *  zero, which a masked table without mixing puts in one slot. */
+    static final int STRIDE_SHIFT = 10;
+
+    /** Which map, one of BenchMap.IMPLS. */
+    @Param({"lp", "lp-mixed", "flat", "robinhood", "swiss", "hashmap"})
+    public String impl;
+
+    /** Number of entries. */
+    @Param({"1000", "1000000"})
+    public int size;
+
+    /** Max load, or load factor for a HashMap. */
+    @Param({"0.5", "0.75"})
+    public float maxLoad;
+
+    /** Key distribution: "sequential" ints 0, 1, 2..., "random" ints,
+     *  "strided" ints i << 10, or "urls", strings like JHUgle's. */
+    @Param({"sequential", "random", "strided", "urls"})
+    public String keys;
+
+    /** Keys in the map. */
+    Object[] present;
+
+    /** Keys not in the map. */
+    Object[] absent;
+
+    /** Values, by key position. */
+    Integer[] values;
+
+    /** The filled map. */
+    BenchMap map;
+
+    /** Position of the next key handed out. */
+    private int cursor;
+
+    /** Make the keys and fill the map. */
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(SEED);
+        List<Object> in = new ArrayList<Object>(this.size);
+        List<Object> out = new ArrayList<Object>(this.size);
+        this.values = new Integer[2 * this.size];
+        for (int i = 0; i < this.values.length; i++) {
+            this.values[i] = i;
+        }
+        switch (this.keys) {
+            case "sequential":
+                for (int i = 0; i < this.size; i++) {
+                    in.add(i);
+                    out.add(this.size + i);
+                }
+                break;
+            case "random":
+                Set<Integer> seen = new HashSet<Integer>();
+                while (seen.size() < 2 * this.size) {
+                    int k = random.nextInt();
+                    if (seen.add(k)) {
+                        (in.size() < this.size ? in : out).add(k);
+                    }
+                }
+                break;
+            case "strided":
+                for (int i = 0; i < this.size; i++) {
+                    in.add(i << STRIDE_SHIFT);
+                    out.add((this.size + i) << STRIDE_SHIFT);
+                }
+                break;
+            case "urls":
+                for (int i = 0; i < this.size; i++) {
+                    in.add("www.page" + i + ".com/index.html");
+                    out.add("www.page" + (this.size + i) + ".com/index.html");
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("unknown keys " + this.keys);
+        }
+        Collections.shuffle(in, random);
+        Collections.shuffle(out, random);
+        this.present = in.toArray();
+        this.absent = out.toArray();
+        this.map = this.filled(this.size);
+    }
+
+    /** Make a map holding every present key.
+     *  @param expectedSize entries to size the table for first
+     *  @return the map
+     */
+    BenchMap filled(int expectedSize) {
+        BenchMap m = BenchMap.make(this.impl, this.maxLoad, expectedSize);
+        for (int i = 0; i < this.present.length; i++) {
+            m.put(this.present[i], this.values[i]);
+        }
+        return m;
+    }
+
+    /** Get the next key in the map, wrapping around.
+     *  @return the key
+     */
+    Object nextPresent() {
+        Object key = this.present[this.cursor];
+        if (++this.cursor == this.size) {
+            this.cursor = 0;
+        }
+        return key;
+    }
+
+    /** Get the next key not in the map, wrapping around.
+     *  @return the key
+     */
+    Object nextAbsent() {
+        Object key = this.absent[this.cursor];
+        if (++this.cursor == this.size) {
+            this.cursor = 0;
+        }
+        return key;
+    }
+
+    /** Swap one key out of the map for another, leaving a tombstone in
+     *  the maps that use them. The map keeps size entries, cycling
+     *  through all 2 * size keys.
+     *  @return the removed value
+     */
+    Object churn() {
+        int i = this.cursor;
+        Object gone;
+        if (i < this.size) {
+            gone = this.map.remove(this.present[i]);
+            this.map.put(this.absent[i], this.values[this.size + i]);
+        } else {
+            int j = i - this.size;
+            gone = this.map.remove(this.absent[j]);
+            this.map.put(this.present[j], this.values[j]);
+        }
+        if (++this.cursor == 2 * this.size) {
+            this.cursor = 0;
+        }
+        return gone;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+package jhugle.bench;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import jhugle.CompressedPostings;
+import jhugle.PostingList;
+import jhugle.Postings;
+import jhugle.RoaringPostings;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Two posting lists for one AND, a common term's and a rarer term's,
+ *  the common one ratio times the longer, both drawn at random from
+ *  twice as many documents as the common term is on, held the way one
+ *  implementation would hold them.
+ *  @author Ryan Demo
+ */
+@State(Scope.Thread)
+public class PostingsState {
+
+    /** Seed for the lists, so runs are comparable. */
+    static final long SEED = 226;
+
+    /** How AND is done: "hashset", JHUgle's old copy of one URL set
+     *  and retainAll of the other; "merge" and "gallop", the int[]
+     *  algorithms; "adaptive", int[] with the choice between them;
+     *  "compressed", leapfrogging CompressedPostings cursors; or
+     *  "roaring", RoaringPostings chunk by chunk. */
+    @Param({"hashset", "merge", "gallop", "adaptive", "compressed",
+        "roaring"})
+    public String impl;
+
+    /** Documents on the common term. */
+    @Param({"1000000"})
+    public int size;
+
+    /** Common term's documents per rare term's document. */
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int ratio;
+
+    /** The AND, over lists made for impl. */
+    Supplier<Object> and;
+
+    /** Make the lists. */
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(SEED);
+        int[] common = docs(random, this.size, 2 * this.size);
+        int[] rare = docs(random, Math.max(1, this.size / this.ratio),
+                2 * this.size);
+        switch (this.impl) {
+            case "hashset":
+                Set<String> top = urls(common);
+                Set<String> below = urls(rare);
+                this.and = () -> {
+                    Set<String> both = new HashSet<String>(top);
+                    both.retainAll(below);
+                    return both;
+                };
+                break;
+            case "merge":
+                this.and = () -> Postings.mergeAnd(rare, common);
+                break;
+            case "gallop":
+                this.and = () -> Postings.gallopAnd(rare, common);
+                break;
+            case "adaptive":
+                this.and = () -> Postings.and(rare, common);
+                break;
+            case "compressed":
+                PostingList c = CompressedPostings.of(common);
+                PostingList r = CompressedPostings.of(rare);
+                this.and = () -> Postings.and(c, r);
+                break;
+            case "roaring":
+                RoaringPostings rc = RoaringPostings.of(common);
+                RoaringPostings rr = RoaringPostings.of(rare);
+                this.and = () -> RoaringPostings.and(rc, rr);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown impl "
+                        + this.impl);
+        }
+    }
+
+    /** Pick distinct documents at random.
+     *  @param random the source of randomness
+     *  @param n how many
+     *  @param range documents to pick from, > n
+     *  @return the sorted IDs
+     */
+    static int[] docs(Random random, int n, int range) {
+        BitSet picked = new BitSet(range);
+        int count = 0;
+        while (count < n) {
+            int doc = random.nextInt(range);
+            if (!picked.get(doc)) {
+                picked.set(doc);
+                count++;
+            }
+        }
+        return picked.stream().toArray();
+    }
+
+    /** Get the URLs of documents, as JHUgle kept them before doc IDs.
+     *  @param docs the IDs
+     *  @return the URLs
+     */
+    static Set<String> urls(int[] docs) {
+        Set<String> urls = new HashSet<String>();
+        for (int doc : docs) {
+            urls.add("www.page" + doc + ".com/index.html");
+        }
+        return urls;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+package jhugle.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Time to put size keys into a new map, either sized for them up
+ *  front or growing from the smallest table as they go in.
+ *  @author Ryan Demo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PutBenchmark {
+
+    /** Fill a map presized for every key, so it never rehashes.
+     *  @param state the keys
+     *  @return the map, so it is not optimized away
+     */
+    @Benchmark
+    public BenchMap putPresized(MapState state) {
+        return state.filled(state.size);
+    }
+
+    /** Fill a map from its smallest table, rehashing as it grows.
+     *  @param state the keys
+     *  @return the map, so it is not optimized away
+     */
+    @Benchmark
+    public BenchMap putGrowing(MapState state) {
+        return state.filled(0);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+Ryan Demo
+rdemo1
+600.226.01
+P2
+ */
+
+package jhugle.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Time of one remove and one put of a new key, at a steady size, so
+ *  the linear probe maps keep making tombstones and sweeping them.
+ *  @author Ryan Demo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RemoveBenchmark {
+
+    /** Remove a key and put another in its place.
+     *  @param state the map and keys
+     *  @return the removed value, so it is not optimized away
+     */
+    @Benchmark
+    public Object removeAndPut(MapState state) {
+        return state.churn();
+    }
+}